@@ -20,16 +20,28 @@
 package org.apache.fesod.sheet;
 
 import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.fesod.sheet.context.WriteContext;
+import org.apache.fesod.sheet.exception.ExcelGenerateException;
+import org.apache.fesod.sheet.util.BeanMapUtils;
 import org.apache.fesod.sheet.write.ExcelBuilder;
 import org.apache.fesod.sheet.write.ExcelBuilderImpl;
+import org.apache.fesod.sheet.write.concurrent.ConcurrentSheetWriter;
+import org.apache.fesod.sheet.write.concurrent.ConcurrentWriteConfig;
+import org.apache.fesod.sheet.write.jdbc.ResultSetRowIterator;
 import org.apache.fesod.sheet.write.metadata.WriteSheet;
 import org.apache.fesod.sheet.write.metadata.WriteTable;
 import org.apache.fesod.sheet.write.metadata.WriteWorkbook;
 import org.apache.fesod.sheet.write.metadata.fill.FillConfig;
+import org.apache.fesod.sheet.write.metadata.holder.WriteWorkbookHolder;
 
 /**
  * Excel Writer This tool is used to write value out to Excel via POI. This object can perform the following two
@@ -46,6 +58,8 @@ public class ExcelWriter implements Closeable {
 
     private final ExcelBuilder excelBuilder;
 
+    private final List<ConcurrentSheetWriter> concurrentSheetWriterList = new ArrayList<>();
+
     /**
      * Create new writer
      *
@@ -103,6 +117,108 @@ public class ExcelWriter implements Closeable {
         return this;
     }
 
+    /**
+     * Write data to a sheet. The rows are pulled from the iterator while writing, so they do not need to be in memory
+     * at once.
+     *
+     * @param iterator   Data to be written
+     * @param writeSheet Write to this sheet
+     * @return this
+     */
+    public ExcelWriter write(Iterator<?> iterator, WriteSheet writeSheet) {
+        return write(iterator, writeSheet, null);
+    }
+
+    /**
+     * Write value to a sheet. The rows are pulled from the iterator while writing, so they do not need to be in memory
+     * at once.
+     *
+     * @param iterator   Data to be written
+     * @param writeSheet Write to this sheet
+     * @param writeTable Write to this table
+     * @return this
+     */
+    public ExcelWriter write(Iterator<?> iterator, WriteSheet writeSheet, WriteTable writeTable) {
+        excelBuilder.addContent(iterator, writeSheet, writeTable);
+        return this;
+    }
+
+    /**
+     * Write data to a sheet. The stream is consumed lazily and closed after writing.
+     *
+     * @param stream     Data to be written
+     * @param writeSheet Write to this sheet
+     * @return this
+     */
+    public ExcelWriter write(Stream<?> stream, WriteSheet writeSheet) {
+        return write(stream, writeSheet, null);
+    }
+
+    /**
+     * Write value to a sheet. The stream is consumed lazily and closed after writing.
+     *
+     * @param stream     Data to be written
+     * @param writeSheet Write to this sheet
+     * @param writeTable Write to this table
+     * @return this
+     */
+    public ExcelWriter write(Stream<?> stream, WriteSheet writeSheet, WriteTable writeTable) {
+        try (Stream<?> closeableStream = stream) {
+            excelBuilder.addContent(closeableStream.iterator(), writeSheet, writeTable);
+        }
+        return this;
+    }
+
+    /**
+     * Write the rows of a result set to a sheet. The rows are read from the cursor while writing.
+     * <p>
+     * If no head is specified, the column labels are used as head.
+     *
+     * @param resultSet  Data to be written. It is not closed.
+     * @param writeSheet Write to this sheet
+     * @return this
+     */
+    public ExcelWriter write(ResultSet resultSet, WriteSheet writeSheet) {
+        return write(resultSet, writeSheet, null);
+    }
+
+    /**
+     * Write the rows of a result set to a sheet. The rows are read from the cursor while writing.
+     * <p>
+     * If no head is specified, the column labels are used as head.
+     *
+     * @param resultSet  Data to be written. It is not closed.
+     * @param writeSheet Write to this sheet
+     * @param fetchSize  Nullable. The fetch size hint given to the result set.
+     * @return this
+     */
+    public ExcelWriter write(ResultSet resultSet, WriteSheet writeSheet, Integer fetchSize) {
+        WriteWorkbookHolder writeWorkbookHolder = excelBuilder.writeContext().writeWorkbookHolder();
+        ResultSetRowIterator resultSetRowIterator;
+        try {
+            if (fetchSize != null) {
+                resultSet.setFetchSize(fetchSize);
+            }
+            // The rows converted in parallel are kept until they are written, so they can not share the row object
+            resultSetRowIterator =
+                    new ResultSetRowIterator(resultSet, writeWorkbookHolder.getConvertExecutor() == null);
+        } catch (SQLException e) {
+            throw new ExcelGenerateException("Can not read the result set.", e);
+        }
+        if (writeSheet.getHead() == null
+                && writeSheet.getClazz() == null
+                && writeWorkbookHolder.getWriteWorkbook().getHead() == null
+                && writeWorkbookHolder.getWriteWorkbook().getClazz() == null) {
+            // Keep the sheet of the caller as it is, it may be used again for other data
+            WriteSheet headWriteSheet = new WriteSheet();
+            BeanMapUtils.create(headWriteSheet).putAll(BeanMapUtils.create(writeSheet));
+            headWriteSheet.setHead(resultSetRowIterator.head());
+            writeSheet = headWriteSheet;
+        }
+        excelBuilder.addContent(resultSetRowIterator, writeSheet, null);
+        return this;
+    }
+
     /**
      * Fill value to a sheet
      *
@@ -151,12 +267,57 @@ public class ExcelWriter implements Closeable {
         return this;
     }
 
+    /**
+     * Create a writer that accepts data of a sheet from many threads.
+     *
+     * @param writeSheet Write to this sheet
+     * @return the concurrent writer, it is closed when this writer is finished
+     */
+    public ConcurrentSheetWriter concurrentWriter(WriteSheet writeSheet) {
+        return concurrentWriter(writeSheet, ConcurrentWriteConfig.builder().build());
+    }
+
+    /**
+     * Create a writer that accepts data of a sheet from many threads. This writer must not be used until it is closed.
+     *
+     * @param writeSheet            Write to this sheet
+     * @param concurrentWriteConfig Capacity and ordering of the submitted batches
+     * @return the concurrent writer, it is closed when this writer is finished
+     */
+    public ConcurrentSheetWriter concurrentWriter(WriteSheet writeSheet, ConcurrentWriteConfig concurrentWriteConfig) {
+        ConcurrentSheetWriter concurrentSheetWriter =
+                new ConcurrentSheetWriter(this, writeSheet, concurrentWriteConfig);
+        concurrentSheetWriterList.add(concurrentSheetWriter);
+        return concurrentSheetWriter;
+    }
+
     /**
      * Close IO
      */
     public void finish() {
         if (excelBuilder != null) {
-            excelBuilder.finish(false);
+            try {
+                closeConcurrentSheetWriters();
+            } finally {
+                excelBuilder.finish(false);
+            }
+        }
+    }
+
+    private void closeConcurrentSheetWriters() {
+        RuntimeException exception = null;
+        for (ConcurrentSheetWriter concurrentSheetWriter : concurrentSheetWriterList) {
+            try {
+                concurrentSheetWriter.close();
+            } catch (RuntimeException e) {
+                if (exception == null) {
+                    exception = e;
+                }
+            }
+        }
+        concurrentSheetWriterList.clear();
+        if (exception != null) {
+            throw exception;
         }
     }
 
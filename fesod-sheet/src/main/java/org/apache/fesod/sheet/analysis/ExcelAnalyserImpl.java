@@ -19,12 +19,16 @@
 
 package org.apache.fesod.sheet.analysis;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.fesod.sheet.analysis.csv.CsvExcelReadExecutor;
 import org.apache.fesod.sheet.analysis.v03.XlsSaxAnalyser;
+import org.apache.fesod.sheet.analysis.v07.EncryptedPackageDecryptor;
 import org.apache.fesod.sheet.analysis.v07.XlsxSaxAnalyser;
 import org.apache.fesod.sheet.context.AnalysisContext;
 import org.apache.fesod.sheet.context.csv.CsvReadContext;
@@ -46,10 +50,12 @@ import org.apache.fesod.sheet.util.ClassUtils;
 import org.apache.fesod.sheet.util.DateUtils;
 import org.apache.fesod.sheet.util.FileUtils;
 import org.apache.fesod.sheet.util.NumberDataFormatterUtils;
+import org.apache.fesod.sheet.util.NumberUtils;
 import org.apache.fesod.sheet.util.StringUtils;
 import org.apache.poi.hssf.OldExcelFormatException;
 import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
 import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
 import org.apache.poi.poifs.filesystem.DocumentFactoryHelper;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.util.IOUtils;
@@ -110,14 +116,25 @@ public class ExcelAnalyserImpl implements ExcelAnalyser {
         switch (excelType) {
             case XLS:
                 POIFSFileSystem poifsFileSystem;
+                File readTempFile = null;
                 // Initialize POIFSFileSystem based on whether a file or input stream is provided
                 try {
                     if (readWorkbook.getFile() != null) {
                         poifsFileSystem = new POIFSFileSystem(readWorkbook.getFile());
-                    } else {
+                    } else if (Boolean.TRUE.equals(readWorkbook.getMandatoryUseInputStream())) {
                         poifsFileSystem = new POIFSFileSystem(readWorkbook.getInputStream());
+                    } else {
+                        // The stream constructor keeps the whole container in heap, a file is read block by block
+                        readTempFile = FileUtils.createCacheTmpFile();
+                        File tempFile = new File(readTempFile.getPath(), UUID.randomUUID() + ".xls");
+                        FileUtils.writeToFile(
+                                tempFile,
+                                readWorkbook.getInputStream(),
+                                !Boolean.FALSE.equals(readWorkbook.getAutoCloseStream()));
+                        poifsFileSystem = new POIFSFileSystem(tempFile, true);
                     }
                 } catch (OldExcelFormatException oefe) {
+                    deleteTempFile(readTempFile);
                     // Very old BIFF (e.g., BIFF2) – HSSF doesn't support it. Treat as benign and no-op.
                     log.warn(
                             "Detected old Excel BIFF format not supported by HSSF: {}. Using no-op executor.",
@@ -126,22 +143,38 @@ public class ExcelAnalyserImpl implements ExcelAnalyser {
                     analysisContext = xlsReadContextFallback;
                     excelReadExecutor = new NoopExcelReadExecutor();
                     return;
+                } catch (RuntimeException | IOException e) {
+                    deleteTempFile(readTempFile);
+                    throw e;
                 }
                 // So in encrypted excel, it looks like XLS but it's actually XLSX
                 if (poifsFileSystem.getRoot().hasEntry(Decryptor.DEFAULT_POIFS_ENTRY)) {
                     InputStream decryptedStream = null;
                     try {
                         // Decrypt the Excel file and treat it as XLSX for processing
-                        decryptedStream = DocumentFactoryHelper.getDecryptedStream(
-                                poifsFileSystem.getRoot().getFileSystem(), readWorkbook.getPassword());
                         XlsxReadContext xlsxReadContext = new DefaultXlsxReadContext(readWorkbook, ExcelTypeEnum.XLSX);
                         analysisContext = xlsxReadContext;
+                        EncryptionInfo encryptionInfo = new EncryptionInfo(poifsFileSystem.getRoot());
+                        if (!Boolean.TRUE.equals(readWorkbook.getMandatoryUseInputStream())
+                                && EncryptedPackageDecryptor.isSupported(encryptionInfo)) {
+                            // Decrypt the segments straight into the file the package is opened from
+                            File decryptTempFile = FileUtils.createCacheTmpFile();
+                            xlsxReadContext.xlsxReadWorkbookHolder().setTempFile(decryptTempFile);
+                            File decryptedFile = new File(decryptTempFile.getPath(), UUID.randomUUID() + ".xlsx");
+                            new EncryptedPackageDecryptor(encryptionInfo, readWorkbook.getDecryptExecutor())
+                                    .decrypt(poifsFileSystem.getRoot(), readWorkbook.getPassword(), decryptedFile);
+                            xlsxReadContext.xlsxReadWorkbookHolder().setDecryptedFile(decryptedFile);
+                        } else {
+                            decryptedStream = DocumentFactoryHelper.getDecryptedStream(
+                                    poifsFileSystem.getRoot().getFileSystem(), readWorkbook.getPassword());
+                        }
                         excelReadExecutor = new XlsxSaxAnalyser(xlsxReadContext, decryptedStream);
                         return;
                     } finally {
                         // Close the decrypted stream and POIFSFileSystem to prevent resource leaks
                         IOUtils.closeQuietly(decryptedStream);
                         poifsFileSystem.close();
+                        deleteTempFile(readTempFile);
                     }
                 }
                 // Set the user password for processing encrypted Excel files
@@ -150,6 +183,7 @@ public class ExcelAnalyserImpl implements ExcelAnalyser {
                 }
                 XlsReadContext xlsReadContext = new DefaultXlsReadContext(readWorkbook, ExcelTypeEnum.XLS);
                 xlsReadContext.xlsReadWorkbookHolder().setPoifsFileSystem(poifsFileSystem);
+                xlsReadContext.xlsReadWorkbookHolder().setTempFile(readTempFile);
                 analysisContext = xlsReadContext;
                 excelReadExecutor = new XlsSaxAnalyser(xlsReadContext);
                 break;
@@ -171,6 +205,12 @@ public class ExcelAnalyserImpl implements ExcelAnalyser {
         }
     }
 
+    private static void deleteTempFile(File tempFile) {
+        if (tempFile != null) {
+            FileUtils.delete(tempFile);
+        }
+    }
+
     /**
      * Performs the analysis of the Excel file based on the specified sheets or all sheets.
      * Ensures proper handling of exceptions and resource cleanup in case of errors.
@@ -259,6 +299,15 @@ public class ExcelAnalyserImpl implements ExcelAnalyser {
         } catch (Throwable t) {
             throwable = t;
         }
+        try {
+            if ((readWorkbookHolder instanceof CsvReadWorkbookHolder)
+                    && ((CsvReadWorkbookHolder) readWorkbookHolder).getCsvTokenizer() != null
+                    && analysisContext.readWorkbookHolder().getAutoCloseStream()) {
+                ((CsvReadWorkbookHolder) readWorkbookHolder).getCsvTokenizer().close();
+            }
+        } catch (Throwable t) {
+            throwable = t;
+        }
 
         try {
             if (analysisContext.readWorkbookHolder().getAutoCloseStream()
@@ -290,6 +339,7 @@ public class ExcelAnalyserImpl implements ExcelAnalyser {
      */
     private void removeThreadLocalCache() {
         NumberDataFormatterUtils.removeThreadLocalCache();
+        NumberUtils.removeThreadLocalCache();
         DateUtils.removeThreadLocalCache();
         ClassUtils.removeThreadLocalCache();
     }
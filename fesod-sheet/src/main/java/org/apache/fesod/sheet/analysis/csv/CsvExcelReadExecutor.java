@@ -22,8 +22,12 @@ package org.apache.fesod.sheet.analysis.csv;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -31,9 +35,9 @@ import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.MapUtils;
-import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.fesod.sheet.analysis.ExcelReadExecutor;
 import org.apache.fesod.sheet.context.csv.CsvReadContext;
@@ -43,6 +47,7 @@ import org.apache.fesod.sheet.enums.RowTypeEnum;
 import org.apache.fesod.sheet.exception.ExcelAnalysisException;
 import org.apache.fesod.sheet.exception.ExcelAnalysisStopSheetException;
 import org.apache.fesod.sheet.metadata.Cell;
+import org.apache.fesod.sheet.metadata.csv.CsvCheckpoint;
 import org.apache.fesod.sheet.metadata.data.ReadCellData;
 import org.apache.fesod.sheet.read.metadata.ReadSheet;
 import org.apache.fesod.sheet.read.metadata.holder.ReadRowHolder;
@@ -81,12 +86,28 @@ public class CsvExcelReadExecutor implements ExcelReadExecutor {
      */
     @Override
     public void execute() {
-        CSVParser csvParser;
+        CsvReadWorkbookHolder csvReadWorkbookHolder = csvReadContext.csvReadWorkbookHolder();
+        CSVParser csvParser = null;
+        CsvTokenizer csvTokenizer = null;
+        CsvParallelReader csvParallelReader = null;
         try {
-            // Create a CSV parser instance
-            csvParser = csvParser();
-            // Store the CSV parser instance in the context for subsequent processing
-            csvReadContext.csvReadWorkbookHolder().setCsvParser(csvParser);
+            // The common formats are read by the built-in tokenizer, in parallel if an executor is set.
+            // The others are read by commons-csv.
+            if (CsvParallelReader.isSupported(csvReadWorkbookHolder)) {
+                csvParallelReader = new CsvParallelReader(csvReadWorkbookHolder);
+            } else if (CsvTokenizer.isSupported(csvReadWorkbookHolder.getCsvFormat())) {
+                OffsetReader offsetReader = reader();
+                csvTokenizer = new CsvTokenizer(offsetReader.reader, csvReadWorkbookHolder.getCsvFormat());
+                // Count the bytes, so that a checkpoint can be given for every row
+                if (CsvTokenizer.isByteCountSupported(csvReadWorkbookHolder.getCharset())) {
+                    csvTokenizer.countBytes(csvReadWorkbookHolder.getCharset(), offsetReader.startOffset);
+                }
+                csvReadWorkbookHolder.setCsvTokenizer(csvTokenizer);
+            } else {
+                csvParser = csvReadWorkbookHolder.getCsvFormat().parse(reader().reader);
+                // Store the CSV parser instance in the context for subsequent processing
+                csvReadWorkbookHolder.setCsvParser(csvParser);
+            }
         } catch (IOException e) {
             throw new ExcelAnalysisException(e);
         }
@@ -104,10 +125,25 @@ public class CsvExcelReadExecutor implements ExcelReadExecutor {
 
                 // Initialize the row index
                 int rowIndex = 0;
+                CsvCheckpoint startCheckpoint = csvReadWorkbookHolder.getStartCheckpoint();
+                if (startCheckpoint != null) {
+                    dealHeadBeforeCheckpoint(startCheckpoint);
+                    rowIndex = startCheckpoint.getRowIndex();
+                }
 
-                for (CSVRecord record : csvParser) {
-                    // Process the current record, incrementing the row index after each processing
-                    dealRecord(record, rowIndex++);
+                if (csvParallelReader != null) {
+                    csvParallelReader.read(record -> buildCellMap(record, 0), this::dealParsedRow);
+                } else if (csvTokenizer != null) {
+                    // The list is reused for every record
+                    List<String> record = new ArrayList<>();
+                    while (csvTokenizer.nextRecord(record)) {
+                        dealRecord(record, rowIndex++, csvTokenizer.byteOffset());
+                    }
+                } else {
+                    for (CSVRecord record : csvParser) {
+                        // Process the current record, incrementing the row index after each processing
+                        dealRecord(record, rowIndex++, -1);
+                    }
                 }
             } catch (ExcelAnalysisStopSheetException e) {
                 if (log.isDebugEnabled()) {
@@ -117,15 +153,10 @@ public class CsvExcelReadExecutor implements ExcelReadExecutor {
                 // Apache Commons CSV may throw UncheckedIOException wrapping an IOException when the input
                 // contains truncated quoted fields or reaches EOF unexpectedly. Treat such cases as benign
                 // and end the current sheet gracefully; otherwise, rethrow as analysis exception.
-                if (isBenignCsvParseException(e)) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("CSV parse finished early due to benign parse error: {}", e.getMessage());
-                    } else if (log.isWarnEnabled()) {
-                        log.warn("CSV parse finished early due to benign parse error.");
-                    }
-                } else {
-                    throw new ExcelAnalysisException(e);
-                }
+                dealParseException(e);
+            } catch (IOException e) {
+                // Same as above, thrown by the tokenizer
+                dealParseException(e);
             }
 
             // The last sheet is read
@@ -134,68 +165,132 @@ public class CsvExcelReadExecutor implements ExcelReadExecutor {
     }
 
     /**
-     * Initializes and returns a CSVParser instance based on the configuration provided in the CsvReadContext.
-     * This method determines the appropriate input stream and character set to create the CSV parser.
+     * When resuming at a checkpoint, read the head rows of the file again, so that the head is known.
+     * This is not possible for an input stream.
+     */
+    private void dealHeadBeforeCheckpoint(CsvCheckpoint startCheckpoint) throws IOException {
+        CsvReadWorkbookHolder csvReadWorkbookHolder = csvReadContext.csvReadWorkbookHolder();
+        if (csvReadWorkbookHolder.getMandatoryUseInputStream() || csvReadWorkbookHolder.getFile() == null) {
+            return;
+        }
+        int headRowNumber =
+                Math.min(csvReadContext.readSheetHolder().getHeadRowNumber(), startCheckpoint.getRowIndex());
+        if (headRowNumber <= 0) {
+            return;
+        }
+        ByteOrderMarkEnum byteOrderMark = ByteOrderMarkEnum.valueOfByCharsetName(
+                csvReadWorkbookHolder.getCharset().name());
+        Reader reader = buildReader(Files.newInputStream(csvReadWorkbookHolder.getFile().toPath()), byteOrderMark)
+                .reader;
+        try (CSVParser headParser = csvReadWorkbookHolder.getCsvFormat().parse(reader)) {
+            int rowIndex = 0;
+            Iterator<CSVRecord> iterator = headParser.iterator();
+            while (rowIndex < headRowNumber && iterator.hasNext()) {
+                dealRecord(iterator.next(), rowIndex++, -1);
+            }
+        }
+    }
+
+    private void dealParseException(Exception e) {
+        if (isBenignCsvParseException(e)) {
+            if (log.isDebugEnabled()) {
+                log.debug("CSV parse finished early due to benign parse error: {}", e.getMessage());
+            } else if (log.isWarnEnabled()) {
+                log.warn("CSV parse finished early due to benign parse error.");
+            }
+        } else {
+            throw new ExcelAnalysisException(e);
+        }
+    }
+
+    /**
+     * Initializes and returns a Reader based on the configuration provided in the CsvReadContext.
+     * This method determines the appropriate input stream and character set to read the CSV file.
      *
-     * @return A CSVParser instance for parsing CSV files.
+     * @return A Reader of the CSV file, with the byte offset of its first character.
      * @throws IOException If an I/O error occurs while accessing the input stream or file.
      */
-    private CSVParser csvParser() throws IOException {
+    private OffsetReader reader() throws IOException {
         // Retrieve the CsvReadWorkbookHolder instance from the CsvReadContext.
         CsvReadWorkbookHolder csvReadWorkbookHolder = csvReadContext.csvReadWorkbookHolder();
-        // Get the CSV format configuration from the CsvReadWorkbookHolder.
-        CSVFormat csvFormat = csvReadWorkbookHolder.getCsvFormat();
+        // When resuming at a checkpoint, start reading at its byte offset.
+        CsvCheckpoint startCheckpoint = csvReadWorkbookHolder.getStartCheckpoint();
+        if (startCheckpoint != null) {
+            long readerStartOffset = startCheckpoint.getByteOffset();
+            if (!csvReadWorkbookHolder.getMandatoryUseInputStream() && csvReadWorkbookHolder.getFile() != null) {
+                FileChannel fileChannel =
+                        FileChannel.open(csvReadWorkbookHolder.getFile().toPath(), StandardOpenOption.READ);
+                fileChannel.position(readerStartOffset);
+                return new OffsetReader(
+                        new InputStreamReader(Channels.newInputStream(fileChannel), csvReadWorkbookHolder.getCharset()),
+                        readerStartOffset);
+            }
+            InputStream inputStream = csvReadWorkbookHolder.getInputStream();
+            IOUtils.skipFully(inputStream, readerStartOffset);
+            return new OffsetReader(
+                    new InputStreamReader(inputStream, csvReadWorkbookHolder.getCharset()), readerStartOffset);
+        }
         // Determine the ByteOrderMarkEnum based on the character set name.
         ByteOrderMarkEnum byteOrderMark = ByteOrderMarkEnum.valueOfByCharsetName(
                 csvReadContext.csvReadWorkbookHolder().getCharset().name());
 
-        // If the configuration mandates the use of an input stream, build the CSV parser using the input stream.
+        // If the configuration mandates the use of an input stream, read the input stream.
         if (csvReadWorkbookHolder.getMandatoryUseInputStream()) {
-            return buildCsvParser(csvFormat, csvReadWorkbookHolder.getInputStream(), byteOrderMark);
+            return buildReader(csvReadWorkbookHolder.getInputStream(), byteOrderMark);
         }
 
-        // If a file is provided in the configuration, build the CSV parser using the file's input stream.
+        // If a file is provided in the configuration, read the file's input stream.
         if (csvReadWorkbookHolder.getFile() != null) {
-            return buildCsvParser(
-                    csvFormat,
-                    Files.newInputStream(csvReadWorkbookHolder.getFile().toPath()),
-                    byteOrderMark);
+            return buildReader(Files.newInputStream(csvReadWorkbookHolder.getFile().toPath()), byteOrderMark);
         }
 
-        // As a fallback, build the CSV parser using the input stream.
-        return buildCsvParser(csvFormat, csvReadWorkbookHolder.getInputStream(), byteOrderMark);
+        // As a fallback, read the input stream.
+        return buildReader(csvReadWorkbookHolder.getInputStream(), byteOrderMark);
     }
 
     /**
-     * Builds and returns a CSVParser instance based on the provided CSVFormat, InputStream, and ByteOrderMarkEnum.
+     * Builds and returns a Reader based on the provided InputStream and ByteOrderMarkEnum.
      *
      * <p>
-     * This method checks if the byteOrderMark is null. If it is null, it creates a CSVParser using the provided
+     * This method checks if the byteOrderMark is null. If it is null, it creates a Reader using the provided
      * input stream and charset. Otherwise, it wraps the input stream with a BOMInputStream to handle files with a
      * Byte Order Mark, ensuring proper decoding of the file content.
      * </p>
      *
-     * @param csvFormat     The format configuration for parsing the CSV file.
      * @param inputStream   The input stream from which the CSV data will be read.
      * @param byteOrderMark The enumeration representing the Byte Order Mark (BOM) of the file's character set.
-     * @return A CSVParser instance configured to parse the CSV data.
-     * @throws IOException If an I/O error occurs while creating the parser or reading from the input stream.
+     * @return A Reader of the CSV data, with the byte offset of its first character.
+     * @throws IOException If an I/O error occurs while reading from the input stream.
      */
-    private CSVParser buildCsvParser(CSVFormat csvFormat, InputStream inputStream, ByteOrderMarkEnum byteOrderMark)
-            throws IOException {
+    private OffsetReader buildReader(InputStream inputStream, ByteOrderMarkEnum byteOrderMark) throws IOException {
         if (byteOrderMark == null) {
-            return csvFormat.parse(new InputStreamReader(
-                    inputStream, csvReadContext.csvReadWorkbookHolder().getCharset()));
+            return new OffsetReader(
+                    new InputStreamReader(inputStream, csvReadContext.csvReadWorkbookHolder().getCharset()), 0);
+        }
+        BOMInputStream bomInputStream = new BOMInputStream(inputStream, byteOrderMark.getByteOrderMark());
+        long startOffset = bomInputStream.hasBOM() ? bomInputStream.getBOM().length() : 0;
+        return new OffsetReader(
+                new InputStreamReader(bomInputStream, csvReadContext.csvReadWorkbookHolder().getCharset()),
+                startOffset);
+    }
+
+    /**
+     * A reader of the csv file and the byte offset of its first character.
+     */
+    private static class OffsetReader {
+        private final Reader reader;
+        private final long startOffset;
+
+        OffsetReader(Reader reader, long startOffset) {
+            this.reader = reader;
+            this.startOffset = startOffset;
         }
-        return csvFormat.parse(new InputStreamReader(
-                new BOMInputStream(inputStream, byteOrderMark.getByteOrderMark()),
-                csvReadContext.csvReadWorkbookHolder().getCharset()));
     }
 
     /**
      * Processes a single CSV record and maps its content to a structured format for further analysis.
      *
-     * @param record   The CSV record to be processed.
+     * @param record   The values of the CSV record to be processed.
      * @param rowIndex The index of the current row being processed.
      *                 This method performs the following steps:
      *                 1. Initializes a `LinkedHashMap` to store cell data, ensuring the order of columns is preserved.
@@ -209,16 +304,31 @@ public class CsvExcelReadExecutor implements ExcelReadExecutor {
      *                 7. Updates the context's sheet holder with the cell map and row index.
      *                 8. Notifies the analysis event processor that the row processing has ended.
      */
-    private void dealRecord(CSVRecord record, int rowIndex) {
+    private void dealRecord(Iterable<String> record, int rowIndex, long nextRecordOffset) {
+        dealRow(buildCellMap(record, rowIndex), rowIndex, nextRecordOffset);
+    }
+
+    /**
+     * Deal with a row built on another thread, the row index of the cells is not set yet.
+     */
+    private void dealParsedRow(Map<Integer, Cell> cellMap, int rowIndex, long nextRecordOffset) {
+        for (Cell cell : cellMap.values()) {
+            ((ReadCellData<?>) cell).setRowIndex(rowIndex);
+        }
+        dealRow(cellMap, rowIndex, nextRecordOffset);
+    }
+
+    /**
+     * Build the cells of a record. It does not touch the context, so it can be called on any thread.
+     */
+    private Map<Integer, Cell> buildCellMap(Iterable<String> record, int rowIndex) {
         Map<Integer, Cell> cellMap = new LinkedHashMap<>();
-        Iterator<String> cellIterator = record.iterator();
         int columnIndex = 0;
         Boolean autoTrim =
                 csvReadContext.csvReadWorkbookHolder().globalConfiguration().getAutoTrim();
         Boolean autoStrip =
                 csvReadContext.csvReadWorkbookHolder().globalConfiguration().getAutoStrip();
-        while (cellIterator.hasNext()) {
-            String cellString = cellIterator.next();
+        for (String cellString : record) {
             ReadCellData<String> readCellData = new ReadCellData<>();
             readCellData.setRowIndex(rowIndex);
             readCellData.setColumnIndex(columnIndex);
@@ -238,7 +348,10 @@ public class CsvExcelReadExecutor implements ExcelReadExecutor {
             }
             cellMap.put(columnIndex++, readCellData);
         }
+        return cellMap;
+    }
 
+    private void dealRow(Map<Integer, Cell> cellMap, int rowIndex, long nextRecordOffset) {
         RowTypeEnum rowType = MapUtils.isEmpty(cellMap) ? RowTypeEnum.EMPTY : RowTypeEnum.DATA;
         ReadRowHolder readRowHolder = new ReadRowHolder(
                 rowIndex, rowType, csvReadContext.readWorkbookHolder().getGlobalConfiguration(), cellMap);
@@ -246,6 +359,7 @@ public class CsvExcelReadExecutor implements ExcelReadExecutor {
 
         csvReadContext.csvReadSheetHolder().setCellMap(cellMap);
         csvReadContext.csvReadSheetHolder().setRowIndex(rowIndex);
+        csvReadContext.csvReadSheetHolder().setNextRecordOffset(nextRecordOffset);
         csvReadContext.analysisEventProcessor().endRow(csvReadContext);
     }
 
@@ -0,0 +1,435 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.analysis.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.fesod.sheet.exception.ExcelAnalysisException;
+import org.apache.fesod.sheet.metadata.Cell;
+import org.apache.fesod.sheet.metadata.csv.CsvCheckpoint;
+import org.apache.fesod.sheet.read.metadata.holder.csv.CsvReadWorkbookHolder;
+
+/**
+ * Reads a csv file in chunks on several threads.
+ * <p>
+ * The file is split into byte ranges that start at a line break. To find a line break that is not inside a quoted
+ * value, the quotes of each range are counted in parallel and the parity of all the previous ranges tells whether a
+ * range starts inside quotes. The ranges are then parsed by {@link CsvTokenizer} on the executor, and the rows are
+ * handed over to the reading thread in the original order with their row index and the byte offset of the next record.
+ * <p>
+ * A quote in the middle of an unquoted value does not start a quoted value, so the count can be wrong for such files.
+ * This is detected when a range does not end at the end of a record, the rest of the file is then read on the reading
+ * thread, so the result is always the same as reading the whole file with one tokenizer.
+ *
+ *
+ */
+public class CsvParallelReader {
+    /**
+     * Default size of a range in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final File file;
+    private final CSVFormat csvFormat;
+    private final Charset charset;
+    private final Executor executor;
+    private final int chunkSize;
+    /**
+     * Nullable.
+     */
+    private final CsvCheckpoint startCheckpoint;
+    private final boolean quoteEnabled;
+    private final byte quote;
+    /**
+     * The maximum number of ranges being scanned or parsed at the same time.
+     */
+    private final int maxPendingChunks;
+
+    public CsvParallelReader(CsvReadWorkbookHolder csvReadWorkbookHolder) {
+        this.file = csvReadWorkbookHolder.getFile();
+        this.csvFormat = csvReadWorkbookHolder.getCsvFormat();
+        this.charset = csvReadWorkbookHolder.getCharset();
+        this.executor = csvReadWorkbookHolder.getParseExecutor();
+        this.chunkSize = csvReadWorkbookHolder.getChunkSize();
+        this.startCheckpoint = csvReadWorkbookHolder.getStartCheckpoint();
+        this.quoteEnabled = csvFormat.getQuoteCharacter() != null;
+        this.quote = quoteEnabled ? (byte) csvFormat.getQuoteCharacter().charValue() : 0;
+        this.maxPendingChunks = Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    /**
+     * Whether the csv can be read in parallel. A file, an executor, a format supported by {@link CsvTokenizer} and a
+     * charset in which the delimiter, the quote and the line breaks are always single ASCII bytes are required.
+     *
+     * @param csvReadWorkbookHolder workbook holder
+     * @return true if supported
+     */
+    public static boolean isSupported(CsvReadWorkbookHolder csvReadWorkbookHolder) {
+        if (csvReadWorkbookHolder.getParseExecutor() == null
+                || csvReadWorkbookHolder.getFile() == null
+                || Boolean.TRUE.equals(csvReadWorkbookHolder.getMandatoryUseInputStream())) {
+            return false;
+        }
+        CSVFormat csvFormat = csvReadWorkbookHolder.getCsvFormat();
+        if (!CsvTokenizer.isSupported(csvFormat)
+                || csvFormat.getDelimiterString().charAt(0) >= 0x80
+                || (csvFormat.getQuoteCharacter() != null && csvFormat.getQuoteCharacter() >= 0x80)) {
+            return false;
+        }
+        return CsvTokenizer.isByteCountSupported(csvReadWorkbookHolder.getCharset());
+    }
+
+    /**
+     * Read the file.
+     *
+     * @param rowBuilder  builds the cells of a record, called on the executor. The row index of the cells is set by
+     *                    the consumer.
+     * @param rowConsumer receives the rows in the original order, called on the reading thread
+     * @throws IOException if the file can not be read or is not valid csv. The rows before the error are consumed
+     *                     first.
+     */
+    public void read(
+            Function<List<String>, Map<Integer, Cell>> rowBuilder, RowConsumer rowConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = startCheckpoint == null ? startPosition(channel) : startCheckpoint.getByteOffset();
+            Boundaries boundaries = new Boundaries(channel, start, size);
+            Deque<CompletableFuture<Chunk>> parsingChunks = new ArrayDeque<>(maxPendingChunks);
+            try {
+                long chunkStart = start;
+                int rowIndex = startCheckpoint == null ? 0 : startCheckpoint.getRowIndex();
+                while (true) {
+                    while (parsingChunks.size() < maxPendingChunks && chunkStart < size) {
+                        long chunkEnd = boundaries.next();
+                        parsingChunks.add(submitParse(channel, chunkStart, chunkEnd, chunkEnd == size, rowBuilder));
+                        chunkStart = chunkEnd;
+                    }
+                    CompletableFuture<Chunk> parsingChunk = parsingChunks.poll();
+                    if (parsingChunk == null) {
+                        return;
+                    }
+                    Chunk chunk = join(parsingChunk);
+                    if (!chunk.valid) {
+                        cancel(parsingChunks);
+                        readSequentially(channel, chunk.start, size, rowBuilder, rowConsumer, rowIndex);
+                        return;
+                    }
+                    for (int i = 0; i < chunk.rows.size(); i++) {
+                        rowConsumer.accept(chunk.rows.get(i), rowIndex++, chunk.nextRecordOffsets[i]);
+                    }
+                    if (chunk.exception != null) {
+                        throw chunk.exception;
+                    }
+                }
+            } finally {
+                cancel(parsingChunks);
+                boundaries.cancel();
+            }
+        }
+    }
+
+    private long startPosition(FileChannel channel) throws IOException {
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            return 0;
+        }
+        ByteBuffer byteBuffer = ByteBuffer.allocate(UTF_8_BOM.length);
+        while (byteBuffer.hasRemaining() && channel.read(byteBuffer, byteBuffer.position()) > 0) {
+            // read the possible bom
+        }
+        if (byteBuffer.position() == UTF_8_BOM.length
+                && byteBuffer.get(0) == UTF_8_BOM[0]
+                && byteBuffer.get(1) == UTF_8_BOM[1]
+                && byteBuffer.get(2) == UTF_8_BOM[2]) {
+            return UTF_8_BOM.length;
+        }
+        return 0;
+    }
+
+    private CompletableFuture<Chunk> submitParse(
+            FileChannel channel,
+            long start,
+            long end,
+            boolean last,
+            Function<List<String>, Map<Integer, Cell>> rowBuilder) {
+        return CompletableFuture.supplyAsync(() -> parse(channel, start, end, last, rowBuilder), executor);
+    }
+
+    private Chunk parse(
+            FileChannel channel,
+            long start,
+            long end,
+            boolean last,
+            Function<List<String>, Map<Integer, Cell>> rowBuilder) {
+        Chunk chunk = new Chunk(start);
+        CsvTokenizer tokenizer = new CsvTokenizer(
+                new InputStreamReader(new RangeInputStream(channel, start, end), charset), csvFormat);
+        tokenizer.countBytes(charset, start);
+        List<String> record = new ArrayList<>();
+        try {
+            while (tokenizer.nextRecord(record)) {
+                chunk.addRow(rowBuilder.apply(record), tokenizer.byteOffset());
+            }
+        } catch (IOException e) {
+            chunk.exception = e;
+        }
+        if (!last) {
+            // Otherwise the range did not start or end at the end of a record
+            chunk.valid = chunk.exception == null && tokenizer.isAtLineStart();
+        }
+        return chunk;
+    }
+
+    private void readSequentially(
+            FileChannel channel,
+            long start,
+            long end,
+            Function<List<String>, Map<Integer, Cell>> rowBuilder,
+            RowConsumer rowConsumer,
+            int rowIndex)
+            throws IOException {
+        CsvTokenizer tokenizer = new CsvTokenizer(
+                new InputStreamReader(new RangeInputStream(channel, start, end), charset), csvFormat);
+        tokenizer.countBytes(charset, start);
+        List<String> record = new ArrayList<>();
+        while (tokenizer.nextRecord(record)) {
+            rowConsumer.accept(rowBuilder.apply(record), rowIndex++, tokenizer.byteOffset());
+        }
+    }
+
+    /**
+     * Count the quotes of a range and find the first line break outside quotes, for both the case that the range
+     * starts outside quotes and inside quotes.
+     */
+    private Scan scan(FileChannel channel, long start, long end) {
+        Scan scan = new Scan(start);
+        boolean oddQuotes = false;
+        ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = byteBuffer.array();
+        long position = start;
+        try {
+            while (position < end) {
+                byteBuffer.clear();
+                byteBuffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+                int read = channel.read(byteBuffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = bytes[i];
+                    if (quoteEnabled && b == quote) {
+                        oddQuotes = !oddQuotes;
+                        continue;
+                    }
+                    // a CR at the end of the buffer may be followed by a LF, so it is not used
+                    if (b == LF || (b == CR && i + 1 < read && bytes[i + 1] != LF)) {
+                        if (oddQuotes) {
+                            if (scan.firstLineStartIfInside < 0) {
+                                scan.firstLineStartIfInside = position + i + 1;
+                            }
+                        } else if (scan.firstLineStartIfOutside < 0) {
+                            scan.firstLineStartIfOutside = position + i + 1;
+                        }
+                    }
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new ExcelAnalysisException(e);
+        }
+        scan.oddQuotes = oddQuotes;
+        return scan;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ExcelAnalysisException(cause);
+        }
+    }
+
+    private static void cancel(Deque<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(false);
+        }
+        futures.clear();
+    }
+
+    /**
+     * Finds the start of the ranges, the ranges are scanned ahead on the executor.
+     */
+    private class Boundaries {
+        private final FileChannel channel;
+        private final long start;
+        private final long size;
+        private final Deque<CompletableFuture<Scan>> scans;
+        private long scanPosition;
+        private boolean insideQuotes;
+
+        private Boundaries(FileChannel channel, long start, long size) {
+            this.channel = channel;
+            this.start = start;
+            this.size = size;
+            this.scans = new ArrayDeque<>(maxPendingChunks);
+            // The first range starts at the start of the file, only its quotes are needed
+            this.scanPosition = quoteEnabled ? start : Math.min(size, start + chunkSize);
+            this.insideQuotes = false;
+        }
+
+        /**
+         * @return the start of the next range, or the size of the file
+         */
+        private long next() {
+            while (true) {
+                while (scans.size() < maxPendingChunks && scanPosition < size) {
+                    long scanStart = scanPosition;
+                    long scanEnd = Math.min(size, scanStart + chunkSize);
+                    scans.add(CompletableFuture.supplyAsync(() -> scan(channel, scanStart, scanEnd), executor));
+                    scanPosition = scanEnd;
+                }
+                CompletableFuture<Scan> scanFuture = scans.poll();
+                if (scanFuture == null) {
+                    return size;
+                }
+                Scan scan = join(scanFuture);
+                long lineStart = insideQuotes ? scan.firstLineStartIfInside : scan.firstLineStartIfOutside;
+                boolean firstRange = scan.start == start;
+                insideQuotes ^= scan.oddQuotes;
+                if (!firstRange && lineStart > 0 && lineStart < size) {
+                    return lineStart;
+                }
+            }
+        }
+
+        private void cancel() {
+            CsvParallelReader.cancel(scans);
+        }
+    }
+
+    private static class Scan {
+        private final long start;
+        private boolean oddQuotes;
+        private long firstLineStartIfOutside = -1;
+        private long firstLineStartIfInside = -1;
+
+        private Scan(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Receives the rows on the reading thread.
+     */
+    public interface RowConsumer {
+        /**
+         * Receive a row.
+         *
+         * @param cellMap          cells of the row
+         * @param rowIndex         row index
+         * @param nextRecordOffset byte offset of the record after this row
+         */
+        void accept(Map<Integer, Cell> cellMap, int rowIndex, long nextRecordOffset);
+    }
+
+    private static class Chunk {
+        private final long start;
+        private final List<Map<Integer, Cell>> rows = new ArrayList<>();
+        private long[] nextRecordOffsets = new long[64];
+        private IOException exception;
+        private boolean valid = true;
+
+        private Chunk(long start) {
+            this.start = start;
+        }
+
+        private void addRow(Map<Integer, Cell> cellMap, long nextRecordOffset) {
+            if (rows.size() == nextRecordOffsets.length) {
+                nextRecordOffsets = Arrays.copyOf(nextRecordOffsets, nextRecordOffsets.length << 1);
+            }
+            nextRecordOffsets[rows.size()] = nextRecordOffset;
+            rows.add(cellMap);
+        }
+    }
+
+    /**
+     * Reads a range of the file with positional reads, so that it can be used by several threads at the same time.
+     */
+    private static class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        private RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int length = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, length), position);
+            if (read < 0) {
+                return -1;
+            }
+            position += read;
+            return read;
+        }
+    }
+}
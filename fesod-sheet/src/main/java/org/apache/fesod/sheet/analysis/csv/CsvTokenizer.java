@@ -0,0 +1,448 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.analysis.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+
+/**
+ * Tokenizer for the common csv formats.
+ * <p>
+ * The input is read into a large {@code char[]} buffer and scanned for delimiters, quotes and line breaks in a tight
+ * loop. The values of a record are put into a list supplied by the caller, so no record object is created per line.
+ * The result is the same as {@link org.apache.commons.csv.CSVParser} for the formats accepted by
+ * {@link #isSupported(CSVFormat)}, the others have to be read by commons-csv.
+ *
+ *
+ */
+public class CsvTokenizer implements Closeable {
+    /**
+     * Same message as commons-csv, so that a truncated file is handled in the same way.
+     */
+    public static final String EOF_IN_QUOTE_MESSAGE = "EOF reached before encapsulated token finished";
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int END_OF_FILE = -1;
+    private static final char CR = '\r';
+    private static final char LF = '\n';
+
+    private static final int TERMINATOR_DELIMITER = 0;
+    private static final int TERMINATOR_END_OF_LINE = 1;
+    private static final int TERMINATOR_END_OF_FILE = 2;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final char delimiter;
+    private final boolean quoteEnabled;
+    private final char quote;
+    private final boolean trim;
+    private final boolean ignoreEmptyLines;
+    private final boolean trailingDelimiter;
+    private final boolean trailingData;
+    private final boolean lenientEof;
+    private final String nullString;
+    /**
+     * Used when a value spans more than one buffer or contains escaped quotes.
+     */
+    private final StringBuilder builder = new StringBuilder();
+
+    private int position;
+    private int limit;
+    private boolean endOfFile;
+    /**
+     * How the last value was terminated.
+     */
+    private int terminator;
+    /**
+     * Number of records read, used in error messages.
+     */
+    private long recordNumber;
+    /**
+     * Whether the bytes of the input are counted, see {@link #countBytes(Charset, long)}.
+     */
+    private boolean countBytes;
+
+    private boolean utf8;
+    /**
+     * Byte offset of the character at {@code countedPosition} of the buffer.
+     */
+    private long countedBytes = -1;
+
+    private int countedPosition;
+
+    public CsvTokenizer(Reader reader, CSVFormat csvFormat) {
+        this(reader, csvFormat, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvTokenizer(Reader reader, CSVFormat csvFormat, int bufferSize) {
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+        this.delimiter = csvFormat.getDelimiterString().charAt(0);
+        this.quoteEnabled = csvFormat.getQuoteCharacter() != null;
+        this.quote = quoteEnabled ? csvFormat.getQuoteCharacter() : 0;
+        this.trim = csvFormat.getTrim();
+        this.ignoreEmptyLines = csvFormat.getIgnoreEmptyLines();
+        this.trailingDelimiter = csvFormat.getTrailingDelimiter();
+        this.trailingData = csvFormat.getTrailingData();
+        this.lenientEof = csvFormat.getLenientEof();
+        this.nullString = csvFormat.getNullString();
+    }
+
+    /**
+     * Whether the bytes of the input can be counted from the characters.
+     *
+     * @param charset charset of the input
+     * @return true if supported
+     */
+    public static boolean isByteCountSupported(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    /**
+     * Count the bytes of the input, so that {@link #byteOffset()} can tell where the next record starts. Must be
+     * called before the first record is read. The count is only exact for correctly encoded input.
+     *
+     * @param charset     charset of the input, see {@link #isByteCountSupported(Charset)}
+     * @param startOffset byte offset of the first character of the input
+     */
+    public void countBytes(Charset charset, long startOffset) {
+        if (!isByteCountSupported(charset)) {
+            throw new IllegalArgumentException("Can not count the bytes of charset: " + charset);
+        }
+        this.countBytes = true;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+        this.countedBytes = startOffset;
+        this.countedPosition = position;
+    }
+
+    /**
+     * The byte offset of the input where the next record starts.
+     *
+     * @return -1 if the bytes are not counted
+     */
+    public long byteOffset() {
+        if (!countBytes) {
+            return -1;
+        }
+        countBytes(position);
+        return countedBytes;
+    }
+
+    /**
+     * Whether the format can be read by this tokenizer.
+     * Escape characters, comments, headers, multi-character delimiters, surrounding spaces and the strict quote modes
+     * are left to commons-csv.
+     *
+     * @param csvFormat csv format
+     * @return true if supported
+     */
+    public static boolean isSupported(CSVFormat csvFormat) {
+        if (csvFormat == null) {
+            return false;
+        }
+        String delimiterString = csvFormat.getDelimiterString();
+        if (delimiterString == null || delimiterString.length() != 1) {
+            return false;
+        }
+        char delimiter = delimiterString.charAt(0);
+        if (delimiter == CR || delimiter == LF) {
+            return false;
+        }
+        Character quoteCharacter = csvFormat.getQuoteCharacter();
+        if (quoteCharacter != null && (quoteCharacter == delimiter || quoteCharacter == CR || quoteCharacter == LF)) {
+            return false;
+        }
+        QuoteMode quoteMode = csvFormat.getQuoteMode();
+        return csvFormat.getEscapeCharacter() == null
+                && csvFormat.getCommentMarker() == null
+                && csvFormat.getHeader() == null
+                && !csvFormat.getIgnoreSurroundingSpaces()
+                && quoteMode != QuoteMode.ALL_NON_NULL
+                && quoteMode != QuoteMode.NON_NUMERIC;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @param record the values of the record are put here, it is cleared first
+     * @return false if there are no more records
+     * @throws IOException if the input can not be read or is not valid csv
+     */
+    public boolean nextRecord(List<String> record) throws IOException {
+        record.clear();
+        if (ignoreEmptyLines) {
+            int c = peek();
+            while (c == CR || c == LF) {
+                position++;
+                skipLineFeedAfter(c);
+                c = peek();
+            }
+        }
+        if (peek() == END_OF_FILE) {
+            return false;
+        }
+        recordNumber++;
+        while (true) {
+            String value = readValue();
+            boolean last = terminator != TERMINATOR_DELIMITER;
+            addValue(record, value, last);
+            if (last) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Whether the last record was terminated by a line break, or no record has been read yet.
+     *
+     * @return false if the input ended within a record
+     */
+    public boolean isAtLineStart() {
+        return recordNumber == 0 || terminator == TERMINATOR_END_OF_LINE;
+    }
+
+    private void addValue(List<String> record, String value, boolean last) {
+        if (trim) {
+            value = value.trim();
+        }
+        if (last && trailingDelimiter && value.isEmpty()) {
+            return;
+        }
+        if (value.equals(nullString)) {
+            value = null;
+        }
+        record.add(value);
+    }
+
+    private String readValue() throws IOException {
+        if (quoteEnabled && peek() == quote) {
+            position++;
+            String value = readQuotedValue();
+            return readAfterQuotedValue(value);
+        }
+        String value = readSimpleValue();
+        terminator = readTerminator();
+        return value;
+    }
+
+    /**
+     * Read until the delimiter or the end of the line. The terminator is not consumed.
+     */
+    private String readSimpleValue() throws IOException {
+        int start = position;
+        StringBuilder valueBuilder = null;
+        while (true) {
+            int index = position;
+            while (index < limit) {
+                char c = buffer[index];
+                if (c == delimiter || c == CR || c == LF) {
+                    break;
+                }
+                index++;
+            }
+            if (index < limit) {
+                position = index;
+                if (valueBuilder == null) {
+                    return new String(buffer, start, index - start);
+                }
+                return valueBuilder.append(buffer, start, index - start).toString();
+            }
+            valueBuilder = append(valueBuilder, start, limit);
+            if (!fill()) {
+                return valueBuilder.toString();
+            }
+            start = position;
+        }
+    }
+
+    /**
+     * Read until the closing quote, which is consumed.
+     */
+    private String readQuotedValue() throws IOException {
+        int start = position;
+        StringBuilder valueBuilder = null;
+        while (true) {
+            int index = position;
+            while (index < limit && buffer[index] != quote) {
+                index++;
+            }
+            if (index == limit) {
+                valueBuilder = append(valueBuilder, start, limit);
+                if (!fill()) {
+                    if (lenientEof) {
+                        return valueBuilder.toString();
+                    }
+                    throw new IOException("(record " + recordNumber + ") " + EOF_IN_QUOTE_MESSAGE);
+                }
+                start = position;
+                continue;
+            }
+            position = index + 1;
+            if (position == limit) {
+                valueBuilder = append(valueBuilder, start, index);
+                if (fill() && buffer[position] == quote) {
+                    valueBuilder.append(quote);
+                    position++;
+                    start = position;
+                    continue;
+                }
+                return valueBuilder.toString();
+            }
+            if (buffer[position] == quote) {
+                // escaped quote
+                valueBuilder = append(valueBuilder, start, position);
+                position++;
+                start = position;
+                continue;
+            }
+            if (valueBuilder == null) {
+                return new String(buffer, start, index - start);
+            }
+            return valueBuilder.append(buffer, start, index - start).toString();
+        }
+    }
+
+    private String readAfterQuotedValue(String value) throws IOException {
+        while (true) {
+            int c = read();
+            if (c == delimiter) {
+                terminator = TERMINATOR_DELIMITER;
+                return value;
+            }
+            if (c == CR || c == LF) {
+                skipLineFeedAfter(c);
+                terminator = TERMINATOR_END_OF_LINE;
+                return value;
+            }
+            if (c == END_OF_FILE) {
+                terminator = TERMINATOR_END_OF_FILE;
+                return value;
+            }
+            if (trailingData) {
+                value = value + (char) c;
+            } else if (!Character.isWhitespace((char) c)) {
+                throw new IOException(
+                        "Invalid char between encapsulated token and delimiter at record " + recordNumber);
+            }
+        }
+    }
+
+    private int readTerminator() throws IOException {
+        int c = read();
+        if (c == END_OF_FILE) {
+            return TERMINATOR_END_OF_FILE;
+        }
+        if (c == delimiter) {
+            return TERMINATOR_DELIMITER;
+        }
+        skipLineFeedAfter(c);
+        return TERMINATOR_END_OF_LINE;
+    }
+
+    private void skipLineFeedAfter(int c) throws IOException {
+        if (c == CR && peek() == LF) {
+            position++;
+        }
+    }
+
+    private StringBuilder append(StringBuilder valueBuilder, int start, int end) {
+        if (valueBuilder == null) {
+            valueBuilder = builder;
+            valueBuilder.setLength(0);
+        }
+        return valueBuilder.append(buffer, start, end - start);
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return END_OF_FILE;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return END_OF_FILE;
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Replace the content of the buffer with the next characters of the input.
+     *
+     * @return false if the end of the input is reached
+     */
+    private boolean fill() throws IOException {
+        if (countBytes) {
+            countBytes(limit);
+            countedPosition = 0;
+        }
+        position = 0;
+        limit = 0;
+        if (endOfFile) {
+            return false;
+        }
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            endOfFile = true;
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private void countBytes(int end) {
+        if (!utf8) {
+            countedBytes += end - countedPosition;
+            countedPosition = end;
+            return;
+        }
+        long bytes = countedBytes;
+        for (int i = countedPosition; i < end; i++) {
+            char c = buffer[i];
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // a surrogate pair is 4 bytes
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        countedBytes = bytes;
+        countedPosition = end;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -22,22 +22,21 @@ package org.apache.fesod.sheet.analysis.v03;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import org.apache.fesod.sheet.analysis.v03.handlers.BofRecordHandler;
 import org.apache.fesod.sheet.analysis.v03.handlers.BoundSheetRecordHandler;
 import org.apache.fesod.sheet.context.xls.XlsReadContext;
 import org.apache.fesod.sheet.exception.ExcelAnalysisException;
-import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder;
-import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
-import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.fesod.sheet.read.metadata.holder.xls.XlsReadWorkbookHolder;
 import org.apache.poi.hssf.eventusermodel.HSSFListener;
-import org.apache.poi.hssf.eventusermodel.HSSFRequest;
-import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
-import org.apache.poi.hssf.record.BOFRecord;
 import org.apache.poi.hssf.record.BoundSheetRecord;
 import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
 
 /**
  * In some cases, you need to know the number of sheets in advance and only read the file once in advance.
+ * <p>
+ * The sheets are listed in the workbook globals, so only the globals substream is read, the sheet streams are not.
  *
  *
  */
@@ -47,7 +46,6 @@ public class XlsListSheetListener implements HSSFListener {
 
     static {
         // Initialize the map with handlers for specific record types
-        XLS_RECORD_HANDLER_MAP.put(BOFRecord.sid, new BofRecordHandler());
         XLS_RECORD_HANDLER_MAP.put(BoundSheetRecord.sid, new BoundSheetRecordHandler());
     }
 
@@ -58,7 +56,6 @@ public class XlsListSheetListener implements HSSFListener {
      */
     public XlsListSheetListener(XlsReadContext xlsReadContext) {
         this.xlsReadContext = xlsReadContext;
-        xlsReadContext.xlsReadWorkbookHolder().setNeedReadSheet(Boolean.FALSE);
     }
 
     /**
@@ -76,22 +73,19 @@ public class XlsListSheetListener implements HSSFListener {
     }
 
     /**
-     * Executes the event-based processing of the XLS file.
-     * It sets up listeners and processes workbook events.
+     * Reads the workbook globals up to their EOF record and builds the actual sheet list from the bound sheets.
+     * The sheet list is kept in the workbook holder, so the following read does not build it again.
      */
     public void execute() {
-        MissingRecordAwareHSSFListener listener = new MissingRecordAwareHSSFListener(this);
-        HSSFListener formatListener = new FormatTrackingHSSFListener(listener);
-        HSSFEventFactory factory = new HSSFEventFactory();
-        HSSFRequest request = new HSSFRequest();
-        EventWorkbookBuilder.SheetRecordCollectingListener workbookBuildingListener =
-                new EventWorkbookBuilder.SheetRecordCollectingListener(formatListener);
-        request.addListenerForAllRecords(workbookBuildingListener);
-        try {
-            factory.processWorkbookEvents(
-                    request, xlsReadContext.xlsReadWorkbookHolder().getPoifsFileSystem());
+        XlsReadWorkbookHolder xlsReadWorkbookHolder = xlsReadContext.xlsReadWorkbookHolder();
+        xlsReadWorkbookHolder.getBoundSheetRecordList().clear();
+        DirectoryNode root = xlsReadWorkbookHolder.getPoifsFileSystem().getRoot();
+        try (DocumentInputStream inputStream =
+                root.createDocumentInputStream(XlsSaxAnalyser.workbookDirEntryName(root))) {
+            XlsSaxAnalyser.processSubstream(new RecordFactoryInputStream(inputStream, false), this);
         } catch (IOException e) {
             throw new ExcelAnalysisException(e);
         }
+        xlsReadWorkbookHolder.initActualSheetDataList();
     }
 }
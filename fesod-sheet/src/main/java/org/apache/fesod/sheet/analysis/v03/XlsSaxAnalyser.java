@@ -21,6 +21,7 @@ package org.apache.fesod.sheet.analysis.v03;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -52,6 +53,7 @@ import org.apache.fesod.sheet.exception.ExcelAnalysisStopException;
 import org.apache.fesod.sheet.exception.ExcelAnalysisStopSheetException;
 import org.apache.fesod.sheet.read.metadata.ReadSheet;
 import org.apache.fesod.sheet.read.metadata.holder.xls.XlsReadWorkbookHolder;
+import org.apache.fesod.sheet.util.SheetUtils;
 import org.apache.poi.hssf.OldExcelFormatException;
 import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder;
 import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
@@ -59,12 +61,14 @@ import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
 import org.apache.poi.hssf.eventusermodel.HSSFListener;
 import org.apache.poi.hssf.eventusermodel.HSSFRequest;
 import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.record.BOFRecord;
 import org.apache.poi.hssf.record.BlankRecord;
 import org.apache.poi.hssf.record.BoolErrRecord;
 import org.apache.poi.hssf.record.BoundSheetRecord;
 import org.apache.poi.hssf.record.DateWindow1904Record;
 import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FilePassRecord;
 import org.apache.poi.hssf.record.FormulaRecord;
 import org.apache.poi.hssf.record.HyperlinkRecord;
 import org.apache.poi.hssf.record.IndexRecord;
@@ -76,9 +80,12 @@ import org.apache.poi.hssf.record.NumberRecord;
 import org.apache.poi.hssf.record.ObjRecord;
 import org.apache.poi.hssf.record.RKRecord;
 import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
 import org.apache.poi.hssf.record.SSTRecord;
 import org.apache.poi.hssf.record.StringRecord;
 import org.apache.poi.hssf.record.TextObjectRecord;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
 
 /**
  * A text extractor for Excel files.
@@ -97,6 +104,12 @@ import org.apache.poi.hssf.record.TextObjectRecord;
 public class XlsSaxAnalyser implements HSSFListener, ExcelReadExecutor {
 
     private static final short DUMMY_RECORD_SID = -1;
+    /**
+     * sid, size, version and type of a BOF record
+     */
+    private static final int BOF_HEADER_SIZE = 8;
+
+    private static final int SKIP_BUFFER_SIZE = 64 * 1024;
     private final XlsReadContext xlsReadContext;
     private static final Map<Short, XlsRecordHandler> XLS_RECORD_HANDLER_MAP = new HashMap<Short, XlsRecordHandler>(32);
 
@@ -164,7 +177,8 @@ public class XlsSaxAnalyser implements HSSFListener, ExcelReadExecutor {
     /**
      * Executes the parsing process for the Excel file.
      * <p>
-     * This method sets up the necessary listeners and processes the workbook events using HSSFEventFactory.
+     * This method sets up the necessary listeners and processes the workbook events, see
+     * {@link #processWorkbookEvents(XlsReadWorkbookHolder)}.
      */
     @Override
     public void execute() {
@@ -175,11 +189,10 @@ public class XlsSaxAnalyser implements HSSFListener, ExcelReadExecutor {
                 new EventWorkbookBuilder.SheetRecordCollectingListener(
                         xlsReadWorkbookHolder.getFormatTrackingHSSFListener());
         xlsReadWorkbookHolder.setHssfWorkbook(workbookBuildingListener.getStubHSSFWorkbook());
-        HSSFEventFactory factory = new HSSFEventFactory();
-        HSSFRequest request = new HSSFRequest();
-        request.addListenerForAllRecords(xlsReadWorkbookHolder.getFormatTrackingHSSFListener());
+        // collected again from the workbook globals
+        xlsReadWorkbookHolder.getBoundSheetRecordList().clear();
         try {
-            factory.processWorkbookEvents(request, xlsReadWorkbookHolder.getPoifsFileSystem());
+            processWorkbookEvents(xlsReadWorkbookHolder);
         } catch (OldExcelFormatException e) {
             // POI reports very old BIFF (e.g., BIFF2) formats via OldExcelFormatException. Treat as benign:
             // stop current sheet gracefully and return without error so fuzz doesn't flag it.
@@ -204,6 +217,163 @@ public class XlsSaxAnalyser implements HSSFListener, ExcelReadExecutor {
         xlsReadContext.analysisEventProcessor().endSheet(xlsReadContext);
     }
 
+    /**
+     * Process the workbook globals, then only the streams of the sheets that need to be read. Each sheet stream is
+     * found by the offset of its BOF record in the {@link BoundSheetRecord}, so the records of the other sheets are
+     * not decoded at all. Encrypted workbooks, and workbooks whose offsets do not point to the BOF of a worksheet, are
+     * processed record by record to the end, see {@link #processSheetStreams}.
+     *
+     * @param xlsReadWorkbookHolder workbook holder
+     * @throws IOException if the workbook stream can not be read
+     */
+    private void processWorkbookEvents(XlsReadWorkbookHolder xlsReadWorkbookHolder) throws IOException {
+        HSSFListener listener = xlsReadWorkbookHolder.getFormatTrackingHSSFListener();
+        DirectoryNode root = xlsReadWorkbookHolder.getPoifsFileSystem().getRoot();
+        try (DocumentInputStream inputStream = root.createDocumentInputStream(workbookDirEntryName(root))) {
+            int size = inputStream.available();
+            RecordFactoryInputStream recordStream = new RecordFactoryInputStream(inputStream, false);
+            Boolean encrypted = processSubstream(recordStream, listener);
+            if (encrypted == null) {
+                return;
+            }
+            int position = size - inputStream.available();
+            Map<Integer, Integer> sheetPositions = encrypted ? null : sheetPositions(inputStream, position, size);
+            if (sheetPositions == null) {
+                processSheetStreams(recordStream, listener, xlsReadWorkbookHolder);
+                return;
+            }
+            byte[] buffer = new byte[SKIP_BUFFER_SIZE];
+            for (Map.Entry<Integer, Integer> entry : sheetPositions.entrySet()) {
+                skipFully(inputStream, entry.getValue() - (size - inputStream.available()), buffer);
+                xlsReadWorkbookHolder.setReadSheetIndex(entry.getKey());
+                processSubstream(new RecordFactoryInputStream(inputStream, false), listener);
+            }
+        }
+    }
+
+    /**
+     * Process all the sheet streams record by record. The streams follow each other in the order of their BOF
+     * offsets, so the n-th stream is the n-th actual sheet, the same index as when seeking. Chart and macro sheets are
+     * not read, like when seeking.
+     */
+    private static void processSheetStreams(
+            RecordFactoryInputStream recordStream, HSSFListener listener, XlsReadWorkbookHolder xlsReadWorkbookHolder) {
+        int sheetIndex = 0;
+        int bofDepth = 0;
+        boolean worksheet = false;
+        Record record;
+        while ((record = recordStream.nextRecord()) != null) {
+            if (record instanceof BOFRecord && bofDepth++ == 0) {
+                xlsReadWorkbookHolder.setReadSheetIndex(sheetIndex++);
+                worksheet = ((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET;
+            }
+            if (worksheet) {
+                listener.processRecord(record);
+            }
+            if (record instanceof EOFRecord && bofDepth > 0) {
+                bofDepth--;
+            }
+        }
+    }
+
+    /**
+     * Process the records up to the EOF that closes the first BOF.
+     *
+     * @return whether the stream is encrypted, or null if it ended before the EOF
+     */
+    static Boolean processSubstream(RecordFactoryInputStream recordStream, HSSFListener listener) {
+        boolean encrypted = false;
+        int bofDepth = 0;
+        Record record;
+        while ((record = recordStream.nextRecord()) != null) {
+            listener.processRecord(record);
+            if (record instanceof FilePassRecord) {
+                encrypted = true;
+            } else if (record instanceof BOFRecord) {
+                bofDepth++;
+            } else if (record instanceof EOFRecord && --bofDepth <= 0) {
+                return encrypted;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The offsets of the worksheets that match the sheets to read, in the order of the streams.
+     *
+     * @param inputStream workbook stream, positioned right after the workbook globals
+     * @param position    the current offset
+     * @param size        size of the workbook stream
+     * @return sheet index to offset, or null if any offset is not the BOF of a sheet stream after the globals
+     */
+    private Map<Integer, Integer> sheetPositions(DocumentInputStream inputStream, int position, int size)
+            throws IOException {
+        XlsReadWorkbookHolder xlsReadWorkbookHolder = xlsReadContext.xlsReadWorkbookHolder();
+        if (xlsReadWorkbookHolder.getActualSheetDataList() == null) {
+            xlsReadWorkbookHolder.initActualSheetDataList();
+        }
+        List<ReadSheet> actualSheetDataList = xlsReadWorkbookHolder.getActualSheetDataList();
+        BoundSheetRecord[] boundSheetRecords =
+                BoundSheetRecord.orderByBofPosition(xlsReadWorkbookHolder.getBoundSheetRecordList());
+        if (boundSheetRecords.length != actualSheetDataList.size()) {
+            return null;
+        }
+        Map<Integer, Integer> sheetPositions = new LinkedHashMap<>();
+        byte[] buffer = new byte[SKIP_BUFFER_SIZE];
+        inputStream.mark(Integer.MAX_VALUE);
+        try {
+            int lastPosition = position - 1;
+            for (int i = 0; i < boundSheetRecords.length; i++) {
+                int bofPosition = boundSheetRecords[i].getPositionOfBof();
+                if (bofPosition <= lastPosition || bofPosition > size - BOF_HEADER_SIZE) {
+                    return null;
+                }
+                lastPosition = bofPosition;
+                if (SheetUtils.match(actualSheetDataList.get(i), xlsReadContext) == null) {
+                    continue;
+                }
+                skipFully(inputStream, bofPosition - (size - inputStream.available()), buffer);
+                if (inputStream.readUShort() != BOFRecord.sid) {
+                    return null;
+                }
+                // record size and version
+                inputStream.readUShort();
+                inputStream.readUShort();
+                // charts and macros are not read
+                if (inputStream.readUShort() == BOFRecord.TYPE_WORKSHEET) {
+                    sheetPositions.put(i, bofPosition);
+                }
+            }
+            return sheetPositions;
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    /**
+     * {@link DocumentInputStream#skip(long)} allocates an array of the skipped size, so read through a small buffer.
+     */
+    private static void skipFully(DocumentInputStream inputStream, int length, byte[] buffer) {
+        while (length > 0) {
+            int count = Math.min(length, buffer.length);
+            inputStream.readFully(buffer, 0, count);
+            length -= count;
+        }
+    }
+
+    /**
+     * The name of the workbook stream, chosen the same way as
+     * {@link HSSFEventFactory#processWorkbookEvents(HSSFRequest, DirectoryNode)}.
+     */
+    static String workbookDirEntryName(DirectoryNode root) {
+        for (String name : new String[] {"WORKBOOK", "BOOK"}) {
+            if (root.hasEntry(name)) {
+                return name;
+            }
+        }
+        return InternalWorkbook.WORKBOOK_DIR_ENTRY_NAMES.get(0);
+    }
+
     protected boolean isOldExcelFormat(Throwable t) {
         for (int i = 0; i < 6 && t != null; i++, t = t.getCause()) {
             if (t instanceof OldExcelFormatException) {
@@ -19,15 +19,12 @@
 
 package org.apache.fesod.sheet.analysis.v03.handlers;
 
-import java.util.ArrayList;
 import java.util.List;
 import org.apache.fesod.sheet.context.xls.XlsReadContext;
-import org.apache.fesod.sheet.exception.ExcelAnalysisStopException;
 import org.apache.fesod.sheet.read.metadata.ReadSheet;
 import org.apache.fesod.sheet.read.metadata.holder.xls.XlsReadWorkbookHolder;
 import org.apache.fesod.sheet.util.SheetUtils;
 import org.apache.poi.hssf.record.BOFRecord;
-import org.apache.poi.hssf.record.BoundSheetRecord;
 import org.apache.poi.hssf.record.Record;
 
 /**
@@ -48,17 +45,20 @@ public class BofRecordHandler extends AbstractXlsRecordHandler {
             return;
         }
         // Init read sheet Data
-        initReadSheetDataList(xlsReadWorkbookHolder);
+        if (xlsReadWorkbookHolder.getActualSheetDataList() == null) {
+            xlsReadWorkbookHolder.initActualSheetDataList();
+        }
+        // Set by the analyser for every sheet stream, by the position of the stream among the bound sheets
         Integer readSheetIndex = xlsReadWorkbookHolder.getReadSheetIndex();
-        if (readSheetIndex == null) {
-            readSheetIndex = 0;
-            xlsReadWorkbookHolder.setReadSheetIndex(readSheetIndex);
+        List<ReadSheet> actualSheetDataList = xlsReadWorkbookHolder.getActualSheetDataList();
+        if (readSheetIndex == null || readSheetIndex >= actualSheetDataList.size()) {
+            // A stream without bound sheet
+            xlsReadWorkbookHolder.setIgnoreRecord(Boolean.TRUE);
+            xlsReadWorkbookHolder.setCurrentSheetStopped(Boolean.FALSE);
+            return;
         }
-        ReadSheet actualReadSheet =
-                xlsReadWorkbookHolder.getActualSheetDataList().get(readSheetIndex);
-        assert actualReadSheet != null : "Can't find the sheet.";
         // Copy the parameter to the current sheet
-        ReadSheet readSheet = SheetUtils.match(actualReadSheet, xlsReadContext);
+        ReadSheet readSheet = SheetUtils.match(actualSheetDataList.get(readSheetIndex), xlsReadContext);
         if (readSheet != null) {
             xlsReadContext.currentSheet(readSheet);
             xlsReadContext.xlsReadWorkbookHolder().setIgnoreRecord(Boolean.FALSE);
@@ -66,28 +66,5 @@ public class BofRecordHandler extends AbstractXlsRecordHandler {
             xlsReadContext.xlsReadWorkbookHolder().setIgnoreRecord(Boolean.TRUE);
         }
         xlsReadContext.xlsReadWorkbookHolder().setCurrentSheetStopped(Boolean.FALSE);
-        // Go read the next one
-        xlsReadWorkbookHolder.setReadSheetIndex(xlsReadWorkbookHolder.getReadSheetIndex() + 1);
-    }
-
-    private void initReadSheetDataList(XlsReadWorkbookHolder xlsReadWorkbookHolder) {
-        if (xlsReadWorkbookHolder.getActualSheetDataList() != null) {
-            return;
-        }
-        BoundSheetRecord[] boundSheetRecords =
-                BoundSheetRecord.orderByBofPosition(xlsReadWorkbookHolder.getBoundSheetRecordList());
-        List<ReadSheet> readSheetDataList = new ArrayList<>();
-        for (int i = 0; i < boundSheetRecords.length; i++) {
-            BoundSheetRecord boundSheetRecord = boundSheetRecords[i];
-            ReadSheet readSheet = new ReadSheet(i, boundSheetRecord.getSheetname());
-            readSheet.setHidden(boundSheetRecord.isHidden());
-            readSheet.setVeryHidden(boundSheetRecord.isVeryHidden());
-            readSheetDataList.add(readSheet);
-        }
-        xlsReadWorkbookHolder.setActualSheetDataList(readSheetDataList);
-        // Just need to get the list of sheets
-        if (!xlsReadWorkbookHolder.getNeedReadSheet()) {
-            throw new ExcelAnalysisStopException("Just need to get the list of sheets.");
-        }
     }
 }
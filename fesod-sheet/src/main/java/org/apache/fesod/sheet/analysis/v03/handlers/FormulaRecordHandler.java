@@ -23,7 +23,6 @@ import java.math.BigDecimal;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.fesod.sheet.analysis.v03.IgnorableXlsRecordHandler;
-import org.apache.fesod.sheet.constant.BuiltinFormats;
 import org.apache.fesod.sheet.constant.FesodSheetConstants;
 import org.apache.fesod.sheet.context.xls.XlsReadContext;
 import org.apache.fesod.sheet.enums.CellDataTypeEnum;
@@ -75,22 +74,14 @@ public class FormulaRecordHandler extends AbstractXlsRecordHandler implements Ig
                 tempCellData.setOriginalNumberValue(BigDecimal.valueOf(frec.getValue()));
                 tempCellData.setNumberValue(
                         tempCellData.getOriginalNumberValue().round(FesodSheetConstants.EXCEL_MATH_CONTEXT));
-                int dataFormat = xlsReadContext
+                DataFormatData dataFormatData = xlsReadContext
                         .xlsReadWorkbookHolder()
-                        .getFormatTrackingHSSFListener()
-                        .getFormatIndex(frec);
-                DataFormatData dataFormatData = new DataFormatData();
-                dataFormatData.setIndex((short) dataFormat);
-                dataFormatData.setFormat(BuiltinFormats.getBuiltinFormat(
-                        dataFormatData.getIndex(),
-                        xlsReadContext
-                                .xlsReadWorkbookHolder()
-                                .getFormatTrackingHSSFListener()
-                                .getFormatString(frec),
-                        xlsReadContext
-                                .readSheetHolder()
-                                .getGlobalConfiguration()
-                                .getLocale()));
+                        .dataFormatData(
+                                frec,
+                                xlsReadContext
+                                        .readSheetHolder()
+                                        .getGlobalConfiguration()
+                                        .getLocale());
                 tempCellData.setDataFormatData(dataFormatData);
                 cellMap.put((int) frec.getColumn(), tempCellData);
                 break;
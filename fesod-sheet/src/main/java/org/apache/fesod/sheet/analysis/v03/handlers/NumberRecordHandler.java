@@ -21,7 +21,6 @@ package org.apache.fesod.sheet.analysis.v03.handlers;
 
 import java.math.BigDecimal;
 import org.apache.fesod.sheet.analysis.v03.IgnorableXlsRecordHandler;
-import org.apache.fesod.sheet.constant.BuiltinFormats;
 import org.apache.fesod.sheet.context.xls.XlsReadContext;
 import org.apache.fesod.sheet.enums.RowTypeEnum;
 import org.apache.fesod.sheet.metadata.data.DataFormatData;
@@ -39,19 +38,9 @@ public class NumberRecordHandler extends AbstractXlsRecordHandler implements Ign
         NumberRecord nr = (NumberRecord) record;
         ReadCellData<?> cellData =
                 ReadCellData.newInstanceOriginal(BigDecimal.valueOf(nr.getValue()), nr.getRow(), (int) nr.getColumn());
-        short dataFormat = (short) xlsReadContext
+        DataFormatData dataFormatData = xlsReadContext
                 .xlsReadWorkbookHolder()
-                .getFormatTrackingHSSFListener()
-                .getFormatIndex(nr);
-        DataFormatData dataFormatData = new DataFormatData();
-        dataFormatData.setIndex(dataFormat);
-        dataFormatData.setFormat(BuiltinFormats.getBuiltinFormat(
-                dataFormat,
-                xlsReadContext
-                        .xlsReadWorkbookHolder()
-                        .getFormatTrackingHSSFListener()
-                        .getFormatString(nr),
-                xlsReadContext.readSheetHolder().getGlobalConfiguration().getLocale()));
+                .dataFormatData(nr, xlsReadContext.readSheetHolder().getGlobalConfiguration().getLocale());
         cellData.setDataFormatData(dataFormatData);
         xlsReadContext.xlsReadSheetHolder().getCellMap().put((int) nr.getColumn(), cellData);
         xlsReadContext.xlsReadSheetHolder().setTempRowType(RowTypeEnum.DATA);
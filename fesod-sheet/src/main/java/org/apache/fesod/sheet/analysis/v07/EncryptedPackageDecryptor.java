@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.analysis.v07;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import org.apache.fesod.sheet.exception.ExcelAnalysisException;
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.poifs.crypt.ChainingMode;
+import org.apache.poi.poifs.crypt.CipherAlgorithm;
+import org.apache.poi.poifs.crypt.CryptoFunctions;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.crypt.EncryptionHeader;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.EncryptionMode;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.LittleEndian;
+
+/**
+ * Decrypts the package of an encrypted xlsx straight into a file.
+ * <p>
+ * Agile encryption encrypts the package in independent segments of 4096 bytes, each with its own initialization
+ * vector derived from the key salt and the segment index. Standard encryption uses AES in ECB mode, so any block
+ * aligned range can be decrypted on its own as well. The segments are read from the {@code EncryptedPackage} stream on
+ * the calling thread and decrypted on the executor in batches, every batch is written to its own position of the
+ * file. Without an executor the batches are decrypted on the calling thread.
+ *
+ *
+ */
+public class EncryptedPackageDecryptor {
+    /**
+     * Size of a segment of the package.
+     */
+    public static final int SEGMENT_SIZE = 4096;
+    /**
+     * The number of segments decrypted by one task.
+     */
+    private static final int SEGMENTS_PER_BATCH = 64;
+
+    private static final Set<CipherAlgorithm> SUPPORTED_CIPHER_ALGORITHMS =
+            EnumSet.of(CipherAlgorithm.aes128, CipherAlgorithm.aes192, CipherAlgorithm.aes256);
+
+    private final EncryptionInfo encryptionInfo;
+    /**
+     * Nullable.
+     */
+    private final Executor executor;
+    /**
+     * The maximum number of batches being decrypted at the same time.
+     */
+    private final int maxPendingBatches;
+
+    public EncryptedPackageDecryptor(EncryptionInfo encryptionInfo, Executor executor) {
+        this.encryptionInfo = encryptionInfo;
+        this.executor = executor;
+        this.maxPendingBatches = Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    /**
+     * Whether the package can be decrypted by segments. Only agile and standard encryption with AES are supported,
+     * other documents are decrypted by {@link Decryptor#getDataStream(DirectoryNode)}.
+     *
+     * @param encryptionInfo encryption info of the document
+     * @return true if supported
+     */
+    public static boolean isSupported(EncryptionInfo encryptionInfo) {
+        EncryptionMode encryptionMode = encryptionInfo.getEncryptionMode();
+        return (encryptionMode == EncryptionMode.agile || encryptionMode == EncryptionMode.standard)
+                && SUPPORTED_CIPHER_ALGORITHMS.contains(encryptionInfo.getHeader().getCipherAlgorithm());
+    }
+
+    /**
+     * Decrypt the package.
+     *
+     * @param root     root of the encrypted document
+     * @param password password, the default password is also tried like {@code DocumentFactoryHelper} does
+     * @param file     where the package is written
+     * @throws IOException if the package can not be read or written
+     */
+    public void decrypt(DirectoryNode root, String password, File file) throws IOException {
+        SecretKey secretKey = secretKey(password);
+        try (DocumentInputStream inputStream = root.createDocumentInputStream(Decryptor.DEFAULT_POIFS_ENTRY);
+                FileChannel channel = FileChannel.open(
+                        file.toPath(),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            long length = inputStream.readLong();
+            long segmentCount = (length + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+            Deque<CompletableFuture<Void>> decryptingBatches = new ArrayDeque<>(maxPendingBatches);
+            // Set on failure, the batches not started yet are skipped
+            AtomicBoolean cancelled = new AtomicBoolean();
+            try {
+                for (long segment = 0; segment < segmentCount; segment += SEGMENTS_PER_BATCH) {
+                    int batchSegmentCount = (int) Math.min(SEGMENTS_PER_BATCH, segmentCount - segment);
+                    long position = segment * SEGMENT_SIZE;
+                    int plainSize = (int) (Math.min(length, position + (long) batchSegmentCount * SEGMENT_SIZE)
+                            - position);
+                    Batch batch = new Batch(
+                            (int) segment, position, plainSize, readEncrypted(inputStream, plainSize), secretKey);
+                    if (executor == null) {
+                        batch.decrypt(channel);
+                        continue;
+                    }
+                    if (decryptingBatches.size() >= maxPendingBatches) {
+                        join(decryptingBatches.poll());
+                    }
+                    decryptingBatches.add(CompletableFuture.runAsync(
+                            () -> {
+                                if (!cancelled.get()) {
+                                    batch.decrypt(channel);
+                                }
+                            },
+                            executor));
+                }
+                while (!decryptingBatches.isEmpty()) {
+                    join(decryptingBatches.poll());
+                }
+            } finally {
+                // The batches being decrypted still write to the channel, so wait for them before it is closed
+                cancelled.set(true);
+                for (CompletableFuture<Void> decryptingBatch : decryptingBatches) {
+                    try {
+                        decryptingBatch.join();
+                    } catch (CompletionException ignore) {
+                        // the first failure is already being thrown
+                    }
+                }
+            }
+        }
+    }
+
+    private SecretKey secretKey(String password) throws IOException {
+        Decryptor decryptor = Decryptor.getInstance(encryptionInfo);
+        try {
+            if ((password != null && decryptor.verifyPassword(password))
+                    || decryptor.verifyPassword(Decryptor.DEFAULT_PASSWORD)) {
+                return decryptor.getSecretKey();
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+        if (password != null) {
+            throw new EncryptedDocumentException("Password incorrect");
+        }
+        throw new EncryptedDocumentException("The supplied spreadsheet is protected, but no password was supplied");
+    }
+
+    /**
+     * The last segment is padded to the block size of the cipher, anything after it is ignored.
+     */
+    private byte[] readEncrypted(InputStream inputStream, int plainSize) throws IOException {
+        int blockSize = encryptionInfo.getHeader().getCipherAlgorithm().blockSize;
+        byte[] encrypted = new byte[(plainSize + blockSize - 1) / blockSize * blockSize];
+        if (IOUtils.readFully(inputStream, encrypted) != encrypted.length) {
+            throw new EOFException("The encrypted package is shorter than its declared size.");
+        }
+        return encrypted;
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ExcelAnalysisException(cause);
+        }
+    }
+
+    /**
+     * Consecutive segments decrypted by one task.
+     */
+    private class Batch {
+        private final int firstSegment;
+        private final long position;
+        private final int plainSize;
+        private final byte[] data;
+        private final SecretKey secretKey;
+
+        private Batch(int firstSegment, long position, int plainSize, byte[] data, SecretKey secretKey) {
+            this.firstSegment = firstSegment;
+            this.position = position;
+            this.plainSize = plainSize;
+            this.data = data;
+            this.secretKey = secretKey;
+        }
+
+        private void decrypt(FileChannel channel) {
+            try {
+                EncryptionHeader header = encryptionInfo.getHeader();
+                if (header.getChainingMode() == ChainingMode.ecb) {
+                    // standard encryption, the blocks do not depend on each other
+                    Cipher cipher = CryptoFunctions.getCipher(
+                            secretKey,
+                            header.getCipherAlgorithm(),
+                            ChainingMode.ecb,
+                            null,
+                            Cipher.DECRYPT_MODE,
+                            "NoPadding");
+                    cipher.doFinal(data, 0, data.length, data, 0);
+                } else {
+                    decryptSegments(header);
+                }
+                ByteBuffer byteBuffer = ByteBuffer.wrap(data, 0, plainSize);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer, position + byteBuffer.position());
+                }
+            } catch (GeneralSecurityException | IOException e) {
+                throw new ExcelAnalysisException("Can not decrypt the package.", e);
+            }
+        }
+
+        /**
+         * Every segment has its own initialization vector.
+         */
+        private void decryptSegments(EncryptionHeader header) throws GeneralSecurityException {
+            Cipher cipher = null;
+            byte[] blockKey = new byte[LittleEndian.INT_SIZE];
+            for (int offset = 0; offset < data.length; offset += SEGMENT_SIZE) {
+                LittleEndian.putInt(blockKey, 0, firstSegment + offset / SEGMENT_SIZE);
+                byte[] iv = CryptoFunctions.generateIv(
+                        header.getHashAlgorithm(), header.getKeySalt(), blockKey, header.getBlockSize());
+                if (cipher == null) {
+                    cipher = CryptoFunctions.getCipher(
+                            secretKey,
+                            header.getCipherAlgorithm(),
+                            header.getChainingMode(),
+                            iv,
+                            Cipher.DECRYPT_MODE,
+                            "NoPadding");
+                } else {
+                    cipher.init(Cipher.DECRYPT_MODE, secretKey, new IvParameterSpec(iv));
+                }
+                int segmentSize = Math.min(SEGMENT_SIZE, data.length - offset);
+                cipher.doFinal(data, offset, segmentSize, data, offset);
+            }
+        }
+    }
+}
@@ -22,6 +22,8 @@ package org.apache.fesod.sheet.analysis.v07;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -37,6 +39,9 @@ import org.apache.fesod.sheet.analysis.ExcelReadExecutor;
 import org.apache.fesod.sheet.analysis.v07.handlers.sax.SharedStringsTableHandler;
 import org.apache.fesod.sheet.analysis.v07.handlers.sax.XlsxRowHandler;
 import org.apache.fesod.sheet.cache.ReadCache;
+import org.apache.fesod.sheet.cache.RecordingReadCache;
+import org.apache.fesod.sheet.cache.WorkbookCacheEntry;
+import org.apache.fesod.sheet.cache.WorkbookCacheStore;
 import org.apache.fesod.sheet.context.xlsx.XlsxReadContext;
 import org.apache.fesod.sheet.enums.CellExtraTypeEnum;
 import org.apache.fesod.sheet.exception.ExcelAnalysisException;
@@ -95,11 +100,18 @@ public class XlsxSaxAnalyser implements ExcelReadExecutor {
     private final XlsxReadContext xlsxReadContext;
     private final List<ReadSheet> sheetList;
     private final Map<Integer, InputStream> sheetMap;
-    private final Map<String, CTSheet> ctSheetMap;
+    /**
+     * The sheets of {@code workbook.xml} that are read, key: sheet name
+     */
+    private final Map<String, ReadSheet> workbookSheetMap;
     /**
      * excel comments key: sheetNo value: CommentsTable
      */
     private final Map<Integer, CommentsTable> commentsTableMap;
+    /**
+     * Key of the workbook in the workbook cache store, null if it is not stored
+     */
+    private String workbookCacheKey;
 
     public XlsxSaxAnalyser(XlsxReadContext xlsxReadContext, InputStream decryptedStream) throws Exception {
         this.xlsxReadContext = xlsxReadContext;
@@ -108,30 +120,28 @@ public class XlsxSaxAnalyser implements ExcelReadExecutor {
 
         OPCPackage pkg = readOpcPackage(xlsxReadWorkbookHolder, decryptedStream);
         xlsxReadWorkbookHolder.setOpcPackage(pkg);
+        XSSFReader xssfReader = new XSSFReader(pkg);
 
-        // Read the Shared information Strings
-        PackagePart sharedStringsTablePackagePart = pkg.getPart(SHARED_STRINGS_PART_NAME);
-        if (sharedStringsTablePackagePart != null) {
-            // Specify default cache
-            defaultReadCache(xlsxReadWorkbookHolder, sharedStringsTablePackagePart);
-
-            // Analysis sharedStringsTable.xml
-            analysisSharedStringsTable(sharedStringsTablePackagePart.getInputStream(), xlsxReadWorkbookHolder);
+        WorkbookCacheStore workbookCacheStore = xlsxReadWorkbookHolder.getWorkbookCacheStore();
+        WorkbookCacheEntry workbookCacheEntry = null;
+        if (workbookCacheKey != null) {
+            workbookCacheEntry = workbookCacheStore.load(workbookCacheKey);
+        }
+        if (workbookCacheEntry != null) {
+            // The shared strings, styles and sheets have been analysed by a previous read
+            loadWorkbookCacheEntry(workbookCacheEntry, xlsxReadWorkbookHolder);
+        } else {
+            workbookCacheEntry = analysisWorkbook(pkg, xssfReader, xlsxReadWorkbookHolder);
         }
-
-        XSSFReader xssfReader = new XSSFReader(pkg);
-        analysisUse1904WindowDate(xssfReader, xlsxReadWorkbookHolder);
-        // set style table
-        setStylesTable(xlsxReadWorkbookHolder, xssfReader);
 
         sheetList = new ArrayList<>();
         sheetMap = new HashMap<>();
         commentsTableMap = new HashMap<>();
-        ctSheetMap = new HashMap<>();
+        workbookSheetMap = new HashMap<>();
         Map<Integer, PackageRelationshipCollection> packageRelationshipCollectionMap = MapUtils.newHashMap();
         xlsxReadWorkbookHolder.setPackageRelationshipCollectionMap(packageRelationshipCollectionMap);
-        // analysis CTSheet
-        analysisCtSheetMap(xssfReader, xlsxReadWorkbookHolder);
+        // analysis the sheets of workbook.xml
+        analysisWorkbookSheetMap(workbookCacheEntry.getSheetList(), xlsxReadWorkbookHolder);
 
         XSSFReader.SheetIterator ite = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
         int index = 0;
@@ -141,13 +151,13 @@ public class XlsxSaxAnalyser implements ExcelReadExecutor {
         while (ite.hasNext()) {
             InputStream inputStream = ite.next();
             String sheetName = ite.getSheetName();
-            CTSheet ctSheet = ctSheetMap.get(sheetName);
-            if (ctSheet == null) {
+            ReadSheet workbookSheet = workbookSheetMap.get(sheetName);
+            if (workbookSheet == null) {
                 continue;
             }
             ReadSheet readSheet = new ReadSheet(index, sheetName);
-            readSheet.setHidden(ctSheet.getState() == STSheetState.HIDDEN);
-            readSheet.setVeryHidden(ctSheet.getState() == STSheetState.VERY_HIDDEN);
+            readSheet.setHidden(workbookSheet.isHidden());
+            readSheet.setVeryHidden(workbookSheet.isVeryHidden());
             sheetList.add(readSheet);
             sheetMap.put(index, inputStream);
             if (xlsxReadContext.readWorkbookHolder().getExtraReadSet().contains(CellExtraTypeEnum.COMMENT)) {
@@ -178,6 +188,7 @@ public class XlsxSaxAnalyser implements ExcelReadExecutor {
     private void setStylesTable(XlsxReadWorkbookHolder xlsxReadWorkbookHolder, XSSFReader xssfReader) {
         try {
             xlsxReadWorkbookHolder.setStylesTable(xssfReader.getStylesTable());
+            xlsxReadWorkbookHolder.initDateFormatIndexCache();
         } catch (Exception e) {
             log.warn(
                     "Currently excel cannot get style information, but it doesn't affect the data analysis.You can try to"
@@ -193,20 +204,11 @@ public class XlsxSaxAnalyser implements ExcelReadExecutor {
         readCache.init(xlsxReadContext);
     }
 
-    private void analysisUse1904WindowDate(XSSFReader xssfReader, XlsxReadWorkbookHolder xlsxReadWorkbookHolder)
-            throws Exception {
+    private void analysisUse1904WindowDate(Boolean use1904windowing, XlsxReadWorkbookHolder xlsxReadWorkbookHolder) {
         if (xlsxReadWorkbookHolder.getReadWorkbook().getUse1904windowing() != null) {
             return;
         }
-        InputStream workbookXml = xssfReader.getWorkbookData();
-        WorkbookDocument ctWorkbook = WorkbookDocument.Factory.parse(workbookXml);
-        CTWorkbook wb = ctWorkbook.getWorkbook();
-        CTWorkbookPr prefix = wb.getWorkbookPr();
-        if (prefix != null && prefix.getDate1904()) {
-            xlsxReadWorkbookHolder.getGlobalConfiguration().setUse1904windowing(Boolean.TRUE);
-        } else {
-            xlsxReadWorkbookHolder.getGlobalConfiguration().setUse1904windowing(Boolean.FALSE);
-        }
+        xlsxReadWorkbookHolder.getGlobalConfiguration().setUse1904windowing(use1904windowing);
     }
 
     private void analysisSharedStringsTable(
@@ -216,23 +218,97 @@ public class XlsxSaxAnalyser implements ExcelReadExecutor {
         xlsxReadWorkbookHolder.getReadCache().putFinished();
     }
 
-    private void analysisCtSheetMap(XSSFReader xssfReader, XlsxReadWorkbookHolder xlsxReadWorkbookHolder)
-            throws Exception {
-        CTWorkbook wb =
-                WorkbookDocument.Factory.parse(xssfReader.getWorkbookData()).getWorkbook();
-        for (CTSheet ctSheet : wb.getSheets().getSheetList()) {
-            boolean isHidden =
-                    (ctSheet.getState() == STSheetState.HIDDEN) || (ctSheet.getState() == STSheetState.VERY_HIDDEN);
+    /**
+     * Analysis the shared strings, styles and sheets of the workbook, and keep them in the workbook cache store if
+     * there is one.
+     */
+    private WorkbookCacheEntry analysisWorkbook(
+            OPCPackage pkg, XSSFReader xssfReader, XlsxReadWorkbookHolder xlsxReadWorkbookHolder) throws Exception {
+        RecordingReadCache recordingReadCache = null;
+        try {
+            // Read the Shared information Strings
+            PackagePart sharedStringsTablePackagePart = pkg.getPart(SHARED_STRINGS_PART_NAME);
+            if (sharedStringsTablePackagePart != null) {
+                // Specify default cache
+                defaultReadCache(xlsxReadWorkbookHolder, sharedStringsTablePackagePart);
+                if (workbookCacheKey != null) {
+                    recordingReadCache = xlsxReadWorkbookHolder
+                            .getWorkbookCacheStore()
+                            .record(xlsxReadWorkbookHolder.getReadCache());
+                    xlsxReadWorkbookHolder.setReadCache(recordingReadCache);
+                }
+
+                // Analysis sharedStringsTable.xml
+                analysisSharedStringsTable(sharedStringsTablePackagePart.getInputStream(), xlsxReadWorkbookHolder);
+            }
+
+            WorkbookCacheEntry workbookCacheEntry = new WorkbookCacheEntry();
+            CTWorkbook wb =
+                    WorkbookDocument.Factory.parse(xssfReader.getWorkbookData()).getWorkbook();
+            CTWorkbookPr prefix = wb.getWorkbookPr();
+            workbookCacheEntry.setUse1904windowing(prefix != null && prefix.getDate1904());
+            analysisUse1904WindowDate(workbookCacheEntry.getUse1904windowing(), xlsxReadWorkbookHolder);
+            List<ReadSheet> workbookSheetList = new ArrayList<>();
+            for (CTSheet ctSheet : wb.getSheets().getSheetList()) {
+                ReadSheet readSheet = new ReadSheet(workbookSheetList.size(), ctSheet.getName());
+                readSheet.setHidden(ctSheet.getState() == STSheetState.HIDDEN);
+                readSheet.setVeryHidden(ctSheet.getState() == STSheetState.VERY_HIDDEN);
+                workbookSheetList.add(readSheet);
+            }
+            workbookCacheEntry.setSheetList(workbookSheetList);
+
+            // set style table
+            setStylesTable(xlsxReadWorkbookHolder, xssfReader);
+
+            if (workbookCacheKey != null) {
+                workbookCacheEntry.setDataFormatDataList(xlsxReadWorkbookHolder.workbookDataFormatDataList());
+                xlsxReadWorkbookHolder
+                        .getWorkbookCacheStore()
+                        .save(workbookCacheKey, workbookCacheEntry, recordingReadCache);
+            }
+            return workbookCacheEntry;
+        } finally {
+            if (recordingReadCache != null) {
+                xlsxReadWorkbookHolder.setReadCache(recordingReadCache.getDelegate());
+                recordingReadCache.close();
+            }
+        }
+    }
+
+    private void loadWorkbookCacheEntry(
+            WorkbookCacheEntry workbookCacheEntry, XlsxReadWorkbookHolder xlsxReadWorkbookHolder) {
+        if (workbookCacheEntry.getReadCache() != null) {
+            xlsxReadWorkbookHolder.setReadCache(workbookCacheEntry.getReadCache());
+            workbookCacheEntry.getReadCache().init(xlsxReadContext);
+        }
+        analysisUse1904WindowDate(workbookCacheEntry.getUse1904windowing(), xlsxReadWorkbookHolder);
+        xlsxReadWorkbookHolder.initDataFormatDataCache(workbookCacheEntry.getDataFormatDataList());
+    }
+
+    private void analysisWorkbookSheetMap(
+            List<ReadSheet> workbookSheetList, XlsxReadWorkbookHolder xlsxReadWorkbookHolder) {
+        for (ReadSheet readSheet : workbookSheetList) {
+            boolean isHidden = readSheet.isHidden() || readSheet.isVeryHidden();
             if (Boolean.FALSE.equals(xlsxReadWorkbookHolder.getIgnoreHiddenSheet()) || !isHidden) {
-                ctSheetMap.put(ctSheet.getName(), ctSheet);
+                workbookSheetMap.put(readSheet.getSheetName(), readSheet);
             }
         }
     }
 
     private OPCPackage readOpcPackage(XlsxReadWorkbookHolder xlsxReadWorkbookHolder, InputStream decryptedStream)
             throws Exception {
+        // The store keeps the strings in plain text, so an encrypted workbook is never stored
+        boolean useWorkbookCacheStore = xlsxReadWorkbookHolder.getWorkbookCacheStore() != null
+                && xlsxReadWorkbookHolder.getDecryptedFile() == null
+                && decryptedStream == null;
         try {
+            if (xlsxReadWorkbookHolder.getDecryptedFile() != null) {
+                return OPCPackage.open(xlsxReadWorkbookHolder.getDecryptedFile(), PackageAccess.READ);
+            }
             if (decryptedStream == null && xlsxReadWorkbookHolder.getFile() != null) {
+                if (useWorkbookCacheStore) {
+                    workbookCacheKey = WorkbookCacheStore.key(xlsxReadWorkbookHolder.getFile());
+                }
                 return OPCPackage.open(xlsxReadWorkbookHolder.getFile());
             }
             if (xlsxReadWorkbookHolder.getMandatoryUseInputStream()) {
@@ -245,11 +321,21 @@ public class XlsxSaxAnalyser implements ExcelReadExecutor {
             File readTempFile = FileUtils.createCacheTmpFile();
             xlsxReadWorkbookHolder.setTempFile(readTempFile);
             File tempFile = new File(readTempFile.getPath(), UUID.randomUUID() + ".xlsx");
+            InputStream inputStream =
+                    decryptedStream != null ? decryptedStream : xlsxReadWorkbookHolder.getInputStream();
+            MessageDigest digest = null;
+            if (useWorkbookCacheStore) {
+                // the content is hashed while it is copied
+                digest = WorkbookCacheStore.newDigest();
+                inputStream = new DigestInputStream(inputStream, digest);
+            }
             if (decryptedStream != null) {
-                FileUtils.writeToFile(tempFile, decryptedStream, false);
+                FileUtils.writeToFile(tempFile, inputStream, false);
             } else {
-                FileUtils.writeToFile(
-                        tempFile, xlsxReadWorkbookHolder.getInputStream(), xlsxReadWorkbookHolder.getAutoCloseStream());
+                FileUtils.writeToFile(tempFile, inputStream, xlsxReadWorkbookHolder.getAutoCloseStream());
+            }
+            if (digest != null) {
+                workbookCacheKey = WorkbookCacheStore.key(digest);
             }
             return OPCPackage.open(tempFile, PackageAccess.READ);
         } catch (NotOfficeXmlFileException | InvalidFormatException e) {
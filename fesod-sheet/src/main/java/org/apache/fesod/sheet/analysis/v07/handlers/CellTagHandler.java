@@ -85,7 +85,7 @@ public class CellTagHandler extends AbstractXlsxTagHandler {
                     break;
                 }
                 String stringValue =
-                        xlsxReadContext.readWorkbookHolder().getReadCache().get(Integer.valueOf(tempDataString));
+                        xlsxReadContext.readWorkbookHolder().getReadCache().get(Integer.parseInt(tempDataString));
                 tempCellData.setStringValue(stringValue);
                 break;
             case DIRECT_STRING:
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.fesod.sheet.context.AnalysisContext;
+
+/**
+ * Keeps the strings as UTF-8 bytes in one array, with the end offset of each string in another.
+ * <p>
+ * Much smaller than {@link MapCache}, which keeps a {@link String} object per value, at the cost of decoding the value
+ * on every lookup.
+ *
+ *
+ */
+public class ArenaCache implements ReadCache {
+    private byte[] arena;
+    /**
+     * End offset of each value in the arena, {@code -1 - end} for a null value.
+     */
+    private int[] ends;
+
+    private int size;
+    private int count;
+
+    public ArenaCache() {
+        this(1024, 16);
+    }
+
+    /**
+     * @param expectedSize expected size of all the values in UTF-8. unit byte.
+     * @param expectedCount expected number of values.
+     */
+    public ArenaCache(int expectedSize, int expectedCount) {
+        this.arena = new byte[Math.max(expectedSize, 16)];
+        this.ends = new int[Math.max(expectedCount, 16)];
+    }
+
+    @Override
+    public void init(AnalysisContext analysisContext) {}
+
+    @Override
+    public void put(String value) {
+        if (count == ends.length) {
+            ends = Arrays.copyOf(ends, grow(ends.length, count + 1));
+        }
+        if (value == null) {
+            ends[count++] = -1 - size;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (arena.length - size < bytes.length) {
+            arena = Arrays.copyOf(arena, grow(arena.length, (long) size + bytes.length));
+        }
+        System.arraycopy(bytes, 0, arena, size, bytes.length);
+        size += bytes.length;
+        ends[count++] = size;
+    }
+
+    @Override
+    public String get(Integer key) {
+        if (key == null) {
+            return null;
+        }
+        return get(key.intValue());
+    }
+
+    @Override
+    public String get(int key) {
+        if (key < 0) {
+            return null;
+        }
+        if (key >= count) {
+            throw new IndexOutOfBoundsException("Index: " + key + ", Size: " + count);
+        }
+        int end = ends[key];
+        if (end < 0) {
+            return null;
+        }
+        int start = key == 0 ? 0 : ends[key - 1];
+        if (start < 0) {
+            start = -1 - start;
+        }
+        return new String(arena, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void putFinished() {
+        if (arena.length - size > arena.length / 8) {
+            arena = Arrays.copyOf(arena, size);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        arena = null;
+        ends = null;
+    }
+
+    private static int grow(int length, long minLength) {
+        if (minLength > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many shared strings for the arena cache.");
+        }
+        long newLength = Math.max((long) length + (length >> 1), minLength);
+        return (int) Math.min(newLength, Integer.MAX_VALUE - 8);
+    }
+}
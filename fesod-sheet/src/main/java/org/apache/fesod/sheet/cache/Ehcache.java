@@ -151,7 +151,15 @@ public class Ehcache implements ReadCache {
 
     @Override
     public String get(Integer key) {
-        if (key == null || key < 0) {
+        if (key == null) {
+            return null;
+        }
+        return get(key.intValue());
+    }
+
+    @Override
+    public String get(int key) {
+        if (key < 0) {
             return null;
         }
         int route = key / BATCH_COUNT;
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.apache.fesod.sheet.context.AnalysisContext;
+
+/**
+ * Shared strings loaded from a {@link WorkbookCacheStore} entry.
+ * <p>
+ * The strings stay in the mapped file and are decoded on every lookup through the offset index at the end of the
+ * strings, so a repeated read neither parses {@code sharedStrings.xml} nor keeps the strings on the heap. The file is
+ * mapped in segments, so it may be larger than 2 GB. The entry can not be evicted from the store until the cache is
+ * destroyed.
+ *
+ *
+ */
+public class MappedReadCache implements ReadCache {
+    /**
+     * Size of a mapped segment. Strings and offsets may span two segments.
+     */
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /**
+     * The strings as length prefixed UTF-8 bytes followed by the offset of each string.
+     */
+    private final ByteBuffer[] segments;
+    /**
+     * Where the offset index starts.
+     */
+    private final long indexPosition;
+    /**
+     * Number of strings.
+     */
+    private final int count;
+
+    private final WorkbookCacheStore workbookCacheStore;
+    private final String key;
+    private boolean destroyed;
+
+    MappedReadCache(
+            ByteBuffer[] segments, long indexPosition, int count, WorkbookCacheStore workbookCacheStore, String key) {
+        this.segments = segments;
+        this.indexPosition = indexPosition;
+        this.count = count;
+        this.workbookCacheStore = workbookCacheStore;
+        this.key = key;
+    }
+
+    @Override
+    public void init(AnalysisContext analysisContext) {}
+
+    /**
+     * Does nothing. The shared strings are already loaded from the store, so {@code sharedStrings.xml} is not parsed.
+     *
+     * @param value cache value
+     */
+    @Override
+    public void put(String value) {}
+
+    @Override
+    public String get(Integer key) {
+        if (key == null) {
+            return null;
+        }
+        return get(key.intValue());
+    }
+
+    @Override
+    public String get(int key) {
+        if (key < 0) {
+            return null;
+        }
+        if (key >= count) {
+            throw new IndexOutOfBoundsException("Index: " + key + ", Size: " + count);
+        }
+        long offset = getLong(indexPosition + key * 8L);
+        int length = getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        offset += 4;
+        for (int i = 0; i < length; i++) {
+            bytes[i] = get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void putFinished() {}
+
+    @Override
+    public void destroy() {
+        if (destroyed) {
+            return;
+        }
+        destroyed = true;
+        workbookCacheStore.release(key);
+    }
+
+    private byte get(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private int getInt(long position) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (get(position + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private long getLong(long position) {
+        return ((long) getInt(position) << 32) | (getInt(position + 4) & 0xFFFFFFFFL);
+    }
+}
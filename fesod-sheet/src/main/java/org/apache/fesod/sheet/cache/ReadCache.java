@@ -53,6 +53,17 @@ public interface ReadCache {
      */
     String get(Integer key);
 
+    /**
+     * Get value without boxing the index
+     *
+     * @param key
+     *            Index
+     * @return Value
+     */
+    default String get(int key) {
+        return get(Integer.valueOf(key));
+    }
+
     /**
      * It's called when all the values are put in
      */
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fesod.sheet.context.AnalysisContext;
+import org.apache.fesod.sheet.util.FileUtils;
+
+/**
+ * Passes the shared strings to the selected cache and writes them to temporary files at the same time, so that they
+ * can be saved in a {@link WorkbookCacheStore} once the workbook is analysed.
+ * <p>
+ * If the strings can not be written the recording stops, the read itself is not affected.
+ *
+ *
+ */
+@Slf4j
+public class RecordingReadCache implements ReadCache, Closeable {
+    /**
+     * The cache used by the current read.
+     */
+    @Getter
+    private final ReadCache delegate;
+    /**
+     * Length prefixed UTF-8 bytes of the strings.
+     */
+    @Getter
+    private final File dataFile;
+    /**
+     * Offset of each string in {@link #dataFile}.
+     */
+    @Getter
+    private final File indexFile;
+
+    private DataOutputStream dataOutputStream;
+    private DataOutputStream indexOutputStream;
+    /**
+     * Size of {@link #dataFile}.
+     */
+    @Getter
+    private long dataLength;
+    /**
+     * Number of strings.
+     */
+    @Getter
+    private int count;
+    /**
+     * Whether all the strings have been written.
+     */
+    private boolean failed;
+
+    RecordingReadCache(ReadCache delegate, File dataFile, File indexFile) {
+        this.delegate = delegate;
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+    }
+
+    @Override
+    public void init(AnalysisContext analysisContext) {
+        delegate.init(analysisContext);
+    }
+
+    @Override
+    public void put(String value) {
+        delegate.put(value);
+        if (failed) {
+            return;
+        }
+        try {
+            if (dataOutputStream == null) {
+                dataOutputStream =
+                        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile), 64 * 1024));
+                indexOutputStream =
+                        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile), 64 * 1024));
+            }
+            indexOutputStream.writeLong(dataLength);
+            if (value == null) {
+                dataOutputStream.writeInt(-1);
+                dataLength += 4;
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                dataOutputStream.writeInt(bytes.length);
+                dataOutputStream.write(bytes);
+                dataLength += 4 + bytes.length;
+            }
+            count++;
+        } catch (IOException e) {
+            log.warn("Can not record the shared strings, the workbook will not be cached.", e);
+            failed = true;
+            closeStreams();
+        }
+    }
+
+    @Override
+    public String get(Integer key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public String get(int key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public void putFinished() {
+        delegate.putFinished();
+    }
+
+    /**
+     * Flush the strings to the temporary files.
+     *
+     * @return whether all the strings have been written
+     */
+    boolean finish() {
+        if (failed) {
+            return false;
+        }
+        try {
+            if (dataOutputStream != null) {
+                dataOutputStream.close();
+                indexOutputStream.close();
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Can not record the shared strings, the workbook will not be cached.", e);
+            failed = true;
+            return false;
+        } finally {
+            dataOutputStream = null;
+            indexOutputStream = null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            close();
+        } finally {
+            delegate.destroy();
+        }
+    }
+
+    /**
+     * Delete the temporary files, the delegate is kept.
+     */
+    @Override
+    public void close() {
+        closeStreams();
+        FileUtils.delete(dataFile);
+        FileUtils.delete(indexFile);
+    }
+
+    private void closeStreams() {
+        try {
+            if (dataOutputStream != null) {
+                dataOutputStream.close();
+            }
+        } catch (IOException ignore) {
+        }
+        try {
+            if (indexOutputStream != null) {
+                indexOutputStream.close();
+            }
+        } catch (IOException ignore) {
+        }
+        dataOutputStream = null;
+        indexOutputStream = null;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.cache;
+
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.fesod.sheet.metadata.data.DataFormatData;
+import org.apache.fesod.sheet.read.metadata.ReadSheet;
+
+/**
+ * What a {@link WorkbookCacheStore} keeps of a workbook.
+ *
+ *
+ */
+@Getter
+@Setter
+@EqualsAndHashCode
+public class WorkbookCacheEntry {
+    /**
+     * Whether the workbook uses the 1904 date windowing.
+     */
+    private Boolean use1904windowing;
+    /**
+     * All the sheets of the workbook in the order of {@code workbook.xml}, hidden ones included.
+     */
+    private List<ReadSheet> sheetList;
+    /**
+     * The data format of each cell style, the format is the one of the workbook, before the built-in formats are
+     * applied. A style without a data format has an empty {@link DataFormatData}.
+     */
+    private List<DataFormatData> dataFormatDataList;
+    /**
+     * The shared strings, null if the workbook has no {@code sharedStrings.xml}.
+     */
+    private ReadCache readCache;
+}
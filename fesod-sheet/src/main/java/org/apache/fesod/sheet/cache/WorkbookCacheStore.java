@@ -0,0 +1,399 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fesod.sheet.metadata.data.DataFormatData;
+import org.apache.fesod.sheet.read.metadata.ReadSheet;
+import org.apache.fesod.sheet.util.FileUtils;
+import org.apache.fesod.sheet.util.IoUtils;
+
+/**
+ * Keeps the shared strings, the data formats and the sheets of the read xlsx workbooks in a local directory, so that
+ * reading the same workbook again goes straight to the sheets.
+ * <p>
+ * A workbook read from a file is identified by the path, size and last modified time of the file, any other workbook
+ * by the SHA-256 of its content. Each workbook is one file in the directory, the least recently used files are deleted
+ * once the files take more than {@code maxDiskSize} bytes. The same store may be shared by any number of reads, also
+ * concurrent ones. A workbook loaded by a read is not deleted until the read is finished.
+ * <p>
+ * The shared strings are stored in plain text, so encrypted workbooks are never stored.
+ *
+ *
+ */
+@Slf4j
+public class WorkbookCacheStore {
+    private static final String SUFFIX = ".fwc";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x46574331;
+    private static final int VERSION = 2;
+    /**
+     * magic, version and header length
+     */
+    private static final int PREFIX_LENGTH = 12;
+
+    private static final int SHEET_VISIBLE = 0;
+    private static final int SHEET_HIDDEN = 1;
+    private static final int SHEET_VERY_HIDDEN = 2;
+
+    /**
+     * Where the workbooks are stored.
+     */
+    @Getter
+    private final File directory;
+    /**
+     * Maximum size of all the stored workbooks. unit byte.
+     */
+    @Getter
+    private final long maxDiskSize;
+    /**
+     * Number of reads using each loaded workbook.
+     */
+    private final Map<String, Integer> referenceCountMap = new HashMap<>();
+
+    public WorkbookCacheStore(File directory, long maxDiskSize) {
+        if (maxDiskSize <= 0) {
+            throw new IllegalArgumentException("maxDiskSize must be greater than 0.");
+        }
+        this.directory = FileUtils.createDirectory(directory);
+        this.maxDiskSize = maxDiskSize;
+    }
+
+    /**
+     * Key of a workbook read from a file, the file is not read.
+     *
+     * @param file file
+     * @return key
+     */
+    public static String key(File file) {
+        MessageDigest digest = newDigest();
+        String source = file.getAbsolutePath() + '\n' + file.length() + '\n' + file.lastModified();
+        digest.update(source.getBytes(StandardCharsets.UTF_8));
+        return key(digest);
+    }
+
+    /**
+     * Key of a workbook from the digest of its content.
+     *
+     * @param digest a digest from {@link #newDigest()} that the whole workbook has been passed through
+     * @return key
+     */
+    public static String key(MessageDigest digest) {
+        byte[] bytes = digest.digest();
+        StringBuilder key = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Load a stored workbook.
+     *
+     * @param key key
+     * @return the workbook, or null if it is not stored
+     */
+    public WorkbookCacheEntry load(String key) {
+        File file = new File(directory, key + SUFFIX);
+        if (!file.isFile()) {
+            return null;
+        }
+        // Keep the file from being evicted while it is mapped
+        acquire(key);
+        WorkbookCacheEntry entry;
+        try {
+            entry = readEntry(file, key);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Can not load the workbook cache file {}, it will be deleted.", file, e);
+            release(key);
+            deleteIfUnused(key, file);
+            return null;
+        }
+        if (entry.getReadCache() == null) {
+            // nothing is mapped
+            release(key);
+        }
+        // the most recently used files are kept
+        file.setLastModified(System.currentTimeMillis());
+        return entry;
+    }
+
+    private WorkbookCacheEntry readEntry(File file, String key) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer prefix = read(channel, 0, PREFIX_LENGTH);
+            if (prefix.getInt() != MAGIC || prefix.getInt() != VERSION) {
+                throw new IOException("Unknown workbook cache file.");
+            }
+            int headerLength = prefix.getInt();
+            ByteBuffer header = read(channel, PREFIX_LENGTH, headerLength);
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(header.array()));
+            WorkbookCacheEntry entry = new WorkbookCacheEntry();
+            entry.setUse1904windowing(input.readBoolean());
+            int sheetCount = input.readInt();
+            List<ReadSheet> sheetList = new ArrayList<>(sheetCount);
+            for (int i = 0; i < sheetCount; i++) {
+                ReadSheet readSheet = new ReadSheet(i, input.readUTF());
+                int state = input.readByte();
+                readSheet.setHidden(state == SHEET_HIDDEN);
+                readSheet.setVeryHidden(state == SHEET_VERY_HIDDEN);
+                sheetList.add(readSheet);
+            }
+            entry.setSheetList(sheetList);
+            int formatCount = input.readInt();
+            List<DataFormatData> dataFormatDataList = new ArrayList<>(formatCount);
+            for (int i = 0; i < formatCount; i++) {
+                DataFormatData dataFormatData = new DataFormatData();
+                if (input.readBoolean()) {
+                    dataFormatData.setIndex(input.readShort());
+                }
+                if (input.readBoolean()) {
+                    dataFormatData.setFormat(input.readUTF());
+                }
+                dataFormatDataList.add(dataFormatData);
+            }
+            entry.setDataFormatDataList(dataFormatDataList);
+            int count = input.readInt();
+            long dataLength = input.readLong();
+            if (count >= 0) {
+                long position = PREFIX_LENGTH + headerLength;
+                long size = dataLength + 8L * count;
+                if (channel.size() != position + size) {
+                    throw new IOException("Truncated workbook cache file.");
+                }
+                ByteBuffer[] segments = new ByteBuffer[(int) ((size + MappedReadCache.SEGMENT_SIZE - 1)
+                        / MappedReadCache.SEGMENT_SIZE)];
+                for (int i = 0; i < segments.length; i++) {
+                    long offset = (long) i * MappedReadCache.SEGMENT_SIZE;
+                    segments[i] = channel.map(
+                            FileChannel.MapMode.READ_ONLY,
+                            position + offset,
+                            Math.min(MappedReadCache.SEGMENT_SIZE, size - offset));
+                }
+                entry.setReadCache(new MappedReadCache(segments, dataLength, count, this, key));
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * A read uses the loaded workbook.
+     *
+     * @param key key
+     */
+    private synchronized void acquire(String key) {
+        referenceCountMap.merge(key, 1, Integer::sum);
+    }
+
+    /**
+     * A read no longer uses the loaded workbook.
+     *
+     * @param key key
+     */
+    synchronized void release(String key) {
+        referenceCountMap.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private synchronized void deleteIfUnused(String key, File file) {
+        if (!referenceCountMap.containsKey(key)) {
+            FileUtils.delete(file);
+        }
+    }
+
+    /**
+     * Record the shared strings passed to the cache of a read, to be saved with {@link #save}.
+     *
+     * @param readCache cache of the read
+     * @return the cache that must be used by the read instead
+     */
+    public RecordingReadCache record(ReadCache readCache) {
+        String name = UUID.randomUUID().toString();
+        return new RecordingReadCache(
+                readCache, new File(directory, name + ".data" + TEMP_SUFFIX), new File(directory, name + TEMP_SUFFIX));
+    }
+
+    /**
+     * Store a workbook. Failures are logged and otherwise ignored, the read goes on without the store.
+     *
+     * @param key key
+     * @param entry the workbook, the read cache is ignored
+     * @param recordingReadCache the recorded shared strings, null if the workbook has no shared strings
+     */
+    public void save(String key, WorkbookCacheEntry entry, RecordingReadCache recordingReadCache) {
+        if (recordingReadCache != null && !recordingReadCache.finish()) {
+            return;
+        }
+        File tempFile = new File(directory, UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            byte[] header = header(entry, recordingReadCache);
+            try (OutputStream outputStream =
+                    new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024)) {
+                DataOutputStream output = new DataOutputStream(outputStream);
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(header.length);
+                output.write(header);
+                if (recordingReadCache != null && recordingReadCache.getCount() > 0) {
+                    copy(recordingReadCache.getDataFile(), output);
+                    copy(recordingReadCache.getIndexFile(), output);
+                }
+                output.flush();
+            }
+            File file = new File(directory, key + SUFFIX);
+            try {
+                Files.move(
+                        tempFile.toPath(),
+                        file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Can not save the workbook cache file.", e);
+            return;
+        } finally {
+            FileUtils.delete(tempFile);
+        }
+        evict();
+    }
+
+    /**
+     * Delete the least recently used workbooks until the stored ones fit in {@code maxDiskSize}. The workbooks used by
+     * a read are skipped.
+     */
+    private synchronized void evict() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        long[] lastModified = new long[files.length];
+        long totalSize = 0;
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+            totalSize += files[i].length();
+            order[i] = i;
+        }
+        if (totalSize <= maxDiskSize) {
+            return;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastModified[i]));
+        for (int i = 0; i < order.length && totalSize > maxDiskSize; i++) {
+            File file = files[order[i]];
+            String name = file.getName();
+            if (referenceCountMap.containsKey(name.substring(0, name.length() - SUFFIX.length()))) {
+                // still mapped by a read
+                continue;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                totalSize -= length;
+            }
+        }
+    }
+
+    private static byte[] header(WorkbookCacheEntry entry, RecordingReadCache recordingReadCache)
+            throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteArrayOutputStream);
+        output.writeBoolean(Boolean.TRUE.equals(entry.getUse1904windowing()));
+        output.writeInt(entry.getSheetList().size());
+        for (ReadSheet readSheet : entry.getSheetList()) {
+            output.writeUTF(readSheet.getSheetName());
+            if (readSheet.isVeryHidden()) {
+                output.writeByte(SHEET_VERY_HIDDEN);
+            } else if (readSheet.isHidden()) {
+                output.writeByte(SHEET_HIDDEN);
+            } else {
+                output.writeByte(SHEET_VISIBLE);
+            }
+        }
+        output.writeInt(entry.getDataFormatDataList().size());
+        for (DataFormatData dataFormatData : entry.getDataFormatDataList()) {
+            output.writeBoolean(dataFormatData.getIndex() != null);
+            if (dataFormatData.getIndex() != null) {
+                output.writeShort(dataFormatData.getIndex());
+            }
+            output.writeBoolean(dataFormatData.getFormat() != null);
+            if (dataFormatData.getFormat() != null) {
+                output.writeUTF(dataFormatData.getFormat());
+            }
+        }
+        if (recordingReadCache == null) {
+            output.writeInt(-1);
+            output.writeLong(0);
+        } else {
+            output.writeInt(recordingReadCache.getCount());
+            output.writeLong(recordingReadCache.getDataLength());
+        }
+        output.flush();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated workbook cache file.");
+            }
+        }
+        return ByteBuffer.wrap(buffer.array());
+    }
+
+    private static void copy(File file, OutputStream outputStream) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            IoUtils.copy(inputStream, outputStream);
+        }
+    }
+}
@@ -43,7 +43,15 @@ public class XlsCache implements ReadCache {
 
     @Override
     public String get(Integer key) {
-        return sstRecord.getString(key).toString();
+        return get(key.intValue());
+    }
+
+    /**
+     * The strings are decoded once when the SST record is read, so the same instance is returned for every reference.
+     */
+    @Override
+    public String get(int key) {
+        return sstRecord.getString(key).getString();
     }
 
     @Override
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.cache.selector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fesod.sheet.cache.ArenaCache;
+import org.apache.fesod.sheet.cache.Ehcache;
+import org.apache.fesod.sheet.cache.MapCache;
+import org.apache.fesod.sheet.cache.ReadCache;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.IOUtils;
+
+/**
+ * Cache selector that looks at the heap.
+ * <p>
+ * The heap used by the shared strings is estimated from the {@code uniqueCount} of {@code sharedStrings.xml} and the
+ * size of the part. The declared count is not trusted on its own: it is raised to the count that the size of the
+ * first strings of the part gives, and limited to the count of empty strings that fit in the part.
+ * <p>
+ * {@link MapCache} is used if it fits in the {@link ReadCacheHeapBudget} and in the free heap, otherwise
+ * {@link ArenaCache} if that fits, otherwise {@link Ehcache}. The heap reserved in the budget is given back when the
+ * read is finished.
+ *
+ *
+ **/
+@Getter
+@Setter
+@EqualsAndHashCode
+@Slf4j
+public class AdaptiveReadCacheSelector implements ReadCacheSelector {
+    /**
+     * Where the count attributes of {@code <sst>} are looked for.
+     */
+    private static final int HEADER_LENGTH = 1024;
+
+    /**
+     * At most 18 digits, so that the count always fits in a long.
+     */
+    private static final Pattern UNIQUE_COUNT_PATTERN = Pattern.compile("\\suniqueCount=\"(\\d{1,18})\"");
+
+    private static final Pattern COUNT_PATTERN = Pattern.compile("\\scount=\"(\\d{1,18})\"");
+    private static final Pattern STRING_START_PATTERN = Pattern.compile("<si[\\s/>]");
+    /**
+     * An empty string: {@code <si/>}
+     */
+    private static final int MIN_STRING_SIZE = 5;
+    /**
+     * Markup of a plain string: {@code <si><t></t></si>}
+     */
+    private static final int STRING_MARKUP_SIZE = 17;
+    /**
+     * Heap of a string in {@link MapCache} besides its characters.
+     */
+    private static final int STRING_OVERHEAD_SIZE = 64;
+    /**
+     * Used when the part declares no count.
+     */
+    private static final int DEFAULT_STRING_SIZE = 32;
+
+    private static final double DEFAULT_MAX_FREE_HEAP_RATIO = 0.5;
+    /**
+     * Maximum batch of `SharedStrings` stored in memory.
+     * The batch size is 100.{@link Ehcache#BATCH_COUNT}
+     */
+    private static final int DEFAULT_MAX_EHCACHE_ACTIVATE_BATCH_COUNT = 20;
+
+    /**
+     * Share of the free heap that the cache of one read may use. Default 0.5.
+     */
+    private Double maxFreeHeapRatio;
+
+    /**
+     * Maximum batch of `SharedStrings` stored in memory when {@link Ehcache} is used.
+     * The batch size is 100.{@link Ehcache#BATCH_COUNT}
+     */
+    private Integer maxCacheActivateBatchCount;
+
+    @Override
+    public ReadCache readCache(PackagePart sharedStringsTablePackagePart) {
+        long size = sharedStringsTablePackagePart.getSize();
+        if (size < 0) {
+            try {
+                size = sharedStringsTablePackagePart.getInputStream().available();
+            } catch (IOException e) {
+                log.warn("Unable to get file size, default used MapCache");
+                return new MapCache();
+            }
+        }
+        long uniqueCount = uniqueCount(sharedStringsTablePackagePart, size);
+        long textSize = Math.max(size - uniqueCount * STRING_MARKUP_SIZE, 0);
+        // the characters of a string may take two bytes each on the heap
+        long mapCacheSize = uniqueCount * STRING_OVERHEAD_SIZE + textSize * 2;
+        long arenaCacheSize = textSize + uniqueCount * 4;
+
+        if (maxFreeHeapRatio == null) {
+            maxFreeHeapRatio = DEFAULT_MAX_FREE_HEAP_RATIO;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long freeHeap = runtime.maxMemory() - runtime.totalMemory() + runtime.freeMemory();
+        long maxSize = (long) (freeHeap * maxFreeHeapRatio);
+
+        if (mapCacheSize <= maxSize && ReadCacheHeapBudget.reserve(mapCacheSize)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Use map cache.size:{},uniqueCount:{},reserved:{}", size, uniqueCount, mapCacheSize);
+            }
+            return new ReservedMapCache(mapCacheSize);
+        }
+        if (arenaCacheSize <= maxSize
+                && arenaCacheSize < Integer.MAX_VALUE
+                && ReadCacheHeapBudget.reserve(arenaCacheSize)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Use arena cache.size:{},uniqueCount:{},reserved:{}", size, uniqueCount, arenaCacheSize);
+            }
+            return new ReservedArenaCache((int) textSize, (int) uniqueCount, arenaCacheSize);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Use ehcache.size:{},uniqueCount:{}", size, uniqueCount);
+        }
+        if (maxCacheActivateBatchCount == null) {
+            maxCacheActivateBatchCount = DEFAULT_MAX_EHCACHE_ACTIVATE_BATCH_COUNT;
+        }
+        return new Ehcache(null, maxCacheActivateBatchCount);
+    }
+
+    /**
+     * The {@code uniqueCount} of {@code <sst>}, or {@code count} if there is none, raised to the count sampled from the
+     * first strings and limited by the size of the part. If nothing is found it is guessed from the size.
+     */
+    private static long uniqueCount(PackagePart sharedStringsTablePackagePart, long size) {
+        String header;
+        try (InputStream inputStream = sharedStringsTablePackagePart.getInputStream()) {
+            byte[] bytes = new byte[HEADER_LENGTH];
+            int length = Math.max(IOUtils.readFully(inputStream, bytes), 0);
+            // one char per byte, so that the positions are positions in the part
+            header = new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        } catch (IOException e) {
+            log.warn("Unable to read the shared strings count, it is guessed from the size.");
+            return size / DEFAULT_STRING_SIZE;
+        }
+        long uniqueCount = -1;
+        int start = header.indexOf("<sst");
+        if (start >= 0) {
+            int end = header.indexOf('>', start);
+            String sst = end < 0 ? header.substring(start) : header.substring(start, end);
+            Matcher matcher = UNIQUE_COUNT_PATTERN.matcher(sst);
+            if (matcher.find()) {
+                uniqueCount = Long.parseLong(matcher.group(1));
+            } else {
+                matcher = COUNT_PATTERN.matcher(sst);
+                if (matcher.find()) {
+                    uniqueCount = Long.parseLong(matcher.group(1));
+                }
+            }
+            if (end >= 0) {
+                uniqueCount = Math.max(uniqueCount, sampledCount(header, end, size));
+            }
+        }
+        if (uniqueCount < 0) {
+            return size / DEFAULT_STRING_SIZE;
+        }
+        return Math.min(uniqueCount, size / MIN_STRING_SIZE);
+    }
+
+    /**
+     * The count of strings if all of them were as large as the first ones in the header, or -1 if the header holds
+     * less than two of them.
+     */
+    private static long sampledCount(String header, int sstEnd, long size) {
+        Matcher matcher = STRING_START_PATTERN.matcher(header).region(sstEnd, header.length());
+        int first = -1;
+        int last = -1;
+        int count = 0;
+        while (matcher.find()) {
+            if (first < 0) {
+                first = matcher.start();
+            }
+            last = matcher.start();
+            count++;
+        }
+        if (count < 2) {
+            return -1;
+        }
+        long averageSize = (last - first) / (count - 1);
+        return (size - first) / averageSize;
+    }
+
+    private static class ReservedMapCache extends MapCache {
+        private final long reservedSize;
+        private boolean released;
+
+        ReservedMapCache(long reservedSize) {
+            this.reservedSize = reservedSize;
+        }
+
+        @Override
+        public void destroy() {
+            super.destroy();
+            if (!released) {
+                released = true;
+                ReadCacheHeapBudget.release(reservedSize);
+            }
+        }
+    }
+
+    private static class ReservedArenaCache extends ArenaCache {
+        private final long reservedSize;
+        private boolean released;
+
+        ReservedArenaCache(int expectedSize, int expectedCount, long reservedSize) {
+            super(expectedSize, expectedCount);
+            this.reservedSize = reservedSize;
+        }
+
+        @Override
+        public void destroy() {
+            super.destroy();
+            if (!released) {
+                released = true;
+                ReadCacheHeapBudget.release(reservedSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.cache.selector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap reserved by the read caches of all the reads in the JVM, used by {@link AdaptiveReadCacheSelector}.
+ *
+ *
+ */
+public class ReadCacheHeapBudget {
+    /**
+     * Default a quarter of the maximum heap.
+     */
+    private static volatile long maxSize = Runtime.getRuntime().maxMemory() / 4;
+
+    private static final AtomicLong RESERVED = new AtomicLong();
+
+    private ReadCacheHeapBudget() {}
+
+    /**
+     * Reserve heap for a read cache.
+     *
+     * @param size size. unit byte.
+     * @return whether the heap is reserved, false if it would exceed the budget
+     */
+    public static boolean reserve(long size) {
+        while (true) {
+            long reserved = RESERVED.get();
+            if (reserved + size > maxSize) {
+                return false;
+            }
+            if (RESERVED.compareAndSet(reserved, reserved + size)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back heap reserved by {@link #reserve(long)}.
+     *
+     * @param size size. unit byte.
+     */
+    public static void release(long size) {
+        RESERVED.addAndGet(-size);
+    }
+
+    public static long getReserved() {
+        return RESERVED.get();
+    }
+
+    public static long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize the heap that all the read caches may use together. unit byte.
+     */
+    public static void setMaxSize(long maxSize) {
+        ReadCacheHeapBudget.maxSize = maxSize;
+    }
+}
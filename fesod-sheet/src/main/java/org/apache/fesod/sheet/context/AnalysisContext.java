@@ -22,6 +22,7 @@ package org.apache.fesod.sheet.context;
 import java.io.InputStream;
 import java.util.List;
 import org.apache.fesod.sheet.event.AnalysisEventListener;
+import org.apache.fesod.sheet.metadata.csv.CsvCheckpoint;
 import org.apache.fesod.sheet.read.metadata.ReadSheet;
 import org.apache.fesod.sheet.read.metadata.holder.ReadHolder;
 import org.apache.fesod.sheet.read.metadata.holder.ReadRowHolder;
@@ -108,6 +109,16 @@ public interface AnalysisContext {
      */
     void readSheetList(List<ReadSheet> readSheetList);
 
+    /**
+     * Where the reading of a csv file can be resumed after the current row.
+     *
+     * @return Null if it is not a csv file or the position is unknown.
+     * @see org.apache.fesod.sheet.read.builder.CsvReaderBuilder#startCheckpoint(CsvCheckpoint)
+     */
+    default CsvCheckpoint csvCheckpoint() {
+        return null;
+    }
+
     /**
      *
      * get excel type
@@ -19,11 +19,8 @@
 
 package org.apache.fesod.sheet.context;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.util.Map;
-import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.fesod.sheet.enums.HeaderMergeStrategy;
 import org.apache.fesod.sheet.enums.WriteTypeEnum;
@@ -35,9 +32,9 @@ import org.apache.fesod.sheet.metadata.property.ExcelContentProperty;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
 import org.apache.fesod.sheet.util.ClassUtils;
 import org.apache.fesod.sheet.util.DateUtils;
-import org.apache.fesod.sheet.util.FileUtils;
 import org.apache.fesod.sheet.util.ListUtils;
 import org.apache.fesod.sheet.util.NumberDataFormatterUtils;
+import org.apache.fesod.sheet.util.NumberUtils;
 import org.apache.fesod.sheet.util.StringUtils;
 import org.apache.fesod.sheet.util.WorkBookUtil;
 import org.apache.fesod.sheet.util.WriteHandlerUtils;
@@ -53,13 +50,8 @@ import org.apache.fesod.sheet.write.metadata.holder.WriteSheetHolder;
 import org.apache.fesod.sheet.write.metadata.holder.WriteTableHolder;
 import org.apache.fesod.sheet.write.metadata.holder.WriteWorkbookHolder;
 import org.apache.fesod.sheet.write.property.ExcelWriteHeadProperty;
+import org.apache.fesod.sheet.write.streaming.EncryptedPackageOutputStream;
 import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
-import org.apache.poi.openxml4j.opc.OPCPackage;
-import org.apache.poi.openxml4j.opc.PackageAccess;
-import org.apache.poi.poifs.crypt.EncryptionInfo;
-import org.apache.poi.poifs.crypt.EncryptionMode;
-import org.apache.poi.poifs.crypt.Encryptor;
-import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -309,7 +301,7 @@ public class WriteContextImpl implements WriteContext {
                     WriteHandlerUtils.createRowWriteHandlerContext(this, newRowIndex, relativeRowIndex, Boolean.TRUE);
             WriteHandlerUtils.beforeRowCreate(rowWriteHandlerContext);
 
-            Row row = WorkBookUtil.createRow(writeSheetHolder.getSheet(), i);
+            Row row = WorkBookUtil.createRow(writeWorkbookHolder, writeSheetHolder.getSheet(), i);
             rowWriteHandlerContext.setRow(row);
 
             WriteHandlerUtils.afterRowCreate(rowWriteHandlerContext);
@@ -504,7 +496,11 @@ public class WriteContextImpl implements WriteContext {
         if (!isOutputStreamEncrypt) {
             try {
                 if (writeExcel) {
-                    writeWorkbookHolder.getWorkbook().write(writeWorkbookHolder.getOutputStream());
+                    if (writeWorkbookHolder.getStreamingHSSFWriter() != null) {
+                        writeWorkbookHolder.getStreamingHSSFWriter().write(writeWorkbookHolder.getOutputStream());
+                    } else {
+                        writeWorkbookHolder.getWorkbook().write(writeWorkbookHolder.getOutputStream());
+                    }
                 }
                 writeWorkbookHolder.getWorkbook().close();
             } catch (Throwable t) {
@@ -520,18 +516,18 @@ public class WriteContextImpl implements WriteContext {
             throwable = t;
         }
         try {
-            if (writeWorkbookHolder.getAutoCloseStream() && writeWorkbookHolder.getOutputStream() != null) {
-                writeWorkbookHolder.getOutputStream().close();
+            if (writeWorkbookHolder.getStreamingHSSFWriter() != null) {
+                writeWorkbookHolder.getStreamingHSSFWriter().close();
             }
         } catch (Throwable t) {
             throwable = t;
         }
-        if (writeExcel && !isOutputStreamEncrypt) {
-            try {
-                doFileEncrypt07();
-            } catch (Throwable t) {
-                throwable = t;
+        try {
+            if (writeWorkbookHolder.getAutoCloseStream() && writeWorkbookHolder.getOutputStream() != null) {
+                writeWorkbookHolder.getOutputStream().close();
             }
+        } catch (Throwable t) {
+            throwable = t;
         }
         try {
             if (writeWorkbookHolder.getTempTemplateInputStream() != null) {
@@ -555,6 +551,7 @@ public class WriteContextImpl implements WriteContext {
      */
     private void removeThreadLocalCache() {
         NumberDataFormatterUtils.removeThreadLocalCache();
+        NumberUtils.removeThreadLocalCache();
         DateUtils.removeThreadLocalCache();
         ClassUtils.removeThreadLocalCache();
     }
@@ -621,73 +618,16 @@ public class WriteContextImpl implements WriteContext {
                 || !ExcelTypeEnum.XLSX.equals(writeWorkbookHolder.getExcelType())) {
             return false;
         }
-        if (writeWorkbookHolder.getFile() != null) {
-            return false;
-        }
-        File tempXlsx = FileUtils.createTmpFile(UUID.randomUUID() + ".xlsx");
-        FileOutputStream tempFileOutputStream = new FileOutputStream(tempXlsx);
-        try {
-            writeWorkbookHolder.getWorkbook().write(tempFileOutputStream);
-        } finally {
+        // The package is encrypted while the workbook writes it, the plain package is never stored
+        try (EncryptedPackageOutputStream encryptedPackageOutputStream = new EncryptedPackageOutputStream(
+                writeWorkbookHolder.getPassword(), writeWorkbookHolder.getEncryptExecutor())) {
             try {
+                writeWorkbookHolder.getWorkbook().write(encryptedPackageOutputStream);
+            } finally {
                 writeWorkbookHolder.getWorkbook().close();
-                tempFileOutputStream.close();
-            } catch (Exception e) {
-                if (!tempXlsx.delete()) {
-                    throw new ExcelGenerateException("Can not delete temp File!");
-                }
-                throw e;
-            }
-        }
-        try (POIFSFileSystem fileSystem = openFileSystemAndEncrypt(tempXlsx)) {
-            fileSystem.writeFilesystem(writeWorkbookHolder.getOutputStream());
-        } finally {
-            if (!tempXlsx.delete()) {
-                throw new ExcelGenerateException("Can not delete temp File!");
             }
+            encryptedPackageOutputStream.writeTo(writeWorkbookHolder.getOutputStream());
         }
         return true;
     }
-
-    /**
-     * To encrypt
-     */
-    private void doFileEncrypt07() throws Exception {
-        // Check if the password is empty or the file type is not xlsx, if so, return directly
-        if (StringUtils.isEmpty(writeWorkbookHolder.getPassword())
-                || !ExcelTypeEnum.XLSX.equals(writeWorkbookHolder.getExcelType())) {
-            return;
-        }
-        // Check if the file is null, if so, return directly
-        if (writeWorkbookHolder.getFile() == null) {
-            return;
-        }
-        // Use try-with-resources to automatically close resources, encrypt and write the file
-        try (POIFSFileSystem fileSystem = openFileSystemAndEncrypt(writeWorkbookHolder.getFile());
-                FileOutputStream fileOutputStream = new FileOutputStream(writeWorkbookHolder.getFile())) {
-            fileSystem.writeFilesystem(fileOutputStream);
-        }
-    }
-
-    /**
-     * Opens a file system and encrypts the given file.
-     *
-     * This method creates a new POIFSFileSystem instance, sets up an Encryptor with a standard encryption mode,
-     * and confirms the password for encryption. It then opens the provided file in read-write mode, saves its content
-     * into an encrypted output stream, and finally returns the encrypted file system.
-     *
-     * @param file The file to be encrypted.
-     * @return An encrypted POIFSFileSystem object.
-     * @throws Exception If any error occurs during the encryption process or file handling.
-     */
-    private POIFSFileSystem openFileSystemAndEncrypt(File file) throws Exception {
-        POIFSFileSystem fileSystem = new POIFSFileSystem();
-        Encryptor encryptor = new EncryptionInfo(EncryptionMode.standard).getEncryptor();
-        encryptor.confirmPassword(writeWorkbookHolder.getPassword());
-        try (OPCPackage opcPackage = OPCPackage.open(file, PackageAccess.READ_WRITE);
-                OutputStream outputStream = encryptor.getDataStream(fileSystem)) {
-            opcPackage.save(outputStream);
-        }
-        return fileSystem;
-    }
 }
@@ -20,6 +20,7 @@
 package org.apache.fesod.sheet.context.csv;
 
 import org.apache.fesod.sheet.context.AnalysisContextImpl;
+import org.apache.fesod.sheet.metadata.csv.CsvCheckpoint;
 import org.apache.fesod.sheet.read.metadata.ReadWorkbook;
 import org.apache.fesod.sheet.read.metadata.holder.csv.CsvReadSheetHolder;
 import org.apache.fesod.sheet.read.metadata.holder.csv.CsvReadWorkbookHolder;
@@ -45,4 +46,16 @@ public class DefaultCsvReadContext extends AnalysisContextImpl implements CsvRea
     public CsvReadSheetHolder csvReadSheetHolder() {
         return (CsvReadSheetHolder) readSheetHolder();
     }
+
+    @Override
+    public CsvCheckpoint csvCheckpoint() {
+        if (!(readSheetHolder() instanceof CsvReadSheetHolder) || readRowHolder() == null) {
+            return null;
+        }
+        long nextRecordOffset = csvReadSheetHolder().getNextRecordOffset();
+        if (nextRecordOffset < 0) {
+            return null;
+        }
+        return new CsvCheckpoint(nextRecordOffset, readRowHolder().getRowIndex() + 1);
+    }
 }
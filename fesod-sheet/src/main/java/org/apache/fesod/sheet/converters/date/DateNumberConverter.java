@@ -28,7 +28,6 @@ import org.apache.fesod.sheet.metadata.data.ReadCellData;
 import org.apache.fesod.sheet.metadata.data.WriteCellData;
 import org.apache.fesod.sheet.metadata.property.ExcelContentProperty;
 import org.apache.fesod.sheet.util.DateUtils;
-import org.apache.poi.ss.usermodel.DateUtil;
 
 /**
  * Date and number converter
@@ -65,9 +64,9 @@ public class DateNumberConverter implements Converter<Date> {
             Date value, ExcelContentProperty contentProperty, GlobalConfiguration globalConfiguration) {
         if (contentProperty == null || contentProperty.getDateTimeFormatProperty() == null) {
             return new WriteCellData<>(
-                    BigDecimal.valueOf(DateUtil.getExcelDate(value, globalConfiguration.getUse1904windowing())));
+                    BigDecimal.valueOf(DateUtils.getExcelDate(value, globalConfiguration.getUse1904windowing())));
         } else {
-            return new WriteCellData<>(BigDecimal.valueOf(DateUtil.getExcelDate(
+            return new WriteCellData<>(BigDecimal.valueOf(DateUtils.getExcelDate(
                     value, contentProperty.getDateTimeFormatProperty().getUse1904windowing())));
         }
     }
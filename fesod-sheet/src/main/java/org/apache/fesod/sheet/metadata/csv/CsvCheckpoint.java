@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.metadata.csv;
+
+import java.io.Serializable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A position in a csv file where the reading can be resumed.
+ * <p>
+ * It always points to the start of a record, never into a quoted value, so it can be saved by a listener after a row
+ * has been processed and passed to {@code csv().startCheckpoint(checkpoint)} when the reading is restarted.
+ *
+ *
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CsvCheckpoint implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Byte offset of the next record in the file.
+     */
+    private final long byteOffset;
+    /**
+     * Row index of the next record.
+     */
+    private final int rowIndex;
+
+    public CsvCheckpoint(long byteOffset, int rowIndex) {
+        this.byteOffset = byteOffset;
+        this.rowIndex = rowIndex;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.metadata.csv;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+import org.apache.fesod.sheet.constant.BuiltinFormats;
+import org.apache.fesod.sheet.exception.ExcelGenerateException;
+import org.apache.fesod.sheet.metadata.data.DataFormatData;
+import org.apache.fesod.sheet.metadata.data.WriteCellData;
+import org.apache.fesod.sheet.util.DateUtils;
+import org.apache.fesod.sheet.util.NumberDataFormatterUtils;
+import org.apache.fesod.sheet.util.StringUtils;
+
+/**
+ * Writes a row of converted data straight to the output, without creating {@link CsvRow} and {@link CsvCell}.
+ * <p>
+ * For the usual formats (a quote character, no escape character, minimal quoting) the fields are quoted with the
+ * same rules as commons-csv into a reused buffer. Other formats are printed field by field with the {@link CSVPrinter} of the sheet.
+ *
+ *
+ */
+public class CsvRowWriter {
+    private static final char COMMENT = '#';
+
+    private final CsvWorkbook csvWorkbook;
+    private final Appendable out;
+    private final CSVPrinter csvPrinter;
+    /**
+     * Null if the row has to be printed with the {@link CSVPrinter}.
+     */
+    private final StringBuilder buffer;
+
+    private final String delimiter;
+    private final char quote;
+    private final String recordSeparator;
+    private final String nullString;
+    private final boolean trim;
+
+    private int columnCount;
+
+    public CsvRowWriter(CsvWorkbook csvWorkbook, Appendable out, CSVPrinter csvPrinter, CSVFormat csvFormat) {
+        this.csvWorkbook = csvWorkbook;
+        this.out = out;
+        this.csvPrinter = csvPrinter;
+        boolean rfc4180 = csvFormat.isQuoteCharacterSet()
+                && !csvFormat.isEscapeCharacterSet()
+                && (csvFormat.getQuoteMode() == null || csvFormat.getQuoteMode() == QuoteMode.MINIMAL)
+                && !csvFormat.getTrailingDelimiter()
+                && csvFormat.getRecordSeparator() != null;
+        this.buffer = rfc4180 ? new StringBuilder(256) : null;
+        this.delimiter = csvFormat.getDelimiterString();
+        this.quote = rfc4180 ? csvFormat.getQuoteCharacter() : '"';
+        this.recordSeparator = csvFormat.getRecordSeparator();
+        this.nullString = csvFormat.getNullString();
+        this.trim = csvFormat.getTrim();
+    }
+
+    void startRow() {
+        columnCount = 0;
+        if (buffer != null) {
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Append a cell. Missing columns before it are written as empty fields.
+     *
+     * @param columnIndex column index, must be greater than the previous one in the row
+     * @param cellData    converted data
+     */
+    public void appendCell(int columnIndex, WriteCellData<?> cellData) {
+        try {
+            while (columnCount < columnIndex) {
+                appendField(null);
+            }
+            appendField(buildCellValue(cellData));
+        } catch (IOException e) {
+            throw new ExcelGenerateException(e);
+        }
+    }
+
+    /**
+     * Finish the row and write it out.
+     */
+    public void endRow() {
+        try {
+            if (buffer == null) {
+                csvPrinter.println();
+                return;
+            }
+            buffer.append(recordSeparator);
+            out.append(buffer);
+        } catch (IOException e) {
+            throw new ExcelGenerateException(e);
+        }
+    }
+
+    /**
+     * Same as {@link CSVFormat#print(Object, Appendable, boolean)} with {@link QuoteMode#MINIMAL}.
+     */
+    private void appendField(String value) throws IOException {
+        if (buffer == null) {
+            csvPrinter.print(value);
+            columnCount++;
+            return;
+        }
+        boolean newRecord = columnCount++ == 0;
+        if (!newRecord) {
+            buffer.append(delimiter);
+        }
+        if (value == null) {
+            // The null string is never quoted
+            String nullValue = nullString == null ? StringUtils.EMPTY : nullString;
+            buffer.append(trim ? nullValue.trim() : nullValue);
+            return;
+        }
+        if (trim) {
+            value = value.trim();
+        }
+        if (value.isEmpty()) {
+            // A lone empty field would be an empty line
+            if (newRecord) {
+                buffer.append(quote).append(quote);
+            }
+            return;
+        }
+        if (!needQuote(value)) {
+            buffer.append(value);
+            return;
+        }
+        buffer.append(quote);
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == quote) {
+                buffer.append(value, start, i + 1).append(quote);
+                start = i + 1;
+            }
+        }
+        buffer.append(value, start, value.length()).append(quote);
+    }
+
+    /**
+     * Same as commons-csv: a value starting with a character up to the comment marker {@code '#'} or ending with a
+     * character up to {@code ' '} is quoted, as well as a value containing a line break, a quote or the delimiter.
+     */
+    private boolean needQuote(String value) {
+        if (value.charAt(0) <= COMMENT) {
+            return true;
+        }
+        char delimiterChar = delimiter.charAt(0);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == quote) {
+                return true;
+            }
+            if (c == delimiterChar && value.startsWith(delimiter, i)) {
+                return true;
+            }
+        }
+        return value.charAt(value.length() - 1) <= ' ';
+    }
+
+    /**
+     * Same as {@link CsvSheet}, but from the converted data.
+     */
+    private String buildCellValue(WriteCellData<?> cellData) {
+        if (cellData == null || cellData.getType() == null) {
+            return null;
+        }
+        switch (cellData.getType()) {
+            case STRING:
+            case DIRECT_STRING:
+            case ERROR:
+                return cellData.getStringValue();
+            case RICH_TEXT_STRING:
+                return cellData.getRichTextStringDataValue() == null
+                        ? null
+                        : cellData.getRichTextStringDataValue().getTextString();
+            case BOOLEAN:
+                return cellData.getBooleanValue() == null
+                        ? null
+                        : cellData.getBooleanValue().toString();
+            case NUMBER:
+                if (cellData.getNumberValue() == null) {
+                    return null;
+                }
+                return format(cellData.getNumberValue(), cellData, BuiltinFormats.GENERAL, null);
+            case DATE:
+                if (cellData.getDateValue() == null) {
+                    return null;
+                }
+                return format(
+                        BigDecimal.valueOf(
+                                DateUtils.getExcelDate(cellData.getDateValue(), csvWorkbook.getUse1904windowing())),
+                        cellData,
+                        null,
+                        DateUtils.defaultDateFormat);
+            case EMPTY:
+                return StringUtils.EMPTY;
+            default:
+                return null;
+        }
+    }
+
+    private String format(
+            BigDecimal value, WriteCellData<?> cellData, Short defaultDataFormat, String defaultDataFormatString) {
+        Short dataFormat = null;
+        String dataFormatString = null;
+        if (cellData.getWriteCellStyle() != null) {
+            DataFormatData dataFormatData = cellData.getWriteCellStyle().getDataFormatData();
+            if (dataFormatData != null) {
+                dataFormat = dataFormatData.getIndex();
+                dataFormatString = dataFormatData.getFormat();
+            }
+        }
+        if (dataFormat == null && dataFormatString == null) {
+            dataFormat = defaultDataFormat;
+            dataFormatString = defaultDataFormatString;
+        }
+        if (dataFormat == null) {
+            dataFormat = csvWorkbook.createDataFormat().getFormat(dataFormatString);
+        }
+        if (dataFormatString == null) {
+            dataFormatString = csvWorkbook.createDataFormat().getFormat(dataFormat);
+        }
+        return NumberDataFormatterUtils.format(
+                value,
+                dataFormat,
+                dataFormatString,
+                csvWorkbook.getUse1904windowing(),
+                csvWorkbook.getLocale(),
+                csvWorkbook.getUseScientificFormat());
+    }
+}
@@ -46,7 +46,6 @@ import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Comment;
 import org.apache.poi.ss.usermodel.DataValidation;
 import org.apache.poi.ss.usermodel.DataValidationHelper;
-import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Drawing;
 import org.apache.poi.ss.usermodel.Footer;
 import org.apache.poi.ss.usermodel.Header;
@@ -102,6 +101,7 @@ public class CsvSheet implements Sheet, Closeable {
      * csv printer
      */
     private CSVPrinter csvPrinter;
+    private CsvRowWriter csvRowWriter;
 
     public CsvSheet(CsvWorkbook csvWorkbook, Appendable out) {
         this.csvWorkbook = csvWorkbook;
@@ -124,6 +124,29 @@ public class CsvSheet implements Sheet, Closeable {
         return csvRow;
     }
 
+    /**
+     * Start a row that is written straight to the output by {@link CsvRowWriter}, instead of creating a
+     * {@link CsvRow}.
+     *
+     * @param rownum row index
+     * @return the writer of the row
+     */
+    public CsvRowWriter startRow(int rownum) {
+        initSheet();
+
+        lastRowIndex++;
+        assert rownum == lastRowIndex : "csv create row must be in order.";
+        // Keep the order of the rows created before
+        if (!rowCache.isEmpty()) {
+            flushData();
+        }
+        if (csvRowWriter == null) {
+            csvRowWriter = new CsvRowWriter(csvWorkbook, out, csvPrinter, csvFormat);
+        }
+        csvRowWriter.startRow();
+        return csvRowWriter;
+    }
+
     private void initSheet() {
         if (csvPrinter != null) {
             return;
@@ -711,7 +734,7 @@ public class CsvSheet implements Sheet, Closeable {
                     }
                     return NumberDataFormatterUtils.format(
                             BigDecimal.valueOf(
-                                    DateUtil.getExcelDate(csvCell.getDateValue(), csvWorkbook.getUse1904windowing())),
+                                    DateUtils.getExcelDate(csvCell.getDateValue(), csvWorkbook.getUse1904windowing())),
                             dataFormat,
                             dataFormatString,
                             csvWorkbook.getUse1904windowing(),
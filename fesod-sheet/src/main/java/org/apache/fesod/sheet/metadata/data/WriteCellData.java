@@ -73,7 +73,7 @@ public class WriteCellData<T> extends CellData<T> {
     private HyperlinkData hyperlinkData;
 
     /**
-     * Style information for the cell.
+     * Style information for the cell. It can be shared by cells, but must not be modified once the cell is written.
      */
     private WriteCellStyle writeCellStyle;
 
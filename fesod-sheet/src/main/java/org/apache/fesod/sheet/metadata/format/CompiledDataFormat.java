@@ -0,0 +1,895 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.metadata.format;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fesod.sheet.util.DateUtils;
+import org.apache.fesod.sheet.util.SerialDateUtils;
+import org.apache.poi.ss.usermodel.ExcelStyleDateFormatter;
+
+/**
+ * An Excel format string analysed once: colours and locale groups stripped, converted to the pattern of the java
+ * format that {@link DataFormatter} builds for it, and, for the simple number and date formats, compiled into a
+ * layout that writes the text directly.
+ * <p>
+ * Instances are immutable and shared by all threads through a bounded global cache, so every thread no longer runs
+ * the same chain of regular expressions. The {@link java.text.Format} objects themselves are not thread-safe and
+ * are still built per {@link DataFormatter}.
+ *
+ *
+ */
+@Getter
+@Slf4j
+public class CompiledDataFormat {
+    /**
+     * The maximum number of cached formats. The cache is cleared when it is full.
+     */
+    private static final int MAX_CACHE_SIZE = 4096;
+
+    private static final Map<Key, CompiledDataFormat> CACHE = new ConcurrentHashMap<>();
+
+    private static final String defaultFractionWholePartFormat = "#";
+
+    private static final String defaultFractionFractionPartFormat = "#/##";
+    /**
+     * Pattern to find a number format: "0" or "#"
+     */
+    private static final Pattern numPattern = Pattern.compile("[0#]+");
+
+    /**
+     * Pattern to find days of week as text "ddd...."
+     */
+    private static final Pattern daysAsText = Pattern.compile("([d]{3,})", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Pattern to find "AM/PM" marker
+     */
+    private static final Pattern amPmPattern =
+            Pattern.compile("(([AP])[M/P]*)|(([上下])[午/下]*)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Pattern to find formats with condition ranges e.g. [>=100]
+     */
+    private static final Pattern rangeConditionalPattern =
+            Pattern.compile(".*\\[\\s*(>|>=|<|<=|=)\\s*[0-9]*\\.*[0-9].*");
+
+    /**
+     * A regex to find locale patterns like [$$-1009] and [$?-452]. Note that we don't currently process these into
+     * locales
+     */
+    private static final Pattern localePatternGroup = Pattern.compile("(\\[\\$[^-\\]]*-[0-9A-Z]+])");
+
+    /**
+     * A regex to match the colour formattings rules. Allowed colours are: Black, Blue, Cyan, Green, Magenta, Red,
+     * White, Yellow, "Color n" (1<=n<=56)
+     */
+    private static final Pattern colorPattern = Pattern.compile(
+            "(\\[BLACK])|(\\[BLUE])|(\\[CYAN])|(\\[GREEN])|" + "(\\[MAGENTA])|(\\[RED])|(\\[WHITE])|(\\[YELLOW])|"
+                    + "(\\[COLOR\\s*\\d])|(\\[COLOR\\s*[0-5]\\d])|(\\[DBNum(1|2|3)])|(\\[\\$-\\d{0,3}])",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * A regex to identify a fraction pattern. This requires that replaceAll("\\?", "#") has already been called
+     */
+    private static final Pattern fractionPattern = Pattern.compile("(?:([#\\d]+)\\s+)?(#+)\\s*/\\s*([#\\d]+)");
+
+    /**
+     * A regex to strip junk out of fraction formats
+     */
+    private static final Pattern fractionStripper = Pattern.compile("(\"[^\"]*\")|([^ ?#\\d/]+)");
+
+    /**
+     * A regex to detect if an alternate grouping character is used in a numeric format
+     */
+    private static final Pattern alternateGrouping = Pattern.compile("([#0]([^.#0])[#0]{3})");
+
+    /**
+     * The kind of java format to build.
+     */
+    public enum Kind {
+        /**
+         * General, text, or a format that can not be parsed.
+         */
+        GENERAL,
+        /**
+         * {@link ExcelStyleDateFormatter} of {@link #getPattern()}.
+         */
+        DATE,
+        /**
+         * Fraction of {@link #getFractionWholePart()} and {@link #getPattern()}.
+         */
+        FRACTION,
+        /**
+         * Decimal format of {@link #getPattern()}, with {@link #getGroupingSeparator()} if it is not 0.
+         */
+        NUMBER,
+        ZIP_PLUS_FOUR,
+        PHONE,
+        SSN,
+        ;
+    }
+
+    /**
+     * Whether it was compiled as a date format.
+     */
+    private final boolean date;
+
+    private final Kind kind;
+    /**
+     * Whether the format has several parts with conditions, which are handed to
+     * {@link org.apache.poi.ss.format.CellFormat} for every value.
+     */
+    private final boolean conditional;
+    /**
+     * The java pattern.
+     */
+    private final String pattern;
+    /**
+     * The whole part of a fraction.
+     */
+    private final String fractionWholePart;
+    /**
+     * The grouping separator of an alternate grouping, 0 if the one of the locale is used.
+     */
+    private final char groupingSeparator;
+    /**
+     * Nullable. Writes simple number formats directly.
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private final NumberLayout numberLayout;
+    /**
+     * Nullable. Writes simple date formats directly.
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private final DateLayout dateLayout;
+
+    private CompiledDataFormat(
+            boolean date,
+            Kind kind,
+            boolean conditional,
+            String pattern,
+            String fractionWholePart,
+            char groupingSeparator,
+            NumberLayout numberLayout,
+            DateLayout dateLayout) {
+        this.date = date;
+        this.kind = kind;
+        this.conditional = conditional;
+        this.pattern = pattern;
+        this.fractionWholePart = fractionWholePart;
+        this.groupingSeparator = groupingSeparator;
+        this.numberLayout = numberLayout;
+        this.dateLayout = dateLayout;
+    }
+
+    /**
+     * Get the compiled format from the global cache.
+     *
+     * @param formatString Excel format string
+     * @param locale       locale of the formatter
+     * @param date         whether the format is a date format, see {@link DateUtils#isADateFormat(Short, String)}
+     * @return compiled format
+     */
+    public static CompiledDataFormat of(String formatString, Locale locale, boolean date) {
+        Key key = new Key(formatString, locale, date);
+        CompiledDataFormat compiledDataFormat = CACHE.get(key);
+        if (compiledDataFormat != null) {
+            return compiledDataFormat;
+        }
+        compiledDataFormat = compile(formatString, locale, date);
+        if (CACHE.size() >= MAX_CACHE_SIZE) {
+            CACHE.clear();
+        }
+        CACHE.put(key, compiledDataFormat);
+        return compiledDataFormat;
+    }
+
+    /**
+     * Format the value without a java format.
+     *
+     * @param data             value
+     * @param use1904windowing true if date uses 1904 windowing
+     * @return null if the format or the value is not simple enough, and the java format has to be used
+     */
+    public String fastFormat(BigDecimal data, boolean use1904windowing) {
+        if (conditional) {
+            return null;
+        }
+        if (numberLayout != null) {
+            return numberLayout.format(data);
+        }
+        if (dateLayout != null) {
+            return dateLayout.format(data.doubleValue(), use1904windowing);
+        }
+        return null;
+    }
+
+    private static CompiledDataFormat compile(String formatString, Locale locale, boolean date) {
+        boolean conditional = formatString.contains(";")
+                && (formatString.indexOf(';') != formatString.lastIndexOf(';')
+                        || rangeConditionalPattern.matcher(formatString).matches());
+
+        Kind special = checkSpecialConverter(formatString);
+        if (special != null) {
+            return new CompiledDataFormat(date, special, conditional, null, null, (char) 0, null, null);
+        }
+        if ("General".equalsIgnoreCase(formatString) || "@".equals(formatString)) {
+            return general(date, conditional);
+        }
+        String formatStr = formatString;
+
+        // Remove colour formatting if present
+        Matcher colourM = colorPattern.matcher(formatStr);
+        while (colourM.find()) {
+            String colour = colourM.group();
+
+            // Paranoid replacement...
+            int at = formatStr.indexOf(colour);
+            if (at == -1) {
+                break;
+            }
+            String nFormatStr = formatStr.substring(0, at) + formatStr.substring(at + colour.length());
+            if (nFormatStr.equals(formatStr)) {
+                break;
+            }
+
+            // Try again in case there's multiple
+            formatStr = nFormatStr;
+            colourM = colorPattern.matcher(formatStr);
+        }
+
+        // Strip off the locale information, we use an instance-wide locale for everything
+        Matcher m = localePatternGroup.matcher(formatStr);
+        while (m.find()) {
+            String match = m.group();
+            String symbol = match.substring(match.indexOf('$') + 1, match.indexOf('-'));
+            if (symbol.indexOf('$') > -1) {
+                symbol = symbol.substring(0, symbol.indexOf('$')) + '\\' + symbol.substring(symbol.indexOf('$'));
+            }
+            formatStr = m.replaceAll(symbol);
+            m = localePatternGroup.matcher(formatStr);
+        }
+
+        // Check for special cases
+        if (formatStr == null || formatStr.trim().length() == 0) {
+            return general(date, conditional);
+        }
+
+        if ("General".equalsIgnoreCase(formatStr) || "@".equals(formatStr)) {
+            return general(date, conditional);
+        }
+
+        if (date) {
+            return compileDate(formatStr, locale, conditional);
+        }
+        // Excel supports fractions in format strings, which Java doesn't
+        if (formatStr.contains("#/") || formatStr.contains("?/")) {
+            String[] chunks = formatStr.split(";");
+            for (String chunk1 : chunks) {
+                String chunk = chunk1.replaceAll("\\?", "#");
+                Matcher matcher = fractionStripper.matcher(chunk);
+                chunk = matcher.replaceAll(" ");
+                chunk = chunk.replaceAll(" +", " ");
+                Matcher fractionMatcher = fractionPattern.matcher(chunk);
+                // take the first match
+                if (fractionMatcher.find()) {
+                    String wholePart = (fractionMatcher.group(1) == null) ? "" : defaultFractionWholePartFormat;
+                    return new CompiledDataFormat(
+                            date,
+                            Kind.FRACTION,
+                            conditional,
+                            fractionMatcher.group(3),
+                            wholePart,
+                            (char) 0,
+                            null,
+                            null);
+                }
+            }
+
+            // Strip custom text in quotes and escaped characters for now as it can cause performance problems in
+            // fractions.
+            return new CompiledDataFormat(
+                    date,
+                    Kind.FRACTION,
+                    conditional,
+                    defaultFractionFractionPartFormat,
+                    defaultFractionWholePartFormat,
+                    (char) 0,
+                    null,
+                    null);
+        }
+
+        if (numPattern.matcher(formatStr).find()) {
+            return compileNumber(formatStr, locale, conditional);
+        }
+        return general(date, conditional);
+    }
+
+    private static CompiledDataFormat general(boolean date, boolean conditional) {
+        return new CompiledDataFormat(date, Kind.GENERAL, conditional, null, null, (char) 0, null, null);
+    }
+
+    private static Kind checkSpecialConverter(String dataFormatString) {
+        if ("00000\\-0000".equals(dataFormatString) || "00000-0000".equals(dataFormatString)) {
+            return Kind.ZIP_PLUS_FOUR;
+        }
+        if ("[<=9999999]###\\-####;\\(###\\)\\ ###\\-####".equals(dataFormatString)
+                || "[<=9999999]###-####;(###) ###-####".equals(dataFormatString)
+                || "###\\-####;\\(###\\)\\ ###\\-####".equals(dataFormatString)
+                || "###-####;(###) ###-####".equals(dataFormatString)) {
+            return Kind.PHONE;
+        }
+        if ("000\\-00\\-0000".equals(dataFormatString) || "000-00-0000".equals(dataFormatString)) {
+            return Kind.SSN;
+        }
+        return null;
+    }
+
+    private static CompiledDataFormat compileDate(String pFormatStr, Locale locale, boolean conditional) {
+        String formatStr = pFormatStr;
+        formatStr = formatStr.replaceAll("\\\\-", "-");
+        formatStr = formatStr.replaceAll("\\\\,", ",");
+        formatStr = formatStr.replaceAll("\\\\\\.", "."); // . is a special regexp char
+        formatStr = formatStr.replaceAll("\\\\ ", " ");
+        formatStr = formatStr.replaceAll("\\\\/", "/"); // weird: m\\/d\\/yyyy
+        formatStr = formatStr.replaceAll(";@", "");
+        formatStr = formatStr.replaceAll("\"/\"", "/"); // "/" is escaped for no reason in: mm"/"dd"/"yyyy
+        formatStr = formatStr.replace("\"\"", "'"); // replace Excel quoting with Java style quoting
+        formatStr = formatStr.replaceAll("\\\\T", "'T'"); // Quote the T is iso8601 style dates
+        formatStr = formatStr.replace("\"", "");
+
+        boolean hasAmPm = false;
+        Matcher amPmMatcher = amPmPattern.matcher(formatStr);
+        while (amPmMatcher.find()) {
+            formatStr = amPmMatcher.replaceAll("@");
+            hasAmPm = true;
+            amPmMatcher = amPmPattern.matcher(formatStr);
+        }
+        formatStr = formatStr.replaceAll("@", "a");
+
+        Matcher dateMatcher = daysAsText.matcher(formatStr);
+        if (dateMatcher.find()) {
+            String match = dateMatcher.group(0).toUpperCase(Locale.ROOT).replaceAll("D", "E");
+            formatStr = dateMatcher.replaceAll(match);
+        }
+
+        // Convert excel date format to SimpleDateFormat.
+        // Excel uses lower and upper case 'm' for both minutes and months.
+        // From Excel help:
+        /*
+          The "m" or "mm" code must appear immediately after the "h" or"hh"
+          code or immediately before the "ss" code; otherwise, Microsoft
+          Excel displays the month instead of minutes."
+        */
+        StringBuilder sb = new StringBuilder();
+        char[] chars = formatStr.toCharArray();
+        boolean mIsMonth = true;
+        List<Integer> ms = new ArrayList<Integer>();
+        boolean isElapsed = false;
+        for (int j = 0; j < chars.length; j++) {
+            char c = chars[j];
+            if (c == '\'') {
+                sb.append(c);
+                j++;
+
+                // skip until the next quote
+                while (j < chars.length) {
+                    c = chars[j];
+                    sb.append(c);
+                    if (c == '\'') {
+                        break;
+                    }
+                    j++;
+                }
+            } else if (c == '[' && !isElapsed) {
+                isElapsed = true;
+                mIsMonth = false;
+                sb.append(c);
+            } else if (c == ']' && isElapsed) {
+                isElapsed = false;
+                sb.append(c);
+            } else if (isElapsed) {
+                if (c == 'h' || c == 'H') {
+                    sb.append('H');
+                } else if (c == 'm' || c == 'M') {
+                    sb.append('m');
+                } else if (c == 's' || c == 'S') {
+                    sb.append('s');
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == 'h' || c == 'H') {
+                mIsMonth = false;
+                if (hasAmPm) {
+                    sb.append('h');
+                } else {
+                    sb.append('H');
+                }
+            } else if (c == 'm' || c == 'M') {
+                if (mIsMonth) {
+                    sb.append('M');
+                    ms.add(Integer.valueOf(sb.length() - 1));
+                } else {
+                    sb.append('m');
+                }
+            } else if (c == 's' || c == 'S') {
+                sb.append('s');
+                // if 'M' precedes 's' it should be minutes ('m')
+                for (int index : ms) {
+                    if (sb.charAt(index) == 'M') {
+                        sb.replace(index, index + 1, "m");
+                    }
+                }
+                mIsMonth = true;
+                ms.clear();
+            } else if (Character.isLetter(c)) {
+                mIsMonth = true;
+                ms.clear();
+                if (c == 'y' || c == 'Y') {
+                    sb.append('y');
+                } else if (c == 'd' || c == 'D') {
+                    sb.append('d');
+                } else {
+                    sb.append(c);
+                }
+            } else {
+                if (Character.isWhitespace(c)) {
+                    ms.clear();
+                }
+                sb.append(c);
+            }
+        }
+        formatStr = sb.toString();
+
+        try {
+            new ExcelStyleDateFormatter(formatStr, DateFormatSymbols.getInstance(locale));
+        } catch (IllegalArgumentException iae) {
+            log.debug("Formatting failed for format {}, falling back", formatStr, iae);
+            // the pattern could not be parsed correctly,
+            // so fall back to the default number format
+            return general(true, conditional);
+        }
+        return new CompiledDataFormat(
+                true,
+                Kind.DATE,
+                conditional,
+                formatStr,
+                null,
+                (char) 0,
+                null,
+                DateLayout.compile(formatStr));
+    }
+
+    private static String cleanFormatForNumber(String formatStr) {
+        StringBuilder sb = new StringBuilder(formatStr);
+        // If they requested spacers, with "_",
+        // remove those as we don't do spacing
+        // If they requested full-column-width
+        // padding, with "*", remove those too
+        for (int i = 0; i < sb.length(); i++) {
+            char c = sb.charAt(i);
+            if (c == '_' || c == '*') {
+                if (i > 0 && sb.charAt((i - 1)) == '\\') {
+                    // It's escaped, don't worry
+                    continue;
+                }
+                if (i < sb.length() - 1) {
+                    // Remove the character we're supposed
+                    // to match the space of / pad to the
+                    // column width with
+                    sb.deleteCharAt(i + 1);
+                }
+                // Remove the _ too
+                sb.deleteCharAt(i);
+                i--;
+            }
+        }
+
+        // Now, handle the other aspects like
+        // quoting and scientific notation
+        for (int i = 0; i < sb.length(); i++) {
+            char c = sb.charAt(i);
+            // remove quotes and back slashes
+            if (c == '\\' || c == '"') {
+                sb.deleteCharAt(i);
+                i--;
+
+                // for scientific/engineering notation
+            } else if (c == '+' && i > 0 && sb.charAt(i - 1) == 'E') {
+                sb.deleteCharAt(i);
+                i--;
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static CompiledDataFormat compileNumber(String formatStr, Locale locale, boolean conditional) {
+        String format = cleanFormatForNumber(formatStr);
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        char groupingSeparator = 0;
+
+        // Do we need to change the grouping character?
+        // eg for a format like #'##0 which wants 12'345 not 12,345
+        Matcher agm = alternateGrouping.matcher(format);
+        if (agm.find()) {
+            char grouping = agm.group(2).charAt(0);
+            // Only replace the grouping character if it is not the default
+            // grouping character for the US locale (',') in order to enable
+            // correct grouping for non-US locales.
+            if (grouping != ',') {
+                symbols.setGroupingSeparator(grouping);
+                groupingSeparator = grouping;
+                String oldPart = agm.group(1);
+                String newPart = oldPart.replace(grouping, ',');
+                format = format.replace(oldPart, newPart);
+            }
+        }
+
+        DecimalFormat decimalFormat;
+        try {
+            decimalFormat = new DecimalFormat(DataFormatter.trimTrailingCommas(format), symbols);
+        } catch (IllegalArgumentException iae) {
+            log.error("Formatting failed for format {}, falling back", formatStr, iae);
+            // the pattern could not be parsed correctly,
+            // so fall back to the default number format
+            return general(false, conditional);
+        }
+        NumberLayout numberLayout = format.endsWith(",") ? null : NumberLayout.compile(decimalFormat);
+        return new CompiledDataFormat(
+                false,
+                Kind.NUMBER,
+                conditional,
+                format,
+                null,
+                groupingSeparator,
+                numberLayout,
+                null);
+    }
+
+    private static final class Key {
+        private final String formatString;
+        private final Locale locale;
+        private final boolean date;
+        private final int hash;
+
+        private Key(String formatString, Locale locale, boolean date) {
+            this.formatString = formatString;
+            this.locale = locale;
+            this.date = date;
+            this.hash = (formatString.hashCode() * 31 + locale.hashCode()) * 31 + (date ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return date == key.date && formatString.equals(key.formatString) && locale.equals(key.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A decimal format without exponent, currency or scaling commas, written the same way {@link DecimalFormat}
+     * writes a {@link BigDecimal}: multiplied, rounded half up to the maximum fraction digits, trailing zeros removed
+     * down to the minimum fraction digits, and the integer part padded and grouped.
+     */
+    private static final class NumberLayout {
+        private final BigDecimal multiplier;
+        private final int minimumIntegerDigits;
+        private final int minimumFractionDigits;
+        private final int maximumFractionDigits;
+        private final int groupingSize;
+        private final char groupingSeparator;
+        private final char decimalSeparator;
+        private final String positivePrefix;
+        private final String positiveSuffix;
+        private final String negativePrefix;
+        private final String negativeSuffix;
+
+        private NumberLayout(DecimalFormat decimalFormat) {
+            DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+            multiplier = decimalFormat.getMultiplier() == 1 ? null : BigDecimal.valueOf(decimalFormat.getMultiplier());
+            minimumIntegerDigits = decimalFormat.getMinimumIntegerDigits();
+            minimumFractionDigits = decimalFormat.getMinimumFractionDigits();
+            maximumFractionDigits = decimalFormat.getMaximumFractionDigits();
+            groupingSize = decimalFormat.isGroupingUsed() ? decimalFormat.getGroupingSize() : 0;
+            groupingSeparator = symbols.getGroupingSeparator();
+            decimalSeparator = symbols.getDecimalSeparator();
+            positivePrefix = decimalFormat.getPositivePrefix();
+            positiveSuffix = decimalFormat.getPositiveSuffix();
+            negativePrefix = decimalFormat.getNegativePrefix();
+            negativeSuffix = decimalFormat.getNegativeSuffix();
+        }
+
+        private static NumberLayout compile(DecimalFormat decimalFormat) {
+            String pattern = decimalFormat.toPattern();
+            DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+            if (pattern.indexOf('E') >= 0
+                    || pattern.indexOf('¤') >= 0
+                    || symbols.getZeroDigit() != '0'
+                    || decimalFormat.isDecimalSeparatorAlwaysShown()
+                    || decimalFormat.getMultiplier() <= 0
+                    || (decimalFormat.getMinimumIntegerDigits() == 0 && decimalFormat.getMaximumFractionDigits() > 0)
+                    || decimalFormat.getMaximumFractionDigits() > 340) {
+                return null;
+            }
+            return new NumberLayout(decimalFormat);
+        }
+
+        private String format(BigDecimal data) {
+            if (data.signum() < 0) {
+                BigDecimal rounded = round(data.negate());
+                // DecimalFormat keeps the sign of a negative value rounded to zero
+                if (rounded.signum() == 0) {
+                    return null;
+                }
+                return write(rounded, negativePrefix, negativeSuffix);
+            }
+            return write(round(data), positivePrefix, positiveSuffix);
+        }
+
+        private BigDecimal round(BigDecimal value) {
+            if (multiplier != null) {
+                value = value.multiply(multiplier);
+            }
+            return value.setScale(maximumFractionDigits, RoundingMode.HALF_UP);
+        }
+
+        private String write(BigDecimal rounded, String prefix, String suffix) {
+            String digits = rounded.unscaledValue().toString();
+            // digits of the integer part, the fraction part is always maximumFractionDigits long
+            int integerLength = digits.length() - maximumFractionDigits;
+            int integerDigits = rounded.signum() == 0 ? 0 : Math.max(integerLength, 0);
+            int fractionLength = maximumFractionDigits;
+            while (fractionLength > minimumFractionDigits
+                    && fractionDigit(digits, integerLength, fractionLength - 1) == '0') {
+                fractionLength--;
+            }
+            StringBuilder sb = new StringBuilder(prefix.length() + digits.length() + 8 + suffix.length());
+            sb.append(prefix);
+            int totalIntegerDigits = Math.max(integerDigits, minimumIntegerDigits);
+            for (int i = totalIntegerDigits; i > 0; i--) {
+                sb.append(i <= integerDigits ? digits.charAt(integerDigits - i) : '0');
+                if (groupingSize > 0 && i > 1 && (i - 1) % groupingSize == 0) {
+                    sb.append(groupingSeparator);
+                }
+            }
+            if (totalIntegerDigits == 0 && fractionLength == 0) {
+                sb.append('0');
+            }
+            if (fractionLength > 0) {
+                sb.append(decimalSeparator);
+                for (int i = 0; i < fractionLength; i++) {
+                    sb.append(fractionDigit(digits, integerLength, i));
+                }
+            }
+            sb.append(suffix);
+            return sb.toString();
+        }
+
+        private static char fractionDigit(String digits, int integerLength, int index) {
+            int position = integerLength + index;
+            return position < 0 ? '0' : digits.charAt(position);
+        }
+    }
+
+    /**
+     * A date format made only of the numeric fields {@code yy yyyy M MM d dd H HH m mm s ss} and literal text,
+     * written from the calendar fields computed the same way as {@link DateUtils#getJavaDate(double, boolean)}.
+     * Values in a daylight saving transition, and locales whose calendar or digits are not the Gregorian ones, still
+     * go through {@link ExcelStyleDateFormatter}.
+     */
+    private static final class DateLayout {
+        private static final char YEAR = 'y';
+        private static final char MONTH = 'M';
+        private static final char DAY = 'd';
+        private static final char HOUR = 'H';
+        private static final char MINUTE = 'm';
+        private static final char SECOND = 's';
+
+        private static final Map<Locale, Boolean> GREGORIAN_DIGITS_LOCALE_CACHE = new ConcurrentHashMap<>();
+
+        /**
+         * Field letter or literal text of each part.
+         */
+        private final char[] fields;
+        /**
+         * Number of letters of each field, 0 for literal text.
+         */
+        private final int[] counts;
+
+        private final String[] literals;
+
+        private DateLayout(char[] fields, int[] counts, String[] literals) {
+            this.fields = fields;
+            this.counts = counts;
+            this.literals = literals;
+        }
+
+        private static DateLayout compile(String pattern) {
+            List<Character> fieldList = new ArrayList<>();
+            List<Integer> countList = new ArrayList<>();
+            List<String> literalList = new ArrayList<>();
+            int index = 0;
+            while (index < pattern.length()) {
+                char c = pattern.charAt(index);
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                    int end = index;
+                    while (end < pattern.length() && pattern.charAt(end) == c) {
+                        end++;
+                    }
+                    int count = end - index;
+                    boolean supported;
+                    switch (c) {
+                        case YEAR:
+                            supported = count == 2 || count == 4;
+                            break;
+                        case MONTH:
+                        case DAY:
+                        case HOUR:
+                        case MINUTE:
+                        case SECOND:
+                            supported = count <= 2;
+                            break;
+                        default:
+                            supported = false;
+                    }
+                    if (!supported) {
+                        return null;
+                    }
+                    fieldList.add(c);
+                    countList.add(count);
+                    literalList.add(null);
+                    index = end;
+                    continue;
+                }
+                if (isUnsupportedLiteral(c)) {
+                    return null;
+                }
+                int end = index + 1;
+                while (end < pattern.length() && !isLetter(pattern.charAt(end))) {
+                    if (isUnsupportedLiteral(pattern.charAt(end))) {
+                        return null;
+                    }
+                    end++;
+                }
+                fieldList.add((char) 0);
+                countList.add(0);
+                literalList.add(pattern.substring(index, end));
+                index = end;
+            }
+            char[] fields = new char[fieldList.size()];
+            int[] counts = new int[fieldList.size()];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = fieldList.get(i);
+                counts[i] = countList.get(i);
+            }
+            return new DateLayout(fields, counts, literalList.toArray(new String[0]));
+        }
+
+        private static boolean isLetter(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+
+        /**
+         * Quotes, elapsed time, milliseconds and the markers of {@link ExcelStyleDateFormatter}.
+         */
+        private static boolean isUnsupportedLiteral(char c) {
+            return c == '\'' || c == '[' || c == ']' || (c >= '0' && c <= '9') || (c >= '\uE000' && c <= '\uF8FF');
+        }
+
+        private String format(double date, boolean use1904windowing) {
+            // same calendar fields as DateUtils.getJavaDate, and the calendar of SimpleDateFormat is Gregorian too
+            if (SerialDateUtils.toEpochMilli(date, use1904windowing) == SerialDateUtils.INVALID
+                    || !isGregorianWithLatinDigits(Locale.getDefault(Locale.Category.FORMAT))) {
+                return null;
+            }
+            LocalDateTime rounded = LocalDateTime.ofEpochSecond(
+                    SerialDateUtils.toLocalSecond(date, use1904windowing), 0, ZoneOffset.UTC);
+            StringBuilder sb = new StringBuilder(24);
+            for (int i = 0; i < fields.length; i++) {
+                switch (fields[i]) {
+                    case YEAR:
+                        if (counts[i] == 2) {
+                            appendPadded(sb, rounded.getYear() % 100, 2);
+                        } else {
+                            appendPadded(sb, rounded.getYear(), counts[i]);
+                        }
+                        break;
+                    case MONTH:
+                        appendPadded(sb, rounded.getMonthValue(), counts[i]);
+                        break;
+                    case DAY:
+                        appendPadded(sb, rounded.getDayOfMonth(), counts[i]);
+                        break;
+                    case HOUR:
+                        appendPadded(sb, rounded.getHour(), counts[i]);
+                        break;
+                    case MINUTE:
+                        appendPadded(sb, rounded.getMinute(), counts[i]);
+                        break;
+                    case SECOND:
+                        appendPadded(sb, rounded.getSecond(), counts[i]);
+                        break;
+                    default:
+                        sb.append(literals[i]);
+                }
+            }
+            return sb.toString();
+        }
+
+        private static void appendPadded(StringBuilder sb, int value, int width) {
+            if (width >= 4 && value < 1000) {
+                sb.append('0');
+            }
+            if (width >= 3 && value < 100) {
+                sb.append('0');
+            }
+            if (width >= 2 && value < 10) {
+                sb.append('0');
+            }
+            sb.append(value);
+        }
+
+        /**
+         * The calendar of {@link SerialDateUtils#isGregorianCalendar(Locale)}, and the digits of
+         * {@link java.text.NumberFormat#getIntegerInstance(Locale)}.
+         */
+        private static boolean isGregorianWithLatinDigits(Locale locale) {
+            Boolean result = GREGORIAN_DIGITS_LOCALE_CACHE.get(locale);
+            if (result == null) {
+                result = SerialDateUtils.isGregorianCalendar(locale)
+                        && DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+                GREGORIAN_DIGITS_LOCALE_CACHE.put(locale, result);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledDataFormat(kind=" + kind + ", pattern=" + Objects.toString(pattern) + ")";
+    }
+}
@@ -27,10 +27,8 @@ import java.text.DecimalFormatSymbols;
 import java.text.FieldPosition;
 import java.text.Format;
 import java.text.ParsePosition;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -55,61 +53,6 @@ public class DataFormatter {
     /**
      * For logging any problems we find
      */
-    private static final String defaultFractionWholePartFormat = "#";
-
-    private static final String defaultFractionFractionPartFormat = "#/##";
-    /**
-     * Pattern to find a number format: "0" or "#"
-     */
-    private static final Pattern numPattern = Pattern.compile("[0#]+");
-
-    /**
-     * Pattern to find days of week as text "ddd...."
-     */
-    private static final Pattern daysAsText = Pattern.compile("([d]{3,})", Pattern.CASE_INSENSITIVE);
-
-    /**
-     * Pattern to find "AM/PM" marker
-     */
-    private static final Pattern amPmPattern =
-            Pattern.compile("(([AP])[M/P]*)|(([上下])[午/下]*)", Pattern.CASE_INSENSITIVE);
-
-    /**
-     * Pattern to find formats with condition ranges e.g. [>=100]
-     */
-    private static final Pattern rangeConditionalPattern =
-            Pattern.compile(".*\\[\\s*(>|>=|<|<=|=)\\s*[0-9]*\\.*[0-9].*");
-
-    /**
-     * A regex to find locale patterns like [$$-1009] and [$?-452]. Note that we don't currently process these into
-     * locales
-     */
-    private static final Pattern localePatternGroup = Pattern.compile("(\\[\\$[^-\\]]*-[0-9A-Z]+])");
-
-    /**
-     * A regex to match the colour formattings rules. Allowed colours are: Black, Blue, Cyan, Green, Magenta, Red,
-     * White, Yellow, "Color n" (1<=n<=56)
-     */
-    private static final Pattern colorPattern = Pattern.compile(
-            "(\\[BLACK])|(\\[BLUE])|(\\[CYAN])|(\\[GREEN])|" + "(\\[MAGENTA])|(\\[RED])|(\\[WHITE])|(\\[YELLOW])|"
-                    + "(\\[COLOR\\s*\\d])|(\\[COLOR\\s*[0-5]\\d])|(\\[DBNum(1|2|3)])|(\\[\\$-\\d{0,3}])",
-            Pattern.CASE_INSENSITIVE);
-
-    /**
-     * A regex to identify a fraction pattern. This requires that replaceAll("\\?", "#") has already been called
-     */
-    private static final Pattern fractionPattern = Pattern.compile("(?:([#\\d]+)\\s+)?(#+)\\s*/\\s*([#\\d]+)");
-
-    /**
-     * A regex to strip junk out of fraction formats
-     */
-    private static final Pattern fractionStripper = Pattern.compile("(\"[^\"]*\")|([^ ?#\\d/]+)");
-
-    /**
-     * A regex to detect if an alternate grouping character is used in a numeric format
-     */
-    private static final Pattern alternateGrouping = Pattern.compile("([#0]([^.#0])[#0]{3})");
-
     private static final Pattern E_NOTATION_PATTERN = Pattern.compile("E(\\d)");
 
     /**
@@ -145,6 +88,14 @@ public class DataFormatter {
      * A map to cache formats. Map<String,Format> formats
      */
     private final Map<String, Format> formats = new HashMap<String, Format>();
+    /**
+     * The compiled formats used by this instance, in front of the global cache.
+     */
+    private final Map<String, CompiledDataFormat> compiledFormats = new HashMap<String, CompiledDataFormat>();
+    /**
+     * Whether formats have been supplied by the user, in which case they are always used.
+     */
+    private boolean customFormat;
 
     /**
      * stores the locale valid it the last formatting call
@@ -191,7 +142,7 @@ public class DataFormatter {
         this.decimalSymbols = DecimalFormatSymbols.getInstance(this.locale);
     }
 
-    private Format getFormat(Double data, Short dataFormat, String dataFormatString) {
+    private Format getFormat(Double data, Short dataFormat, String dataFormatString, CompiledDataFormat compiled) {
 
         // Might be better to separate out the n p and z formats, falling back to p when n and z are not set.
         // That however would require other code to be re factored.
@@ -206,9 +157,7 @@ public class DataFormatter {
         //  handle these ourselves in a special way.
         // For now, if we detect 2+ parts, we call out to CellFormat to handle it
         // TODO Going forward, we should really merge the logic between the two classes
-        if (formatStr.contains(";")
-                && (formatStr.indexOf(';') != formatStr.lastIndexOf(';')
-                        || rangeConditionalPattern.matcher(formatStr).matches())) {
+        if (compiled.isConditional()) {
             try {
                 // Ask CellFormat to get a formatter for it
                 CellFormat cfmt = CellFormat.getInstance(locale, formatStr);
@@ -233,232 +182,44 @@ public class DataFormatter {
             return format;
         }
 
-        // Is it one of the special built in types, General or @?
-        if ("General".equalsIgnoreCase(formatStr) || "@".equals(formatStr)) {
-            format = getDefaultFormat();
-            addFormat(formatStr, format);
-            return format;
-        }
-
         // Build a formatter, and cache it
-        format = createFormat(dataFormat, formatStr);
-        addFormat(formatStr, format);
+        format = createFormat(compiled);
+        formats.put(formatStr, format);
         return format;
     }
 
-    private Format createFormat(Short dataFormat, String dataFormatString) {
-        String formatStr = dataFormatString;
-
-        Format format = checkSpecialConverter(formatStr);
-        if (format != null) {
-            return format;
-        }
-
-        // Remove colour formatting if present
-        Matcher colourM = colorPattern.matcher(formatStr);
-        while (colourM.find()) {
-            String colour = colourM.group();
-
-            // Paranoid replacement...
-            int at = formatStr.indexOf(colour);
-            if (at == -1) {
-                break;
-            }
-            String nFormatStr = formatStr.substring(0, at) + formatStr.substring(at + colour.length());
-            if (nFormatStr.equals(formatStr)) {
-                break;
-            }
-
-            // Try again in case there's multiple
-            formatStr = nFormatStr;
-            colourM = colorPattern.matcher(formatStr);
-        }
-
-        // Strip off the locale information, we use an instance-wide locale for everything
-        Matcher m = localePatternGroup.matcher(formatStr);
-        while (m.find()) {
-            String match = m.group();
-            String symbol = match.substring(match.indexOf('$') + 1, match.indexOf('-'));
-            if (symbol.indexOf('$') > -1) {
-                symbol = symbol.substring(0, symbol.indexOf('$')) + '\\' + symbol.substring(symbol.indexOf('$'));
-            }
-            formatStr = m.replaceAll(symbol);
-            m = localePatternGroup.matcher(formatStr);
+    private Format createFormat(CompiledDataFormat compiled) {
+        switch (compiled.getKind()) {
+            case ZIP_PLUS_FOUR:
+                return new ZipPlusFourFormat();
+            case PHONE:
+                return new PhoneFormat();
+            case SSN:
+                return new SSNFormat();
+            case DATE:
+                return createDateFormat(compiled.getPattern());
+            case FRACTION:
+                return new FractionFormat(compiled.getFractionWholePart(), compiled.getPattern());
+            case NUMBER:
+                return createNumberFormat(compiled.getPattern(), compiled.getGroupingSeparator());
+            default:
+                return getDefaultFormat();
         }
-
-        // Check for special cases
-        if (formatStr == null || formatStr.trim().length() == 0) {
-            return getDefaultFormat();
-        }
-
-        if ("General".equalsIgnoreCase(formatStr) || "@".equals(formatStr)) {
-            return getDefaultFormat();
-        }
-
-        if (DateUtils.isADateFormat(dataFormat, formatStr)) {
-            return createDateFormat(formatStr);
-        }
-        // Excel supports fractions in format strings, which Java doesn't
-        if (formatStr.contains("#/") || formatStr.contains("?/")) {
-            String[] chunks = formatStr.split(";");
-            for (String chunk1 : chunks) {
-                String chunk = chunk1.replaceAll("\\?", "#");
-                Matcher matcher = fractionStripper.matcher(chunk);
-                chunk = matcher.replaceAll(" ");
-                chunk = chunk.replaceAll(" +", " ");
-                Matcher fractionMatcher = fractionPattern.matcher(chunk);
-                // take the first match
-                if (fractionMatcher.find()) {
-                    String wholePart = (fractionMatcher.group(1) == null) ? "" : defaultFractionWholePartFormat;
-                    return new FractionFormat(wholePart, fractionMatcher.group(3));
-                }
-            }
-
-            // Strip custom text in quotes and escaped characters for now as it can cause performance problems in
-            // fractions.
-            // String strippedFormatStr = formatStr.replaceAll("\\\\ ", " ").replaceAll("\\\\.",
-            // "").replaceAll("\"[^\"]*\"", " ").replaceAll("\\?", "#");
-            return new FractionFormat(defaultFractionWholePartFormat, defaultFractionFractionPartFormat);
-        }
-
-        if (numPattern.matcher(formatStr).find()) {
-            return createNumberFormat(formatStr);
-        }
-        return getDefaultFormat();
     }
 
-    private Format checkSpecialConverter(String dataFormatString) {
-        if ("00000\\-0000".equals(dataFormatString) || "00000-0000".equals(dataFormatString)) {
-            return new ZipPlusFourFormat();
-        }
-        if ("[<=9999999]###\\-####;\\(###\\)\\ ###\\-####".equals(dataFormatString)
-                || "[<=9999999]###-####;(###) ###-####".equals(dataFormatString)
-                || "###\\-####;\\(###\\)\\ ###\\-####".equals(dataFormatString)
-                || "###-####;(###) ###-####".equals(dataFormatString)) {
-            return new PhoneFormat();
-        }
-        if ("000\\-00\\-0000".equals(dataFormatString) || "000-00-0000".equals(dataFormatString)) {
-            return new SSNFormat();
+    /**
+     * Get the compiled format, from the formats used by this instance or the global cache.
+     */
+    private CompiledDataFormat getCompiledFormat(String dataFormatString, boolean date) {
+        CompiledDataFormat compiled = compiledFormats.get(dataFormatString);
+        if (compiled == null || compiled.isDate() != date) {
+            compiled = CompiledDataFormat.of(dataFormatString, locale, date);
+            compiledFormats.put(dataFormatString, compiled);
         }
-        return null;
+        return compiled;
     }
 
-    private Format createDateFormat(String pFormatStr) {
-        String formatStr = pFormatStr;
-        formatStr = formatStr.replaceAll("\\\\-", "-");
-        formatStr = formatStr.replaceAll("\\\\,", ",");
-        formatStr = formatStr.replaceAll("\\\\\\.", "."); // . is a special regexp char
-        formatStr = formatStr.replaceAll("\\\\ ", " ");
-        formatStr = formatStr.replaceAll("\\\\/", "/"); // weird: m\\/d\\/yyyy
-        formatStr = formatStr.replaceAll(";@", "");
-        formatStr = formatStr.replaceAll("\"/\"", "/"); // "/" is escaped for no reason in: mm"/"dd"/"yyyy
-        formatStr = formatStr.replace("\"\"", "'"); // replace Excel quoting with Java style quoting
-        formatStr = formatStr.replaceAll("\\\\T", "'T'"); // Quote the T is iso8601 style dates
-        formatStr = formatStr.replace("\"", "");
-
-        boolean hasAmPm = false;
-        Matcher amPmMatcher = amPmPattern.matcher(formatStr);
-        while (amPmMatcher.find()) {
-            formatStr = amPmMatcher.replaceAll("@");
-            hasAmPm = true;
-            amPmMatcher = amPmPattern.matcher(formatStr);
-        }
-        formatStr = formatStr.replaceAll("@", "a");
-
-        Matcher dateMatcher = daysAsText.matcher(formatStr);
-        if (dateMatcher.find()) {
-            String match = dateMatcher.group(0).toUpperCase(Locale.ROOT).replaceAll("D", "E");
-            formatStr = dateMatcher.replaceAll(match);
-        }
-
-        // Convert excel date format to SimpleDateFormat.
-        // Excel uses lower and upper case 'm' for both minutes and months.
-        // From Excel help:
-        /*
-          The "m" or "mm" code must appear immediately after the "h" or"hh"
-          code or immediately before the "ss" code; otherwise, Microsoft
-          Excel displays the month instead of minutes."
-        */
-        StringBuilder sb = new StringBuilder();
-        char[] chars = formatStr.toCharArray();
-        boolean mIsMonth = true;
-        List<Integer> ms = new ArrayList<Integer>();
-        boolean isElapsed = false;
-        for (int j = 0; j < chars.length; j++) {
-            char c = chars[j];
-            if (c == '\'') {
-                sb.append(c);
-                j++;
-
-                // skip until the next quote
-                while (j < chars.length) {
-                    c = chars[j];
-                    sb.append(c);
-                    if (c == '\'') {
-                        break;
-                    }
-                    j++;
-                }
-            } else if (c == '[' && !isElapsed) {
-                isElapsed = true;
-                mIsMonth = false;
-                sb.append(c);
-            } else if (c == ']' && isElapsed) {
-                isElapsed = false;
-                sb.append(c);
-            } else if (isElapsed) {
-                if (c == 'h' || c == 'H') {
-                    sb.append('H');
-                } else if (c == 'm' || c == 'M') {
-                    sb.append('m');
-                } else if (c == 's' || c == 'S') {
-                    sb.append('s');
-                } else {
-                    sb.append(c);
-                }
-            } else if (c == 'h' || c == 'H') {
-                mIsMonth = false;
-                if (hasAmPm) {
-                    sb.append('h');
-                } else {
-                    sb.append('H');
-                }
-            } else if (c == 'm' || c == 'M') {
-                if (mIsMonth) {
-                    sb.append('M');
-                    ms.add(Integer.valueOf(sb.length() - 1));
-                } else {
-                    sb.append('m');
-                }
-            } else if (c == 's' || c == 'S') {
-                sb.append('s');
-                // if 'M' precedes 's' it should be minutes ('m')
-                for (int index : ms) {
-                    if (sb.charAt(index) == 'M') {
-                        sb.replace(index, index + 1, "m");
-                    }
-                }
-                mIsMonth = true;
-                ms.clear();
-            } else if (Character.isLetter(c)) {
-                mIsMonth = true;
-                ms.clear();
-                if (c == 'y' || c == 'Y') {
-                    sb.append('y');
-                } else if (c == 'd' || c == 'D') {
-                    sb.append('d');
-                } else {
-                    sb.append(c);
-                }
-            } else {
-                if (Character.isWhitespace(c)) {
-                    ms.clear();
-                }
-                sb.append(c);
-            }
-        }
-        formatStr = sb.toString();
-
+    private Format createDateFormat(String formatStr) {
         try {
             return new ExcelStyleDateFormatter(formatStr, dateSymbols);
         } catch (IllegalArgumentException iae) {
@@ -469,48 +230,8 @@ public class DataFormatter {
         }
     }
 
-    private String cleanFormatForNumber(String formatStr) {
-        StringBuilder sb = new StringBuilder(formatStr);
-        // If they requested spacers, with "_",
-        // remove those as we don't do spacing
-        // If they requested full-column-width
-        // padding, with "*", remove those too
-        for (int i = 0; i < sb.length(); i++) {
-            char c = sb.charAt(i);
-            if (c == '_' || c == '*') {
-                if (i > 0 && sb.charAt((i - 1)) == '\\') {
-                    // It's escaped, don't worry
-                    continue;
-                }
-                if (i < sb.length() - 1) {
-                    // Remove the character we're supposed
-                    // to match the space of / pad to the
-                    // column width with
-                    sb.deleteCharAt(i + 1);
-                }
-                // Remove the _ too
-                sb.deleteCharAt(i);
-                i--;
-            }
-        }
-
-        // Now, handle the other aspects like
-        // quoting and scientific notation
-        for (int i = 0; i < sb.length(); i++) {
-            char c = sb.charAt(i);
-            // remove quotes and back slashes
-            if (c == '\\' || c == '"') {
-                sb.deleteCharAt(i);
-                i--;
-
-                // for scientific/engineering notation
-            } else if (c == '+' && i > 0 && sb.charAt(i - 1) == 'E') {
-                sb.deleteCharAt(i);
-                i--;
-            }
-        }
-
-        return sb.toString();
+    static String trimTrailingCommas(String s) {
+        return s.replaceAll(",+$", "");
     }
 
     private static class InternalDecimalFormatWithScale extends Format {
@@ -520,10 +241,6 @@ public class DataFormatter {
         private static final BigDecimal ONE_THOUSAND = new BigDecimal(1000);
         private final DecimalFormat df;
 
-        private static String trimTrailingCommas(String s) {
-            return s.replaceAll(",+$", "");
-        }
-
         public InternalDecimalFormatWithScale(String pattern, DecimalFormatSymbols symbols) {
             df = new DecimalFormat(trimTrailingCommas(pattern), symbols);
             setExcelStyleRoundingMode(df);
@@ -571,32 +288,19 @@ public class DataFormatter {
         }
     }
 
-    private Format createNumberFormat(String formatStr) {
-        String format = cleanFormatForNumber(formatStr);
+    private Format createNumberFormat(String format, char groupingSeparator) {
         DecimalFormatSymbols symbols = decimalSymbols;
 
-        // Do we need to change the grouping character?
         // eg for a format like #'##0 which wants 12'345 not 12,345
-        Matcher agm = alternateGrouping.matcher(format);
-        if (agm.find()) {
-            char grouping = agm.group(2).charAt(0);
-            // Only replace the grouping character if it is not the default
-            // grouping character for the US locale (',') in order to enable
-            // correct grouping for non-US locales.
-            if (grouping != ',') {
-                symbols = DecimalFormatSymbols.getInstance(locale);
-
-                symbols.setGroupingSeparator(grouping);
-                String oldPart = agm.group(1);
-                String newPart = oldPart.replace(grouping, ',');
-                format = format.replace(oldPart, newPart);
-            }
+        if (groupingSeparator != 0) {
+            symbols = DecimalFormatSymbols.getInstance(locale);
+            symbols.setGroupingSeparator(groupingSeparator);
         }
 
         try {
             return new InternalDecimalFormatWithScale(format, symbols);
         } catch (IllegalArgumentException iae) {
-            log.error("Formatting failed for format {}, falling back", formatStr, iae);
+            log.error("Formatting failed for format {}, falling back", format, iae);
             // the pattern could not be parsed correctly,
             // so fall back to the default number format
             return getDefaultFormat();
@@ -634,8 +338,9 @@ public class DataFormatter {
      * @param dataFormatString
      * @return Formatted value
      */
-    private String getFormattedDateString(Double data, Short dataFormat, String dataFormatString) {
-        Format dateFormat = getFormat(data, dataFormat, dataFormatString);
+    private String getFormattedDateString(
+            Double data, Short dataFormat, String dataFormatString, CompiledDataFormat compiled) {
+        Format dateFormat = getFormat(data, dataFormat, dataFormatString, compiled);
         if (dateFormat instanceof ExcelStyleDateFormatter) {
             // Hint about the raw excel value
             ((ExcelStyleDateFormatter) dateFormat).setDateToBeFormatted(data);
@@ -656,9 +361,14 @@ public class DataFormatter {
      * @param dataFormatString
      * @return a formatted number string
      */
-    private String getFormattedNumberString(BigDecimal data, Short dataFormat, String dataFormatString) {
-        Format numberFormat = getFormat(data.doubleValue(), dataFormat, dataFormatString);
-        return E_NOTATION_PATTERN.matcher(numberFormat.format(data)).replaceFirst("E+$1");
+    private String getFormattedNumberString(
+            BigDecimal data, Short dataFormat, String dataFormatString, CompiledDataFormat compiled) {
+        Format numberFormat = getFormat(data.doubleValue(), dataFormat, dataFormatString, compiled);
+        String value = numberFormat.format(data);
+        if (value.indexOf('E') < 0) {
+            return value;
+        }
+        return E_NOTATION_PATTERN.matcher(value).replaceFirst("E+$1");
     }
 
     /**
@@ -670,10 +380,18 @@ public class DataFormatter {
      * @return
      */
     public String format(BigDecimal data, Short dataFormat, String dataFormatString) {
-        if (DateUtils.isADateFormat(dataFormat, dataFormatString)) {
-            return getFormattedDateString(data.doubleValue(), dataFormat, dataFormatString);
+        boolean date = DateUtils.isADateFormat(dataFormat, dataFormatString);
+        CompiledDataFormat compiled = getCompiledFormat(dataFormatString, date);
+        if (!customFormat) {
+            String value = compiled.fastFormat(data, use1904windowing);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (date) {
+            return getFormattedDateString(data.doubleValue(), dataFormat, dataFormatString, compiled);
         }
-        return getFormattedNumberString(data, dataFormat, dataFormatString);
+        return getFormattedNumberString(data, dataFormat, dataFormatString, compiled);
     }
 
     /**
@@ -692,6 +410,7 @@ public class DataFormatter {
      * @see Format#format
      */
     public void setDefaultNumberFormat(Format format) {
+        customFormat = true;
         for (Map.Entry<String, Format> entry : formats.entrySet()) {
             if (entry.getValue() == defaultNumFormat) {
                 entry.setValue(format);
@@ -712,6 +431,7 @@ public class DataFormatter {
      * @param format         A Format instance
      */
     public void addFormat(String excelFormatStr, Format format) {
+        customFormat = true;
         formats.put(excelFormatStr, format);
     }
 
@@ -26,6 +26,7 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.text.FieldPosition;
 import java.text.Format;
+import java.text.NumberFormat;
 import java.text.ParsePosition;
 import java.util.Locale;
 import org.apache.poi.ss.usermodel.DataFormatter;
@@ -43,10 +44,30 @@ public class ExcelGeneralNumberFormat extends Format {
 
     private static final MathContext TO_10_SF = new MathContext(10, RoundingMode.HALF_UP);
 
+    /**
+     * The maximum number of digits in General format.
+     */
+    private static final int MAX_DIGITS = 10;
+    /**
+     * Integers up to 2^53 are exact in a double.
+     */
+    private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10};
+    private static final long[] LONG_POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L
+    };
+
     private final DecimalFormatSymbols decimalSymbols;
     private final DecimalFormat integerFormat;
     private final DecimalFormat decimalFormat;
     private final DecimalFormat scientificFormat;
+    /**
+     * Whether the digits can be written directly, without going through {@link DecimalFormat}.
+     */
+    private final boolean plainDigits;
+
+    private final String negativePrefix;
 
     public ExcelGeneralNumberFormat(final Locale locale, final boolean useScientificFormat) {
         decimalSymbols = DecimalFormatSymbols.getInstance(locale);
@@ -61,6 +82,11 @@ public class ExcelGeneralNumberFormat extends Format {
         org.apache.poi.ss.usermodel.DataFormatter.setExcelStyleRoundingMode(integerFormat);
         decimalFormat = new DecimalFormat("#.##########", decimalSymbols);
         DataFormatter.setExcelStyleRoundingMode(decimalFormat);
+        negativePrefix = integerFormat.getNegativePrefix();
+        plainDigits = decimalSymbols.getZeroDigit() == '0'
+                && negativePrefix.equals(decimalFormat.getNegativePrefix())
+                && integerFormat.getNegativeSuffix().isEmpty()
+                && decimalFormat.getNegativeSuffix().isEmpty();
     }
 
     @Override
@@ -77,6 +103,11 @@ public class ExcelGeneralNumberFormat extends Format {
         }
 
         final double abs = Math.abs(value);
+        if (plainDigits && pos.getField() == NumberFormat.INTEGER_FIELD && pos.getFieldAttribute() == null) {
+            if (formatPlain(value, abs, toAppendTo, pos)) {
+                return toAppendTo;
+            }
+        }
         if (abs >= 1E11 || (abs <= 1E-10 && abs > 0)) {
             return scientificFormat.format(number, toAppendTo, pos);
         } else if (Math.floor(value) == value || abs >= 1E10) {
@@ -91,6 +122,69 @@ public class ExcelGeneralNumberFormat extends Format {
         return decimalFormat.format(rounded, toAppendTo, pos);
     }
 
+    /**
+     * Write integers and short decimals digit by digit, with the same result as the {@link DecimalFormat} path.
+     * <p>
+     * A decimal of at most 10 significant digits is exactly {@code m / 10^k} when that division gives the value
+     * back, because {@code m} and {@code 10^k} are exact in a double and the division is correctly rounded. Rounding
+     * to 10 significant digits then changes nothing, and {@code m} is the digit string. Other values, such as
+     * {@code 0.1 + 0.2}, return false and are formatted as before.
+     *
+     * @return false if the value needs the {@link DecimalFormat} path
+     */
+    private boolean formatPlain(double value, double abs, StringBuffer toAppendTo, FieldPosition pos) {
+        // scientific, tiny or negative zero
+        if (abs >= 1E11 || (abs <= 1E-10 && Double.doubleToRawLongBits(value) != 0)) {
+            return false;
+        }
+        long mantissa;
+        int scale = -1;
+        if (Math.floor(value) == value) {
+            mantissa = (long) abs;
+            scale = 0;
+        } else if (abs >= 1E10) {
+            return false;
+        } else {
+            mantissa = 0;
+            for (int k = 1; k <= MAX_DIGITS; k++) {
+                double scaled = abs * POWERS_OF_TEN[k];
+                if (scaled >= MAX_EXACT_DOUBLE_MANTISSA) {
+                    return false;
+                }
+                long candidate = Math.round(scaled);
+                if (candidate / POWERS_OF_TEN[k] == abs) {
+                    mantissa = candidate;
+                    scale = k;
+                    break;
+                }
+            }
+            if (scale < 0 || mantissa >= LONG_POWERS_OF_TEN[MAX_DIGITS]) {
+                return false;
+            }
+        }
+        if (value < 0) {
+            toAppendTo.append(negativePrefix);
+        }
+        int integerStart = toAppendTo.length();
+        long integerPart = mantissa / LONG_POWERS_OF_TEN[scale];
+        toAppendTo.append(integerPart);
+        pos.setBeginIndex(integerStart);
+        pos.setEndIndex(toAppendTo.length());
+        if (scale > 0) {
+            long fraction = mantissa - integerPart * LONG_POWERS_OF_TEN[scale];
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                scale--;
+            }
+            toAppendTo.append(decimalSymbols.getDecimalSeparator());
+            for (long power = LONG_POWERS_OF_TEN[scale - 1]; power > fraction; power /= 10) {
+                toAppendTo.append('0');
+            }
+            toAppendTo.append(fraction);
+        }
+        return true;
+    }
+
     @Override
     public Object parseObject(String source, ParsePosition pos) {
         throw new UnsupportedOperationException();
@@ -20,11 +20,13 @@
 package org.apache.fesod.sheet.read.builder;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.QuoteMode;
 import org.apache.fesod.sheet.ExcelReader;
 import org.apache.fesod.sheet.event.SyncReadListener;
 import org.apache.fesod.sheet.exception.ExcelGenerateException;
+import org.apache.fesod.sheet.metadata.csv.CsvCheckpoint;
 import org.apache.fesod.sheet.read.metadata.ReadSheet;
 import org.apache.fesod.sheet.read.metadata.ReadWorkbook;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
@@ -125,6 +127,47 @@ public class CsvReaderBuilder extends AbstractExcelReaderParameterBuilder<CsvRea
         return this;
     }
 
+    /**
+     * Parse the file in parallel on the executor. Default null, the file is parsed on the reading thread.
+     * <p>
+     * Only used when reading a file whose charset is UTF-8, US-ASCII or ISO-8859-1 and whose format has no escape
+     * character. The file is split into ranges that are parsed at the same time, the listeners are still called on
+     * the reading thread with the rows in order.
+     *
+     * @param parseExecutor executor
+     * @return Returns a CsvReaderBuilder object, enabling method chaining
+     */
+    public CsvReaderBuilder parseExecutor(Executor parseExecutor) {
+        this.readWorkbook.setCsvParseExecutor(parseExecutor);
+        return this;
+    }
+
+    /**
+     * Sets the size in bytes of the ranges parsed in parallel. Default 1M.
+     *
+     * @param chunkSize the size in bytes
+     * @return Returns a CsvReaderBuilder object, enabling method chaining
+     */
+    public CsvReaderBuilder chunkSize(Integer chunkSize) {
+        this.readWorkbook.setCsvChunkSize(chunkSize);
+        return this;
+    }
+
+    /**
+     * Resume the reading at a checkpoint, see {@link org.apache.fesod.sheet.context.AnalysisContext#csvCheckpoint()}.
+     * <p>
+     * The file is read from the byte offset of the checkpoint and the rows are numbered from its row index. When
+     * reading a file, the head rows are read again first, so that the head is known. When reading an input stream,
+     * the bytes before the checkpoint are skipped and the head rows are not read.
+     *
+     * @param startCheckpoint checkpoint
+     * @return Returns a CsvReaderBuilder object, enabling method chaining
+     */
+    public CsvReaderBuilder startCheckpoint(CsvCheckpoint startCheckpoint) {
+        this.readWorkbook.setCsvStartCheckpoint(startCheckpoint);
+        return this;
+    }
+
     private ExcelReader buildExcelReader() {
         this.csvFormatBuilder.setTrim(this.readWorkbook.getAutoTrim() == null
                 || this.readWorkbook.getAutoTrim()
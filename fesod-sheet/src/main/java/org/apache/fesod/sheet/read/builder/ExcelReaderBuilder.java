@@ -24,9 +24,11 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.Executor;
 import javax.xml.parsers.SAXParserFactory;
 import org.apache.fesod.sheet.ExcelReader;
 import org.apache.fesod.sheet.cache.ReadCache;
+import org.apache.fesod.sheet.cache.WorkbookCacheStore;
 import org.apache.fesod.sheet.cache.selector.ReadCacheSelector;
 import org.apache.fesod.sheet.cache.selector.SimpleReadCacheSelector;
 import org.apache.fesod.sheet.context.AnalysisContext;
@@ -162,6 +164,20 @@ public class ExcelReaderBuilder extends AbstractExcelReaderParameterBuilder<Exce
         return this;
     }
 
+    /**
+     * Store the shared strings, data formats and sheets of the xlsx workbook, so that reading it again does not
+     * parse them. Default null, nothing is stored.
+     * <p>
+     * The shared strings are stored in plain text, so encrypted workbooks are neither stored nor loaded.
+     *
+     * @param workbookCacheStore store, usually one for the whole application
+     * @return this
+     */
+    public ExcelReaderBuilder workbookCacheStore(WorkbookCacheStore workbookCacheStore) {
+        readWorkbook.setWorkbookCacheStore(workbookCacheStore);
+        return this;
+    }
+
     /**
      * Whether the encryption
      *
@@ -173,6 +189,18 @@ public class ExcelReaderBuilder extends AbstractExcelReaderParameterBuilder<Exce
         return this;
     }
 
+    /**
+     * Executor used to decrypt the encrypted xlsx file in parallel. Default null, the file is decrypted on the reading
+     * thread.
+     *
+     * @param decryptExecutor executor
+     * @return this
+     */
+    public ExcelReaderBuilder decryptExecutor(Executor decryptExecutor) {
+        readWorkbook.setDecryptExecutor(decryptExecutor);
+        return this;
+    }
+
     /**
      * SAXParserFactory used when reading xlsx.
      * <p>
@@ -37,7 +37,6 @@ import org.apache.fesod.sheet.read.metadata.property.ExcelReadHeadProperty;
 import org.apache.fesod.sheet.util.BeanMapUtils;
 import org.apache.fesod.sheet.util.ClassUtils;
 import org.apache.fesod.sheet.util.ConverterUtils;
-import org.apache.fesod.sheet.util.DateUtils;
 import org.apache.fesod.sheet.util.MapUtils;
 
 /**
@@ -120,7 +119,9 @@ public class ModelBuildEventListener implements IgnoreExceptionReadListener<Map<
             case NUMBER:
                 DataFormatData dataFormatData = cellData.getDataFormatData();
                 if (dataFormatData != null
-                        && DateUtils.isADateFormat(dataFormatData.getIndex(), dataFormatData.getFormat())) {
+                        && context.readWorkbookHolder()
+                                .getDateFormatIndexCache()
+                                .isDateFormat(dataFormatData.getIndex(), dataFormatData.getFormat())) {
                     classGeneric = LocalDateTime.class;
                 } else {
                     classGeneric = BigDecimal.class;
@@ -23,18 +23,21 @@ import java.io.File;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import javax.xml.parsers.SAXParserFactory;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.fesod.sheet.cache.ReadCache;
+import org.apache.fesod.sheet.cache.WorkbookCacheStore;
 import org.apache.fesod.sheet.cache.selector.ReadCacheSelector;
 import org.apache.fesod.sheet.cache.selector.SimpleReadCacheSelector;
 import org.apache.fesod.sheet.context.AnalysisContext;
 import org.apache.fesod.sheet.enums.CellExtraTypeEnum;
 import org.apache.fesod.sheet.enums.ReadDefaultReturnEnum;
 import org.apache.fesod.sheet.event.AnalysisEventListener;
+import org.apache.fesod.sheet.metadata.csv.CsvCheckpoint;
 import org.apache.fesod.sheet.read.listener.ModelBuildEventListener;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
 
@@ -95,10 +98,25 @@ public class ReadWorkbook extends ReadBasicParameter {
      * Select the cache. Default use {@link SimpleReadCacheSelector}
      */
     private ReadCacheSelector readCacheSelector;
+    /**
+     * Store of the shared strings, data formats and sheets of the read workbooks. Default null, nothing is stored.
+     * <p>
+     * Only work on the xlsx file. When the workbook is found in the store, the {@code sharedStrings.xml},
+     * {@code styles.xml} and {@code workbook.xml} are not parsed, so {@link ReadCache} and
+     * {@link ReadCacheSelector} are not used and the styles table of the holder is null.
+     */
+    private WorkbookCacheStore workbookCacheStore;
     /**
      * Password for encrypted Excel file.
      */
     private String password;
+    /**
+     * Executor used to decrypt the encrypted xlsx file in parallel. Default null, the file is decrypted on the reading
+     * thread.
+     * <p>
+     * Only work on the xlsx file encrypted with AES by agile or standard encryption.
+     */
+    private Executor decryptExecutor;
     /**
      * SAXParserFactory used when reading xlsx.
      * <p>
@@ -148,4 +166,22 @@ public class ReadWorkbook extends ReadBasicParameter {
      * Only work on the CSV file.
      */
     private CSVFormat csvFormat;
+
+    /**
+     * Executor used to parse the csv file in parallel. Default null, the file is parsed on the reading thread.
+     * Only work on the CSV file.
+     */
+    private Executor csvParseExecutor;
+
+    /**
+     * The size in bytes of the ranges of the csv file parsed in parallel. Default 1M.
+     * Only work on the CSV file.
+     */
+    private Integer csvChunkSize;
+
+    /**
+     * Resume the reading of the csv file at the checkpoint. Default null, the file is read from the start.
+     * Only work on the CSV file.
+     */
+    private CsvCheckpoint csvStartCheckpoint;
 }
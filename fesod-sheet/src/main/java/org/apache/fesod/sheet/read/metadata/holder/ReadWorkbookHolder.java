@@ -30,6 +30,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.apache.fesod.sheet.cache.ReadCache;
+import org.apache.fesod.sheet.cache.WorkbookCacheStore;
 import org.apache.fesod.sheet.cache.selector.EternalReadCacheSelector;
 import org.apache.fesod.sheet.cache.selector.ReadCacheSelector;
 import org.apache.fesod.sheet.cache.selector.SimpleReadCacheSelector;
@@ -42,6 +43,7 @@ import org.apache.fesod.sheet.exception.ExcelAnalysisException;
 import org.apache.fesod.sheet.read.metadata.ReadSheet;
 import org.apache.fesod.sheet.read.metadata.ReadWorkbook;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
+import org.apache.fesod.sheet.util.DateFormatIndexCache;
 
 /**
  * Workbook holder
@@ -117,6 +119,10 @@ public class ReadWorkbookHolder extends AbstractReadHolder {
      * Select the cache.Default use {@link SimpleReadCacheSelector}
      */
     private ReadCacheSelector readCacheSelector;
+    /**
+     * Store of the shared strings, data formats and sheets of the read workbooks. Default null, nothing is stored.
+     */
+    private WorkbookCacheStore workbookCacheStore;
     /**
      * Temporary files when reading excel
      */
@@ -152,6 +158,10 @@ public class ReadWorkbookHolder extends AbstractReadHolder {
      * Ignore hidden sheet.Default is false.
      */
     private Boolean ignoreHiddenSheet;
+    /**
+     * Whether each data format index of the workbook is a date format.
+     */
+    private DateFormatIndexCache dateFormatIndexCache;
 
     public ReadWorkbookHolder(ReadWorkbook readWorkbook) {
         super(readWorkbook, null);
@@ -202,6 +212,7 @@ public class ReadWorkbookHolder extends AbstractReadHolder {
                 this.readCacheSelector = readWorkbook.getReadCacheSelector();
             }
         }
+        this.workbookCacheStore = readWorkbook.getWorkbookCacheStore();
         if (readWorkbook.getExtraReadSet() == null) {
             this.extraReadSet = new HashSet<CellExtraTypeEnum>();
         } else {
@@ -214,6 +225,7 @@ public class ReadWorkbookHolder extends AbstractReadHolder {
         }
         this.hasReadSheet = new HashSet<Integer>();
         this.password = readWorkbook.getPassword();
+        this.dateFormatIndexCache = new DateFormatIndexCache();
     }
 
     @Override
@@ -35,6 +35,10 @@ import org.apache.fesod.sheet.read.metadata.holder.ReadWorkbookHolder;
 @Setter
 @EqualsAndHashCode
 public class CsvReadSheetHolder extends ReadSheetHolder {
+    /**
+     * Byte offset of the record after the current row, -1 if unknown.
+     */
+    private long nextRecordOffset = -1;
 
     public CsvReadSheetHolder(ReadSheet readSheet, ReadWorkbookHolder readWorkbookHolder) {
         super(readSheet, readWorkbookHolder);
@@ -19,11 +19,15 @@
 
 package org.apache.fesod.sheet.read.metadata.holder.csv;
 
+import java.util.concurrent.Executor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
+import org.apache.fesod.sheet.analysis.csv.CsvParallelReader;
+import org.apache.fesod.sheet.analysis.csv.CsvTokenizer;
+import org.apache.fesod.sheet.metadata.csv.CsvCheckpoint;
 import org.apache.fesod.sheet.read.metadata.ReadWorkbook;
 import org.apache.fesod.sheet.read.metadata.holder.ReadWorkbookHolder;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
@@ -40,10 +44,33 @@ public class CsvReadWorkbookHolder extends ReadWorkbookHolder {
 
     private CSVFormat csvFormat;
     private CSVParser csvParser;
+    /**
+     * Used instead of the {@link CSVParser} when the format is supported.
+     */
+    private CsvTokenizer csvTokenizer;
+    /**
+     * Executor used to parse the file in parallel. Default null, the file is parsed on the reading thread.
+     */
+    private Executor parseExecutor;
+    /**
+     * The size of the byte ranges parsed in parallel. Default 1M.
+     */
+    private Integer chunkSize;
+    /**
+     * Where the reading starts. Default null, the file is read from the start.
+     */
+    private CsvCheckpoint startCheckpoint;
 
     public CsvReadWorkbookHolder(ReadWorkbook readWorkbook) {
         super(readWorkbook);
         setExcelType(ExcelTypeEnum.CSV);
         this.csvFormat = readWorkbook.getCsvFormat() == null ? CSVFormat.DEFAULT : readWorkbook.getCsvFormat();
+        this.parseExecutor = readWorkbook.getCsvParseExecutor();
+        this.startCheckpoint = readWorkbook.getCsvStartCheckpoint();
+        if (readWorkbook.getCsvChunkSize() == null) {
+            this.chunkSize = CsvParallelReader.DEFAULT_CHUNK_SIZE;
+        } else {
+            this.chunkSize = readWorkbook.getCsvChunkSize();
+        }
     }
 }
@@ -20,16 +20,23 @@
 package org.apache.fesod.sheet.read.metadata.holder.xls;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.apache.fesod.sheet.constant.BuiltinFormats;
+import org.apache.fesod.sheet.metadata.data.DataFormatData;
+import org.apache.fesod.sheet.read.metadata.ReadSheet;
 import org.apache.fesod.sheet.read.metadata.ReadWorkbook;
 import org.apache.fesod.sheet.read.metadata.holder.ReadWorkbookHolder;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
 import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
 import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 
@@ -43,6 +50,8 @@ import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 @EqualsAndHashCode
 @NoArgsConstructor
 public class XlsReadWorkbookHolder extends ReadWorkbookHolder {
+    private static final int DEFAULT_XF_CACHE_SIZE = 64;
+
     /**
      * File System
      */
@@ -59,10 +68,6 @@ public class XlsReadWorkbookHolder extends ReadWorkbookHolder {
      * Bound sheet record list.
      */
     private List<BoundSheetRecord> boundSheetRecordList;
-    /**
-     * Need read sheet.
-     */
-    private Boolean needReadSheet;
     /**
      * Sheet Index
      */
@@ -76,11 +81,18 @@ public class XlsReadWorkbookHolder extends ReadWorkbookHolder {
      * Has the current sheet already stopped
      */
     private Boolean currentSheetStopped;
+    /**
+     * Data format of the cells, indexed by the XF index. The cells with the same XF share the same instance.
+     */
+    private DataFormatData[] dataFormatDataCache;
+    /**
+     * The locale the {@link #dataFormatDataCache} was built with.
+     */
+    private Locale dataFormatDataLocale;
 
     public XlsReadWorkbookHolder(ReadWorkbook readWorkbook) {
         super(readWorkbook);
         this.boundSheetRecordList = new ArrayList<BoundSheetRecord>();
-        this.needReadSheet = Boolean.TRUE;
         setExcelType(ExcelTypeEnum.XLS);
         if (getGlobalConfiguration().getUse1904windowing() == null) {
             getGlobalConfiguration().setUse1904windowing(Boolean.FALSE);
@@ -88,4 +100,49 @@ public class XlsReadWorkbookHolder extends ReadWorkbookHolder {
         ignoreRecord = Boolean.FALSE;
         currentSheetStopped = Boolean.TRUE;
     }
+
+    /**
+     * Build the actual sheets from the bound sheet records, in the order of the sheet streams.
+     */
+    public void initActualSheetDataList() {
+        BoundSheetRecord[] boundSheetRecords = BoundSheetRecord.orderByBofPosition(boundSheetRecordList);
+        List<ReadSheet> readSheetDataList = new ArrayList<>();
+        for (int i = 0; i < boundSheetRecords.length; i++) {
+            BoundSheetRecord boundSheetRecord = boundSheetRecords[i];
+            ReadSheet readSheet = new ReadSheet(i, boundSheetRecord.getSheetname());
+            readSheet.setHidden(boundSheetRecord.isHidden());
+            readSheet.setVeryHidden(boundSheetRecord.isVeryHidden());
+            readSheetDataList.add(readSheet);
+        }
+        setActualSheetDataList(readSheetDataList);
+    }
+
+    /**
+     * Get the data format of a cell. It is only looked up once for every XF index.
+     *
+     * @param cell   cell record
+     * @param locale locale of the built-in formats
+     * @return data format, shared by all the cells with the same XF index
+     */
+    public DataFormatData dataFormatData(CellValueRecordInterface cell, Locale locale) {
+        int xfIndex = cell.getXFIndex() & 0xFFFF;
+        if (dataFormatDataCache == null || !Objects.equals(locale, dataFormatDataLocale)) {
+            dataFormatDataCache = new DataFormatData[Math.max(DEFAULT_XF_CACHE_SIZE, xfIndex + 1)];
+            dataFormatDataLocale = locale;
+        } else if (xfIndex >= dataFormatDataCache.length) {
+            dataFormatDataCache =
+                    Arrays.copyOf(dataFormatDataCache, Math.max(xfIndex + 1, dataFormatDataCache.length * 2));
+        }
+        DataFormatData dataFormatData = dataFormatDataCache[xfIndex];
+        if (dataFormatData == null) {
+            short index = (short) formatTrackingHSSFListener.getFormatIndex(cell);
+            dataFormatData = new DataFormatData();
+            dataFormatData.setIndex(index);
+            dataFormatData.setFormat(
+                    BuiltinFormats.getBuiltinFormat(index, formatTrackingHSSFListener.getFormatString(cell), locale));
+            getDateFormatIndexCache().isDateFormat(index, dataFormatData.getFormat());
+            dataFormatDataCache[xfIndex] = dataFormatData;
+        }
+        return dataFormatData;
+    }
 }
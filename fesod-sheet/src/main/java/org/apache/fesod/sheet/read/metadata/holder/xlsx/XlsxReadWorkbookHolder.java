@@ -19,6 +19,9 @@
 
 package org.apache.fesod.sheet.read.metadata.holder.xlsx;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import javax.xml.parsers.SAXParserFactory;
 import lombok.EqualsAndHashCode;
@@ -48,6 +51,10 @@ public class XlsxReadWorkbookHolder extends ReadWorkbookHolder {
      * Package
      */
     private OPCPackage opcPackage;
+    /**
+     * The decrypted package of an encrypted xlsx, the package is opened from it.
+     */
+    private File decryptedFile;
     /**
      * SAXParserFactory used when reading xlsx.
      * <p>
@@ -80,6 +87,65 @@ public class XlsxReadWorkbookHolder extends ReadWorkbookHolder {
         dataFormatDataCache = MapUtils.newHashMap();
     }
 
+    /**
+     * Check the data format of every cell style once, right after the styles are loaded, so that the cells only need
+     * to look up the index.
+     */
+    public void initDateFormatIndexCache() {
+        if (stylesTable == null) {
+            return;
+        }
+        for (int i = 0; i < stylesTable.getNumCellStyles(); i++) {
+            DataFormatData dataFormatData = dataFormatData(i);
+            if (dataFormatData != null) {
+                getDateFormatIndexCache().isDateFormat(dataFormatData.getIndex(), dataFormatData.getFormat());
+            }
+        }
+    }
+
+    /**
+     * The data format of each cell style as it is in the workbook, to be kept in a workbook cache store.
+     *
+     * @return data formats, empty if there is no style information
+     */
+    public List<DataFormatData> workbookDataFormatDataList() {
+        if (stylesTable == null) {
+            return new ArrayList<>();
+        }
+        List<DataFormatData> dataFormatDataList = new ArrayList<>(stylesTable.getNumCellStyles());
+        for (int i = 0; i < stylesTable.getNumCellStyles(); i++) {
+            DataFormatData dataFormatData = new DataFormatData();
+            XSSFCellStyle xssfCellStyle = stylesTable.getStyleAt(i);
+            if (xssfCellStyle != null) {
+                dataFormatData.setIndex(xssfCellStyle.getDataFormat());
+                dataFormatData.setFormat(xssfCellStyle.getDataFormatString());
+            }
+            dataFormatDataList.add(dataFormatData);
+        }
+        return dataFormatDataList;
+    }
+
+    /**
+     * Same as {@link #initDateFormatIndexCache()}, with the data formats from a workbook cache store instead of the
+     * styles table.
+     *
+     * @param dataFormatDataList data formats from {@link #workbookDataFormatDataList()}
+     */
+    public void initDataFormatDataCache(List<DataFormatData> dataFormatDataList) {
+        for (int i = 0; i < dataFormatDataList.size(); i++) {
+            DataFormatData workbookDataFormatData = dataFormatDataList.get(i);
+            if (workbookDataFormatData.getIndex() == null) {
+                continue;
+            }
+            DataFormatData dataFormatData = new DataFormatData();
+            dataFormatData.setIndex(workbookDataFormatData.getIndex());
+            dataFormatData.setFormat(BuiltinFormats.getBuiltinFormat(
+                    dataFormatData.getIndex(), workbookDataFormatData.getFormat(), globalConfiguration().getLocale()));
+            dataFormatDataCache.put(i, dataFormatData);
+            getDateFormatIndexCache().isDateFormat(dataFormatData.getIndex(), dataFormatData.getFormat());
+        }
+    }
+
     public DataFormatData dataFormatData(int dateFormatIndexInteger) {
         return dataFormatDataCache.computeIfAbsent(dateFormatIndexInteger, key -> {
             DataFormatData dataFormatData = new DataFormatData();
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.util;
+
+import java.util.BitSet;
+
+/**
+ * Whether each data format index is a date format, kept as two bit sets.
+ * <p>
+ * The indexes are unique within a workbook, so one instance must not be shared by different workbooks.
+ *
+ *
+ */
+public class DateFormatIndexCache {
+    /**
+     * The indexes that have been checked.
+     */
+    private final BitSet checked = new BitSet();
+    /**
+     * The indexes that are date formats.
+     */
+    private final BitSet date = new BitSet();
+
+    /**
+     * Check a data format and remember the result.
+     *
+     * @param formatIndex  data format index
+     * @param formatString data format string
+     * @return true if it is a date format
+     */
+    public boolean put(short formatIndex, String formatString) {
+        int bitIndex = formatIndex & 0xFFFF;
+        boolean isDate = DateUtils.isADateFormatUncached(formatIndex, formatString);
+        checked.set(bitIndex);
+        date.set(bitIndex, isDate);
+        return isDate;
+    }
+
+    /**
+     * Determine if it is a date format. The format string is only used the first time an index is seen.
+     *
+     * @param formatIndex  Nullable. data format index
+     * @param formatString data format string
+     * @return true if it is a date format
+     */
+    public boolean isDateFormat(Short formatIndex, String formatString) {
+        if (formatIndex == null) {
+            return false;
+        }
+        int bitIndex = formatIndex & 0xFFFF;
+        if (checked.get(bitIndex)) {
+            return date.get(bitIndex);
+        }
+        return put(formatIndex, formatString);
+    }
+}
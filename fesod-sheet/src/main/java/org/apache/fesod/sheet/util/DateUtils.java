@@ -25,6 +25,8 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
 import java.util.Date;
@@ -32,6 +34,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.util.LocaleUtil;
@@ -43,11 +46,24 @@ public class DateUtils {
     /**
      * Is a cache of dates
      */
-    private static final ThreadLocal<Map<Short, Boolean>> DATE_THREAD_LOCAL = new ThreadLocal<>();
+    private static final ThreadLocal<DateFormatIndexCache> DATE_THREAD_LOCAL = new ThreadLocal<>();
     /**
      * Is a cache of dates
      */
     private static final ThreadLocal<Map<String, SimpleDateFormat>> DATE_FORMAT_THREAD_LOCAL = new ThreadLocal<>();
+    /**
+     * Cache of the date time formatters without locale. They are immutable and thread-safe.
+     */
+    private static final Map<String, DateTimeFormatter> DATE_TIME_FORMATTER_CACHE = new ConcurrentHashMap<>();
+    /**
+     * Cache of the date time formatters with locale.
+     */
+    private static final Map<Locale, Map<String, DateTimeFormatter>> LOCALE_DATE_TIME_FORMATTER_CACHE =
+            new ConcurrentHashMap<>();
+    /**
+     * Cache of the fixed width layouts, by date format.
+     */
+    private static final Map<String, FixedDateLayout> FIXED_DATE_LAYOUT_CACHE = new ConcurrentHashMap<>();
 
     /**
      * The following patterns are used in {@link #isADateFormat(Short, String)}
@@ -87,6 +103,10 @@ public class DateUtils {
     // used to specify that date is invalid
     private static final int BAD_DATE = -1;
     public static final long DAY_MILLISECONDS = SECONDS_PER_DAY * 1000L;
+    /**
+     * Larger years are left to POI.
+     */
+    private static final int MAX_EXCEL_YEAR = 9999;
 
     private DateUtils() {}
 
@@ -102,6 +122,14 @@ public class DateUtils {
         if (StringUtils.isEmpty(dateFormat)) {
             dateFormat = switchDateFormat(dateString);
         }
+        FixedDateLayout layout = getFixedDateLayout(dateFormat);
+        LocalDateTime localDateTime = layout.isLocalDateSupported() ? layout.parse(dateString) : null;
+        if (localDateTime != null) {
+            return Date.from(localDateTime
+                    .atZone(ZoneId.systemDefault())
+                    .withLaterOffsetAtOverlap()
+                    .toInstant());
+        }
         return getCacheDateFormat(dateFormat).parse(dateString);
     }
 
@@ -117,11 +145,12 @@ public class DateUtils {
         if (StringUtils.isEmpty(dateFormat)) {
             dateFormat = switchDateFormat(dateString);
         }
-        if (local == null) {
-            return LocalDateTime.parse(dateString, DateTimeFormatter.ofPattern(dateFormat));
-        } else {
-            return LocalDateTime.parse(dateString, DateTimeFormatter.ofPattern(dateFormat, local));
+        FixedDateLayout layout = getFixedDateLayout(dateFormat);
+        LocalDateTime localDateTime = layout.isLocalDateTimeSupported() ? layout.parse(dateString) : null;
+        if (localDateTime != null) {
+            return localDateTime;
         }
+        return LocalDateTime.parse(dateString, getCacheDateTimeFormatter(dateFormat, local));
     }
 
     /**
@@ -136,11 +165,12 @@ public class DateUtils {
         if (StringUtils.isEmpty(dateFormat)) {
             dateFormat = switchDateFormat(dateString);
         }
-        if (local == null) {
-            return LocalDate.parse(dateString, DateTimeFormatter.ofPattern(dateFormat));
-        } else {
-            return LocalDate.parse(dateString, DateTimeFormatter.ofPattern(dateFormat, local));
+        FixedDateLayout layout = getFixedDateLayout(dateFormat);
+        LocalDateTime localDateTime = layout.isLocalDateSupported() ? layout.parse(dateString) : null;
+        if (localDateTime != null) {
+            return localDateTime.toLocalDate();
         }
+        return LocalDate.parse(dateString, getCacheDateTimeFormatter(dateFormat, local));
     }
 
     /**
@@ -229,11 +259,7 @@ public class DateUtils {
         if (StringUtils.isEmpty(dateFormat)) {
             dateFormat = defaultDateFormat;
         }
-        if (local == null) {
-            return date.format(DateTimeFormatter.ofPattern(dateFormat));
-        } else {
-            return date.format(DateTimeFormatter.ofPattern(dateFormat, local));
-        }
+        return date.format(getCacheDateTimeFormatter(dateFormat, local));
     }
 
     /**
@@ -261,11 +287,7 @@ public class DateUtils {
         if (StringUtils.isEmpty(dateFormat)) {
             dateFormat = defaultLocalDateFormat;
         }
-        if (local == null) {
-            return date.format(DateTimeFormatter.ofPattern(dateFormat));
-        } else {
-            return date.format(DateTimeFormatter.ofPattern(dateFormat, local));
-        }
+        return date.format(getCacheDateTimeFormatter(dateFormat, local));
     }
 
     /**
@@ -311,6 +333,19 @@ public class DateUtils {
         return simpleDateFormat;
     }
 
+    private static DateTimeFormatter getCacheDateTimeFormatter(String dateFormat, Locale local) {
+        if (local == null) {
+            return DATE_TIME_FORMATTER_CACHE.computeIfAbsent(dateFormat, DateTimeFormatter::ofPattern);
+        }
+        return LOCALE_DATE_TIME_FORMATTER_CACHE
+                .computeIfAbsent(local, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(dateFormat, key -> DateTimeFormatter.ofPattern(key, local));
+    }
+
+    private static FixedDateLayout getFixedDateLayout(String dateFormat) {
+        return FIXED_DATE_LAYOUT_CACHE.computeIfAbsent(dateFormat, FixedDateLayout::compile);
+    }
+
     /**
      * Given an Excel date with either 1900 or 1904 date windowing,
      * converts it to a java.util.Date.
@@ -326,6 +361,10 @@ public class DateUtils {
      * @return Java representation of the date, or null if date is not a valid Excel date
      */
     public static Date getJavaDate(double date, boolean use1904windowing) {
+        long epochMilli = SerialDateUtils.toEpochMilli(date, use1904windowing);
+        if (epochMilli != SerialDateUtils.INVALID) {
+            return new Date(epochMilli);
+        }
         Calendar calendar = getJavaCalendar(date, use1904windowing, null, true);
         return calendar == null ? null : calendar.getTime();
     }
@@ -405,7 +444,11 @@ public class DateUtils {
      * @return Java representation of the date, or null if date is not a valid Excel date
      */
     public static LocalDateTime getLocalDateTime(double date, boolean use1904windowing) {
-        return DateUtil.getLocalDateTime(date, use1904windowing, true);
+        long localSecond = SerialDateUtils.toLocalSecondHalfUp(date, use1904windowing);
+        if (localSecond == SerialDateUtils.INVALID) {
+            return DateUtil.getLocalDateTime(date, use1904windowing, true);
+        }
+        return LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
     }
 
     /**
@@ -423,10 +466,61 @@ public class DateUtils {
      * @return Java representation of the date, or null if date is not a valid Excel date
      */
     public static LocalDate getLocalDate(double date, boolean use1904windowing) {
-        LocalDateTime localDateTime = getLocalDateTime(date, use1904windowing);
+        long localSecond = SerialDateUtils.toLocalSecondHalfUp(date, use1904windowing);
+        if (localSecond != SerialDateUtils.INVALID) {
+            return LocalDate.ofEpochDay(Math.floorDiv(localSecond, SECONDS_PER_DAY));
+        }
+        LocalDateTime localDateTime = DateUtil.getLocalDateTime(date, use1904windowing, true);
         return localDateTime == null ? null : localDateTime.toLocalDate();
     }
 
+    /**
+     * Given a Date, converts it into a double representing its internal Excel representation in the user time zone
+     * of {@link LocaleUtil}.
+     *
+     * @param date             the Date
+     * @param use1904windowing Should 1900 or 1904 date windowing be used?
+     * @return Excel representation of Date (-1 if error - test for error by checking for less than 0.1)
+     */
+    public static double getExcelDate(Date date, boolean use1904windowing) {
+        double value = SerialDateUtils.toExcelDate(date.getTime(), use1904windowing);
+        if (Double.isNaN(value)) {
+            return DateUtil.getExcelDate(date, use1904windowing);
+        }
+        return value;
+    }
+
+    /**
+     * Given a LocalDateTime, converts it into a double representing its internal Excel representation.
+     *
+     * @param date             the LocalDateTime
+     * @param use1904windowing Should 1900 or 1904 date windowing be used?
+     * @return Excel representation of Date (-1 if error - test for error by checking for less than 0.1)
+     */
+    public static double getExcelDate(LocalDateTime date, boolean use1904windowing) {
+        if (date.getYear() > MAX_EXCEL_YEAR) {
+            return DateUtil.getExcelDate(date, use1904windowing);
+        }
+        return SerialDateUtils.toExcelDate(
+                date.toLocalDate().toEpochDay(),
+                date.toLocalTime().toSecondOfDay() * 1000 + date.getNano() / 1_000_000,
+                use1904windowing);
+    }
+
+    /**
+     * Given a LocalDate, converts it into a double representing its internal Excel representation.
+     *
+     * @param date             the LocalDate
+     * @param use1904windowing Should 1900 or 1904 date windowing be used?
+     * @return Excel representation of Date (-1 if error - test for error by checking for less than 0.1)
+     */
+    public static double getExcelDate(LocalDate date, boolean use1904windowing) {
+        if (date.getYear() > MAX_EXCEL_YEAR) {
+            return DateUtil.getExcelDate(date, use1904windowing);
+        }
+        return SerialDateUtils.toExcelDate(date.toEpochDay(), 0, use1904windowing);
+    }
+
     /**
      * Determine if it is a date format.
      *
@@ -438,19 +532,12 @@ public class DateUtils {
         if (formatIndex == null) {
             return false;
         }
-        Map<Short, Boolean> isDateCache = DATE_THREAD_LOCAL.get();
+        DateFormatIndexCache isDateCache = DATE_THREAD_LOCAL.get();
         if (isDateCache == null) {
-            isDateCache = MapUtils.newHashMap();
+            isDateCache = new DateFormatIndexCache();
             DATE_THREAD_LOCAL.set(isDateCache);
-        } else {
-            Boolean isDatecachedDataList = isDateCache.get(formatIndex);
-            if (isDatecachedDataList != null) {
-                return isDatecachedDataList;
-            }
         }
-        boolean isDate = isADateFormatUncached(formatIndex, formatString);
-        isDateCache.put(formatIndex, isDate);
-        return isDate;
+        return isDateCache.isDateFormat(formatIndex, formatString);
     }
 
     /**
@@ -565,4 +652,168 @@ public class DateUtils {
         DATE_THREAD_LOCAL.remove();
         DATE_FORMAT_THREAD_LOCAL.remove();
     }
+
+    /**
+     * A date format made only of the fixed width numeric fields {@code yyyy MM dd HH mm ss} and literal separators,
+     * such as {@link #DATE_FORMAT_19}. A string that matches the layout exactly is parsed by reading the digits at
+     * their offsets. Anything else, including out of range values that the lenient parsers would roll over, is left
+     * to {@link SimpleDateFormat} or {@link DateTimeFormatter}, so the results are always the same.
+     */
+    private static final class FixedDateLayout {
+        private static final int YEAR = 0;
+        private static final int MONTH = 1;
+        private static final int DAY = 2;
+        private static final int HOUR = 3;
+        private static final int MINUTE = 4;
+        private static final int SECOND = 5;
+        private static final int FIELD_COUNT = 6;
+        private static final char[] FIELD_LETTERS = {'y', 'M', 'd', 'H', 'm', 's'};
+        private static final int[] FIELD_WIDTHS = {4, 2, 2, 2, 2, 2};
+        /**
+         * Before the Gregorian cutover {@link SimpleDateFormat} uses the Julian calendar.
+         */
+        private static final int MIN_YEAR = 1583;
+
+        private static final FixedDateLayout UNSUPPORTED = new FixedDateLayout(null, null);
+
+        /**
+         * The format, where each character of a field is replaced with the index of the field.
+         */
+        private final char[] layout;
+        /**
+         * Offset of each field, or -1 if absent.
+         */
+        private final int[] offsets;
+
+        private FixedDateLayout(char[] layout, int[] offsets) {
+            this.layout = layout;
+            this.offsets = offsets;
+        }
+
+        private static FixedDateLayout compile(String dateFormat) {
+            char[] layout = dateFormat.toCharArray();
+            int[] offsets = {-1, -1, -1, -1, -1, -1};
+            int index = 0;
+            while (index < layout.length) {
+                char c = layout[index];
+                if (c == '\'' || c < FIELD_COUNT) {
+                    return UNSUPPORTED;
+                }
+                if (!Character.isLetter(c)) {
+                    index++;
+                    continue;
+                }
+                int field = fieldOf(c);
+                if (field < 0 || offsets[field] >= 0) {
+                    return UNSUPPORTED;
+                }
+                int end = index;
+                while (end < layout.length && layout[end] == c) {
+                    end++;
+                }
+                if (end - index != FIELD_WIDTHS[field]) {
+                    return UNSUPPORTED;
+                }
+                offsets[field] = index;
+                for (int i = index; i < end; i++) {
+                    layout[i] = (char) field;
+                }
+                index = end;
+            }
+            return new FixedDateLayout(layout, offsets);
+        }
+
+        private static int fieldOf(char c) {
+            for (int i = 0; i < FIELD_COUNT; i++) {
+                if (FIELD_LETTERS[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean has(int field) {
+            return offsets != null && offsets[field] >= 0;
+        }
+
+        private boolean isLocalDateSupported() {
+            return has(YEAR) && has(MONTH) && has(DAY);
+        }
+
+        private boolean isLocalDateTimeSupported() {
+            return isLocalDateSupported() && has(HOUR) && has(MINUTE);
+        }
+
+        /**
+         * Parse the string.
+         *
+         * @param dateString date string
+         * @return null if the string does not match the layout or a value is out of range
+         */
+        private LocalDateTime parse(String dateString) {
+            if (dateString == null || dateString.length() != layout.length) {
+                return null;
+            }
+            for (int i = 0; i < layout.length; i++) {
+                if (layout[i] >= FIELD_COUNT && layout[i] != dateString.charAt(i)) {
+                    return null;
+                }
+            }
+            int year = read(dateString, YEAR);
+            int month = read(dateString, MONTH);
+            int day = read(dateString, DAY);
+            int hour = read(dateString, HOUR);
+            int minute = read(dateString, MINUTE);
+            int second = read(dateString, SECOND);
+            if (year < MIN_YEAR
+                    || month < 1
+                    || month > 12
+                    || day < 1
+                    || day > lengthOfMonth(year, month)
+                    || hour < 0
+                    || hour > 23
+                    || minute < 0
+                    || minute > 59
+                    || second < 0
+                    || second > 59) {
+                return null;
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        }
+
+        /**
+         * Read the digits of a field.
+         *
+         * @return 0 if the field is absent, -1 if it is not a number
+         */
+        private int read(String dateString, int field) {
+            int offset = offsets[field];
+            if (offset < 0) {
+                return 0;
+            }
+            int value = 0;
+            for (int i = offset; i < offset + FIELD_WIDTHS[field]; i++) {
+                char c = dateString.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        private static int lengthOfMonth(int year, int month) {
+            switch (month) {
+                case 2:
+                    return ((year & 3) == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+                case 4:
+                case 6:
+                case 9:
+                case 11:
+                    return 30;
+                default:
+                    return 31;
+            }
+        }
+    }
 }
@@ -23,6 +23,9 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import org.apache.fesod.sheet.metadata.data.WriteCellData;
 import org.apache.fesod.sheet.metadata.property.ExcelContentProperty;
 
@@ -32,6 +35,37 @@ import org.apache.fesod.sheet.metadata.property.ExcelContentProperty;
  *
  */
 public class NumberUtils {
+    /**
+     * Cache of the decimal formats, by locale, format and rounding mode.
+     */
+    private static final ThreadLocal<Map<Locale, Map<String, DecimalFormat[]>>> DECIMAL_FORMAT_THREAD_LOCAL =
+            new ThreadLocal<>();
+    /**
+     * A long with up to 18 digits can not overflow.
+     */
+    private static final int MAX_FAST_LONG_DIGITS = 18;
+    /**
+     * Integers up to 2^53 are exact in a double.
+     */
+    private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+    /**
+     * Integers up to 2^24 are exact in a float.
+     */
+    private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+    /**
+     * Powers of ten that are exact in a double.
+     */
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+        1e20, 1e21, 1e22
+    };
+    /**
+     * Powers of ten that are exact in a float.
+     */
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
     private NumberUtils() {}
 
     /**
@@ -53,9 +87,7 @@ public class NumberUtils {
         }
         String format = contentProperty.getNumberFormatProperty().getFormat();
         RoundingMode roundingMode = contentProperty.getNumberFormatProperty().getRoundingMode();
-        DecimalFormat decimalFormat = new DecimalFormat(format);
-        decimalFormat.setRoundingMode(roundingMode);
-        return decimalFormat.format(num);
+        return getCacheDecimalFormat(format, roundingMode).format(num);
     }
 
     /**
@@ -97,6 +129,9 @@ public class NumberUtils {
      */
     public static Short parseShort(String string, ExcelContentProperty contentProperty) throws ParseException {
         if (!hasFormat(contentProperty)) {
+            if (isPlainLong(string)) {
+                return (short) Long.parseLong(string);
+            }
             return new BigDecimal(string).shortValue();
         }
         return parse(string, contentProperty).shortValue();
@@ -111,6 +146,9 @@ public class NumberUtils {
      */
     public static Long parseLong(String string, ExcelContentProperty contentProperty) throws ParseException {
         if (!hasFormat(contentProperty)) {
+            if (isPlainLong(string)) {
+                return Long.parseLong(string);
+            }
             return new BigDecimal(string).longValue();
         }
         return parse(string, contentProperty).longValue();
@@ -125,6 +163,9 @@ public class NumberUtils {
      */
     public static Integer parseInteger(String string, ExcelContentProperty contentProperty) throws ParseException {
         if (!hasFormat(contentProperty)) {
+            if (isPlainLong(string)) {
+                return (int) Long.parseLong(string);
+            }
             return new BigDecimal(string).intValue();
         }
         return parse(string, contentProperty).intValue();
@@ -139,7 +180,7 @@ public class NumberUtils {
      */
     public static Float parseFloat(String string, ExcelContentProperty contentProperty) throws ParseException {
         if (!hasFormat(contentProperty)) {
-            return new BigDecimal(string).floatValue();
+            return parseDecimal(string, true).floatValue();
         }
         return parse(string, contentProperty).floatValue();
     }
@@ -168,6 +209,9 @@ public class NumberUtils {
      */
     public static Byte parseByte(String string, ExcelContentProperty contentProperty) throws ParseException {
         if (!hasFormat(contentProperty)) {
+            if (isPlainLong(string)) {
+                return (byte) Long.parseLong(string);
+            }
             return new BigDecimal(string).byteValue();
         }
         return parse(string, contentProperty).byteValue();
@@ -182,7 +226,7 @@ public class NumberUtils {
      */
     public static Double parseDouble(String string, ExcelContentProperty contentProperty) throws ParseException {
         if (!hasFormat(contentProperty)) {
-            return new BigDecimal(string).doubleValue();
+            return parseDecimal(string, false).doubleValue();
         }
         return parse(string, contentProperty).doubleValue();
     }
@@ -205,9 +249,118 @@ public class NumberUtils {
     private static Number parse(String string, ExcelContentProperty contentProperty) throws ParseException {
         String format = contentProperty.getNumberFormatProperty().getFormat();
         RoundingMode roundingMode = contentProperty.getNumberFormatProperty().getRoundingMode();
-        DecimalFormat decimalFormat = new DecimalFormat(format);
-        decimalFormat.setRoundingMode(roundingMode);
-        decimalFormat.setParseBigDecimal(true);
-        return decimalFormat.parse(string);
+        return getCacheDecimalFormat(format, roundingMode).parse(string);
+    }
+
+    /**
+     * Whether the string is an integer without exponent that fits in a long, so that {@link Long#parseLong(String)}
+     * gives the same result as {@link BigDecimal}.
+     */
+    private static boolean isPlainLong(String string) {
+        int length = string.length();
+        int start = 0;
+        if (length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+')) {
+            start = 1;
+        }
+        if (length == start || length - start > MAX_FAST_LONG_DIGITS) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse a decimal string to the same value as {@code new BigDecimal(string).doubleValue()} or
+     * {@code floatValue()}. When the digits and the decimal places are few enough, the value is one exact division,
+     * which is correctly rounded, so no {@link BigDecimal} is needed.
+     *
+     * @param string  decimal string
+     * @param toFloat parse to float
+     * @return Double or Float
+     */
+    private static Number parseDecimal(String string, boolean toFloat) {
+        int length = string.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (string.charAt(0) == '-' || string.charAt(0) == '+')) {
+            negative = string.charAt(0) == '-';
+            index = 1;
+        }
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean hasDigit = false;
+        boolean hasDot = false;
+        for (; index < length; index++) {
+            char c = string.charAt(index);
+            if (c >= '0' && c <= '9') {
+                if (mantissa > MAX_EXACT_DOUBLE_MANTISSA) {
+                    return slowParseDecimal(string, toFloat);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                hasDigit = true;
+                if (hasDot) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !hasDot) {
+                hasDot = true;
+            } else {
+                // exponent or invalid
+                return slowParseDecimal(string, toFloat);
+            }
+        }
+        if (!hasDigit) {
+            return slowParseDecimal(string, toFloat);
+        }
+        if (toFloat) {
+            if (mantissa > MAX_EXACT_FLOAT_MANTISSA || fractionDigits >= FLOAT_POWERS_OF_TEN.length) {
+                return slowParseDecimal(string, true);
+            }
+            // BigDecimal has no negative zero
+            float value = mantissa / FLOAT_POWERS_OF_TEN[fractionDigits];
+            return negative && mantissa != 0 ? -value : value;
+        }
+        if (mantissa > MAX_EXACT_DOUBLE_MANTISSA || fractionDigits >= DOUBLE_POWERS_OF_TEN.length) {
+            return slowParseDecimal(string, false);
+        }
+        double value = mantissa / DOUBLE_POWERS_OF_TEN[fractionDigits];
+        return negative && mantissa != 0 ? -value : value;
+    }
+
+    private static Number slowParseDecimal(String string, boolean toFloat) {
+        BigDecimal bigDecimal = new BigDecimal(string);
+        return toFloat ? (Number) bigDecimal.floatValue() : (Number) bigDecimal.doubleValue();
+    }
+
+    /**
+     * Get a decimal format of the default locale, as {@code new DecimalFormat(format)} would use. The same instance
+     * is used to parse and to format, parsing to {@link BigDecimal} has no effect on formatting.
+     */
+    private static DecimalFormat getCacheDecimalFormat(String format, RoundingMode roundingMode) {
+        Map<Locale, Map<String, DecimalFormat[]>> localeMap = DECIMAL_FORMAT_THREAD_LOCAL.get();
+        if (localeMap == null) {
+            localeMap = new HashMap<>();
+            DECIMAL_FORMAT_THREAD_LOCAL.set(localeMap);
+        }
+        Map<String, DecimalFormat[]> decimalFormatMap =
+                localeMap.computeIfAbsent(Locale.getDefault(Locale.Category.FORMAT), key -> new HashMap<>());
+        DecimalFormat[] decimalFormats =
+                decimalFormatMap.computeIfAbsent(format, key -> new DecimalFormat[RoundingMode.values().length]);
+        DecimalFormat decimalFormat = decimalFormats[roundingMode.ordinal()];
+        if (decimalFormat == null) {
+            decimalFormat = new DecimalFormat(format);
+            decimalFormat.setRoundingMode(roundingMode);
+            decimalFormat.setParseBigDecimal(true);
+            decimalFormats[roundingMode.ordinal()] = decimalFormat;
+        }
+        return decimalFormat;
+    }
+
+    public static void removeThreadLocalCache() {
+        DECIMAL_FORMAT_THREAD_LOCAL.remove();
     }
 }
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.poi.util.LocaleUtil;
+
+/**
+ * Conversion between the serial dates of excel and epoch days, with plain arithmetic.
+ * <p>
+ * A serial date is the number of days since 1900-01-00 (or 1904-01-01 in the 1904 date windowing), including the
+ * non-existent 1900-02-29. The results are the same as the {@link java.util.Calendar} and {@link java.math.BigDecimal}
+ * based conversions of {@link DateUtils} and POI. Whenever they can not be reproduced without them, such as in a
+ * daylight saving transition, or for a user locale that does not use the Gregorian calendar, {@link #INVALID} is
+ * returned and the caller falls back to the slow conversion.
+ *
+ *
+ */
+public class SerialDateUtils {
+    /**
+     * The result can not be computed here.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+    /**
+     * 9999-12-31 in the 1900 date windowing
+     */
+    public static final double MAX_DATE = 2958466;
+
+    /**
+     * 1900-01-01
+     */
+    private static final long EPOCH_DAY_1900 = -25567;
+    /**
+     * 1904-01-01
+     */
+    private static final long EPOCH_DAY_1904 = -24107;
+    /**
+     * Error of the double product of a fraction of a day and the seconds per day.
+     */
+    private static final double ROUNDING_ERROR = 1e-9;
+
+    private static final Map<Locale, Boolean> GREGORIAN_LOCALE_CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, ZoneRules> ZONE_RULES_CACHE = new ConcurrentHashMap<>();
+
+    private SerialDateUtils() {}
+
+    /**
+     * The epoch day of the whole days of a serial date.
+     *
+     * @param wholeDays        whole days of the serial date
+     * @param use1904windowing true if date uses 1904 windowing
+     * @return epoch day
+     */
+    public static long toEpochDay(int wholeDays, boolean use1904windowing) {
+        if (use1904windowing) {
+            return EPOCH_DAY_1904 + wholeDays;
+        }
+        // Excel thinks 2/29/1900 is a valid date, it becomes 3/1/1900
+        if (wholeDays < 61) {
+            return EPOCH_DAY_1900 + wholeDays - 1;
+        }
+        return EPOCH_DAY_1900 + wholeDays - 2;
+    }
+
+    /**
+     * Seconds since 1970-01-01T00:00 of the local date time of a serial date, rounded the same way as
+     * {@link DateUtils#setCalendar}.
+     *
+     * @param date             serial date
+     * @param use1904windowing true if date uses 1904 windowing
+     * @return local seconds, or {@link #INVALID} if it is not a valid excel date before 10000-01-01
+     */
+    public static long toLocalSecond(double date, boolean use1904windowing) {
+        if (!DateUtils.isValidExcelDate(date) || date >= MAX_DATE) {
+            return INVALID;
+        }
+        int wholeDays = (int) Math.floor(date);
+        int millisecondsInDay = (int) ((date - wholeDays) * DateUtils.DAY_MILLISECONDS + 0.5);
+        // This is different from poi where you need to change 500 to 499
+        return toEpochDay(wholeDays, use1904windowing) * DateUtils.SECONDS_PER_DAY + (millisecondsInDay + 499) / 1000;
+    }
+
+    /**
+     * Seconds since 1970-01-01T00:00 of the local date time of a serial date, rounded half up the same way as
+     * {@link org.apache.poi.ss.usermodel.DateUtil#getLocalDateTime(double, boolean, boolean)}.
+     * <p>
+     * POI rounds the decimal representation of the double. A double that is too close to half a second to tell the
+     * rounding direction from its binary value gives {@link #INVALID}.
+     *
+     * @param date             serial date
+     * @param use1904windowing true if date uses 1904 windowing
+     * @return local seconds, or {@link #INVALID}
+     */
+    public static long toLocalSecondHalfUp(double date, boolean use1904windowing) {
+        if (!DateUtils.isValidExcelDate(date) || date >= MAX_DATE) {
+            return INVALID;
+        }
+        int wholeDays = (int) Math.floor(date);
+        double seconds = (date - wholeDays) * DateUtils.SECONDS_PER_DAY + 0.5;
+        double wholeSeconds = Math.floor(seconds);
+        // the decimal representation is at most half an ulp away
+        double tolerance = Math.ulp(date) * DateUtils.SECONDS_PER_DAY + ROUNDING_ERROR;
+        if (seconds - wholeSeconds < tolerance || wholeSeconds + 1 - seconds < tolerance) {
+            return INVALID;
+        }
+        return toEpochDay(wholeDays, use1904windowing) * DateUtils.SECONDS_PER_DAY + (long) wholeSeconds;
+    }
+
+    /**
+     * Milliseconds since the epoch of a serial date in the user time zone of {@link LocaleUtil}, the same as
+     * {@link DateUtils#getJavaDate(double, boolean)}.
+     *
+     * @param date             serial date
+     * @param use1904windowing true if date uses 1904 windowing
+     * @return epoch milliseconds, or {@link #INVALID} if the date is invalid, the user locale does not use the
+     * Gregorian calendar, or the local time is near a transition of the time zone
+     */
+    public static long toEpochMilli(double date, boolean use1904windowing) {
+        long localSecond = toLocalSecond(date, use1904windowing);
+        if (localSecond == INVALID || !isGregorianCalendar(LocaleUtil.getUserLocale())) {
+            return INVALID;
+        }
+        TimeZone timeZone = LocaleUtil.getUserTimeZone();
+        ZoneRules zoneRules = zoneRules(timeZone);
+        if (zoneRules.isFixedOffset()) {
+            return localSecond * 1000 - timeZone.getRawOffset();
+        }
+        // the calendar resolves the exact local time before rounding it
+        int wholeDays = (int) Math.floor(date);
+        int millisecondsInDay = (int) ((date - wholeDays) * DateUtils.DAY_MILLISECONDS + 0.5);
+        LocalDateTime exact = LocalDateTime.ofEpochSecond(
+                toEpochDay(wholeDays, use1904windowing) * DateUtils.SECONDS_PER_DAY + millisecondsInDay / 1000,
+                millisecondsInDay % 1000 * 1_000_000,
+                ZoneOffset.UTC);
+        LocalDateTime rounded = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+        if (zoneRules.getTransition(exact) != null || zoneRules.getTransition(rounded) != null) {
+            return INVALID;
+        }
+        // the offsets of the time zone of the calendar, which differ from the zone rules before 1900
+        long localMilli = localSecond * 1000;
+        int offset = timeZone.getOffset(localMilli - timeZone.getRawOffset());
+        if (timeZone.getOffset(localMilli - offset) != offset) {
+            return INVALID;
+        }
+        return localMilli - offset;
+    }
+
+    /**
+     * The serial date of a local date time, the same as
+     * {@link org.apache.poi.ss.usermodel.DateUtil#getExcelDate(LocalDateTime, boolean)}.
+     *
+     * @param epochDay          epoch day of the local date
+     * @param millisecondOfDay  millisecond of the day
+     * @param use1904windowing  true if date uses 1904 windowing
+     * @return serial date, or -1 if the date is before the first excel date
+     */
+    public static double toExcelDate(long epochDay, int millisecondOfDay, boolean use1904windowing) {
+        // 1899-12-31 is day 0 in the 1900 date windowing
+        long absoluteDay = epochDay - (use1904windowing ? EPOCH_DAY_1904 : EPOCH_DAY_1900) + 1;
+        if (absoluteDay < (use1904windowing ? 1 : 0)) {
+            return -1;
+        }
+        double value = millisecondOfDay / (double) DateUtils.DAY_MILLISECONDS + absoluteDay;
+        if (!use1904windowing && value >= 60) {
+            value++;
+        } else if (use1904windowing) {
+            value--;
+        }
+        return value;
+    }
+
+    /**
+     * The serial date of an instant in the user time zone of {@link LocaleUtil}, the same as
+     * {@link org.apache.poi.ss.usermodel.DateUtil#getExcelDate(java.util.Date, boolean)}.
+     *
+     * @param epochMilli       milliseconds since the epoch
+     * @param use1904windowing true if date uses 1904 windowing
+     * @return serial date, -1 if the date is before the first excel date, or {@link Double#NaN} if the user locale
+     * does not use the Gregorian calendar
+     */
+    public static double toExcelDate(long epochMilli, boolean use1904windowing) {
+        if (!isGregorianCalendar(LocaleUtil.getUserLocale())) {
+            return Double.NaN;
+        }
+        long localMilli = epochMilli + LocaleUtil.getUserTimeZone().getOffset(epochMilli);
+        return toExcelDate(
+                Math.floorDiv(localMilli, DateUtils.DAY_MILLISECONDS),
+                (int) Math.floorMod(localMilli, DateUtils.DAY_MILLISECONDS),
+                use1904windowing);
+    }
+
+    /**
+     * Same choice of calendar as {@link java.util.Calendar#getInstance(Locale)}.
+     *
+     * @param locale locale
+     * @return true if the calendar of the locale is the Gregorian one
+     */
+    public static boolean isGregorianCalendar(Locale locale) {
+        Boolean result = GREGORIAN_LOCALE_CACHE.get(locale);
+        if (result == null) {
+            String calendarType = locale.getUnicodeLocaleType("ca");
+            if (calendarType == null) {
+                result = !("th".equals(locale.getLanguage()) && "TH".equals(locale.getCountry()))
+                        && !("ja".equals(locale.getLanguage())
+                                && "JP".equals(locale.getCountry())
+                                && "JP".equals(locale.getVariant()));
+            } else {
+                result = "gregory".equals(calendarType) || "iso8601".equals(calendarType);
+            }
+            GREGORIAN_LOCALE_CACHE.put(locale, result);
+        }
+        return result;
+    }
+
+    private static ZoneRules zoneRules(TimeZone timeZone) {
+        return ZONE_RULES_CACHE.computeIfAbsent(timeZone.getID(), id -> timeZone.toZoneId().getRules());
+    }
+}
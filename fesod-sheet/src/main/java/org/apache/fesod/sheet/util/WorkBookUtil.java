@@ -27,7 +27,10 @@ import org.apache.fesod.sheet.metadata.data.DataFormatData;
 import org.apache.fesod.sheet.metadata.data.WriteCellData;
 import org.apache.fesod.sheet.write.metadata.holder.WriteWorkbookHolder;
 import org.apache.fesod.sheet.write.metadata.style.WriteCellStyle;
+import org.apache.fesod.sheet.write.streaming.SharedStringsSXSSFWorkbook;
+import org.apache.fesod.sheet.write.streaming.StreamingHSSFWriter;
 import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
@@ -59,7 +62,14 @@ public class WorkBookUtil {
                     }
                     return;
                 }
-                Workbook workbook = writeWorkbookHolder.getInMemory() ? new XSSFWorkbook() : new SXSSFWorkbook();
+                Workbook workbook;
+                if (writeWorkbookHolder.getInMemory()) {
+                    workbook = new XSSFWorkbook();
+                } else if (writeWorkbookHolder.getUseSharedStrings()) {
+                    workbook = new SharedStringsSXSSFWorkbook(writeWorkbookHolder.getSharedStringsMaxUniqueCount());
+                } else {
+                    workbook = new SXSSFWorkbook();
+                }
                 Boolean use1904windowing =
                         writeWorkbookHolder.getGlobalConfiguration().getUse1904windowing();
                 if (use1904windowing != null) {
@@ -82,6 +92,9 @@ public class WorkBookUtil {
                             new HSSFWorkbook(new POIFSFileSystem(writeWorkbookHolder.getTempTemplateInputStream()));
                 } else {
                     hssfWorkbook = new HSSFWorkbook();
+                    if (writeWorkbookHolder.getStreamingXlsWrite() && writeWorkbookHolder.getPassword() == null) {
+                        writeWorkbookHolder.setStreamingHSSFWriter(new StreamingHSSFWriter(hssfWorkbook));
+                    }
                 }
                 writeWorkbookHolder.setCachedWorkbook(hssfWorkbook);
                 writeWorkbookHolder.setWorkbook(hssfWorkbook);
@@ -119,6 +132,16 @@ public class WorkBookUtil {
         return sheet.createRow(rowNum);
     }
 
+    /**
+     * Create a row, older rows may be written to disk first when the xls is written in streaming mode.
+     */
+    public static Row createRow(WriteWorkbookHolder writeWorkbookHolder, Sheet sheet, int rowNum) {
+        if (writeWorkbookHolder.getStreamingHSSFWriter() != null) {
+            writeWorkbookHolder.getStreamingHSSFWriter().beforeRowCreate((HSSFSheet) sheet, rowNum);
+        }
+        return createRow(sheet, rowNum);
+    }
+
     public static Cell createCell(Row row, int colNum) {
         return row.createCell(colNum);
     }
@@ -19,7 +19,10 @@
 
 package org.apache.fesod.sheet.write;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import org.apache.fesod.sheet.context.WriteContext;
 import org.apache.fesod.sheet.write.merge.OnceAbsoluteMergeStrategy;
 import org.apache.fesod.sheet.write.metadata.WriteSheet;
@@ -55,6 +58,26 @@ public interface ExcelBuilder {
      */
     void addContent(Collection<?> data, WriteSheet writeSheet, WriteTable writeTable);
 
+    /**
+     * WorkBook increase value. The default implementation collects the iterator and writes it as a collection,
+     * {@link ExcelBuilderImpl} pulls the data from the iterator while writing, so it does not need to be in memory at
+     * once.
+     *
+     * @param data
+     *            java basic type or java model extend BaseModel
+     * @param writeSheet
+     *            Write the sheet
+     * @param writeTable
+     *            Write the table
+     */
+    default void addContent(Iterator<?> data, WriteSheet writeSheet, WriteTable writeTable) {
+        List<Object> list = new ArrayList<>();
+        while (data.hasNext()) {
+            list.add(data.next());
+        }
+        addContent(list, writeSheet, writeTable);
+    }
+
     /**
      * WorkBook fill value
      *
@@ -20,6 +20,8 @@
 package org.apache.fesod.sheet.write;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
 import org.apache.fesod.sheet.context.WriteContext;
 import org.apache.fesod.sheet.context.WriteContextImpl;
 import org.apache.fesod.sheet.enums.WriteTypeEnum;
@@ -68,13 +70,22 @@ public class ExcelBuilderImpl implements ExcelBuilder {
 
     @Override
     public void addContent(Collection<?> data, WriteSheet writeSheet, WriteTable writeTable) {
+        doAddContent(writeSheet, writeTable, executor -> executor.add(data));
+    }
+
+    @Override
+    public void addContent(Iterator<?> data, WriteSheet writeSheet, WriteTable writeTable) {
+        doAddContent(writeSheet, writeTable, executor -> executor.add(data));
+    }
+
+    private void doAddContent(WriteSheet writeSheet, WriteTable writeTable, Consumer<ExcelWriteAddExecutor> adder) {
         try {
             context.currentSheet(writeSheet, WriteTypeEnum.ADD);
             context.currentTable(writeTable);
             if (excelWriteAddExecutor == null) {
                 excelWriteAddExecutor = new ExcelWriteAddExecutor(context);
             }
-            excelWriteAddExecutor.add(data);
+            adder.accept(excelWriteAddExecutor);
             // execute callback after the sheet is written
             WriteHandlerUtils.afterSheetDispose(context);
         } catch (RuntimeException e) {
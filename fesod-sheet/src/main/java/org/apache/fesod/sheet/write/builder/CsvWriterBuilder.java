@@ -125,6 +125,18 @@ public class CsvWriterBuilder extends AbstractExcelWriterParameterBuilder<CsvWri
         return this;
     }
 
+    /**
+     * Write the data rows straight to the output, without creating rows, cells and styles. Cell and row write
+     * handlers are not called for the data rows. Default false.
+     *
+     * @param directWrite whether to write directly
+     * @return Returns a CsvWriterBuilder object, enabling method chaining
+     */
+    public CsvWriterBuilder directWrite(Boolean directWrite) {
+        this.writeWorkbook.setDirectCsvWrite(directWrite);
+        return this;
+    }
+
     private ExcelWriter buildExcelWriter() {
         this.csvFormatBuilder.setTrim(this.writeWorkbook.getAutoTrim() == null
                 || this.writeWorkbook.getAutoTrim()
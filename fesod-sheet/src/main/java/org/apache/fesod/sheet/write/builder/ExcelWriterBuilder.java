@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
 import org.apache.fesod.sheet.ExcelWriter;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
 import org.apache.fesod.sheet.write.metadata.WriteWorkbook;
@@ -56,7 +57,8 @@ public class ExcelWriterBuilder extends AbstractExcelWriterParameterBuilder<Exce
     /**
      * Whether the encryption.
      * <p>
-     * WARRING:Encryption is when the entire file is read into memory, so it is very memory intensive.
+     * WARRING:Encryption of xls is when the entire file is read into memory, so it is very memory intensive. Xlsx is
+     * encrypted while it is written.
      *
      * @param password
      * @return
@@ -66,6 +68,17 @@ public class ExcelWriterBuilder extends AbstractExcelWriterParameterBuilder<Exce
         return this;
     }
 
+    /**
+     * Executor used to encrypt the xlsx file in parallel. Default null, the file is encrypted on the writing thread.
+     *
+     * @param encryptExecutor executor
+     * @return this
+     */
+    public ExcelWriterBuilder encryptExecutor(Executor encryptExecutor) {
+        writeWorkbook.setEncryptExecutor(encryptExecutor);
+        return this;
+    }
+
     /**
      * Write excel in memory. Default false, the cache file is created and finally written to excel.
      * <p>
@@ -76,6 +89,67 @@ public class ExcelWriterBuilder extends AbstractExcelWriterParameterBuilder<Exce
         return this;
     }
 
+    /**
+     * Write strings to the shared strings table instead of inline strings when writing xlsx in streaming mode. Default
+     * false.
+     * <p>
+     * Every distinct string is kept in memory until the workbook is written, up to
+     * {@link #sharedStringsMaxUniqueCount(Integer)} strings.
+     */
+    public ExcelWriterBuilder useSharedStrings(Boolean useSharedStrings) {
+        writeWorkbook.setUseSharedStrings(useSharedStrings);
+        return this;
+    }
+
+    /**
+     * The maximum number of distinct strings in the shared strings table, strings beyond it are written as inline
+     * strings. Must be greater than 0. Default 100000.
+     */
+    public ExcelWriterBuilder sharedStringsMaxUniqueCount(Integer sharedStringsMaxUniqueCount) {
+        writeWorkbook.setSharedStringsMaxUniqueCount(sharedStringsMaxUniqueCount);
+        return this;
+    }
+
+    /**
+     * Executor used to convert the rows in parallel. Default null, the rows are converted on the writing thread.
+     * <p>
+     * The rows are still appended to the sheet in order by the writing thread, and all the write handlers are called
+     * on the writing thread. Custom converters must be thread safe.
+     * <p>
+     * The executor threads keep the thread local caches of the conversion until they convert rows for another
+     * workbook.
+     */
+    public ExcelWriterBuilder convertExecutor(Executor convertExecutor) {
+        writeWorkbook.setConvertExecutor(convertExecutor);
+        return this;
+    }
+
+    /**
+     * The number of rows converted by one task of the {@code convertExecutor}. Must be greater than 0. Default 500.
+     */
+    public ExcelWriterBuilder convertBatchSize(Integer convertBatchSize) {
+        writeWorkbook.setConvertBatchSize(convertBatchSize);
+        return this;
+    }
+
+    /**
+     * Write the data rows of csv straight to the output, without creating rows, cells and styles. Cell and row write
+     * handlers are not called for the data rows. Default false.
+     */
+    public ExcelWriterBuilder directCsvWrite(Boolean directCsvWrite) {
+        writeWorkbook.setDirectCsvWrite(directCsvWrite);
+        return this;
+    }
+
+    /**
+     * Write xls without keeping all the rows in memory, older rows are written to a temporary file and can no longer
+     * be accessed. Not used with a template or a password. Default false.
+     */
+    public ExcelWriterBuilder streamingXlsWrite(Boolean streamingXlsWrite) {
+        writeWorkbook.setStreamingXlsWrite(streamingXlsWrite);
+        return this;
+    }
+
     /**
      * Excel is also written in the event of an exception being thrown.The default false.
      */
@@ -19,9 +19,12 @@
 
 package org.apache.fesod.sheet.write.builder;
 
+import java.sql.ResultSet;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.fesod.sheet.ExcelWriter;
 import org.apache.fesod.sheet.exception.ExcelGenerateException;
@@ -115,6 +118,30 @@ public class ExcelWriterSheetBuilder extends AbstractExcelWriterParameterBuilder
         doWrite(supplier.get());
     }
 
+    public void doWrite(Iterator<?> data) {
+        if (excelWriter == null) {
+            throw new ExcelGenerateException("Must use 'FastExcelFactory.write().sheet()' to call this method");
+        }
+        excelWriter.write(data, build());
+        excelWriter.finish();
+    }
+
+    public void doWrite(ResultSet resultSet) {
+        if (excelWriter == null) {
+            throw new ExcelGenerateException("Must use 'FastExcelFactory.write().sheet()' to call this method");
+        }
+        excelWriter.write(resultSet, build());
+        excelWriter.finish();
+    }
+
+    public void doWrite(Stream<?> data) {
+        if (excelWriter == null) {
+            throw new ExcelGenerateException("Must use 'FastExcelFactory.write().sheet()' to call this method");
+        }
+        excelWriter.write(data, build());
+        excelWriter.finish();
+    }
+
     public void doFill(Supplier<Object> supplier) {
         doFill(supplier.get());
     }
@@ -20,8 +20,10 @@
 package org.apache.fesod.sheet.write.builder;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 import org.apache.fesod.sheet.ExcelWriter;
 import org.apache.fesod.sheet.exception.ExcelGenerateException;
 import org.apache.fesod.sheet.write.metadata.WriteSheet;
@@ -86,6 +88,22 @@ public class ExcelWriterTableBuilder extends AbstractExcelWriterParameterBuilder
         doWrite(supplier.get());
     }
 
+    public void doWrite(Iterator<?> data) {
+        if (excelWriter == null) {
+            throw new ExcelGenerateException("Must use 'FastExcelFactory.write().sheet().table()' to call this method");
+        }
+        excelWriter.write(data, writeSheet, build());
+        excelWriter.finish();
+    }
+
+    public void doWrite(Stream<?> data) {
+        if (excelWriter == null) {
+            throw new ExcelGenerateException("Must use 'FastExcelFactory.write().sheet().table()' to call this method");
+        }
+        excelWriter.write(data, writeSheet, build());
+        excelWriter.finish();
+    }
+
     @Override
     protected WriteTable parameter() {
         return writeTable;
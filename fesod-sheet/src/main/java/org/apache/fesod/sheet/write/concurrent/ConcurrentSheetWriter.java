@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.write.concurrent;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.fesod.sheet.ExcelWriter;
+import org.apache.fesod.sheet.exception.ExcelGenerateException;
+import org.apache.fesod.sheet.util.MapUtils;
+import org.apache.fesod.sheet.write.metadata.WriteSheet;
+
+/**
+ * Writes batches submitted by many threads into one sheet.
+ * <p>
+ * The producers put the batches into a lock-free queue, and a dedicated writer thread takes them out and writes them
+ * with {@link ExcelWriter#write(Collection, WriteSheet)}, so all the write handlers are called on the writer thread.
+ * When {@link ConcurrentWriteConfig#getCapacity()} batches are waiting to be written, the producers block until the
+ * writer catches up.
+ * <p>
+ * The {@link ExcelWriter} must not be used by other threads until this writer is closed. {@link ExcelWriter#finish()}
+ * closes it if it is still open.
+ *
+ *
+ */
+public class ConcurrentSheetWriter implements Closeable {
+    private final ExcelWriter excelWriter;
+    private final WriteSheet writeSheet;
+    private final int capacity;
+    private final boolean ordered;
+
+    private final Queue<Batch> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * Limits the batches waiting to be written when not ordered.
+     */
+    private final Semaphore permits;
+    /**
+     * Batches received but not yet written because a previous sequence is missing. Only used by the writer thread.
+     */
+    private final Map<Long, Collection<?>> pendingBatchMap = MapUtils.newHashMap();
+    /**
+     * Signalled by the writer thread each time a batch has been written.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition written = lock.newCondition();
+    private final Thread writerThread;
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile long writtenCount;
+    /**
+     * The next sequence to be written when ordered.
+     */
+    private volatile long nextSequence;
+
+    private volatile Throwable failure;
+
+    public ConcurrentSheetWriter(ExcelWriter excelWriter, WriteSheet writeSheet, ConcurrentWriteConfig config) {
+        config.init();
+        this.excelWriter = excelWriter;
+        this.writeSheet = writeSheet;
+        this.capacity = config.getCapacity();
+        this.ordered = config.getOrdered();
+        this.permits = new Semaphore(capacity);
+        this.writerThread = new Thread(this::drain, "fesod-concurrent-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Submit a batch when not ordered. Blocks while the queue is full.
+     *
+     * @param data rows
+     */
+    public void submit(Collection<?> data) {
+        if (ordered) {
+            throw new IllegalStateException("The writer is ordered, the batch must be submitted with a sequence.");
+        }
+        checkState();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelGenerateException("Interrupted while waiting for the writer.", e);
+        }
+        checkState();
+        enqueue(new Batch(-1L, data));
+    }
+
+    /**
+     * Submit a batch when ordered. Blocks while the sequence is more than {@code capacity} batches ahead of the last
+     * written one.
+     *
+     * @param sequence the position of the batch, starting from 0 without gaps
+     * @param data     rows
+     */
+    public void submit(long sequence, Collection<?> data) {
+        if (!ordered) {
+            throw new IllegalStateException("The writer is not ordered, the batch must be submitted without a sequence.");
+        }
+        if (sequence < nextSequence) {
+            throw new IllegalArgumentException("The sequence " + sequence + " has already been written.");
+        }
+        checkState();
+        if (sequence >= nextSequence + capacity) {
+            lock.lock();
+            try {
+                while (sequence >= nextSequence + capacity && failure == null) {
+                    written.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExcelGenerateException("Interrupted while waiting for the writer.", e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        checkState();
+        enqueue(new Batch(sequence, data));
+    }
+
+    /**
+     * Wait until all the batches submitted before this call have been written. When ordered, it also waits for the
+     * missing sequences before them.
+     */
+    public void flush() {
+        long target = submittedCount.get();
+        lock.lock();
+        try {
+            while (writtenCount < target && failure == null && writerThread.isAlive()) {
+                written.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelGenerateException("Interrupted while waiting for the writer.", e);
+        } finally {
+            lock.unlock();
+        }
+        throwIfFailed();
+    }
+
+    /**
+     * Write the remaining batches and stop the writer thread. It must be called after all producers have finished
+     * submitting.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelGenerateException("Interrupted while waiting for the writer.", e);
+        }
+        throwIfFailed();
+    }
+
+    private void enqueue(Batch batch) {
+        submittedCount.incrementAndGet();
+        queue.offer(batch);
+        LockSupport.unpark(writerThread);
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Batch batch = queue.poll();
+                if (batch == null) {
+                    if (!closed.get()) {
+                        LockSupport.park(this);
+                        continue;
+                    }
+                    // Something may have been submitted just before closing
+                    batch = queue.poll();
+                    if (batch == null) {
+                        break;
+                    }
+                }
+                if (!ordered) {
+                    write(batch.data);
+                    permits.release();
+                    signalWritten();
+                    continue;
+                }
+                if (pendingBatchMap.put(batch.sequence, batch.data) != null) {
+                    throw new ExcelGenerateException("The sequence " + batch.sequence + " was submitted twice.");
+                }
+                Collection<?> data;
+                while ((data = pendingBatchMap.remove(nextSequence)) != null) {
+                    write(data);
+                    // The producers waiting for a sequence must see the new one when they wake up
+                    nextSequence++;
+                    signalWritten();
+                }
+            }
+            if (!pendingBatchMap.isEmpty()) {
+                throw new ExcelGenerateException("The sequence " + nextSequence + " was never submitted, "
+                        + pendingBatchMap.size() + " batches were not written.");
+            }
+        } catch (Throwable e) {
+            failure = e;
+            // Wake up the producers waiting for a permit
+            permits.release(Integer.MAX_VALUE - capacity);
+        } finally {
+            signalWritten();
+        }
+    }
+
+    private void write(Collection<?> data) {
+        excelWriter.write(data, writeSheet);
+        writtenCount++;
+    }
+
+    private void signalWritten() {
+        lock.lock();
+        try {
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkState() {
+        throwIfFailed();
+        if (closed.get()) {
+            throw new IllegalStateException("The writer has been closed.");
+        }
+    }
+
+    private void throwIfFailed() {
+        Throwable e = failure;
+        if (e == null) {
+            return;
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        throw new ExcelGenerateException(e);
+    }
+
+    private static class Batch {
+        private final long sequence;
+        private final Collection<?> data;
+
+        private Batch(long sequence, Collection<?> data) {
+            this.sequence = sequence;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.write.concurrent;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Concurrent write config
+ *
+ *
+ **/
+@Getter
+@Setter
+@EqualsAndHashCode
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConcurrentWriteConfig {
+    /**
+     * The maximum number of batches submitted but not yet written. A producer blocks when it is reached.
+     *
+     * default 64.
+     */
+    private Integer capacity;
+    /**
+     * Whether the batches are written in the order of their sequence. If true, every batch must be submitted with a
+     * sequence, starting from 0 without gaps. If false, the batches are written in the order they are received.
+     *
+     * default false.
+     */
+    private Boolean ordered;
+
+    private boolean hasInit;
+
+    public void init() {
+        if (hasInit) {
+            return;
+        }
+        if (capacity == null) {
+            capacity = 64;
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be greater than 0.");
+        }
+        if (ordered == null) {
+            ordered = Boolean.FALSE;
+        }
+        hasInit = true;
+    }
+}
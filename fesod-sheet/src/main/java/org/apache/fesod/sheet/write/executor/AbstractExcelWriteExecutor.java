@@ -71,8 +71,16 @@ public abstract class AbstractExcelWriteExecutor implements ExcelWriteExecutor {
      * @param cellWriteHandlerContext context
      */
     protected void converterAndSet(CellWriteHandlerContext cellWriteHandlerContext) {
+        setCellData(cellWriteHandlerContext, convert(cellWriteHandlerContext));
+    }
 
-        WriteCellData<?> cellData = convert(cellWriteHandlerContext);
+    /**
+     * Set the converted data into the cell
+     *
+     * @param cellWriteHandlerContext context
+     * @param cellData                converted data
+     */
+    protected void setCellData(CellWriteHandlerContext cellWriteHandlerContext, WriteCellData<?> cellData) {
         cellWriteHandlerContext.setCellDataList(ListUtils.newArrayList(cellData));
         cellWriteHandlerContext.setFirstCellData(cellData);
 
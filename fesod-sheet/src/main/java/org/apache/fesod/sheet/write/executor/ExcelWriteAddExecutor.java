@@ -20,21 +20,36 @@
 package org.apache.fesod.sheet.write.executor;
 
 import cn.idev.excel.support.cglib.beans.BeanMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.fesod.sheet.context.WriteContext;
 import org.apache.fesod.sheet.enums.HeadKindEnum;
+import org.apache.fesod.sheet.exception.ExcelGenerateException;
 import org.apache.fesod.sheet.metadata.FieldCache;
 import org.apache.fesod.sheet.metadata.FieldWrapper;
 import org.apache.fesod.sheet.metadata.Head;
+import org.apache.fesod.sheet.metadata.csv.CsvRowWriter;
+import org.apache.fesod.sheet.metadata.csv.CsvSheet;
+import org.apache.fesod.sheet.metadata.data.WriteCellData;
 import org.apache.fesod.sheet.metadata.property.ExcelContentProperty;
+import org.apache.fesod.sheet.support.ExcelTypeEnum;
 import org.apache.fesod.sheet.util.BeanMapUtils;
 import org.apache.fesod.sheet.util.ClassUtils;
+import org.apache.fesod.sheet.util.DateUtils;
 import org.apache.fesod.sheet.util.FieldUtils;
+import org.apache.fesod.sheet.util.NumberDataFormatterUtils;
+import org.apache.fesod.sheet.util.NumberUtils;
 import org.apache.fesod.sheet.util.WorkBookUtil;
 import org.apache.fesod.sheet.util.WriteHandlerUtils;
 import org.apache.fesod.sheet.write.handler.context.CellWriteHandlerContext;
@@ -44,6 +59,7 @@ import org.apache.fesod.sheet.write.metadata.MapRowData;
 import org.apache.fesod.sheet.write.metadata.RowData;
 import org.apache.fesod.sheet.write.metadata.holder.WriteHolder;
 import org.apache.fesod.sheet.write.metadata.holder.WriteSheetHolder;
+import org.apache.fesod.sheet.write.metadata.holder.WriteWorkbookHolder;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 
@@ -53,6 +69,16 @@ import org.apache.poi.ss.usermodel.Row;
  *
  */
 public class ExcelWriteAddExecutor extends AbstractExcelWriteExecutor {
+    /**
+     * The writer whose rows the convert executor thread converted last, see {@link #prepareConvertThread(Thread)}.
+     */
+    private static final ThreadLocal<Object> CONVERTING_WRITER = new ThreadLocal<>();
+
+    /**
+     * Identifies this writer on the convert executor threads. Not the executor itself, so that a thread does not keep
+     * the workbook reachable.
+     */
+    private final Object convertToken = new Object();
 
     public ExcelWriteAddExecutor(WriteContext writeContext) {
         super(writeContext);
@@ -62,20 +88,50 @@ public class ExcelWriteAddExecutor extends AbstractExcelWriteExecutor {
         if (CollectionUtils.isEmpty(data)) {
             data = new ArrayList<>();
         }
+        // Not worth handing a single batch over to the executor
+        add(data.iterator(), data.size() > writeContext.writeWorkbookHolder().getConvertBatchSize());
+    }
+
+    /**
+     * Add the data pulled from the iterator. Only the rows being converted are kept in memory.
+     *
+     * @param data data
+     */
+    public void add(Iterator<?> data) {
+        add(data, true);
+    }
+
+    private void add(Iterator<?> data, boolean convertInParallel) {
         WriteSheetHolder writeSheetHolder = writeContext.writeSheetHolder();
         int newRowIndex = writeSheetHolder.getNewRowIndexAndStartDoWrite();
         if (writeSheetHolder.isNew()
                 && !writeSheetHolder.getExcelWriteHeadProperty().hasHead()) {
             newRowIndex += writeContext.currentWriteHolder().relativeHeadRowIndex();
         }
+        Executor convertExecutor = writeContext.writeWorkbookHolder().getConvertExecutor();
+        if (convertExecutor != null && convertInParallel) {
+            addInParallel(data, newRowIndex, convertExecutor);
+            return;
+        }
+        boolean directCsvWrite = isDirectCsvWrite();
         int relativeRowIndex = 0;
-        for (Object oneRowData : data) {
+        while (data.hasNext()) {
+            Object oneRowData = data.next();
             int lastRowIndex = relativeRowIndex + newRowIndex;
-            addOneRowOfDataToExcel(oneRowData, lastRowIndex, relativeRowIndex);
+            if (directCsvWrite) {
+                addOneRowOfDataToCsv(oneRowData, lastRowIndex, relativeRowIndex);
+            } else {
+                addOneRowOfDataToExcel(oneRowData, lastRowIndex, relativeRowIndex);
+            }
             relativeRowIndex++;
         }
     }
 
+    private boolean isDirectCsvWrite() {
+        WriteWorkbookHolder writeWorkbookHolder = writeContext.writeWorkbookHolder();
+        return writeWorkbookHolder.getExcelType() == ExcelTypeEnum.CSV && writeWorkbookHolder.getDirectCsvWrite();
+    }
+
     private void addOneRowOfDataToExcel(Object oneRowData, int rowIndex, int relativeRowIndex) {
         if (oneRowData == null) {
             return;
@@ -84,23 +140,240 @@ public class ExcelWriteAddExecutor extends AbstractExcelWriteExecutor {
                 WriteHandlerUtils.createRowWriteHandlerContext(writeContext, rowIndex, relativeRowIndex, Boolean.FALSE);
         WriteHandlerUtils.beforeRowCreate(rowWriteHandlerContext);
 
-        Row row = WorkBookUtil.createRow(writeContext.writeSheetHolder().getSheet(), rowIndex);
+        Row row = WorkBookUtil.createRow(
+                writeContext.writeWorkbookHolder(), writeContext.writeSheetHolder().getSheet(), rowIndex);
         rowWriteHandlerContext.setRow(row);
 
         WriteHandlerUtils.afterRowCreate(rowWriteHandlerContext);
 
-        if (oneRowData instanceof Collection<?>) {
-            addBasicTypeToExcel(new CollectionRowData((Collection<?>) oneRowData), row, rowIndex, relativeRowIndex);
+        forEachCell(oneRowData, (head, columnIndex, excelContentProperty, originalValue, originalFieldClass) -> {
+            CellWriteHandlerContext cellWriteHandlerContext = WriteHandlerUtils.createCellWriteHandlerContext(
+                    writeContext,
+                    row,
+                    rowIndex,
+                    head,
+                    columnIndex,
+                    relativeRowIndex,
+                    Boolean.FALSE,
+                    excelContentProperty);
+            WriteHandlerUtils.beforeCellCreate(cellWriteHandlerContext);
+
+            Cell cell = WorkBookUtil.createCell(row, columnIndex);
+            cellWriteHandlerContext.setCell(cell);
+
+            WriteHandlerUtils.afterCellCreate(cellWriteHandlerContext);
+
+            cellWriteHandlerContext.setOriginalValue(originalValue);
+            cellWriteHandlerContext.setOriginalFieldClass(originalFieldClass);
+            converterAndSet(cellWriteHandlerContext);
+
+            WriteHandlerUtils.afterCellDispose(cellWriteHandlerContext);
+        });
+
+        WriteHandlerUtils.afterRowDispose(rowWriteHandlerContext);
+    }
+
+    /**
+     * Convert the row and append it to the csv output, no row write handler or cell write handler is called.
+     */
+    private void addOneRowOfDataToCsv(Object oneRowData, int rowIndex, int relativeRowIndex) {
+        if (oneRowData == null) {
+            return;
+        }
+        CsvRowWriter csvRowWriter = ((CsvSheet) writeContext.writeSheetHolder().getSheet()).startRow(rowIndex);
+        forEachCell(oneRowData, (head, columnIndex, excelContentProperty, originalValue, originalFieldClass) -> {
+            CellWriteHandlerContext cellWriteHandlerContext = WriteHandlerUtils.createCellWriteHandlerContext(
+                    writeContext,
+                    null,
+                    rowIndex,
+                    head,
+                    columnIndex,
+                    relativeRowIndex,
+                    Boolean.FALSE,
+                    excelContentProperty);
+            cellWriteHandlerContext.setOriginalValue(originalValue);
+            cellWriteHandlerContext.setOriginalFieldClass(originalFieldClass);
+            csvRowWriter.appendCell(columnIndex, convert(cellWriteHandlerContext));
+        });
+        csvRowWriter.endRow();
+    }
+
+    /**
+     * Convert the data in batches on the executor, and append the converted rows to the sheet in order on the current
+     * thread. At most two batches per processor are being converted at the same time, so the converted data does not
+     * pile up if the sheet is written slower than the data is converted.
+     */
+    private void addInParallel(Iterator<?> data, int newRowIndex, Executor convertExecutor) {
+        int convertBatchSize = writeContext.writeWorkbookHolder().getConvertBatchSize();
+        int maxConvertingBatches = Runtime.getRuntime().availableProcessors() * 2;
+        Deque<CompletableFuture<List<ConvertedRow>>> convertingBatches = new ArrayDeque<>(maxConvertingBatches);
+        Thread writeThread = Thread.currentThread();
+        boolean completed = false;
+        try {
+            List<Object> batch = new ArrayList<>(convertBatchSize);
+            int relativeRowIndex = 0;
+            while (data.hasNext()) {
+                batch.add(data.next());
+                relativeRowIndex++;
+                if (batch.size() < convertBatchSize) {
+                    continue;
+                }
+                if (convertingBatches.size() >= maxConvertingBatches) {
+                    appendConvertedRows(convertingBatches.poll().join());
+                }
+                convertingBatches.add(submitConvert(
+                        batch, newRowIndex, relativeRowIndex - batch.size(), convertExecutor, writeThread));
+                batch = new ArrayList<>(convertBatchSize);
+            }
+            if (!batch.isEmpty()) {
+                convertingBatches.add(submitConvert(
+                        batch, newRowIndex, relativeRowIndex - batch.size(), convertExecutor, writeThread));
+            }
+            while (!convertingBatches.isEmpty()) {
+                appendConvertedRows(convertingBatches.poll().join());
+            }
+            completed = true;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ExcelGenerateException(cause);
+        } finally {
+            // Whatever failed, the batches not appended yet are not needed anymore
+            if (!completed) {
+                for (CompletableFuture<List<ConvertedRow>> convertingBatch : convertingBatches) {
+                    convertingBatch.cancel(false);
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<List<ConvertedRow>> submitConvert(
+            List<Object> batch,
+            int newRowIndex,
+            int firstRelativeRowIndex,
+            Executor convertExecutor,
+            Thread writeThread) {
+        return CompletableFuture.supplyAsync(
+                () -> convertRows(batch, newRowIndex, firstRelativeRowIndex, writeThread), convertExecutor);
+    }
+
+    /**
+     * Runs on the convert executor. Only reads the holders, the sheet is not touched here.
+     */
+    private List<ConvertedRow> convertRows(
+            List<Object> batch, int newRowIndex, int firstRelativeRowIndex, Thread writeThread) {
+        prepareConvertThread(writeThread);
+        List<ConvertedRow> convertedRowList = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Object oneRowData = batch.get(i);
+            if (oneRowData == null) {
+                continue;
+            }
+            int relativeRowIndex = firstRelativeRowIndex + i;
+            int rowIndex = newRowIndex + relativeRowIndex;
+            ConvertedRow convertedRow = new ConvertedRow(rowIndex, relativeRowIndex);
+            forEachCell(oneRowData, (head, columnIndex, excelContentProperty, originalValue, originalFieldClass) -> {
+                CellWriteHandlerContext cellWriteHandlerContext = WriteHandlerUtils.createCellWriteHandlerContext(
+                        writeContext,
+                        null,
+                        rowIndex,
+                        head,
+                        columnIndex,
+                        relativeRowIndex,
+                        Boolean.FALSE,
+                        excelContentProperty);
+                cellWriteHandlerContext.setOriginalValue(originalValue);
+                cellWriteHandlerContext.setOriginalFieldClass(originalFieldClass);
+                convertedRow.cellWriteHandlerContextList.add(cellWriteHandlerContext);
+                convertedRow.cellDataList.add(convert(cellWriteHandlerContext));
+            });
+            convertedRowList.add(convertedRow);
+        }
+        return convertedRowList;
+    }
+
+    /**
+     * The thread local caches of the convert executor threads are kept for all the batches of this writer, clearing
+     * them after every batch would make each batch build its formats again. They are cleared when the thread converts
+     * the first batch of another writer, because some of them depend on the settings of the workbook, such as the
+     * locale. The executor may also run the batch on the write thread, whose caches are cleared when the workbook is
+     * finished.
+     */
+    private void prepareConvertThread(Thread writeThread) {
+        if (Thread.currentThread() == writeThread || CONVERTING_WRITER.get() == convertToken) {
+            return;
+        }
+        NumberDataFormatterUtils.removeThreadLocalCache();
+        NumberUtils.removeThreadLocalCache();
+        DateUtils.removeThreadLocalCache();
+        ClassUtils.removeThreadLocalCache();
+        CONVERTING_WRITER.set(convertToken);
+    }
+
+    private void appendConvertedRows(List<ConvertedRow> convertedRowList) {
+        if (isDirectCsvWrite()) {
+            CsvSheet csvSheet = (CsvSheet) writeContext.writeSheetHolder().getSheet();
+            for (ConvertedRow convertedRow : convertedRowList) {
+                CsvRowWriter csvRowWriter = csvSheet.startRow(convertedRow.rowIndex);
+                for (int i = 0; i < convertedRow.cellWriteHandlerContextList.size(); i++) {
+                    csvRowWriter.appendCell(
+                            convertedRow.cellWriteHandlerContextList.get(i).getColumnIndex(),
+                            convertedRow.cellDataList.get(i));
+                }
+                csvRowWriter.endRow();
+            }
+            return;
+        }
+        for (ConvertedRow convertedRow : convertedRowList) {
+            RowWriteHandlerContext rowWriteHandlerContext = WriteHandlerUtils.createRowWriteHandlerContext(
+                    writeContext, convertedRow.rowIndex, convertedRow.relativeRowIndex, Boolean.FALSE);
+            WriteHandlerUtils.beforeRowCreate(rowWriteHandlerContext);
+
+            Row row = WorkBookUtil.createRow(
+                    writeContext.writeWorkbookHolder(),
+                    writeContext.writeSheetHolder().getSheet(),
+                    convertedRow.rowIndex);
+            rowWriteHandlerContext.setRow(row);
+
+            WriteHandlerUtils.afterRowCreate(rowWriteHandlerContext);
+
+            for (int i = 0; i < convertedRow.cellWriteHandlerContextList.size(); i++) {
+                CellWriteHandlerContext cellWriteHandlerContext = convertedRow.cellWriteHandlerContextList.get(i);
+                cellWriteHandlerContext.setRow(row);
+                WriteHandlerUtils.beforeCellCreate(cellWriteHandlerContext);
+
+                Cell cell = WorkBookUtil.createCell(row, cellWriteHandlerContext.getColumnIndex());
+                cellWriteHandlerContext.setCell(cell);
+
+                WriteHandlerUtils.afterCellCreate(cellWriteHandlerContext);
+
+                setCellData(cellWriteHandlerContext, convertedRow.cellDataList.get(i));
+
+                WriteHandlerUtils.afterCellDispose(cellWriteHandlerContext);
+            }
+
+            WriteHandlerUtils.afterRowDispose(rowWriteHandlerContext);
+        }
+    }
+
+    private void forEachCell(Object oneRowData, CellVisitor cellVisitor) {
+        if (oneRowData instanceof RowData) {
+            visitBasicType((RowData) oneRowData, cellVisitor);
+        } else if (oneRowData instanceof Collection<?>) {
+            visitBasicType(new CollectionRowData((Collection<?>) oneRowData), cellVisitor);
         } else if (oneRowData instanceof Map) {
-            addBasicTypeToExcel(new MapRowData((Map<Integer, ?>) oneRowData), row, rowIndex, relativeRowIndex);
+            visitBasicType(new MapRowData((Map<Integer, ?>) oneRowData), cellVisitor);
         } else {
-            addJavaObjectToExcel(oneRowData, row, rowIndex, relativeRowIndex);
+            visitJavaObject(oneRowData, cellVisitor);
         }
-
-        WriteHandlerUtils.afterRowDispose(rowWriteHandlerContext);
     }
 
-    private void addBasicTypeToExcel(RowData oneRowData, Row row, int rowIndex, int relativeRowIndex) {
+    private void visitBasicType(RowData oneRowData, CellVisitor cellVisitor) {
         if (oneRowData.isEmpty()) {
             return;
         }
@@ -114,7 +387,7 @@ public class ExcelWriteAddExecutor extends AbstractExcelWriteExecutor {
             }
             int columnIndex = entry.getKey();
             Head head = entry.getValue();
-            doAddBasicTypeToExcel(oneRowData, head, row, rowIndex, relativeRowIndex, dataIndex++, columnIndex);
+            doVisitBasicType(oneRowData, head, dataIndex++, columnIndex, cellVisitor);
             maxCellIndex = Math.max(maxCellIndex, columnIndex);
         }
         // Finish
@@ -126,42 +399,22 @@ public class ExcelWriteAddExecutor extends AbstractExcelWriteExecutor {
 
         int size = oneRowData.size() - dataIndex;
         for (int i = 0; i < size; i++) {
-            doAddBasicTypeToExcel(oneRowData, null, row, rowIndex, relativeRowIndex, dataIndex++, maxCellIndex++);
+            doVisitBasicType(oneRowData, null, dataIndex++, maxCellIndex++, cellVisitor);
         }
     }
 
-    private void doAddBasicTypeToExcel(
-            RowData oneRowData,
-            Head head,
-            Row row,
-            int rowIndex,
-            int relativeRowIndex,
-            int dataIndex,
-            int columnIndex) {
+    private void doVisitBasicType(
+            RowData oneRowData, Head head, int dataIndex, int columnIndex, CellVisitor cellVisitor) {
         ExcelContentProperty excelContentProperty = ClassUtils.declaredExcelContentProperty(
                 null,
                 writeContext.currentWriteHolder().excelWriteHeadProperty().getHeadClazz(),
                 head == null ? null : head.getFieldName(),
                 writeContext.currentWriteHolder());
-
-        CellWriteHandlerContext cellWriteHandlerContext = WriteHandlerUtils.createCellWriteHandlerContext(
-                writeContext, row, rowIndex, head, columnIndex, relativeRowIndex, Boolean.FALSE, excelContentProperty);
-        WriteHandlerUtils.beforeCellCreate(cellWriteHandlerContext);
-
-        Cell cell = WorkBookUtil.createCell(row, columnIndex);
-        cellWriteHandlerContext.setCell(cell);
-
-        WriteHandlerUtils.afterCellCreate(cellWriteHandlerContext);
-
-        cellWriteHandlerContext.setOriginalValue(oneRowData.get(dataIndex));
-        cellWriteHandlerContext.setOriginalFieldClass(
-                FieldUtils.getFieldClass(cellWriteHandlerContext.getOriginalValue()));
-        converterAndSet(cellWriteHandlerContext);
-
-        WriteHandlerUtils.afterCellDispose(cellWriteHandlerContext);
+        Object value = oneRowData.get(dataIndex);
+        cellVisitor.visit(head, columnIndex, excelContentProperty, value, FieldUtils.getFieldClass(value));
     }
 
-    private void addJavaObjectToExcel(Object oneRowData, Row row, int rowIndex, int relativeRowIndex) {
+    private void visitJavaObject(Object oneRowData, CellVisitor cellVisitor) {
         WriteHolder currentWriteHolder = writeContext.currentWriteHolder();
         BeanMap beanMap = BeanMapUtils.create(oneRowData);
         // Bean the contains of the Map Key method with poor performance,So to create a keySet here
@@ -183,27 +436,12 @@ public class ExcelWriteAddExecutor extends AbstractExcelWriteExecutor {
 
                 ExcelContentProperty excelContentProperty = ClassUtils.declaredExcelContentProperty(
                         beanMap, currentWriteHolder.excelWriteHeadProperty().getHeadClazz(), name, currentWriteHolder);
-                CellWriteHandlerContext cellWriteHandlerContext = WriteHandlerUtils.createCellWriteHandlerContext(
-                        writeContext,
-                        row,
-                        rowIndex,
+                cellVisitor.visit(
                         head,
                         columnIndex,
-                        relativeRowIndex,
-                        Boolean.FALSE,
-                        excelContentProperty);
-                WriteHandlerUtils.beforeCellCreate(cellWriteHandlerContext);
-
-                Cell cell = WorkBookUtil.createCell(row, columnIndex);
-                cellWriteHandlerContext.setCell(cell);
-
-                WriteHandlerUtils.afterCellCreate(cellWriteHandlerContext);
-
-                cellWriteHandlerContext.setOriginalValue(beanMap.get(name));
-                cellWriteHandlerContext.setOriginalFieldClass(head.getField().getType());
-                converterAndSet(cellWriteHandlerContext);
-
-                WriteHandlerUtils.afterCellDispose(cellWriteHandlerContext);
+                        excelContentProperty,
+                        beanMap.get(name),
+                        head.getField().getType());
 
                 beanMapHandledSet.add(name);
                 maxCellIndex = Math.max(maxCellIndex, columnIndex);
@@ -227,29 +465,41 @@ public class ExcelWriteAddExecutor extends AbstractExcelWriteExecutor {
             Object value = beanMap.get(fieldName);
             ExcelContentProperty excelContentProperty = ClassUtils.declaredExcelContentProperty(
                     beanMap, currentWriteHolder.excelWriteHeadProperty().getHeadClazz(), fieldName, currentWriteHolder);
-            CellWriteHandlerContext cellWriteHandlerContext = WriteHandlerUtils.createCellWriteHandlerContext(
-                    writeContext,
-                    row,
-                    rowIndex,
+            // If there is data, it is written to the next cell
+            cellVisitor.visit(
                     null,
                     maxCellIndex,
-                    relativeRowIndex,
-                    Boolean.FALSE,
-                    excelContentProperty);
-            WriteHandlerUtils.beforeCellCreate(cellWriteHandlerContext);
-
-            // If there is data, it is written to the next cell
-            Cell cell = WorkBookUtil.createCell(row, maxCellIndex);
-            cellWriteHandlerContext.setCell(cell);
+                    excelContentProperty,
+                    value,
+                    FieldUtils.getFieldClass(beanMap, fieldName, value));
+            maxCellIndex++;
+        }
+    }
 
-            WriteHandlerUtils.afterCellCreate(cellWriteHandlerContext);
+    /**
+     * Receives the cells of one row in the order they are written.
+     */
+    private interface CellVisitor {
+        void visit(
+                Head head,
+                int columnIndex,
+                ExcelContentProperty excelContentProperty,
+                Object originalValue,
+                Class<?> originalFieldClass);
+    }
 
-            cellWriteHandlerContext.setOriginalValue(value);
-            cellWriteHandlerContext.setOriginalFieldClass(FieldUtils.getFieldClass(beanMap, fieldName, value));
-            converterAndSet(cellWriteHandlerContext);
+    /**
+     * A row converted by the convert executor, waiting to be appended to the sheet.
+     */
+    private static class ConvertedRow {
+        private final int rowIndex;
+        private final int relativeRowIndex;
+        private final List<CellWriteHandlerContext> cellWriteHandlerContextList = new ArrayList<>();
+        private final List<WriteCellData<?>> cellDataList = new ArrayList<>();
 
-            WriteHandlerUtils.afterCellDispose(cellWriteHandlerContext);
-            maxCellIndex++;
+        private ConvertedRow(int rowIndex, int relativeRowIndex) {
+            this.rowIndex = rowIndex;
+            this.relativeRowIndex = relativeRowIndex;
         }
     }
 }
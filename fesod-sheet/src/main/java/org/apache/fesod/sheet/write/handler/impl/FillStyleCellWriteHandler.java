@@ -26,6 +26,7 @@ import org.apache.fesod.sheet.util.BooleanUtils;
 import org.apache.fesod.sheet.write.handler.CellWriteHandler;
 import org.apache.fesod.sheet.write.handler.context.CellWriteHandlerContext;
 import org.apache.fesod.sheet.write.metadata.holder.WriteWorkbookHolder;
+import org.apache.fesod.sheet.write.metadata.style.ColumnCellStyleCache;
 import org.apache.fesod.sheet.write.metadata.style.WriteCellStyle;
 import org.apache.poi.ss.usermodel.CellStyle;
 
@@ -58,7 +59,32 @@ public class FillStyleCellWriteHandler implements CellWriteHandler {
             return;
         }
         WriteWorkbookHolder writeWorkbookHolder = context.getWriteWorkbookHolder();
-        context.getCell()
-                .setCellStyle(writeWorkbookHolder.createCellStyle(writeCellStyle, originCellStyle, cellData.getType()));
+        ColumnCellStyleCache columnCellStyleCache = context.getWriteSheetHolder().getColumnCellStyleCache();
+        if (writeCellStyle == null || columnCellStyleCache == null || context.getColumnIndex() == null) {
+            context.getCell()
+                    .setCellStyle(
+                            writeWorkbookHolder.createCellStyle(writeCellStyle, originCellStyle, cellData.getType()));
+            return;
+        }
+
+        // Styles are usually the same for the whole column, so try the column cache first. The template date format
+        // is applied before, so that a hit uses the same style as 'createCellStyle' would.
+        int columnIndex = context.getColumnIndex();
+        boolean originDateFormat =
+                writeWorkbookHolder.fillOriginDateFormat(writeCellStyle, originCellStyle, cellData.getType());
+        CellStyle cellStyle = columnCellStyleCache.get(
+                columnIndex, context.getHead(), cellData.getType(), originDateFormat, writeCellStyle, originCellStyle);
+        if (cellStyle == null) {
+            cellStyle = writeWorkbookHolder.createCellStyle(writeCellStyle, originCellStyle, cellData.getType());
+            columnCellStyleCache.put(
+                    columnIndex,
+                    context.getHead(),
+                    cellData.getType(),
+                    originDateFormat,
+                    writeCellStyle,
+                    originCellStyle,
+                    cellStyle);
+        }
+        context.getCell().setCellStyle(cellStyle);
     }
 }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.write.jdbc;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.apache.fesod.sheet.exception.ExcelGenerateException;
+import org.apache.fesod.sheet.write.metadata.RowData;
+
+/**
+ * Iterates the rows of a {@link ResultSet} as {@link RowData}.
+ * <p>
+ * The {@link ResultSetMetaData} is read once to decide how each column is read, so that numbers, booleans and dates
+ * are read with the typed getters and go straight to the matching converter instead of through a string. Everything
+ * else is read with {@link ResultSet#getString(int)}.
+ *
+ *
+ */
+public class ResultSetRowIterator implements Iterator<RowData> {
+    private final ResultSet resultSet;
+    private final ColumnReader[] columnReaders;
+    private final List<List<String>> head;
+    /**
+     * Reuse the same row object for all the rows. Only possible if a row has been written before the next one is read.
+     */
+    private final boolean reuseRow;
+
+    private ResultSetRowData row;
+    private Boolean hasNext;
+
+    public ResultSetRowIterator(ResultSet resultSet, boolean reuseRow) throws SQLException {
+        this.resultSet = resultSet;
+        this.reuseRow = reuseRow;
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        this.columnReaders = new ColumnReader[columnCount];
+        this.head = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columnReaders[i] = columnReader(metaData.getColumnType(i + 1));
+            head.add(Collections.singletonList(metaData.getColumnLabel(i + 1)));
+        }
+    }
+
+    /**
+     * The column labels as head.
+     *
+     * @return head
+     */
+    public List<List<String>> head() {
+        return head;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext == null) {
+            try {
+                hasNext = resultSet.next();
+            } catch (SQLException e) {
+                throw new ExcelGenerateException("Can not read the next row of the result set.", e);
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public RowData next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNext = null;
+        ResultSetRowData currentRow = row;
+        if (currentRow == null || !reuseRow) {
+            currentRow = new ResultSetRowData(columnReaders.length);
+            row = currentRow;
+        }
+        try {
+            for (int i = 0; i < columnReaders.length; i++) {
+                currentRow.values[i] = columnReaders[i].read(resultSet, i + 1);
+            }
+        } catch (SQLException e) {
+            throw new ExcelGenerateException("Can not read the result set.", e);
+        }
+        return currentRow;
+    }
+
+    private static ColumnReader columnReader(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return (resultSet, column) -> {
+                    int value = resultSet.getInt(column);
+                    return resultSet.wasNull() ? null : value;
+                };
+            case Types.BIGINT:
+                return (resultSet, column) -> {
+                    long value = resultSet.getLong(column);
+                    return resultSet.wasNull() ? null : value;
+                };
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return (resultSet, column) -> {
+                    double value = resultSet.getDouble(column);
+                    return resultSet.wasNull() ? null : value;
+                };
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return ResultSet::getBigDecimal;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return (resultSet, column) -> {
+                    boolean value = resultSet.getBoolean(column);
+                    return resultSet.wasNull() ? null : value;
+                };
+            case Types.DATE:
+                return (resultSet, column) -> {
+                    Date value = resultSet.getDate(column);
+                    return value == null ? null : value.toLocalDate();
+                };
+            case Types.TIMESTAMP:
+                return (resultSet, column) -> {
+                    Timestamp value = resultSet.getTimestamp(column);
+                    return value == null ? null : value.toLocalDateTime();
+                };
+            default:
+                return ResultSet::getString;
+        }
+    }
+
+    private interface ColumnReader {
+        Object read(ResultSet resultSet, int column) throws SQLException;
+    }
+
+    private static class ResultSetRowData implements RowData {
+        private final Object[] values;
+
+        private ResultSetRowData(int columnCount) {
+            this.values = new Object[columnCount];
+        }
+
+        @Override
+        public Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return values.length == 0;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -91,9 +92,16 @@ public class WriteWorkbook extends WriteBasicParameter {
     /**
      * Whether the encryption
      * <p>
-     * WARRING:Encryption is when the entire file is read into memory, so it is very memory intensive.
+     * WARRING:Encryption of xls is when the entire file is read into memory, so it is very memory intensive. Xlsx is
+     * encrypted while it is written.
      */
     private String password;
+    /**
+     * Executor used to encrypt the xlsx file in parallel. Default null, the file is encrypted on the writing thread.
+     * <p>
+     * Only work when {@code password} is set on the xlsx file.
+     */
+    private Executor encryptExecutor;
     /**
      * Write excel in memory. Default false, the cache file is created and finally written to excel.
      * <p>
@@ -104,9 +112,56 @@ public class WriteWorkbook extends WriteBasicParameter {
      * Excel is also written in the event of an exception being thrown.The default false.
      */
     private Boolean writeExcelOnException;
+    /**
+     * Write strings to the shared strings table instead of inline strings when writing xlsx in streaming mode. Default
+     * false.
+     * <p>
+     * Repeated strings are only stored once, which makes the file smaller. Every distinct string is kept in memory
+     * until the workbook is written, up to {@code sharedStringsMaxUniqueCount} strings, only the xml of the table is
+     * buffered in a temporary file.
+     */
+    private Boolean useSharedStrings;
+    /**
+     * The maximum number of distinct strings in the shared strings table, which bounds the memory used by the table.
+     * Strings beyond it are written as inline strings. Must be greater than 0. Default 100000.
+     * <p>
+     * Only work when {@code useSharedStrings} is true.
+     */
+    private Integer sharedStringsMaxUniqueCount;
+    /**
+     * Executor used to convert the rows of {@code ExcelWriter#write} in parallel. Default null, the rows are converted
+     * on the writing thread.
+     * <p>
+     * Only the data conversion runs on the executor, the rows are still created and appended to the sheet by the
+     * writing thread in order, and all the {@code WriteHandler} callbacks run on the writing thread. Because the
+     * conversion happens before {@code beforeCellCreate}, changes that a handler makes to the target cell type or the
+     * content property are not used for the conversion. Custom converters must be thread safe.
+     * <p>
+     * The executor threads keep the thread local caches of the conversion, such as the number and date formats,
+     * until they convert rows for another workbook.
+     */
+    private Executor convertExecutor;
+    /**
+     * The number of rows converted by one task of the {@code convertExecutor}. Must be greater than 0. Default 500.
+     */
+    private Integer convertBatchSize;
     /**
      * Specifies CSVFormat for parsing.
      * Only work on the CSV file.
      */
     private CSVFormat csvFormat;
+    /**
+     * Write the data rows of csv straight to the output, without creating rows, cells and styles. Default false.
+     * <p>
+     * {@code CellWriteHandler} and {@code RowWriteHandler} are not called for the data rows, and only the data format
+     * of {@code WriteCellData} is used. Only work on the CSV file.
+     */
+    private Boolean directCsvWrite;
+    /**
+     * Write xls without keeping all the rows in memory. Default false.
+     * <p>
+     * Only the most recent rows of each sheet are kept, older rows are written as BIFF8 records to a temporary file
+     * and can no longer be accessed. Not used with a template or a password.
+     */
+    private Boolean streamingXlsWrite;
 }
@@ -336,14 +336,16 @@ public abstract class AbstractWriteHolder extends AbstractHolder implements Writ
                 if (head == null) {
                     return null;
                 }
-                return WriteCellStyle.build(head.getHeadStyleProperty(), head.getHeadFontProperty());
+                return cachedCellStyle(
+                        head, key -> WriteCellStyle.build(key.getHeadStyleProperty(), key.getHeadFontProperty()));
             }
 
             @Override
             protected WriteCellStyle contentCellStyle(CellWriteHandlerContext context) {
                 ExcelContentProperty excelContentProperty = context.getExcelContentProperty();
-                return WriteCellStyle.build(
-                        excelContentProperty.getContentStyleProperty(), excelContentProperty.getContentFontProperty());
+                return cachedCellStyle(
+                        excelContentProperty,
+                        key -> WriteCellStyle.build(key.getContentStyleProperty(), key.getContentFontProperty()));
             }
         };
         handlerList.add(styleStrategy);
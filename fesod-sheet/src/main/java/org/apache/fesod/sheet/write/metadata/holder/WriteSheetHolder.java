@@ -29,6 +29,7 @@ import org.apache.fesod.sheet.enums.HolderEnum;
 import org.apache.fesod.sheet.enums.WriteLastRowTypeEnum;
 import org.apache.fesod.sheet.util.StringUtils;
 import org.apache.fesod.sheet.write.metadata.WriteSheet;
+import org.apache.fesod.sheet.write.metadata.style.ColumnCellStyleCache;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
@@ -95,6 +96,11 @@ public class WriteSheetHolder extends AbstractWriteHolder {
      */
     private Integer lastRowIndex;
 
+    /**
+     * Used to cell style. The final cell style of each column is resolved once.
+     */
+    private ColumnCellStyleCache columnCellStyleCache;
+
     public WriteSheetHolder(WriteSheet writeSheet, WriteWorkbookHolder writeWorkbookHolder) {
         super(writeSheet, writeWorkbookHolder);
 
@@ -116,6 +122,7 @@ public class WriteSheetHolder extends AbstractWriteHolder {
             writeLastRowTypeEnum = WriteLastRowTypeEnum.COMMON_EMPTY;
         }
         lastRowIndex = 0;
+        this.columnCellStyleCache = new ColumnCellStyleCache();
     }
 
     /**
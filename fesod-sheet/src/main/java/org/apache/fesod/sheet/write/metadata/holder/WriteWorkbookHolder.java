@@ -29,6 +29,7 @@ import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -48,6 +49,7 @@ import org.apache.fesod.sheet.write.handler.context.WorkbookWriteHandlerContext;
 import org.apache.fesod.sheet.write.metadata.WriteWorkbook;
 import org.apache.fesod.sheet.write.metadata.style.WriteCellStyle;
 import org.apache.fesod.sheet.write.metadata.style.WriteFont;
+import org.apache.fesod.sheet.write.streaming.StreamingHSSFWriter;
 import org.apache.poi.hssf.usermodel.HSSFCellStyle;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -67,6 +69,9 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 @EqualsAndHashCode
 @Slf4j
 public class WriteWorkbookHolder extends AbstractWriteHolder {
+    private static final int DEFAULT_SHARED_STRINGS_MAX_UNIQUE_COUNT = 100000;
+    private static final int DEFAULT_CONVERT_BATCH_SIZE = 500;
+
     /***
      * Current poi Workbook.This is only for writing, and there may be no data in version 07 when template data needs to
      * be read.
@@ -84,6 +89,10 @@ public class WriteWorkbookHolder extends AbstractWriteHolder {
      * </ul>
      */
     private Workbook cachedWorkbook;
+    /**
+     * Writes the xls in streaming mode, only set when {@code streamingXlsWrite} is used.
+     */
+    private StreamingHSSFWriter streamingHSSFWriter;
     /**
      * current param
      */
@@ -152,6 +161,10 @@ public class WriteWorkbookHolder extends AbstractWriteHolder {
      * Whether the encryption
      */
     private String password;
+    /**
+     * Executor used to encrypt the xlsx file in parallel. Default null, the file is encrypted on the writing thread.
+     */
+    private Executor encryptExecutor;
     /**
      * Write excel in memory. Default false, the cache file is created and finally written to excel.
      * <p>
@@ -162,6 +175,53 @@ public class WriteWorkbookHolder extends AbstractWriteHolder {
      * Excel is also written in the event of an exception being thrown.The default false.
      */
     private Boolean writeExcelOnException;
+    /**
+     * Write strings to the shared strings table instead of inline strings when writing xlsx in streaming mode. Default
+     * false.
+     * <p>
+     * Repeated strings are only stored once, which makes the file smaller. Every distinct string is kept in memory
+     * until the workbook is written, up to {@code sharedStringsMaxUniqueCount} strings, only the xml of the table is
+     * buffered in a temporary file.
+     */
+    private Boolean useSharedStrings;
+    /**
+     * The maximum number of distinct strings in the shared strings table, which bounds the memory used by the table.
+     * Strings beyond it are written as inline strings. Must be greater than 0. Default 100000.
+     * <p>
+     * Only work when {@code useSharedStrings} is true.
+     */
+    private Integer sharedStringsMaxUniqueCount;
+    /**
+     * Executor used to convert the rows of {@code ExcelWriter#write} in parallel. Default null, the rows are converted
+     * on the writing thread.
+     * <p>
+     * Only the data conversion runs on the executor, the rows are still created and appended to the sheet by the
+     * writing thread in order, and all the {@code WriteHandler} callbacks run on the writing thread. Because the
+     * conversion happens before {@code beforeCellCreate}, changes that a handler makes to the target cell type or the
+     * content property are not used for the conversion. Custom converters must be thread safe.
+     * <p>
+     * The executor threads keep the thread local caches of the conversion, such as the number and date formats,
+     * until they convert rows for another workbook.
+     */
+    private Executor convertExecutor;
+    /**
+     * The number of rows converted by one task of the {@code convertExecutor}. Must be greater than 0. Default 500.
+     */
+    private Integer convertBatchSize;
+    /**
+     * Write the data rows of csv straight to the output, without creating rows, cells and styles. Default false.
+     * <p>
+     * {@code CellWriteHandler} and {@code RowWriteHandler} are not called for the data rows, and only the data format
+     * of {@code WriteCellData} is used. Only work on the CSV file.
+     */
+    private Boolean directCsvWrite;
+    /**
+     * Write xls without keeping all the rows in memory. Default false.
+     * <p>
+     * Only the most recent rows of each sheet are kept, older rows are written as BIFF8 records to a temporary file
+     * and can no longer be accessed. Not used with a template or a password.
+     */
+    private Boolean streamingXlsWrite;
 
     /**
      * Used to cell style.
@@ -249,6 +309,7 @@ public class WriteWorkbookHolder extends AbstractWriteHolder {
         this.hasBeenInitializedSheetIndexMap = new HashMap<>();
         this.hasBeenInitializedSheetNameMap = new HashMap<>();
         this.password = writeWorkbook.getPassword();
+        this.encryptExecutor = writeWorkbook.getEncryptExecutor();
         if (writeWorkbook.getInMemory() == null) {
             this.inMemory = Boolean.FALSE;
         } else {
@@ -259,6 +320,38 @@ public class WriteWorkbookHolder extends AbstractWriteHolder {
         } else {
             this.writeExcelOnException = writeWorkbook.getWriteExcelOnException();
         }
+        if (writeWorkbook.getUseSharedStrings() == null) {
+            this.useSharedStrings = Boolean.FALSE;
+        } else {
+            this.useSharedStrings = writeWorkbook.getUseSharedStrings();
+        }
+        if (writeWorkbook.getSharedStringsMaxUniqueCount() == null) {
+            this.sharedStringsMaxUniqueCount = DEFAULT_SHARED_STRINGS_MAX_UNIQUE_COUNT;
+        } else {
+            if (writeWorkbook.getSharedStringsMaxUniqueCount() <= 0) {
+                throw new ExcelGenerateException("sharedStringsMaxUniqueCount must be greater than 0.");
+            }
+            this.sharedStringsMaxUniqueCount = writeWorkbook.getSharedStringsMaxUniqueCount();
+        }
+        this.convertExecutor = writeWorkbook.getConvertExecutor();
+        if (writeWorkbook.getConvertBatchSize() == null) {
+            this.convertBatchSize = DEFAULT_CONVERT_BATCH_SIZE;
+        } else {
+            if (writeWorkbook.getConvertBatchSize() <= 0) {
+                throw new ExcelGenerateException("convertBatchSize must be greater than 0.");
+            }
+            this.convertBatchSize = writeWorkbook.getConvertBatchSize();
+        }
+        if (writeWorkbook.getDirectCsvWrite() == null) {
+            this.directCsvWrite = Boolean.FALSE;
+        } else {
+            this.directCsvWrite = writeWorkbook.getDirectCsvWrite();
+        }
+        if (writeWorkbook.getStreamingXlsWrite() == null) {
+            this.streamingXlsWrite = Boolean.FALSE;
+        } else {
+            this.streamingXlsWrite = writeWorkbook.getStreamingXlsWrite();
+        }
         this.cellStyleIndexMap = MapUtils.newHashMap();
         this.fontMap = MapUtils.newHashMap();
         this.dataFormatMap = MapUtils.newHashMap();
@@ -316,15 +409,7 @@ public class WriteWorkbookHolder extends AbstractWriteHolder {
             }
             useCache = false;
 
-            if (CellDataTypeEnum.DATE.equals(cellDataType)
-                    && DateUtils.isADateFormat(
-                            originCellStyle.getDataFormat(), originCellStyle.getDataFormatString())) {
-                DataFormatData dataFormatData = new DataFormatData();
-                dataFormatData.setIndex(originCellStyle.getDataFormat());
-                dataFormatData.setFormat(originCellStyle.getDataFormatString());
-
-                writeCellStyle.setDataFormatData(dataFormatData);
-            }
+            fillOriginDateFormat(writeCellStyle, originCellStyle, cellDataType);
         }
 
         Map<WriteCellStyle, CellStyle> cellStyleMap =
@@ -352,6 +437,30 @@ public class WriteWorkbookHolder extends AbstractWriteHolder {
         return cellStyle;
     }
 
+    /**
+     * Dates use the data format of the template if it is a date format.
+     *
+     * @param writeCellStyle  style of the current cell
+     * @param originCellStyle Nullable. style of the template
+     * @param cellDataType    cell data type
+     * @return Whether the data format of the template is used.
+     */
+    public boolean fillOriginDateFormat(
+            WriteCellStyle writeCellStyle, CellStyle originCellStyle, CellDataTypeEnum cellDataType) {
+        if (writeCellStyle == null
+                || originCellStyle == null
+                || !CellDataTypeEnum.DATE.equals(cellDataType)
+                || !DateUtils.isADateFormat(originCellStyle.getDataFormat(), originCellStyle.getDataFormatString())) {
+            return false;
+        }
+        DataFormatData dataFormatData = new DataFormatData();
+        dataFormatData.setIndex(originCellStyle.getDataFormat());
+        dataFormatData.setFormat(originCellStyle.getDataFormatString());
+
+        writeCellStyle.setDataFormatData(dataFormatData);
+        return true;
+    }
+
     /**
      * create a font.
      *
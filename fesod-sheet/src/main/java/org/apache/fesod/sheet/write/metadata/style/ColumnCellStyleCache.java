@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.write.metadata.style;
+
+import java.util.Arrays;
+import java.util.Objects;
+import org.apache.fesod.sheet.enums.CellDataTypeEnum;
+import org.apache.poi.ss.usermodel.CellStyle;
+
+/**
+ * Column level cache of the final cell style.
+ * <p>
+ * Styles are usually fixed per column, so the last resolved style of each (column, head, cell type, template date
+ * format, origin style) is kept here. Cells sharing a {@link WriteCellStyle} object hit by identity. Otherwise the
+ * style is compared with a copy of the last one of the column, which still avoids hashing the whole style into the
+ * workbook level cache for every cell. When the style of a column changes from row to row the entry is simply
+ * replaced.
+ *
+ *
+ */
+public class ColumnCellStyleCache {
+    /**
+     * The maximum number of columns in excel 2007.
+     */
+    private static final int MAX_COLUMN_COUNT = 16384;
+
+    private Entry[] columnEntries = new Entry[16];
+
+    /**
+     * Get the cell style resolved last time for the column.
+     *
+     * @param columnIndex      column index
+     * @param head             Nullable. It is null in the case of fill data.
+     * @param cellDataType     cell data type
+     * @param originDateFormat whether the date format of the template is used
+     * @param writeCellStyle   style of the current cell. A style shared by cells must not be modified once written.
+     * @param originCellStyle  Nullable. style of the template
+     * @return Null if the style of the column has changed or not been resolved yet.
+     */
+    public CellStyle get(
+            int columnIndex,
+            Boolean head,
+            CellDataTypeEnum cellDataType,
+            boolean originDateFormat,
+            WriteCellStyle writeCellStyle,
+            CellStyle originCellStyle) {
+        if (columnIndex < 0 || columnIndex >= columnEntries.length) {
+            return null;
+        }
+        Entry entry = find(columnEntries[columnIndex], head, cellDataType, originDateFormat, originCellStyle);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.writeCellStyle != writeCellStyle) {
+            if (!entry.copiedWriteCellStyle.equals(writeCellStyle)) {
+                return null;
+            }
+            entry.writeCellStyle = writeCellStyle;
+        }
+        return entry.cellStyle;
+    }
+
+    /**
+     * Cache the cell style of the column.
+     *
+     * @param columnIndex      column index
+     * @param head             Nullable. It is null in the case of fill data.
+     * @param cellDataType     cell data type
+     * @param originDateFormat whether the date format of the template is used
+     * @param writeCellStyle   style of the current cell
+     * @param originCellStyle  Nullable. style of the template
+     * @param cellStyle        the final style
+     */
+    public void put(
+            int columnIndex,
+            Boolean head,
+            CellDataTypeEnum cellDataType,
+            boolean originDateFormat,
+            WriteCellStyle writeCellStyle,
+            CellStyle originCellStyle,
+            CellStyle cellStyle) {
+        if (columnIndex < 0 || columnIndex >= MAX_COLUMN_COUNT) {
+            return;
+        }
+        if (columnIndex >= columnEntries.length) {
+            int newLength = Math.min(MAX_COLUMN_COUNT, Math.max(columnIndex + 1, columnEntries.length << 1));
+            columnEntries = Arrays.copyOf(columnEntries, newLength);
+        }
+        Entry entry = find(columnEntries[columnIndex], head, cellDataType, originDateFormat, originCellStyle);
+        if (entry == null) {
+            entry = new Entry();
+            entry.head = head;
+            entry.cellDataType = cellDataType;
+            entry.originDateFormat = originDateFormat;
+            entry.originCellStyle = originCellStyle;
+            entry.next = columnEntries[columnIndex];
+            columnEntries[columnIndex] = entry;
+        }
+        entry.writeCellStyle = writeCellStyle;
+        entry.copiedWriteCellStyle = writeCellStyle.clone();
+        entry.cellStyle = cellStyle;
+    }
+
+    private Entry find(
+            Entry entry,
+            Boolean head,
+            CellDataTypeEnum cellDataType,
+            boolean originDateFormat,
+            CellStyle originCellStyle) {
+        while (entry != null) {
+            if (Objects.equals(entry.head, head)
+                    && entry.cellDataType == cellDataType
+                    && entry.originDateFormat == originDateFormat
+                    && entry.originCellStyle == originCellStyle) {
+                return entry;
+            }
+            entry = entry.next;
+        }
+        return null;
+    }
+
+    private static class Entry {
+        private Boolean head;
+        private CellDataTypeEnum cellDataType;
+        private boolean originDateFormat;
+        private CellStyle originCellStyle;
+        /**
+         * The last style object of the column, compared by identity.
+         */
+        private WriteCellStyle writeCellStyle;
+        /**
+         * Copy of the last style that other style objects are compared with.
+         */
+        private WriteCellStyle copiedWriteCellStyle;
+
+        private CellStyle cellStyle;
+        private Entry next;
+    }
+}
@@ -173,7 +173,7 @@ public class WriteCellStyle {
         }
         if (source.getDataFormatData() != null) {
             if (target.getDataFormatData() == null) {
-                target.setDataFormatData(source.getDataFormatData());
+                target.setDataFormatData(source.getDataFormatData().clone());
             } else {
                 DataFormatData.merge(source.getDataFormatData(), target.getDataFormatData());
             }
@@ -373,4 +373,11 @@ public class WriteCellStyle {
             writeCellStyle.setShrinkToFit(styleProperty.getShrinkToFit());
         }
     }
+
+    @Override
+    public WriteCellStyle clone() {
+        WriteCellStyle writeCellStyle = new WriteCellStyle();
+        merge(this, writeCellStyle);
+        return writeCellStyle;
+    }
 }
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.write.streaming;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import javax.crypto.Cipher;
+import org.apache.fesod.sheet.exception.ExcelGenerateException;
+import org.apache.fesod.sheet.util.FileUtils;
+import org.apache.fesod.sheet.util.IoUtils;
+import org.apache.poi.poifs.crypt.ChainingMode;
+import org.apache.poi.poifs.crypt.CryptoFunctions;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.EncryptionMode;
+import org.apache.poi.poifs.crypt.Encryptor;
+import org.apache.poi.poifs.filesystem.DocumentOutputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.LittleEndianOutputStream;
+import org.apache.poi.util.TempFile;
+
+/**
+ * Encrypts the xlsx package with standard encryption while it is being written.
+ * <p>
+ * Standard encryption is AES in ECB mode, so the package is encrypted in batches of 64 segments of 4096 bytes that do
+ * not depend on each other, only the last batch is padded. The batches are encrypted on the executor, or on the
+ * writing thread without one, and every batch is written to its own position of a temporary file. When the package
+ * is complete, {@link #writeTo(OutputStream)} assembles the encrypted document in a file backed POIFS, so neither the
+ * plain package nor the encrypted one is held in memory.
+ *
+ *
+ */
+public class EncryptedPackageOutputStream extends OutputStream {
+    /**
+     * Size of a segment of the package.
+     */
+    public static final int SEGMENT_SIZE = 4096;
+
+    private static final int BATCH_SIZE = 64 * SEGMENT_SIZE;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Encryptor encryptor;
+    /**
+     * Nullable.
+     */
+    private final Executor executor;
+    /**
+     * The maximum number of batches being encrypted at the same time.
+     */
+    private final int maxPendingBatches;
+
+    private final Deque<CompletableFuture<Void>> encryptingBatches;
+    private final File tempFile;
+    private final FileChannel channel;
+    private byte[] batch;
+    private int batchSize;
+    /**
+     * The number of bytes of the package before the current batch.
+     */
+    private long position;
+
+    private boolean finished;
+    /**
+     * Set when the stream is closed before the batches are done, the batches not started yet are skipped.
+     */
+    private volatile boolean cancelled;
+
+    public EncryptedPackageOutputStream(String password, Executor executor) throws IOException {
+        this.encryptor = new EncryptionInfo(EncryptionMode.standard).getEncryptor();
+        this.encryptor.confirmPassword(password);
+        this.executor = executor;
+        this.maxPendingBatches = Runtime.getRuntime().availableProcessors() * 2;
+        this.encryptingBatches = new ArrayDeque<>(maxPendingBatches);
+        this.tempFile = TempFile.createTempFile("fesod-encrypted-package", ".tmp");
+        this.channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE);
+        this.batch = new byte[BATCH_SIZE];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (batchSize == BATCH_SIZE) {
+            submit(false);
+        }
+        batch[batchSize++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (batchSize == BATCH_SIZE) {
+                submit(false);
+            }
+            int size = Math.min(len, BATCH_SIZE - batchSize);
+            System.arraycopy(b, off, batch, batchSize, size);
+            batchSize += size;
+            off += size;
+            len -= size;
+        }
+    }
+
+    /**
+     * Write the encrypted document, the package must be complete.
+     *
+     * @param outputStream output
+     * @throws IOException if the document can not be written
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        finish();
+        File documentFile = TempFile.createTempFile("fesod-encrypted", ".xlsx");
+        try {
+            try (POIFSFileSystem fileSystem = POIFSFileSystem.create(documentFile)) {
+                // POI writes the DataSpaces and EncryptionInfo entries when its stream is closed, its empty package is
+                // replaced
+                encryptor.getDataStream(fileSystem).close();
+                fileSystem.getRoot().getEntry(Decryptor.DEFAULT_POIFS_ENTRY).delete();
+                try (LittleEndianOutputStream packageStream = new LittleEndianOutputStream(new BufferedOutputStream(
+                                new DocumentOutputStream(fileSystem.getRoot(), Decryptor.DEFAULT_POIFS_ENTRY),
+                                BUFFER_SIZE));
+                        InputStream inputStream = Files.newInputStream(tempFile.toPath())) {
+                    packageStream.writeLong(position);
+                    IoUtils.copy(inputStream, packageStream);
+                }
+                fileSystem.writeFilesystem();
+            }
+            try (InputStream inputStream = Files.newInputStream(documentFile.toPath())) {
+                IoUtils.copy(inputStream, outputStream);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        } finally {
+            FileUtils.delete(documentFile);
+        }
+    }
+
+    /**
+     * Delete the temporary file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            cancel();
+            channel.close();
+        } finally {
+            FileUtils.delete(tempFile);
+        }
+    }
+
+    /**
+     * Encrypt the last batch with padding and wait for all the batches.
+     */
+    private void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        submit(true);
+        while (!encryptingBatches.isEmpty()) {
+            join(encryptingBatches.poll());
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+        byte[] data = batch;
+        int size = batchSize;
+        long batchPosition = position;
+        position += size;
+        batch = last ? null : new byte[BATCH_SIZE];
+        batchSize = 0;
+        if (executor == null) {
+            encrypt(data, size, batchPosition, last);
+            return;
+        }
+        if (encryptingBatches.size() >= maxPendingBatches) {
+            join(encryptingBatches.poll());
+        }
+        encryptingBatches.add(CompletableFuture.runAsync(() -> encrypt(data, size, batchPosition, last), executor));
+    }
+
+    /**
+     * Same as POI, the package is padded with PKCS5, which only adds bytes to the last batch.
+     */
+    private void encrypt(byte[] data, int size, long batchPosition, boolean last) {
+        if (cancelled) {
+            return;
+        }
+        try {
+            Cipher cipher = CryptoFunctions.getCipher(
+                    encryptor.getSecretKey(),
+                    encryptor.getEncryptionInfo().getHeader().getCipherAlgorithm(),
+                    ChainingMode.ecb,
+                    null,
+                    Cipher.ENCRYPT_MODE,
+                    last ? "PKCS5Padding" : "NoPadding");
+            ByteBuffer byteBuffer = ByteBuffer.wrap(cipher.doFinal(data, 0, size));
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer, batchPosition + byteBuffer.position());
+            }
+        } catch (GeneralSecurityException | IOException e) {
+            throw new ExcelGenerateException("Can not encrypt the package.", e);
+        }
+    }
+
+    /**
+     * The batches being encrypted still write to the channel, so wait for them before it is closed.
+     */
+    private void cancel() {
+        cancelled = true;
+        for (CompletableFuture<Void> encryptingBatch : encryptingBatches) {
+            try {
+                encryptingBatch.join();
+            } catch (CompletionException ignore) {
+                // the stream is already failing or abandoned
+            }
+        }
+        encryptingBatches.clear();
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ExcelGenerateException(cause);
+        }
+    }
+}
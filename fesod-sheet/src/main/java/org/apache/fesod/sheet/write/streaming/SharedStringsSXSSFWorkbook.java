@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.write.streaming;
+
+import java.io.IOException;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.ooxml.POIXMLRelation;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+import org.apache.poi.xssf.usermodel.XSSFFactory;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Streaming workbook that writes a real {@code sharedStrings.xml} instead of inline strings.
+ *
+ * @see StreamingSharedStringsTable
+ *
+ */
+public class SharedStringsSXSSFWorkbook extends SXSSFWorkbook {
+
+    private final StreamingSharedStringsTable sharedStringsTable;
+
+    public SharedStringsSXSSFWorkbook(int maxUniqueCount) {
+        this(new SharedStringsXSSFFactory(new StreamingSharedStringsTable(maxUniqueCount)));
+    }
+
+    private SharedStringsSXSSFWorkbook(SharedStringsXSSFFactory factory) {
+        super(new XSSFWorkbook(factory), DEFAULT_WINDOW_SIZE, false, false);
+        this.sharedStringsTable = factory.sharedStringsTable;
+    }
+
+    @Override
+    protected SheetDataWriter createSheetDataWriter() throws IOException {
+        return new SharedStringsSheetDataWriter(sharedStringsTable);
+    }
+
+    /**
+     * Also deletes the temporary file of the shared strings, the workbook is always closed after it is written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            sharedStringsTable.close();
+        }
+    }
+
+    /**
+     * Creates the {@link StreamingSharedStringsTable} as the shared strings part of the workbook.
+     */
+    private static class SharedStringsXSSFFactory extends XSSFFactory {
+        private final StreamingSharedStringsTable sharedStringsTable;
+
+        private SharedStringsXSSFFactory(StreamingSharedStringsTable sharedStringsTable) {
+            this.sharedStringsTable = sharedStringsTable;
+        }
+
+        @Override
+        public POIXMLDocumentPart newDocumentPart(POIXMLRelation descriptor) {
+            if (XSSFRelation.SHARED_STRINGS.equals(descriptor)) {
+                return sharedStringsTable;
+            }
+            return super.newDocumentPart(descriptor);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.write.streaming;
+
+import java.io.IOException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+
+/**
+ * Writes string cells as a reference to the {@link StreamingSharedStringsTable}.
+ * <p>
+ * If the table is full, the cell is written as an inline string like the default {@link SheetDataWriter}.
+ *
+ *
+ */
+public class SharedStringsSheetDataWriter extends SheetDataWriter {
+
+    private final StreamingSharedStringsTable sharedStringsTable;
+
+    public SharedStringsSheetDataWriter(StreamingSharedStringsTable sharedStringsTable) throws IOException {
+        super();
+        this.sharedStringsTable = sharedStringsTable;
+    }
+
+    @Override
+    public void writeCell(int columnIndex, Cell cell) throws IOException {
+        if (cell == null || cell.getCellType() != CellType.STRING) {
+            super.writeCell(columnIndex, cell);
+            return;
+        }
+        int index = sharedStringsTable.addString(cell.getStringCellValue());
+        if (index < 0) {
+            super.writeCell(columnIndex, cell);
+            return;
+        }
+        _out.write("<c r=\"");
+        _out.write(new CellReference(cell.getRowIndex(), columnIndex).formatAsString());
+        _out.write('"');
+        CellStyle cellStyle = cell.getCellStyle();
+        if (cellStyle != null && cellStyle.getIndex() != 0) {
+            _out.write(" s=\"");
+            _out.write(Integer.toString(cellStyle.getIndex() & 0xffff));
+            _out.write('"');
+        }
+        _out.write(" t=\"s\"><v>");
+        _out.write(Integer.toString(index));
+        _out.write("</v></c>");
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.write.streaming;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.fesod.sheet.util.FileUtils;
+import org.apache.fesod.sheet.util.IoUtils;
+import org.apache.poi.hpsf.DocumentSummaryInformation;
+import org.apache.poi.hpsf.PropertySet;
+import org.apache.poi.hpsf.SummaryInformation;
+import org.apache.poi.hpsf.WritingNotSupportedException;
+import org.apache.poi.hssf.model.InternalSheet;
+import org.apache.poi.hssf.model.InternalWorkbook;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DBCellRecord;
+import org.apache.poi.hssf.record.IndexRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordBase;
+import org.apache.poi.hssf.record.UncalcedRecord;
+import org.apache.poi.hssf.record.aggregates.RecordAggregate;
+import org.apache.poi.hssf.record.aggregates.RowRecordsAggregate;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.DocumentOutputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Writes a xls workbook without keeping all the rows in memory.
+ * <p>
+ * When a sheet holds more than {@code rowAccessWindowSize} rows, its oldest rows are serialized as BIFF8 records, in
+ * blocks of 32 rows each followed by its DBCELL record, to a temporary file and removed from the sheet. The rows must
+ * be created through {@link org.apache.fesod.sheet.util.WorkBookUtil#createRow}, and a row that has been written to
+ * the temporary file can no longer be accessed.
+ * <p>
+ * The workbook must be written by {@link #write(OutputStream)}: the {@code Workbook} stream is assembled record by
+ * record into a file backed POIFS. The sheet offsets of the BOUNDSHEET records and the INDEX record of each sheet are
+ * computed from the size of the flushed blocks and of the records still in memory, the shared strings table stays in
+ * memory as usual.
+ *
+ *
+ */
+public class StreamingHSSFWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final HSSFWorkbook workbook;
+    /**
+     * The number of rows of a sheet kept in memory.
+     */
+    private final int rowAccessWindowSize;
+    /**
+     * The rows of each sheet that have been written to a temporary file.
+     */
+    private final Map<HSSFSheet, FlushedRows> flushedRowsMap = new IdentityHashMap<>();
+
+    public StreamingHSSFWriter(HSSFWorkbook workbook) {
+        this(workbook, SXSSFWorkbook.DEFAULT_WINDOW_SIZE);
+    }
+
+    public StreamingHSSFWriter(HSSFWorkbook workbook, int rowAccessWindowSize) {
+        this.workbook = workbook;
+        this.rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    /**
+     * Called before a row is created. Once the sheet holds a full block of rows more than the window, the oldest block
+     * is written to the temporary file of the sheet.
+     *
+     * @param sheet  sheet of the workbook
+     * @param rowNum index of the row to be created
+     * @throws IllegalArgumentException if the row has already been written to the temporary file
+     */
+    public void beforeRowCreate(HSSFSheet sheet, int rowNum) {
+        FlushedRows flushedRows = flushedRowsMap.get(sheet);
+        if (flushedRows != null && rowNum <= flushedRows.lastRowNum) {
+            throw new IllegalArgumentException("Attempting to write a row[" + rowNum + "] in the range [0,"
+                    + flushedRows.lastRowNum + "] that is already written to disk.");
+        }
+        if (sheet.getPhysicalNumberOfRows() < rowAccessWindowSize + DBCellRecord.BLOCK_SIZE) {
+            return;
+        }
+        if (flushedRows == null) {
+            flushedRows = new FlushedRows();
+            flushedRowsMap.put(sheet, flushedRows);
+        }
+        try {
+            flushedRows.flush(sheet, DBCellRecord.BLOCK_SIZE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not write the rows to the temporary file.", e);
+        }
+    }
+
+    /**
+     * Write the workbook, including the rows in the temporary files.
+     *
+     * @param stream output
+     * @throws IOException if the workbook can not be written
+     */
+    public void write(OutputStream stream) throws IOException {
+        File file = TempFile.createTempFile("fesod-xls", ".xls");
+        try {
+            try (POIFSFileSystem fs = POIFSFileSystem.create(file)) {
+                writeWorkbookDocument(fs);
+                writeProperties(fs);
+                fs.writeFilesystem();
+            }
+            try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+                IoUtils.copy(inputStream, stream);
+            }
+        } finally {
+            FileUtils.delete(file);
+        }
+    }
+
+    /**
+     * Delete the temporary files.
+     */
+    @Override
+    public void close() throws IOException {
+        for (FlushedRows flushedRows : flushedRowsMap.values()) {
+            flushedRows.close();
+        }
+        flushedRowsMap.clear();
+    }
+
+    /**
+     * Same layout as {@link HSSFWorkbook#getBytes()}: the workbook globals followed by the sheets, but written to the
+     * {@code Workbook} document one record at a time.
+     */
+    private void writeWorkbookDocument(POIFSFileSystem fs) throws IOException {
+        InternalWorkbook internalWorkbook = workbook.getInternalWorkbook();
+        internalWorkbook.preSerialize();
+        List<SheetWriter> sheetWriterList = new ArrayList<>(workbook.getNumberOfSheets());
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            HSSFSheet sheet = workbook.getSheetAt(i);
+            sheet.getSheet().preSerialize();
+            sheetWriterList.add(new SheetWriter(sheet.getSheet(), flushedRowsMap.get(sheet)));
+        }
+        int globalsSize = internalWorkbook.getSize();
+        int offset = globalsSize;
+        for (int i = 0; i < sheetWriterList.size(); i++) {
+            internalWorkbook.setSheetBof(i, offset);
+            offset += sheetWriterList.get(i).layout(offset);
+        }
+        byte[] globals = new byte[globalsSize];
+        internalWorkbook.serialize(0, globals);
+        try (OutputStream outputStream =
+                new BufferedOutputStream(new DocumentOutputStream(fs.getRoot(), "Workbook"), BUFFER_SIZE)) {
+            outputStream.write(globals);
+            for (SheetWriter sheetWriter : sheetWriterList) {
+                sheetWriter.write(outputStream);
+            }
+        }
+    }
+
+    private void writeProperties(POIFSFileSystem fs) throws IOException {
+        writeProperties(fs, workbook.getSummaryInformation(), SummaryInformation.DEFAULT_STREAM_NAME);
+        writeProperties(fs, workbook.getDocumentSummaryInformation(), DocumentSummaryInformation.DEFAULT_STREAM_NAME);
+    }
+
+    private static void writeProperties(POIFSFileSystem fs, PropertySet propertySet, String name) throws IOException {
+        if (propertySet == null) {
+            return;
+        }
+        try (InputStream inputStream = propertySet.toInputStream()) {
+            fs.createDocument(inputStream, name);
+        } catch (WritingNotSupportedException e) {
+            throw new IOException("Can not write the property set " + name + ".", e);
+        }
+    }
+
+    private static void visit(RecordBase record, RecordWriter recordWriter) throws IOException {
+        try {
+            if (record instanceof RecordAggregate) {
+                ((RecordAggregate) record).visitContainedRecords(recordWriter);
+            } else {
+                recordWriter.visitRecord((Record) record);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The blocks of rows of a sheet written to the temporary file.
+     */
+    private static class FlushedRows {
+        private File tempFile;
+        private OutputStream outputStream;
+        private RecordWriter recordWriter;
+        /**
+         * Offsets of the DBCELL records, relative to the start of the temporary file.
+         */
+        private final List<Integer> dbCellOffsetList = new ArrayList<>();
+        /**
+         * The last row in the temporary file.
+         */
+        private int lastRowNum = -1;
+
+        private void flush(HSSFSheet sheet, int rowCount) throws IOException {
+            InternalSheet internalSheet = sheet.getSheet();
+            RowRecordsAggregate block = new RowRecordsAggregate();
+            List<Row> rowList = new ArrayList<>(rowCount);
+            Iterator<Row> rowIterator = sheet.rowIterator();
+            while (rowList.size() < rowCount && rowIterator.hasNext()) {
+                Row row = rowIterator.next();
+                rowList.add(row);
+                block.insertRow(internalSheet.getRow(row.getRowNum()));
+            }
+            int blockLastRowNum = rowList.get(rowList.size() - 1).getRowNum();
+            Iterator<CellValueRecordInterface> cellIterator =
+                    internalSheet.getRowsAggregate().getCellValueIterator();
+            while (cellIterator.hasNext()) {
+                CellValueRecordInterface cell = cellIterator.next();
+                if (cell.getRow() > blockLastRowNum) {
+                    break;
+                }
+                block.insertCell(cell);
+            }
+            if (recordWriter == null) {
+                tempFile = TempFile.createTempFile("fesod-xls-rows", ".tmp");
+                outputStream = new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE);
+                recordWriter = new RecordWriter(outputStream, dbCellOffsetList);
+            }
+            visit(block, recordWriter);
+            for (Row row : rowList) {
+                sheet.removeRow(row);
+            }
+            lastRowNum = blockLastRowNum;
+        }
+
+        private int size() {
+            return recordWriter.position;
+        }
+
+        private void copyTo(OutputStream out) throws IOException {
+            outputStream.flush();
+            try (InputStream inputStream = Files.newInputStream(tempFile.toPath())) {
+                IoUtils.copy(inputStream, out);
+            }
+        }
+
+        private void close() throws IOException {
+            try {
+                if (outputStream != null) {
+                    outputStream.close();
+                }
+            } finally {
+                if (tempFile != null) {
+                    FileUtils.delete(tempFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the records of a sheet, with the INDEX record pointing to both the flushed and the in memory blocks.
+     */
+    private static class SheetWriter {
+        private final InternalSheet internalSheet;
+        private final FlushedRows flushedRows;
+        private IndexRecord indexRecord;
+
+        private SheetWriter(InternalSheet internalSheet, FlushedRows flushedRows) {
+            this.internalSheet = internalSheet;
+            this.flushedRows = flushedRows;
+        }
+
+        /**
+         * Computes the INDEX record of the sheet.
+         *
+         * @param offset offset of the sheet in the {@code Workbook} document
+         * @return size of the sheet
+         */
+        private int layout(int offset) throws IOException {
+            RecordWriter sizer = new RecordWriter(null, new ArrayList<>());
+            boolean bofVisited = false;
+            for (RecordBase record : internalSheet.getRecords()) {
+                if (record instanceof RowRecordsAggregate && flushedRows != null) {
+                    for (Integer dbCellOffset : flushedRows.dbCellOffsetList) {
+                        sizer.dbCellOffsetList.add(sizer.position + dbCellOffset);
+                    }
+                    sizer.position += flushedRows.size();
+                }
+                visit(record, sizer);
+                if (!bofVisited && record instanceof BOFRecord) {
+                    bofVisited = true;
+                    if (internalSheet.getUncalced()) {
+                        sizer.position += UncalcedRecord.getStaticRecordSize();
+                    }
+                }
+            }
+            // the INDEX record is written right after the BOF record, before all the DBCELL records
+            int indexSize = IndexRecord.getRecordSizeForBlockCount(sizer.dbCellOffsetList.size());
+            RowRecordsAggregate rowsAggregate = internalSheet.getRowsAggregate();
+            indexRecord = new IndexRecord();
+            indexRecord.setFirstRow(rowsAggregate.getFirstRowNum());
+            indexRecord.setLastRowAdd1(rowsAggregate.getLastRowNum() + 1);
+            for (Integer dbCellOffset : sizer.dbCellOffsetList) {
+                indexRecord.addDbcell(offset + indexSize + dbCellOffset);
+            }
+            return sizer.position + indexSize;
+        }
+
+        private void write(OutputStream outputStream) throws IOException {
+            RecordWriter recordWriter = new RecordWriter(outputStream, null);
+            boolean bofVisited = false;
+            for (RecordBase record : internalSheet.getRecords()) {
+                if (record instanceof RowRecordsAggregate && flushedRows != null) {
+                    flushedRows.copyTo(outputStream);
+                }
+                visit(record, recordWriter);
+                if (!bofVisited && record instanceof BOFRecord) {
+                    bofVisited = true;
+                    if (internalSheet.getUncalced()) {
+                        visit(new UncalcedRecord(), recordWriter);
+                    }
+                    visit(indexRecord, recordWriter);
+                }
+            }
+        }
+    }
+
+    /**
+     * Serializes the visited records and tracks the position of the DBCELL records. Only counts the size when there is
+     * no output stream.
+     */
+    private static class RecordWriter implements RecordAggregate.RecordVisitor {
+        private final OutputStream outputStream;
+        private final List<Integer> dbCellOffsetList;
+        private byte[] buffer = new byte[1024];
+        private int position;
+
+        private RecordWriter(OutputStream outputStream, List<Integer> dbCellOffsetList) {
+            this.outputStream = outputStream;
+            this.dbCellOffsetList = dbCellOffsetList;
+        }
+
+        @Override
+        public void visitRecord(Record record) {
+            if (dbCellOffsetList != null && record instanceof DBCellRecord) {
+                dbCellOffsetList.add(position);
+            }
+            int size = record.getRecordSize();
+            if (outputStream != null) {
+                if (buffer.length < size) {
+                    buffer = new byte[size];
+                }
+                record.serialize(0, buffer);
+                try {
+                    outputStream.write(buffer, 0, size);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            position += size;
+        }
+    }
+}
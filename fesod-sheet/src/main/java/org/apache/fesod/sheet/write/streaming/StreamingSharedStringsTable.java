@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.write.streaming;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.fesod.sheet.util.FileUtils;
+import org.apache.fesod.sheet.util.IoUtils;
+import org.apache.fesod.sheet.util.MapUtils;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+/**
+ * Shared strings table for the streaming write.
+ * <p>
+ * Every distinct string is kept in memory, as the key of the dictionary from string to index and in the list from
+ * index to string, only the {@code <si>} elements are written to a temporary file and copied into
+ * {@code sharedStrings.xml} when the workbook is written. The memory is therefore bounded by {@code maxUniqueCount}:
+ * once {@code maxUniqueCount} different strings have been added no new string is accepted, and
+ * {@link #addString(String)} returns -1 so that the cell can be written as an inline string instead.
+ *
+ *
+ */
+public class StreamingSharedStringsTable extends SharedStringsTable {
+    private static final String SST_START = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"";
+    private static final String SST_END = "</sst>";
+
+    /**
+     * The maximum number of different strings.
+     */
+    private final int maxUniqueCount;
+    /**
+     * string to index
+     */
+    private final Map<String, Integer> indexMap;
+    /**
+     * index to string, the same instances as the keys of {@link #indexMap}
+     */
+    private final List<String> strings;
+    /**
+     * Where the {@code <si>} elements are written.
+     */
+    private File tempFile;
+
+    private Writer writer;
+
+    public StreamingSharedStringsTable(int maxUniqueCount) {
+        super();
+        this.maxUniqueCount = maxUniqueCount;
+        this.indexMap = MapUtils.newHashMap();
+        this.strings = new ArrayList<>();
+    }
+
+    /**
+     * Add a string to the table.
+     *
+     * @param value string
+     * @return index of the string, or -1 if the table is full and the string should be written inline
+     * @throws IOException if the string can not be written to the temporary file
+     */
+    public int addString(String value) throws IOException {
+        Integer index = indexMap.get(value);
+        if (index == null) {
+            if (uniqueCount >= maxUniqueCount) {
+                return -1;
+            }
+            index = doAdd(value);
+        }
+        count++;
+        return index;
+    }
+
+    /**
+     * Only used by POI for the cells of the rows it keeps in memory, such as the rows of a template. The maximum
+     * number of different strings is ignored, because inline strings are not possible here, so these strings are
+     * added beyond {@code maxUniqueCount}. They are at most as many as the cells already held in memory by those rows.
+     * Formatting is not retained, as with inline strings.
+     */
+    @Override
+    public int addSharedStringItem(RichTextString string) {
+        String value = string.getString();
+        Integer index = indexMap.get(value);
+        try {
+            if (index == null) {
+                index = doAdd(value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not write shared string.", e);
+        }
+        count++;
+        return index;
+    }
+
+    private int doAdd(String value) throws IOException {
+        if (writer == null) {
+            tempFile = TempFile.createTempFile("fesod-sst", ".xml");
+            writer = new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8), 64 * 1024);
+        }
+        writer.write("<si><t");
+        if (hasLeadingTrailingSpaces(value)) {
+            writer.write(" xml:space=\"preserve\"");
+        }
+        writer.write('>');
+        writeEscaped(writer, value);
+        writer.write("</t></si>");
+        int index = uniqueCount++;
+        indexMap.put(value, index);
+        strings.add(value);
+        return index;
+    }
+
+    /**
+     * The string at the index, without formatting.
+     */
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(strings.get(idx));
+    }
+
+    /**
+     * All the strings, without formatting.
+     */
+    @Override
+    public List<RichTextString> getSharedStringItems() {
+        List<RichTextString> items = new ArrayList<>(strings.size());
+        for (String value : strings) {
+            items.add(new XSSFRichTextString(value));
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        Writer sstWriter = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        sstWriter.write(SST_START);
+        sstWriter.write(" count=\"" + count + "\" uniqueCount=\"" + uniqueCount + "\">");
+        sstWriter.flush();
+        if (writer != null) {
+            writer.flush();
+            try (InputStream inputStream = Files.newInputStream(tempFile.toPath())) {
+                IoUtils.copy(inputStream, out);
+            }
+        }
+        sstWriter.write(SST_END);
+        sstWriter.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        } finally {
+            if (tempFile != null) {
+                FileUtils.delete(tempFile);
+                tempFile = null;
+            }
+            super.close();
+        }
+    }
+
+    private static boolean hasLeadingTrailingSpaces(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        return Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1));
+    }
+
+    /**
+     * Same as the inline strings of POI, characters that are not allowed in xml are replaced with '?'.
+     */
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                case '\n':
+                    writer.write("&#xa;");
+                    break;
+                case '\r':
+                    writer.write("&#xd;");
+                    break;
+                case '\t':
+                    writer.write("&#x9;");
+                    break;
+                default:
+                    if ((c < ' ') || c == 0xFFFE || c == 0xFFFF) {
+                        writer.write('?');
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+    }
+}
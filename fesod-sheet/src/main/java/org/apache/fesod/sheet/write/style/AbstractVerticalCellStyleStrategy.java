@@ -19,8 +19,12 @@
 
 package org.apache.fesod.sheet.write.style;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
 import org.apache.fesod.sheet.metadata.Head;
 import org.apache.fesod.sheet.metadata.data.WriteCellData;
+import org.apache.fesod.sheet.metadata.property.ExcelContentProperty;
 import org.apache.fesod.sheet.write.handler.context.CellWriteHandlerContext;
 import org.apache.fesod.sheet.write.metadata.style.WriteCellStyle;
 
@@ -30,6 +34,15 @@ import org.apache.fesod.sheet.write.metadata.style.WriteCellStyle;
  *
  */
 public abstract class AbstractVerticalCellStyleStrategy extends AbstractCellStyleStrategy {
+    /**
+     * The maximum number of styles kept in {@link #identityCellStyleCache}.
+     */
+    private static final int MAX_IDENTITY_CACHE_SIZE = 4096;
+
+    /**
+     * Styles built for the same head or content property object, see {@link #cachedCellStyle(Object, Function)}.
+     */
+    private final Map<Object, WriteCellStyle> identityCellStyleCache = new IdentityHashMap<>();
 
     @Override
     protected void setHeadCellStyle(CellWriteHandlerContext context) {
@@ -89,6 +102,33 @@ public abstract class AbstractVerticalCellStyleStrategy extends AbstractCellStyl
         return null;
     }
 
+    /**
+     * Returns the style built for the key before, or builds it. Keys are compared by identity, so this is cheap even if
+     * called for every cell. The built style is shared and must not be modified.
+     *
+     * @param key     such as {@link Head} or {@link ExcelContentProperty}. Nullable.
+     * @param builder build the style
+     * @return Nullable
+     */
+    protected <T> WriteCellStyle cachedCellStyle(T key, Function<T, WriteCellStyle> builder) {
+        if (key == null) {
+            return builder.apply(null);
+        }
+        WriteCellStyle writeCellStyle = identityCellStyleCache.get(key);
+        if (writeCellStyle != null) {
+            return writeCellStyle;
+        }
+        writeCellStyle = builder.apply(key);
+        if (writeCellStyle != null) {
+            // The key may be a new object every time when the field cache is disabled
+            if (identityCellStyleCache.size() >= MAX_IDENTITY_CACHE_SIZE) {
+                identityCellStyleCache.clear();
+            }
+            identityCellStyleCache.put(key, writeCellStyle);
+        }
+        return writeCellStyle;
+    }
+
     protected boolean stopProcessing(CellWriteHandlerContext context) {
         if (context.getFirstCellData() == null) {
             return true;
@@ -19,7 +19,8 @@
 
 package org.apache.fesod.sheet.write.style.column;
 
-import java.util.HashMap;
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.collections4.CollectionUtils;
@@ -27,22 +28,73 @@ import org.apache.fesod.sheet.enums.CellDataTypeEnum;
 import org.apache.fesod.sheet.metadata.Head;
 import org.apache.fesod.sheet.metadata.data.WriteCellData;
 import org.apache.fesod.sheet.util.MapUtils;
+import org.apache.fesod.sheet.write.handler.SheetWriteHandler;
+import org.apache.fesod.sheet.write.handler.WorkbookWriteHandler;
+import org.apache.fesod.sheet.write.handler.context.CellWriteHandlerContext;
+import org.apache.fesod.sheet.write.handler.context.SheetWriteHandlerContext;
+import org.apache.fesod.sheet.write.handler.context.WorkbookWriteHandlerContext;
 import org.apache.fesod.sheet.write.metadata.holder.WriteSheetHolder;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
 
 /**
  * Take the width of the longest column as the width.
  * <p>
- * This is not very useful at the moment, for example if you have Numbers it will cause a newline.And the length is not
- * exactly the same as the actual length.
+ * The width of a string is the UTF-8 length of its longest line, so CJK characters count as three like before, but a
+ * multi-line string is as wide as its longest line instead of all its lines together. The width of a number is the
+ * length of {@link BigDecimal#toPlainString()}, so {@code 1E+10} is as wide as {@code 10000000000}. Booleans are as
+ * wide as {@code true} or {@code false}.
+ * <p>
+ * The width is calculated without creating any object, and the widths are only applied to the sheet when a sheet is
+ * written, see {@link #afterSheetDispose(SheetWriteHandlerContext)}. The widths are kept per sheet of a workbook, and
+ * dropped when the workbook is finished.
+ * <p>
+ * For large data it is possible to only sample some rows, see
+ * {@link #LongestMatchColumnWidthStyleStrategy(int, int)}. The head is always measured.
+ * <p>
+ * The length is not exactly the same as the actual length, because the font is not taken into account.
  *
  *
  */
-public class LongestMatchColumnWidthStyleStrategy extends AbstractColumnWidthStyleStrategy {
+public class LongestMatchColumnWidthStyleStrategy extends AbstractColumnWidthStyleStrategy
+        implements SheetWriteHandler, WorkbookWriteHandler {
 
     private static final int MAX_COLUMN_WIDTH = 255;
 
-    private final Map<Integer, Map<Integer, Integer>> cache = MapUtils.newHashMapWithExpectedSize(8);
+    private final Map<Integer, ColumnWidths> cache = MapUtils.newHashMapWithExpectedSize(8);
+
+    /**
+     * All rows with a row index less than this value will be measured. Negative means all rows.
+     */
+    private final int sampleFirstRows;
+    /**
+     * After {@link #sampleFirstRows}, only measure every Kth row. Less than or equal to 0 means no more rows.
+     */
+    private final int sampleEveryRows;
+
+    public LongestMatchColumnWidthStyleStrategy() {
+        this(-1, 0);
+    }
+
+    /**
+     * Only measure some rows.
+     *
+     * @param sampleFirstRows measure all rows with a row index less than this value. Negative means all rows.
+     * @param sampleEveryRows after that, measure every Kth row. Less than or equal to 0 means no more rows.
+     */
+    public LongestMatchColumnWidthStyleStrategy(int sampleFirstRows, int sampleEveryRows) {
+        this.sampleFirstRows = sampleFirstRows;
+        this.sampleEveryRows = sampleEveryRows;
+    }
+
+    @Override
+    protected void setColumnWidth(CellWriteHandlerContext context) {
+        Boolean isHead = context.getHead();
+        if (!Boolean.TRUE.equals(isHead) && !sample(context.getRowIndex())) {
+            return;
+        }
+        super.setColumnWidth(context);
+    }
 
     @Override
     protected void setColumnWidth(
@@ -56,25 +108,46 @@ public class LongestMatchColumnWidthStyleStrategy extends AbstractColumnWidthSty
         if (!needSetWidth) {
             return;
         }
-        Map<Integer, Integer> maxColumnWidthMap =
-                cache.computeIfAbsent(writeSheetHolder.getSheetNo(), key -> new HashMap<>(16));
-        Integer columnWidth = dataLength(cellDataList, cell, isHead);
+        int columnWidth = dataLength(cellDataList, cell, isHead);
         if (columnWidth < 0) {
             return;
         }
         if (columnWidth > MAX_COLUMN_WIDTH) {
             columnWidth = MAX_COLUMN_WIDTH;
         }
-        Integer maxColumnWidth = maxColumnWidthMap.get(cell.getColumnIndex());
-        if (maxColumnWidth == null || columnWidth > maxColumnWidth) {
-            maxColumnWidthMap.put(cell.getColumnIndex(), columnWidth);
-            writeSheetHolder.getSheet().setColumnWidth(cell.getColumnIndex(), columnWidth * 256);
+        ColumnWidths columnWidths = cache.get(writeSheetHolder.getSheetNo());
+        // The strategy may be used again for another workbook
+        if (columnWidths == null || columnWidths.writeSheetHolder != writeSheetHolder) {
+            columnWidths = new ColumnWidths(writeSheetHolder);
+            cache.put(writeSheetHolder.getSheetNo(), columnWidths);
+        }
+        columnWidths.update(cell.getColumnIndex(), columnWidth);
+    }
+
+    @Override
+    public void afterSheetDispose(SheetWriteHandlerContext context) {
+        WriteSheetHolder writeSheetHolder = context.getWriteSheetHolder();
+        ColumnWidths columnWidths = cache.get(writeSheetHolder.getSheetNo());
+        if (columnWidths != null && columnWidths.writeSheetHolder == writeSheetHolder) {
+            columnWidths.apply(writeSheetHolder.getSheet());
+        }
+    }
+
+    @Override
+    public void afterWorkbookDispose(WorkbookWriteHandlerContext context) {
+        cache.clear();
+    }
+
+    private boolean sample(Integer rowIndex) {
+        if (sampleFirstRows < 0 || rowIndex == null || rowIndex < sampleFirstRows) {
+            return true;
         }
+        return sampleEveryRows > 0 && (rowIndex - sampleFirstRows) % sampleEveryRows == 0;
     }
 
-    private Integer dataLength(List<WriteCellData<?>> cellDataList, Cell cell, Boolean isHead) {
+    private int dataLength(List<WriteCellData<?>> cellDataList, Cell cell, Boolean isHead) {
         if (isHead) {
-            return cell.getStringCellValue().getBytes().length;
+            return displayWidth(cell.getStringCellValue());
         }
         WriteCellData<?> cellData = cellDataList.get(0);
         CellDataTypeEnum type = cellData.getType();
@@ -83,13 +156,113 @@ public class LongestMatchColumnWidthStyleStrategy extends AbstractColumnWidthSty
         }
         switch (type) {
             case STRING:
-                return cellData.getStringValue().getBytes().length;
+                return displayWidth(cellData.getStringValue());
             case BOOLEAN:
-                return cellData.getBooleanValue().toString().getBytes().length;
+                return cellData.getBooleanValue() ? 4 : 5;
             case NUMBER:
-                return cellData.getNumberValue().toString().getBytes().length;
+                return numberLength(cellData.getNumberValue());
             default:
                 return -1;
         }
     }
+
+    /**
+     * The UTF-8 length of the longest line.
+     *
+     * @param value value
+     * @return width
+     */
+    private static int displayWidth(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int maxWidth = 0;
+        int width = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n') {
+                maxWidth = Math.max(maxWidth, width);
+                width = 0;
+            } else {
+                width += utf8Length(c);
+            }
+        }
+        return Math.max(maxWidth, width);
+    }
+
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        if (c < 0x800) {
+            return 2;
+        }
+        if (Character.isHighSurrogate(c)) {
+            // The whole pair takes four bytes
+            return 4;
+        }
+        return Character.isLowSurrogate(c) ? 0 : 3;
+    }
+
+    /**
+     * The length of {@link BigDecimal#toPlainString()}, without creating the string.
+     *
+     * @param number number
+     * @return length
+     */
+    private static int numberLength(BigDecimal number) {
+        if (number == null) {
+            return -1;
+        }
+        if (number.signum() == 0) {
+            return 1;
+        }
+        int precision = number.precision();
+        int scale = number.scale();
+        int length;
+        if (scale <= 0) {
+            length = precision - scale;
+        } else if (precision > scale) {
+            length = precision + 1;
+        } else {
+            length = scale + 2;
+        }
+        return number.signum() < 0 ? length + 1 : length;
+    }
+
+    /**
+     * The widths of a sheet.
+     */
+    private static class ColumnWidths {
+        private final WriteSheetHolder writeSheetHolder;
+        private int[] widths = new int[0];
+        private int[] appliedWidths = new int[0];
+
+        private ColumnWidths(WriteSheetHolder writeSheetHolder) {
+            this.writeSheetHolder = writeSheetHolder;
+        }
+
+        private void update(int columnIndex, int width) {
+            if (columnIndex >= widths.length) {
+                int newLength = Math.max(columnIndex + 1, widths.length << 1);
+                int oldLength = widths.length;
+                widths = Arrays.copyOf(widths, newLength);
+                appliedWidths = Arrays.copyOf(appliedWidths, newLength);
+                Arrays.fill(widths, oldLength, newLength, -1);
+                Arrays.fill(appliedWidths, oldLength, newLength, -1);
+            }
+            if (width > widths[columnIndex]) {
+                widths[columnIndex] = width;
+            }
+        }
+
+        private void apply(Sheet sheet) {
+            for (int columnIndex = 0; columnIndex < widths.length; columnIndex++) {
+                if (widths[columnIndex] > appliedWidths[columnIndex]) {
+                    sheet.setColumnWidth(columnIndex, widths[columnIndex] * 256);
+                    appliedWidths[columnIndex] = widths[columnIndex];
+                }
+            }
+        }
+    }
 }
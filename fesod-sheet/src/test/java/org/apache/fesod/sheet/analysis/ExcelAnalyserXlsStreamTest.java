@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.analysis;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.fesod.sheet.FesodSheet;
+import org.apache.fesod.sheet.read.listener.PageReadListener;
+import org.apache.fesod.sheet.read.metadata.ReadWorkbook;
+import org.apache.fesod.sheet.read.metadata.holder.xls.XlsReadWorkbookHolder;
+import org.apache.fesod.sheet.support.ExcelTypeEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for reading XLS from an input stream.
+ */
+class ExcelAnalyserXlsStreamTest {
+
+    private static byte[] xlsBytes;
+
+    @BeforeAll
+    static void init() {
+        List<List<String>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(Collections.singletonList("row" + i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FesodSheet.write(out).excelType(ExcelTypeEnum.XLS).sheet().doWrite(data);
+        xlsBytes = out.toByteArray();
+    }
+
+    /**
+     * The stream is spooled to a temporary file, which is removed when the analysis finishes.
+     */
+    @Test
+    void chooseExecutor_shouldSpoolStreamToTempFile() {
+        List<Map<Integer, String>> rows = new ArrayList<>();
+        ReadWorkbook rw = newReadWorkbook(rows);
+        ExcelAnalyserImpl analyser = new ExcelAnalyserImpl(rw);
+        XlsReadWorkbookHolder holder =
+                (XlsReadWorkbookHolder) analyser.analysisContext().readWorkbookHolder();
+        File tempFile = holder.getTempFile();
+        Assertions.assertNotNull(tempFile);
+        Assertions.assertTrue(tempFile.exists());
+
+        analyser.analysis(Collections.emptyList(), true);
+        analyser.finish();
+        Assertions.assertEquals(10, rows.size());
+        Assertions.assertFalse(tempFile.exists());
+    }
+
+    /**
+     * With 'mandatoryUseInputStream' the container is read in memory and no temporary file is created.
+     */
+    @Test
+    void chooseExecutor_shouldReadInMemory_whenMandatoryUseInputStream() {
+        List<Map<Integer, String>> rows = new ArrayList<>();
+        ReadWorkbook rw = newReadWorkbook(rows);
+        rw.setMandatoryUseInputStream(Boolean.TRUE);
+        ExcelAnalyserImpl analyser = new ExcelAnalyserImpl(rw);
+        Assertions.assertNull(analyser.analysisContext().readWorkbookHolder().getTempFile());
+
+        analyser.analysis(Collections.emptyList(), true);
+        analyser.finish();
+        Assertions.assertEquals(10, rows.size());
+    }
+
+    private static ReadWorkbook newReadWorkbook(List<Map<Integer, String>> rows) {
+        ReadWorkbook rw = new ReadWorkbook();
+        rw.setInputStream(new ByteArrayInputStream(xlsBytes));
+        rw.setExcelType(ExcelTypeEnum.XLS);
+        rw.setHeadRowNumber(0);
+        rw.setCustomReadListenerList(
+                Collections.singletonList(new PageReadListener<Map<Integer, String>>(rows::addAll)));
+        return rw;
+    }
+}
@@ -19,25 +19,41 @@
 
 package org.apache.fesod.sheet.cache;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.fesod.sheet.FesodSheet;
 import org.apache.fesod.sheet.annotation.ExcelProperty;
+import org.apache.fesod.sheet.cache.selector.AdaptiveReadCacheSelector;
+import org.apache.fesod.sheet.cache.selector.ReadCacheHeapBudget;
 import org.apache.fesod.sheet.context.AnalysisContext;
 import org.apache.fesod.sheet.data.DemoData;
 import org.apache.fesod.sheet.enums.CacheLocationEnum;
 import org.apache.fesod.sheet.event.AnalysisEventListener;
 import org.apache.fesod.sheet.metadata.FieldCache;
+import org.apache.fesod.sheet.read.builder.ExcelReaderBuilder;
 import org.apache.fesod.sheet.read.listener.PageReadListener;
 import org.apache.fesod.sheet.util.ClassUtils;
 import org.apache.fesod.sheet.util.FieldUtils;
+import org.apache.fesod.sheet.util.FileUtils;
 import org.apache.fesod.sheet.util.TestFileUtil;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.common.UnicodeString;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -56,6 +72,9 @@ public class CacheDataTest {
     private static File fileCacheInvoke2;
     private static File fileCacheInvokeMemory;
     private static File fileCacheInvokeMemory2;
+    private static File fileWorkbookCacheStore;
+    private static File fileAdaptiveReadCacheSelector;
+    private static File fileWorkbookCacheStoreEncrypted;
 
     @BeforeAll
     public static void init() {
@@ -64,6 +83,9 @@ public class CacheDataTest {
         fileCacheInvoke2 = TestFileUtil.createNewFile("cache/fileCacheInvoke2.xlsx");
         fileCacheInvokeMemory = TestFileUtil.createNewFile("cache/fileCacheInvokeMemory.xlsx");
         fileCacheInvokeMemory2 = TestFileUtil.createNewFile("cache/fileCacheInvokeMemory2.xlsx");
+        fileWorkbookCacheStore = TestFileUtil.createNewFile("cache/workbookCacheStore.xlsx");
+        fileAdaptiveReadCacheSelector = TestFileUtil.createNewFile("cache/adaptiveReadCacheSelector.xlsx");
+        fileWorkbookCacheStoreEncrypted = TestFileUtil.createNewFile("cache/workbookCacheStoreEncrypted.xlsx");
     }
 
     @Test
@@ -193,6 +215,238 @@ public class CacheDataTest {
                 .doRead();
     }
 
+    @Test
+    public void t04XlsCacheGet() {
+        SSTRecord sstRecord = new SSTRecord();
+        sstRecord.addString(new UnicodeString("first"));
+        sstRecord.addString(new UnicodeString("second"));
+        ReadCache readCache = new XlsCache(sstRecord);
+        Assertions.assertEquals("second", readCache.get(1));
+        Assertions.assertEquals("first", readCache.get(Integer.valueOf(0)));
+        // the decoded string is shared by every reference
+        Assertions.assertSame(readCache.get(1), readCache.get(Integer.valueOf(1)));
+    }
+
+    @Test
+    public void t05MapCacheGet() {
+        ReadCache readCache = new MapCache();
+        readCache.put("first");
+        readCache.put("second");
+        readCache.putFinished();
+        Assertions.assertEquals("second", readCache.get(1));
+        Assertions.assertEquals("first", readCache.get(Integer.valueOf(0)));
+        Assertions.assertNull(readCache.get(-1));
+        Assertions.assertNull(readCache.get(null));
+    }
+
+    @Test
+    public void t06WorkbookCacheStore() throws Exception {
+        File directory = TestFileUtil.createNewFile("cache/workbookCacheStore");
+        FileUtils.delete(directory);
+        WorkbookCacheStore workbookCacheStore = new WorkbookCacheStore(directory, 1024 * 1024 * 1024L);
+        FesodSheet.write(fileWorkbookCacheStore, DemoData.class)
+                .useSharedStrings(Boolean.TRUE)
+                .sheet()
+                .doWrite(demoData());
+
+        // the first read analyses the workbook, the next ones load it from the store
+        Assertions.assertFalse(readWorkbookCacheStore(workbookCacheStore, null) instanceof MappedReadCache);
+        Assertions.assertTrue(readWorkbookCacheStore(workbookCacheStore, null) instanceof MappedReadCache);
+        Assertions.assertEquals(1, directory.list((dir, name) -> name.endsWith(".fwc")).length);
+
+        // an input stream is identified by its content
+        try (InputStream inputStream = new FileInputStream(fileWorkbookCacheStore)) {
+            Assertions.assertFalse(
+                    readWorkbookCacheStore(workbookCacheStore, inputStream) instanceof MappedReadCache);
+        }
+        try (InputStream inputStream = new FileInputStream(fileWorkbookCacheStore)) {
+            Assertions.assertTrue(readWorkbookCacheStore(workbookCacheStore, inputStream) instanceof MappedReadCache);
+        }
+        Assertions.assertEquals(2, directory.list((dir, name) -> name.endsWith(".fwc")).length);
+        Assertions.assertEquals(2, directory.list().length);
+
+        // nothing fits in one byte, but a stored workbook is still loaded
+        WorkbookCacheStore smallWorkbookCacheStore = new WorkbookCacheStore(directory, 1);
+        Assertions.assertTrue(readWorkbookCacheStore(smallWorkbookCacheStore, null) instanceof MappedReadCache);
+        WorkbookCacheEntry workbookCacheEntry =
+                smallWorkbookCacheStore.load(WorkbookCacheStore.key(fileWorkbookCacheStore));
+        ReadCache mappedReadCache = workbookCacheEntry.getReadCache();
+        // the strings are already loaded
+        mappedReadCache.put("ignored");
+        Assertions.assertNotNull(mappedReadCache.get(0));
+        // a modified file is read again, then all the stored workbooks are evicted except the one in use
+        Assertions.assertTrue(
+                fileWorkbookCacheStore.setLastModified(fileWorkbookCacheStore.lastModified() + 1000));
+        Assertions.assertFalse(readWorkbookCacheStore(smallWorkbookCacheStore, null) instanceof MappedReadCache);
+        Assertions.assertEquals(1, directory.list().length);
+        mappedReadCache.destroy();
+        Assertions.assertTrue(
+                fileWorkbookCacheStore.setLastModified(fileWorkbookCacheStore.lastModified() + 1000));
+        Assertions.assertFalse(readWorkbookCacheStore(smallWorkbookCacheStore, null) instanceof MappedReadCache);
+        Assertions.assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void t07ArenaCacheGet() {
+        ReadCache readCache = new ArenaCache(4, 1);
+        readCache.put("first");
+        readCache.put(null);
+        readCache.put("");
+        readCache.put("第二");
+        readCache.putFinished();
+        Assertions.assertEquals("first", readCache.get(0));
+        Assertions.assertNull(readCache.get(1));
+        Assertions.assertEquals("", readCache.get(Integer.valueOf(2)));
+        Assertions.assertEquals("第二", readCache.get(3));
+        Assertions.assertNull(readCache.get(-1));
+        Assertions.assertNull(readCache.get(null));
+    }
+
+    @Test
+    public void t08AdaptiveReadCacheSelector() {
+        FesodSheet.write(fileAdaptiveReadCacheSelector, DemoData.class)
+                .useSharedStrings(Boolean.TRUE)
+                .sheet()
+                .doWrite(demoData());
+        long maxSize = ReadCacheHeapBudget.getMaxSize();
+        long reserved = ReadCacheHeapBudget.getReserved();
+        try {
+            long[] mapCacheSize = new long[1];
+            Assertions.assertTrue(readAdaptiveReadCacheSelector(mapCacheSize) instanceof MapCache);
+            Assertions.assertTrue(mapCacheSize[0] > 0);
+            // the reservation is given back when the read is finished
+            Assertions.assertEquals(reserved, ReadCacheHeapBudget.getReserved());
+
+            ReadCacheHeapBudget.setMaxSize(reserved + mapCacheSize[0] - 1);
+            long[] arenaCacheSize = new long[1];
+            Assertions.assertTrue(readAdaptiveReadCacheSelector(arenaCacheSize) instanceof ArenaCache);
+            Assertions.assertTrue(arenaCacheSize[0] > 0 && arenaCacheSize[0] < mapCacheSize[0]);
+            Assertions.assertEquals(reserved, ReadCacheHeapBudget.getReserved());
+
+            ReadCacheHeapBudget.setMaxSize(reserved);
+            Assertions.assertTrue(readAdaptiveReadCacheSelector(new long[1]) instanceof Ehcache);
+            Assertions.assertEquals(reserved, ReadCacheHeapBudget.getReserved());
+        } finally {
+            ReadCacheHeapBudget.setMaxSize(maxSize);
+        }
+    }
+
+    @Test
+    public void t09WorkbookCacheStoreEncrypted() throws Exception {
+        File directory = TestFileUtil.createNewFile("cache/workbookCacheStoreEncrypted");
+        FileUtils.delete(directory);
+        WorkbookCacheStore workbookCacheStore = new WorkbookCacheStore(directory, 1024 * 1024 * 1024L);
+        FesodSheet.write(fileWorkbookCacheStoreEncrypted, DemoData.class)
+                .useSharedStrings(Boolean.TRUE)
+                .password("123456")
+                .sheet()
+                .doWrite(demoData());
+        for (int i = 0; i < 2; i++) {
+            List<DemoData> list = FesodSheet.read(fileWorkbookCacheStoreEncrypted, DemoData.class, null)
+                    .password("123456")
+                    .workbookCacheStore(workbookCacheStore)
+                    .sheet()
+                    .doReadSync();
+            Assertions.assertEquals(demoData(), list);
+        }
+        // the decrypted strings must not be written in plain text
+        Assertions.assertEquals(0, directory.list().length);
+    }
+
+    private ReadCache readAdaptiveReadCacheSelector(long[] reservedSize) {
+        long reserved = ReadCacheHeapBudget.getReserved();
+        List<DemoData> list = new ArrayList<>();
+        ReadCache[] readCache = new ReadCache[1];
+        FesodSheet.read(fileAdaptiveReadCacheSelector, DemoData.class, new AnalysisEventListener<DemoData>() {
+                    @Override
+                    public void invoke(DemoData data, AnalysisContext context) {
+                        list.add(data);
+                        readCache[0] = context.readWorkbookHolder().getReadCache();
+                        reservedSize[0] = ReadCacheHeapBudget.getReserved() - reserved;
+                    }
+
+                    @Override
+                    public void doAfterAllAnalysed(AnalysisContext context) {}
+                })
+                .readCacheSelector(new AdaptiveReadCacheSelector())
+                .sheet()
+                .doRead();
+        Assertions.assertEquals(demoData(), list);
+        return readCache[0];
+    }
+
+    private ReadCache readWorkbookCacheStore(WorkbookCacheStore workbookCacheStore, InputStream inputStream) {
+        List<DemoData> list = new ArrayList<>();
+        ReadCache[] readCache = new ReadCache[1];
+        AnalysisEventListener<DemoData> listener = new AnalysisEventListener<DemoData>() {
+            @Override
+            public void invoke(DemoData data, AnalysisContext context) {
+                list.add(data);
+                readCache[0] = context.readWorkbookHolder().getReadCache();
+            }
+
+            @Override
+            public void doAfterAllAnalysed(AnalysisContext context) {}
+        };
+        ExcelReaderBuilder excelReaderBuilder = inputStream == null
+                ? FesodSheet.read(fileWorkbookCacheStore, DemoData.class, listener)
+                : FesodSheet.read(inputStream, DemoData.class, listener);
+        excelReaderBuilder.workbookCacheStore(workbookCacheStore).sheet().doRead();
+        Assertions.assertEquals(demoData(), list);
+        return readCache[0];
+    }
+
+    private List<DemoData> demoData() {
+        List<DemoData> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            DemoData data = new DemoData();
+            data.setString("字符串" + (i % 10));
+            data.setDate(new Date(1700000000000L + i * 86400000L));
+            data.setDoubleData(i + 0.5);
+            list.add(data);
+        }
+        return list;
+    }
+
+    @Test
+    public void t10AdaptiveReadCacheSelectorDeclaredCount() throws Exception {
+        StringBuilder strings = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            strings.append("<si><t>a</t></si>");
+        }
+        long maxSize = ReadCacheHeapBudget.getMaxSize();
+        long reserved = ReadCacheHeapBudget.getReserved();
+        try (OPCPackage opcPackage = OPCPackage.create(new ByteArrayOutputStream())) {
+            // Taken as is, the count would estimate the map cache at twice the size of the part
+            PackagePart lyingPart = sharedStringsPart(opcPackage, "/xl/lying.xml", "0", strings);
+            ReadCacheHeapBudget.setMaxSize(reserved + lyingPart.getSize() * 3);
+            ReadCache readCache = new AdaptiveReadCacheSelector().readCache(lyingPart);
+            Assertions.assertTrue(readCache instanceof ArenaCache);
+            readCache.destroy();
+
+            PackagePart longCountPart = sharedStringsPart(opcPackage, "/xl/long.xml", "12345678901234567890", strings);
+            readCache = new AdaptiveReadCacheSelector().readCache(longCountPart);
+            Assertions.assertTrue(readCache instanceof ArenaCache);
+            readCache.destroy();
+            Assertions.assertEquals(reserved, ReadCacheHeapBudget.getReserved());
+        } finally {
+            ReadCacheHeapBudget.setMaxSize(maxSize);
+        }
+    }
+
+    private PackagePart sharedStringsPart(OPCPackage opcPackage, String name, String uniqueCount, CharSequence strings)
+            throws Exception {
+        PackagePart packagePart = opcPackage.createPart(
+                PackagingURIHelper.createPartName(name), XSSFRelation.SHARED_STRINGS.getContentType());
+        try (OutputStream outputStream = packagePart.getOutputStream()) {
+            String sharedStrings = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" uniqueCount=\""
+                    + uniqueCount + "\">" + strings + "</sst>";
+            outputStream.write(sharedStrings.getBytes(StandardCharsets.UTF_8));
+        }
+        return packagePart;
+    }
+
     private List<CacheData> data() {
         List<CacheData> list = new ArrayList<CacheData>();
         for (int i = 0; i < 10; i++) {
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.csv;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.fesod.sheet.FesodSheet;
+import org.apache.fesod.sheet.context.AnalysisContext;
+import org.apache.fesod.sheet.event.AnalysisEventListener;
+import org.apache.fesod.sheet.metadata.csv.CsvCheckpoint;
+import org.apache.fesod.sheet.util.TestFileUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Resume the reading of a csv file at a checkpoint.
+ */
+public class CsvCheckpointTest {
+    private static final int ROW_COUNT = 100;
+    private static final int CHECKPOINT_ROW_INDEX = 40;
+
+    private static File file;
+    private static RowListener all;
+
+    @BeforeAll
+    public static void init() throws IOException {
+        StringBuilder content = new StringBuilder("\uFEFF名称,值\r\n");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            content.append("\"名称\n").append(i).append("\",\"😀,").append(i).append("\"\r\n");
+        }
+        file = TestFileUtil.createNewFile("csv" + File.separator + "csv-checkpoint.csv");
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+        all = new RowListener();
+        FesodSheet.read(file, all).charset(StandardCharsets.UTF_8).csv().doRead();
+        Assertions.assertEquals(ROW_COUNT, all.rows.size());
+    }
+
+    @Test
+    public void testResume() {
+        RowListener resumed = new RowListener();
+        FesodSheet.read(file, resumed)
+                .charset(StandardCharsets.UTF_8)
+                .csv()
+                .startCheckpoint(checkpoint())
+                .doRead();
+        assertResumed(resumed);
+        Assertions.assertEquals(all.head, resumed.head);
+    }
+
+    @Test
+    public void testResumeParallel() {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            RowListener resumed = new RowListener();
+            FesodSheet.read(file, resumed)
+                    .charset(StandardCharsets.UTF_8)
+                    .csv()
+                    .parseExecutor(executorService)
+                    .chunkSize(64)
+                    .startCheckpoint(checkpoint())
+                    .doRead();
+            assertResumed(resumed);
+            Assertions.assertEquals(all.head, resumed.head);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testResumeInputStream() throws IOException {
+        RowListener resumed = new RowListener();
+        try (InputStream inputStream = new FileInputStream(file)) {
+            FesodSheet.read(inputStream, resumed)
+                    .charset(StandardCharsets.UTF_8)
+                    .csv()
+                    .startCheckpoint(checkpoint())
+                    .doRead();
+        }
+        assertResumed(resumed);
+    }
+
+    private static CsvCheckpoint checkpoint() {
+        CsvCheckpoint checkpoint = all.checkpoints.get(CHECKPOINT_ROW_INDEX - 1);
+        Assertions.assertEquals(CHECKPOINT_ROW_INDEX + 1, checkpoint.getRowIndex());
+        return checkpoint;
+    }
+
+    private static void assertResumed(RowListener resumed) {
+        Assertions.assertEquals(all.rows.subList(CHECKPOINT_ROW_INDEX, ROW_COUNT), resumed.rows);
+        Assertions.assertEquals(all.rowIndexes.subList(CHECKPOINT_ROW_INDEX, ROW_COUNT), resumed.rowIndexes);
+        Assertions.assertEquals(all.checkpoints.subList(CHECKPOINT_ROW_INDEX, ROW_COUNT), resumed.checkpoints);
+    }
+
+    private static class RowListener extends AnalysisEventListener<Map<Integer, String>> {
+        private Map<Integer, String> head;
+        private final List<Map<Integer, String>> rows = new ArrayList<>();
+        private final List<Integer> rowIndexes = new ArrayList<>();
+        private final List<CsvCheckpoint> checkpoints = new ArrayList<>();
+
+        @Override
+        public void invokeHeadMap(Map<Integer, String> headMap, AnalysisContext context) {
+            head = headMap;
+        }
+
+        @Override
+        public void invoke(Map<Integer, String> data, AnalysisContext context) {
+            rows.add(data);
+            rowIndexes.add(context.readRowHolder().getRowIndex());
+            checkpoints.add(context.csvCheckpoint());
+        }
+
+        @Override
+        public void doAfterAllAnalysed(AnalysisContext context) {}
+    }
+}
@@ -184,6 +184,45 @@ public class CsvFormatTest {
         }
     }
 
+    @Test
+    public void testDirectWrite() throws IOException {
+        List<CsvData> dataList = dataList(10, STRING_PREFIX);
+        dataList.get(1).setString("a,b");
+        dataList.get(2).setString("a\"b");
+        dataList.get(3).setString("a\nb");
+        dataList.get(4).setString(" a ");
+        dataList.get(5).setString("");
+
+        File facadeFile = TestFileUtil.createNewFile(CSV_BASE + "csv-direct-write-facade.csv");
+        FesodSheet.write(facadeFile, CsvData.class).csv().doWrite(dataList);
+        csvFile = TestFileUtil.createNewFile(CSV_BASE + "csv-direct-write.csv");
+        FesodSheet.write(csvFile, CsvData.class).csv().directWrite(true).doWrite(dataList);
+        Assertions.assertEquals(
+                new String(Files.readAllBytes(facadeFile.toPath())),
+                new String(Files.readAllBytes(csvFile.toPath())));
+
+        List<CsvData> readList = FesodSheet.read(csvFile, CsvData.class, new CsvDataListener())
+                .csv()
+                .doReadSync();
+        Assertions.assertEquals(10, readList.size());
+        Assertions.assertEquals("a,b", readList.get(1).getString());
+        Assertions.assertEquals("a\"b", readList.get(2).getString());
+        Assertions.assertEquals("a\nb", readList.get(3).getString());
+
+        // sheet
+        csvFile = TestFileUtil.createNewFile(CSV_BASE + "csv-direct-write-sheet.csv");
+        FesodSheet.write(csvFile, CsvData.class)
+                .excelType(ExcelTypeEnum.CSV)
+                .directCsvWrite(true)
+                .sheet()
+                .doWrite(csvDataList);
+        readList = FesodSheet.read(csvFile, CsvData.class, new CsvDataListener())
+                .sheet()
+                .doReadSync();
+        Assertions.assertEquals(10, readList.size());
+        Assertions.assertNotNull(readList.get(0).getString());
+    }
+
     @Test
     public void writeWithCommonCsv() {
         csvFile = TestFileUtil.readFile(CSV_BASE + "write-common-csv.csv");
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.fesod.sheet.FesodSheet;
+import org.apache.fesod.sheet.context.AnalysisContext;
+import org.apache.fesod.sheet.event.AnalysisEventListener;
+import org.apache.fesod.sheet.util.TestFileUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reading a csv file in parallel must give the same rows as reading it on one thread.
+ */
+public class CsvParallelReadTest {
+    private static final String CSV_BASE = "csv" + File.separator;
+
+    private static ExecutorService executorService;
+
+    @BeforeAll
+    public static void init() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    public static void destroy() {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void testSimple() throws IOException {
+        StringBuilder content = new StringBuilder("\uFEFFname,value,remark\r\n");
+        for (int i = 0; i < 2000; i++) {
+            content.append("name").append(i).append(',').append(i).append(",remark").append(i).append("\r\n");
+        }
+        assertSameAsSequential(write("csv-parallel-simple.csv", content.toString()));
+    }
+
+    @Test
+    public void testQuotedLineBreaks() throws IOException {
+        StringBuilder content = new StringBuilder("name,value,remark\n");
+        for (int i = 0; i < 2000; i++) {
+            content.append("\"name\n").append(i).append("\",\"")
+                    .append(i)
+                    .append("\"\"\",\"a,\r\nb\n\n")
+                    .append(i)
+                    .append("\"\n");
+            if (i % 100 == 0) {
+                content.append('\n');
+            }
+        }
+        assertSameAsSequential(write("csv-parallel-quoted.csv", content.toString()));
+    }
+
+    @Test
+    public void testQuoteInsideValue() throws IOException {
+        // The quotes are not counted correctly here, the rest of the file is read on one thread
+        StringBuilder content = new StringBuilder("name,value\n");
+        for (int i = 0; i < 2000; i++) {
+            content.append("na\"me").append(i).append(",\"a\nb\"\n");
+        }
+        assertSameAsSequential(write("csv-parallel-quote-inside.csv", content.toString()));
+    }
+
+    private static File write(String name, String content) throws IOException {
+        File file = TestFileUtil.createNewFile(CSV_BASE + name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void assertSameAsSequential(File file) {
+        RowListener expected = new RowListener();
+        FesodSheet.read(file, expected).charset(StandardCharsets.UTF_8).csv().doRead();
+        Assertions.assertEquals(2000, expected.rows.size());
+        for (int chunkSize : new int[] {16, 100, 1024, 1024 * 1024}) {
+            RowListener actual = new RowListener();
+            FesodSheet.read(file, actual)
+                    .charset(StandardCharsets.UTF_8)
+                    .csv()
+                    .parseExecutor(executorService)
+                    .chunkSize(chunkSize)
+                    .doRead();
+            Assertions.assertEquals(expected.head, actual.head);
+            Assertions.assertEquals(expected.rows, actual.rows);
+            Assertions.assertEquals(expected.rowIndexes, actual.rowIndexes);
+        }
+    }
+
+    private static class RowListener extends AnalysisEventListener<Map<Integer, String>> {
+        private Map<Integer, String> head;
+        private final List<Map<Integer, String>> rows = new ArrayList<>();
+        private final List<Integer> rowIndexes = new ArrayList<>();
+
+        @Override
+        public void invokeHeadMap(Map<Integer, String> headMap, AnalysisContext context) {
+            head = headMap;
+        }
+
+        @Override
+        public void invoke(Map<Integer, String> data, AnalysisContext context) {
+            rows.add(data);
+            rowIndexes.add(context.readRowHolder().getRowIndex());
+        }
+
+        @Override
+        public void doAfterAllAnalysed(AnalysisContext context) {}
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.csv;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.fesod.sheet.metadata.csv.CsvRowWriter;
+import org.apache.fesod.sheet.metadata.csv.CsvSheet;
+import org.apache.fesod.sheet.metadata.csv.CsvWorkbook;
+import org.apache.fesod.sheet.metadata.data.WriteCellData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The rows written directly must be the same bytes as the ones printed by commons-csv.
+ */
+public class CsvRowWriterTest {
+
+    private static final String[] VALUES = {
+        "a", "#x", "!", "", " ", " a", "a ", "\ta", "$", "%a", "a\"b", "\"a\"", "a,b", "a;b", "a||b", "a|b",
+        "line\nbreak", "line\rbreak", "null", "NULL", "中文", null
+    };
+
+    @Test
+    public void testSameAsCommonsCsv() throws IOException {
+        List<CSVFormat> formats = new ArrayList<>();
+        formats.add(CSVFormat.DEFAULT);
+        formats.add(CSVFormat.DEFAULT.builder().setTrim(true).build());
+        formats.add(CSVFormat.DEFAULT.builder().setNullString("NULL").build());
+        formats.add(CSVFormat.DEFAULT.builder().setNullString(" N ").setTrim(true).build());
+        formats.add(CSVFormat.DEFAULT.builder().setDelimiter(';').build());
+        formats.add(CSVFormat.DEFAULT.builder().setDelimiter("||").build());
+        formats.add(CSVFormat.DEFAULT.builder().setQuote('\'').build());
+        formats.add(CSVFormat.DEFAULT.builder().setRecordSeparator('\n').build());
+
+        List<List<String>> rows = new ArrayList<>();
+        for (String value : VALUES) {
+            // first, in the middle and alone in a record
+            rows.add(Arrays.asList(value, "b"));
+            rows.add(Arrays.asList("a", value, "c"));
+            rows.add(Arrays.asList(value));
+        }
+        rows.add(Arrays.asList("", ""));
+        rows.add(Arrays.asList(null, null));
+
+        for (CSVFormat format : formats) {
+            StringBuilder expected = new StringBuilder();
+            CSVPrinter csvPrinter = format.print(expected);
+            for (List<String> row : rows) {
+                for (String value : row) {
+                    csvPrinter.print(value);
+                }
+                csvPrinter.println();
+            }
+            csvPrinter.flush();
+
+            StringBuilder actual = new StringBuilder();
+            CsvWorkbook csvWorkbook =
+                    new CsvWorkbook(actual, Locale.getDefault(), false, false, StandardCharsets.UTF_8, false);
+            csvWorkbook.setCsvFormat(format);
+            CsvSheet csvSheet = new CsvSheet(csvWorkbook, actual);
+            for (int i = 0; i < rows.size(); i++) {
+                CsvRowWriter csvRowWriter = csvSheet.startRow(i);
+                List<String> row = rows.get(i);
+                for (int j = 0; j < row.size(); j++) {
+                    csvRowWriter.appendCell(j, row.get(j) == null ? null : new WriteCellData<>(row.get(j)));
+                }
+                csvRowWriter.endRow();
+            }
+            Assertions.assertArrayEquals(
+                    expected.toString().getBytes(StandardCharsets.UTF_8),
+                    actual.toString().getBytes(StandardCharsets.UTF_8),
+                    format.toString());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.csv;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.csv.QuoteMode;
+import org.apache.fesod.sheet.analysis.csv.CsvTokenizer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The tokenizer must read the same values as commons-csv.
+ */
+public class CsvTokenizerTest {
+
+    private static final String[] INPUTS = {
+        "",
+        "a",
+        "a,b,c",
+        "a,b,c\n",
+        "a,b,c\r\nd,e,f\r\n",
+        "a,b,c\rd,e,f",
+        "a,,c\n,\n,,\n",
+        "a,b,",
+        "\n\na,b\n\n\nc,d\n\n",
+        "\"a\",\"b,c\",\"d\"\"e\"\n\"\",\"\"\"\"",
+        "\"multi\nline\r\nvalue\",x\n",
+        "\"a\"  ,b\n",
+        "  a  , b ,\" c \"\n",
+        "a\"b,c\"\"d\n",
+        "null,NULL,,\"null\"\n",
+        "\"abc\"\"\"\"def\"\"\",x\r\n",
+        "a;b;c\nd;\"e;f\";g\n",
+    };
+
+    @Test
+    public void testSameAsCommonsCsv() throws IOException {
+        List<CSVFormat> formats = new ArrayList<>();
+        formats.add(CSVFormat.DEFAULT);
+        formats.add(CSVFormat.DEFAULT.builder().setTrim(true).build());
+        formats.add(CSVFormat.DEFAULT.builder().setIgnoreEmptyLines(false).build());
+        formats.add(CSVFormat.DEFAULT.builder().setNullString("null").build());
+        formats.add(CSVFormat.DEFAULT.builder().setDelimiter(';').build());
+        formats.add(CSVFormat.DEFAULT.builder().setTrailingDelimiter(true).build());
+        formats.add(CSVFormat.DEFAULT.builder().setQuote(null).build());
+        formats.add(CSVFormat.DEFAULT.builder().setQuote('\'').build());
+        formats.add(CSVFormat.DEFAULT.builder().setQuoteMode(QuoteMode.MINIMAL).build());
+        for (CSVFormat format : formats) {
+            Assertions.assertTrue(CsvTokenizer.isSupported(format));
+            for (String input : INPUTS) {
+                List<List<String>> expected;
+                try {
+                    expected = readWithCommonsCsv(format, input);
+                } catch (UncheckedIOException e) {
+                    // invalid input, must be rejected as well
+                    expected = null;
+                }
+                // small buffers, so that values span more than one buffer
+                for (int bufferSize : new int[] {1, 2, 3, 7, 1024}) {
+                    String message = "format: " + format + ", input: " + input + ", buffer: " + bufferSize;
+                    if (expected == null) {
+                        Assertions.assertThrows(
+                                IOException.class, () -> readWithTokenizer(format, input, bufferSize), message);
+                    } else {
+                        Assertions.assertEquals(expected, readWithTokenizer(format, input, bufferSize), message);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupported() {
+        Assertions.assertFalse(
+                CsvTokenizer.isSupported(CSVFormat.DEFAULT.builder().setEscape('\\').build()));
+        Assertions.assertFalse(
+                CsvTokenizer.isSupported(CSVFormat.DEFAULT.builder().setDelimiter("||").build()));
+        Assertions.assertFalse(CsvTokenizer.isSupported(
+                CSVFormat.DEFAULT.builder().setCommentMarker('#').build()));
+        Assertions.assertFalse(CsvTokenizer.isSupported(
+                CSVFormat.DEFAULT.builder().setIgnoreSurroundingSpaces(true).build()));
+        Assertions.assertFalse(CsvTokenizer.isSupported(
+                CSVFormat.DEFAULT.builder().setQuoteMode(QuoteMode.ALL_NON_NULL).build()));
+    }
+
+    @Test
+    public void testInvalid() {
+        IOException e = Assertions.assertThrows(
+                IOException.class, () -> readWithTokenizer(CSVFormat.DEFAULT, "a,\"b", 1024));
+        Assertions.assertTrue(e.getMessage().contains(CsvTokenizer.EOF_IN_QUOTE_MESSAGE));
+        Assertions.assertThrows(
+                IOException.class, () -> readWithTokenizer(CSVFormat.DEFAULT, "\"a\"b,c", 1024));
+    }
+
+    private static List<List<String>> readWithCommonsCsv(CSVFormat format, String input) throws IOException {
+        List<List<String>> result = new ArrayList<>();
+        try (CSVParser parser = format.parse(new StringReader(input))) {
+            for (CSVRecord record : parser) {
+                List<String> values = new ArrayList<>();
+                record.forEach(values::add);
+                result.add(values);
+            }
+        }
+        return result;
+    }
+
+    private static List<List<String>> readWithTokenizer(CSVFormat format, String input, int bufferSize)
+            throws IOException {
+        List<List<String>> result = new ArrayList<>();
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(input), format, bufferSize)) {
+            List<String> record = new ArrayList<>();
+            while (tokenizer.nextRecord(record)) {
+                result.add(new ArrayList<>(record));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.dataformat;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.apache.fesod.sheet.metadata.format.DataFormatter;
+import org.apache.fesod.sheet.metadata.format.ExcelGeneralNumberFormat;
+import org.apache.fesod.sheet.util.DateUtils;
+import org.apache.poi.util.LocaleUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The formats compiled into layouts must give the same text as the java formats, which a formatter with a user
+ * supplied format always uses.
+ */
+public class DataFormatterTest {
+
+    private static final String[] NUMBER_FORMATS = {
+        "0",
+        "0.00",
+        "#,##0",
+        "#,##0.00",
+        "0%",
+        "0.00%",
+        "0.0#",
+        "#.##",
+        "000000",
+        "#'##0.00",
+        "#,##0.000_);(#,##0.000)",
+        "\"$\"#,##0.00",
+        "[Red]0.00",
+        "[$-409]#,##0.00",
+        "0.000 \"kg\"",
+        "0.00E+00",
+        "#,##0,,",
+        "# ?/?",
+        "General"
+    };
+
+    private static final String[] DATE_FORMATS = {
+        "yyyy-mm-dd",
+        "yyyy/m/d h:mm",
+        "yyyy-mm-dd hh:mm:ss",
+        "m/d/yy",
+        "yyyy\"年\"m\"月\"d\"日\"",
+        "h:mm:ss",
+        "mmm d, yyyy",
+        "h:mm AM/PM",
+        "[h]:mm:ss",
+        "mm:ss.0",
+        "dddd, yyyy-mm-dd",
+        "yyyy-mm-dd\\Thh:mm:ss"
+    };
+
+    private static final Locale[] LOCALES = {Locale.US, Locale.GERMANY, Locale.CHINA, Locale.forLanguageTag("fa-IR")};
+
+    @AfterEach
+    public void clean() {
+        LocaleUtil.resetUserTimeZone();
+        DateUtils.removeThreadLocalCache();
+    }
+
+    @Test
+    void numberTest() {
+        Random random = new Random(1);
+        for (Locale locale : LOCALES) {
+            DataFormatter dataFormatter = new DataFormatter(false, locale, false);
+            DataFormatter expectedDataFormatter = javaFormatter(false, locale);
+            for (String format : NUMBER_FORMATS) {
+                for (int i = 0; i < 500; i++) {
+                    BigDecimal value = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(12) - 2);
+                    assertSame(expectedDataFormatter, dataFormatter, value, null, format);
+                }
+                for (String value : new String[] {"0", "-0.001", "0.001", "0.005", "-0.005", "0.5", "-1", "1234567.891"}) {
+                    assertSame(expectedDataFormatter, dataFormatter, new BigDecimal(value), null, format);
+                }
+            }
+        }
+    }
+
+    @Test
+    void dateTest() {
+        dateTest(TimeZone.getTimeZone("UTC"));
+        dateTest(TimeZone.getTimeZone("America/New_York"));
+        dateTest(TimeZone.getTimeZone("Asia/Shanghai"));
+    }
+
+    @Test
+    void dateNotGregorianTest() {
+        Locale defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, new Locale("th", "TH"));
+            dateTest(TimeZone.getTimeZone("UTC"));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, defaultLocale);
+        }
+    }
+
+    private void dateTest(TimeZone timeZone) {
+        LocaleUtil.setUserTimeZone(timeZone);
+        Random random = new Random(1);
+        for (boolean use1904windowing : new boolean[] {false, true}) {
+            for (Locale locale : LOCALES) {
+                DateUtils.removeThreadLocalCache();
+                DataFormatter dataFormatter = new DataFormatter(use1904windowing, locale, false);
+                DataFormatter expectedDataFormatter = javaFormatter(use1904windowing, locale);
+                for (int f = 0; f < DATE_FORMATS.length; f++) {
+                    // custom format index
+                    Short index = (short) (200 + f);
+                    for (int i = 0; i < 300; i++) {
+                        BigDecimal value = BigDecimal.valueOf(random.nextDouble() * 80000);
+                        assertSame(expectedDataFormatter, dataFormatter, value, index, DATE_FORMATS[f]);
+                    }
+                    for (String value : new String[] {
+                        "0", "0.5", "1", "59", "60", "61", "0.99999999", "0.999994", "43831.999999", "44266.09375",
+                        "44507.0625", "45000"
+                    }) {
+                        assertSame(expectedDataFormatter, dataFormatter, new BigDecimal(value), index, DATE_FORMATS[f]);
+                    }
+                }
+            }
+        }
+    }
+
+    private DataFormatter javaFormatter(boolean use1904windowing, Locale locale) {
+        DataFormatter dataFormatter = new DataFormatter(use1904windowing, locale, false);
+        dataFormatter.setDefaultNumberFormat(new ExcelGeneralNumberFormat(locale, false));
+        return dataFormatter;
+    }
+
+    private void assertSame(
+            DataFormatter expectedDataFormatter,
+            DataFormatter dataFormatter,
+            BigDecimal value,
+            Short index,
+            String format) {
+        Assertions.assertEquals(
+                expectedDataFormatter.format(value, index, format),
+                dataFormatter.format(value, index, format),
+                format + " " + value);
+    }
+}
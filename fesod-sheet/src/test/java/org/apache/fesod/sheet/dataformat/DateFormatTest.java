@@ -21,12 +21,20 @@ package org.apache.fesod.sheet.dataformat;
 
 import com.alibaba.fastjson2.JSON;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.fesod.sheet.FesodSheet;
+import org.apache.fesod.sheet.context.AnalysisContext;
+import org.apache.fesod.sheet.event.AnalysisEventListener;
+import org.apache.fesod.sheet.metadata.Cell;
+import org.apache.fesod.sheet.metadata.data.DataFormatData;
+import org.apache.fesod.sheet.metadata.data.ReadCellData;
 import org.apache.fesod.sheet.util.TestFileUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -78,6 +86,39 @@ public class DateFormatTest {
         Assertions.assertEquals("2023-1-01 00:00:01", dataMap.get(6).get(0));
     }
 
+    @Test
+    public void t04ReadSharedDataFormat03() {
+        File file = TestFileUtil.createNewFile("dataformatShared03.xls");
+        List<List<Object>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(Arrays.asList(i, i + 0.5D));
+        }
+        FesodSheet.write(file).sheet().doWrite(data);
+        List<Map<Integer, Cell>> cellMapList = new ArrayList<>();
+        FesodSheet.read(file, new AnalysisEventListener<Map<Integer, String>>() {
+                    @Override
+                    public void invoke(Map<Integer, String> data, AnalysisContext context) {
+                        cellMapList.add(new HashMap<>(context.readRowHolder().getCellMap()));
+                    }
+
+                    @Override
+                    public void doAfterAllAnalysed(AnalysisContext context) {}
+                })
+                .headRowNumber(0)
+                .sheet()
+                .doRead();
+        Assertions.assertEquals(10, cellMapList.size());
+        // the cells with the same style share the same data format
+        for (int column = 0; column < 2; column++) {
+            DataFormatData dataFormatData =
+                    ((ReadCellData<?>) cellMapList.get(0).get(column)).getDataFormatData();
+            Assertions.assertNotNull(dataFormatData);
+            for (Map<Integer, Cell> cellMap : cellMapList) {
+                Assertions.assertSame(dataFormatData, ((ReadCellData<?>) cellMap.get(column)).getDataFormatData());
+            }
+        }
+    }
+
     private void readCn(File file) {
         List<DateFormatData> list = FesodSheet.read(file, DateFormatData.class, null)
                 .locale(Locale.CHINA)
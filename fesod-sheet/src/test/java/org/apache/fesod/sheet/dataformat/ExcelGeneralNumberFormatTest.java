@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.dataformat;
+
+import java.math.BigDecimal;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+import org.apache.fesod.sheet.metadata.format.ExcelGeneralNumberFormat;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The digits written directly must be the same as the {@link java.text.DecimalFormat} path, which is still used for
+ * any field position other than the integer field.
+ */
+public class ExcelGeneralNumberFormatTest {
+
+    private static final Locale[] LOCALES = {
+        Locale.US, Locale.GERMANY, Locale.CHINA, Locale.forLanguageTag("sv-SE"), Locale.forLanguageTag("fa-IR")
+    };
+
+    private static final double[] NUMBERS = {
+        0, -0.0, 1, -1, 0.5, -0.5, 0.1, 0.2, 0.1 + 0.2, 0.005, 1.005, 123.456, -123.456, 3.14159265358979,
+        1234567890.5, 9999999999.0, 12345678901.0, 99999999999.0, 1E11, 1E-10, 1.5E-10, 0.0000000001234,
+        0.0123456789, 0.01234567891, 1234567.891, 2.675, 1.0 / 3, 2.0 / 3
+    };
+
+    @Test
+    void formatTest() {
+        for (Locale locale : LOCALES) {
+            for (boolean useScientificFormat : new boolean[] {true, false}) {
+                ExcelGeneralNumberFormat format = new ExcelGeneralNumberFormat(locale, useScientificFormat);
+                for (double number : NUMBERS) {
+                    assertSame(format, number);
+                    assertSame(format, BigDecimal.valueOf(number));
+                }
+                Random random = new Random(1);
+                for (int i = 0; i < 5000; i++) {
+                    BigDecimal number = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(14));
+                    assertSame(format, number);
+                    assertSame(format, number.doubleValue());
+                    assertSame(format, random.nextDouble() * Math.pow(10, random.nextInt(16) - 5));
+                }
+            }
+        }
+    }
+
+    private void assertSame(ExcelGeneralNumberFormat format, Object number) {
+        String expected = format.format(number, new StringBuffer(), new FieldPosition(NumberFormat.FRACTION_FIELD))
+                .toString();
+        Assertions.assertEquals(expected, format.format(number), String.valueOf(number));
+    }
+}
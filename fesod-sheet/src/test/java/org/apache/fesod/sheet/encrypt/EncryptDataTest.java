@@ -20,9 +20,14 @@
 package org.apache.fesod.sheet.encrypt;
 
 import java.io.File;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.fesod.sheet.FesodSheet;
 import org.apache.fesod.sheet.read.builder.ExcelReaderBuilder;
@@ -30,6 +35,11 @@ import org.apache.fesod.sheet.simple.SimpleData;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
 import org.apache.fesod.sheet.util.TestFileUtil;
 import org.apache.fesod.sheet.write.builder.ExcelWriterBuilder;
+import org.apache.fesod.sheet.write.streaming.EncryptedPackageOutputStream;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.crypt.EncryptionMode;
+import org.apache.poi.poifs.crypt.Encryptor;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -99,6 +109,117 @@ public class EncryptDataTest {
         readAndWrite(fileCsvOutputStream, ExcelTypeEnum.CSV, true, true);
     }
 
+    /**
+     * The package spans several batches of segments, decrypted on an executor, on the reading thread and by POI.
+     */
+    @Test
+    public void t04ReadDecryptExecutor07() throws Exception {
+        File file = TestFileUtil.createNewFile("encryptDecryptExecutor07.xlsx");
+        FesodSheet.write(file, EncryptData.class).password(PASSWORD).sheet().doWrite(data(50000));
+        readDecrypt(file);
+    }
+
+    /**
+     * Same as {@link #t04ReadDecryptExecutor07()} with agile encryption, which has an initialization vector for each
+     * segment.
+     */
+    @Test
+    public void t05ReadDecryptExecutorAgile07() throws Exception {
+        File plainFile = TestFileUtil.createNewFile("encryptDecryptExecutorPlain07.xlsx");
+        FesodSheet.write(plainFile, EncryptData.class).sheet().doWrite(data(50000));
+        File file = TestFileUtil.createNewFile("encryptDecryptExecutorAgile07.xlsx");
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem()) {
+            Encryptor encryptor = new EncryptionInfo(EncryptionMode.agile).getEncryptor();
+            encryptor.confirmPassword(PASSWORD);
+            try (OutputStream outputStream = encryptor.getDataStream(fileSystem)) {
+                Files.copy(plainFile.toPath(), outputStream);
+            }
+            try (OutputStream outputStream = Files.newOutputStream(file.toPath())) {
+                fileSystem.writeFilesystem(outputStream);
+            }
+        }
+        readDecrypt(file);
+    }
+
+    /**
+     * The package spans several batches of segments, encrypted on an executor while the workbook is written.
+     */
+    @Test
+    public void t06WriteEncryptExecutor07() throws Exception {
+        File file = TestFileUtil.createNewFile("encryptEncryptExecutor07.xlsx");
+        File fileOutputStream = TestFileUtil.createNewFile("encryptEncryptExecutorOutputStream07.xlsx");
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            FesodSheet.write(file, EncryptData.class)
+                    .password(PASSWORD)
+                    .encryptExecutor(executorService)
+                    .sheet()
+                    .doWrite(data(50000));
+            try (OutputStream outputStream = Files.newOutputStream(fileOutputStream.toPath())) {
+                FesodSheet.write(outputStream, EncryptData.class)
+                        .password(PASSWORD)
+                        .encryptExecutor(executorService)
+                        .sheet()
+                        .doWrite(data(50000));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        readDecrypt(file);
+        readDecrypt(fileOutputStream);
+    }
+
+    /**
+     * Closing the stream before it is complete waits for the batches still being encrypted.
+     */
+    @Test
+    public void t07CloseEncryptExecutor07() throws Exception {
+        AtomicBoolean started = new AtomicBoolean();
+        Executor executor = command -> new Thread(() -> {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    started.set(true);
+                    command.run();
+                })
+                .start();
+        EncryptedPackageOutputStream outputStream = new EncryptedPackageOutputStream(PASSWORD, executor);
+        outputStream.write(new byte[64 * EncryptedPackageOutputStream.SEGMENT_SIZE + 1]);
+        outputStream.close();
+        Assertions.assertTrue(started.get());
+    }
+
+    private void readDecrypt(File file) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            assertData(FesodSheet.read(file, EncryptData.class, null)
+                    .password(PASSWORD)
+                    .decryptExecutor(executorService)
+                    .sheet()
+                    .doReadSync());
+        } finally {
+            executorService.shutdown();
+        }
+        assertData(FesodSheet.read(Files.newInputStream(file.toPath()), EncryptData.class, null)
+                .password(PASSWORD)
+                .sheet()
+                .doReadSync());
+        assertData(FesodSheet.read(Files.newInputStream(file.toPath()), EncryptData.class, null)
+                .password(PASSWORD)
+                .mandatoryUseInputStream(Boolean.TRUE)
+                .sheet()
+                .doReadSync());
+    }
+
+    private void assertData(List<EncryptData> dataList) {
+        Assertions.assertEquals(50000, dataList.size());
+        for (int i = 0; i < dataList.size(); i++) {
+            Assertions.assertEquals("Name" + i, dataList.get(i).getName());
+        }
+    }
+
     private void readAndWrite(File file, ExcelTypeEnum excelType, boolean hasPassword, boolean isStream)
             throws Exception {
         log.info(
@@ -126,8 +247,12 @@ public class EncryptDataTest {
     }
 
     private List<SimpleData> data() {
+        return data(10);
+    }
+
+    private List<SimpleData> data(int count) {
         List<SimpleData> list = new ArrayList<SimpleData>();
-        for (int i = 0; i < 10; i++) {
+        for (int i = 0; i < count; i++) {
             SimpleData simpleData = new SimpleData();
             simpleData.setName("Name" + i);
             list.add(simpleData);
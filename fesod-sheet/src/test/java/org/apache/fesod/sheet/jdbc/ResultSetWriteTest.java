@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.jdbc;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.fesod.sheet.ExcelWriter;
+import org.apache.fesod.sheet.FesodSheet;
+import org.apache.fesod.sheet.util.TestFileUtil;
+import org.apache.fesod.sheet.write.metadata.WriteSheet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ *
+ */
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class ResultSetWriteTest {
+
+    private static final String[] LABELS = {"id", "name", "price", "ratio", "enabled", "day", "time", "remark"};
+    private static final int[] TYPES = {
+        Types.INTEGER,
+        Types.VARCHAR,
+        Types.DECIMAL,
+        Types.DOUBLE,
+        Types.BOOLEAN,
+        Types.DATE,
+        Types.TIMESTAMP,
+        Types.VARCHAR
+    };
+
+    private static File file07;
+    private static File fileCsv;
+
+    @BeforeAll
+    public static void init() {
+        file07 = TestFileUtil.createNewFile("resultSet07.xlsx");
+        fileCsv = TestFileUtil.createNewFile("resultSetCsv.csv");
+    }
+
+    @Test
+    public void t01Write07() {
+        write(file07);
+    }
+
+    @Test
+    public void t02WriteCsv() {
+        write(fileCsv);
+    }
+
+    private void write(File file) {
+        ResultSet resultSet = StubResultSet.create(LABELS, TYPES, rows());
+        WriteSheet writeSheet = FesodSheet.writerSheet().build();
+        try (ExcelWriter excelWriter = FesodSheet.write(file).build()) {
+            excelWriter.write(resultSet, writeSheet, 100);
+        }
+        // The column labels must not be left in the sheet of the caller
+        Assertions.assertNull(writeSheet.getHead());
+        List<Map<Integer, String>> result =
+                FesodSheet.read(file).headRowNumber(0).sheet().doReadSync();
+        Assertions.assertEquals(11, result.size());
+        Map<Integer, String> head = result.get(0);
+        for (int i = 0; i < LABELS.length; i++) {
+            Assertions.assertEquals(LABELS[i], head.get(i));
+        }
+        Map<Integer, String> row = result.get(1);
+        Assertions.assertEquals("0", row.get(0));
+        Assertions.assertEquals("name0", row.get(1));
+        Assertions.assertEquals("1.5", row.get(2));
+        Assertions.assertEquals("0.25", row.get(3));
+        Assertions.assertEquals("true", row.get(4).toLowerCase());
+        Assertions.assertTrue(row.get(5).startsWith("2024-01-01"));
+        Assertions.assertEquals("2024-01-01 08:30:00", row.get(6));
+        Assertions.assertNull(row.get(7));
+        Assertions.assertEquals("9", result.get(10).get(0));
+        Assertions.assertEquals("name9", result.get(10).get(1));
+    }
+
+    private List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Object[] {
+                i,
+                "name" + i,
+                new BigDecimal("1.5"),
+                0.25D,
+                Boolean.TRUE,
+                Date.valueOf("2024-01-01"),
+                Timestamp.valueOf("2024-01-01 08:30:00"),
+                null
+            });
+        }
+        return rows;
+    }
+}
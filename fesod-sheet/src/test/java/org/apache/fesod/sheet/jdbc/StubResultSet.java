@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.jdbc;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * A {@link ResultSet} over rows in memory, only the methods used when writing are supported.
+ *
+ *
+ */
+public class StubResultSet {
+
+    private StubResultSet() {}
+
+    public static ResultSet create(String[] labels, int[] types, List<Object[]> rows) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                StubResultSet.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return labels.length;
+                        case "getColumnLabel":
+                            return labels[(Integer) args[0] - 1];
+                        case "getColumnType":
+                            return types[(Integer) args[0] - 1];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        int[] cursor = {-1};
+        Object[] lastValue = new Object[1];
+        int[] fetchSize = {0};
+        return (ResultSet) Proxy.newProxyInstance(
+                StubResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "next":
+                            return ++cursor[0] < rows.size();
+                        case "setFetchSize":
+                            fetchSize[0] = (Integer) args[0];
+                            return null;
+                        case "getFetchSize":
+                            return fetchSize[0];
+                        case "wasNull":
+                            return lastValue[0] == null;
+                        default:
+                            break;
+                    }
+                    Object value = rows.get(cursor[0])[(Integer) args[0] - 1];
+                    lastValue[0] = value;
+                    switch (method.getName()) {
+                        case "getInt":
+                            return value == null ? 0 : ((Number) value).intValue();
+                        case "getLong":
+                            return value == null ? 0L : ((Number) value).longValue();
+                        case "getDouble":
+                            return value == null ? 0D : ((Number) value).doubleValue();
+                        case "getBoolean":
+                            return value != null && (Boolean) value;
+                        case "getBigDecimal":
+                            return (BigDecimal) value;
+                        case "getDate":
+                            return (Date) value;
+                        case "getTimestamp":
+                            return (Timestamp) value;
+                        case "getString":
+                            return value == null ? null : value.toString();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
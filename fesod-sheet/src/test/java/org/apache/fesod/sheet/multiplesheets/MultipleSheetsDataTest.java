@@ -19,12 +19,27 @@
 
 package org.apache.fesod.sheet.multiplesheets;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.fesod.sheet.ExcelReader;
+import org.apache.fesod.sheet.ExcelWriter;
 import org.apache.fesod.sheet.FesodSheet;
+import org.apache.fesod.sheet.read.listener.PageReadListener;
 import org.apache.fesod.sheet.read.metadata.ReadSheet;
 import org.apache.fesod.sheet.util.TestFileUtil;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.LittleEndian;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -66,6 +81,168 @@ public class MultipleSheetsDataTest {
         readAll(file03);
     }
 
+    /**
+     * Only the streams of the selected sheets are read from the xls, check that each one gets its own rows.
+     */
+    @Test
+    public void t05ReadSelectedSheets03() {
+        File file = TestFileUtil.createNewFile("multiplesheetsWrite03.xls");
+        try (ExcelWriter excelWriter = FesodSheet.write(file, MultipleSheetsData.class).build()) {
+            for (int i = 0; i < 4; i++) {
+                excelWriter.write(data(i), FesodSheet.writerSheet(i, "sheet" + i).build());
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            List<MultipleSheetsData> list =
+                    FesodSheet.read(file).head(MultipleSheetsData.class).sheet(i).doReadSync();
+            Assertions.assertEquals(data(i), list);
+        }
+        Assertions.assertEquals(
+                data(2),
+                FesodSheet.read(file)
+                        .head(MultipleSheetsData.class)
+                        .sheet("sheet2")
+                        .doReadSync());
+
+        List<MultipleSheetsData> list = new ArrayList<>();
+        try (ExcelReader excelReader = FesodSheet.read(
+                        file, MultipleSheetsData.class, new PageReadListener<MultipleSheetsData>(list::addAll))
+                .build()) {
+            excelReader.read(
+                    FesodSheet.readSheet(3).build(), FesodSheet.readSheet(1).build());
+        }
+        List<MultipleSheetsData> expected = new ArrayList<>(data(1));
+        expected.addAll(data(3));
+        Assertions.assertEquals(expected, list);
+
+        list.clear();
+        FesodSheet.read(file, MultipleSheetsData.class, new PageReadListener<MultipleSheetsData>(list::addAll))
+                .doReadAll();
+        Assertions.assertEquals(10, list.size());
+    }
+
+    @Test
+    public void t06SheetList03() {
+        File file = TestFileUtil.createNewFile("multiplesheetsList03.xls");
+        try (ExcelWriter excelWriter = FesodSheet.write(file, MultipleSheetsData.class).build()) {
+            for (int i = 0; i < 4; i++) {
+                excelWriter.write(data(i), FesodSheet.writerSheet(i, "sheet" + i).build());
+            }
+        }
+        List<MultipleSheetsData> list = new ArrayList<>();
+        try (ExcelReader excelReader = FesodSheet.read(
+                        file, MultipleSheetsData.class, new PageReadListener<MultipleSheetsData>(list::addAll))
+                .build()) {
+            // only the workbook globals are read to list the sheets
+            List<ReadSheet> sheets = excelReader.excelExecutor().sheetList();
+            Assertions.assertEquals(4, sheets.size());
+            for (int i = 0; i < 4; i++) {
+                Assertions.assertEquals(i, sheets.get(i).getSheetNo());
+                Assertions.assertEquals("sheet" + i, sheets.get(i).getSheetName());
+            }
+            // the listed sheets are used by the read
+            excelReader.read(sheets.get(2));
+        }
+        Assertions.assertEquals(data(2), list);
+    }
+
+    /**
+     * A chart sheet keeps its index among the sheets, whether the worksheets are found by seeking or by reading the
+     * whole workbook stream.
+     */
+    @Test
+    public void t06ReadWithChartSheet03() throws Exception {
+        File file = TestFileUtil.createNewFile("multiplesheetsChart03.xls");
+        File fileSequential = TestFileUtil.createNewFile("multiplesheetsChartSequential03.xls");
+        for (File chartFile : new File[] {file, fileSequential}) {
+            try (ExcelWriter excelWriter =
+                    FesodSheet.write(chartFile, MultipleSheetsData.class).build()) {
+                excelWriter.write(data(0), FesodSheet.writerSheet(0, "sheet0").build());
+                excelWriter.write(
+                        new ArrayList<>(),
+                        FesodSheet.writerSheet(1, "chart").needHead(false).build());
+                excelWriter.write(data(2), FesodSheet.writerSheet(2, "sheet2").build());
+            }
+            toChartSheet(chartFile, chartFile == fileSequential);
+
+            Assertions.assertEquals(
+                    data(2),
+                    FesodSheet.read(chartFile)
+                            .head(MultipleSheetsData.class)
+                            .sheet(2)
+                            .doReadSync());
+            Assertions.assertEquals(
+                    data(2),
+                    FesodSheet.read(chartFile)
+                            .head(MultipleSheetsData.class)
+                            .sheet("sheet2")
+                            .doReadSync());
+            List<MultipleSheetsData> list = new ArrayList<>();
+            FesodSheet.read(
+                            chartFile,
+                            MultipleSheetsData.class,
+                            new PageReadListener<MultipleSheetsData>(list::addAll))
+                    .doReadAll();
+            List<MultipleSheetsData> expected = new ArrayList<>(data(0));
+            expected.addAll(data(2));
+            Assertions.assertEquals(expected, list);
+        }
+    }
+
+    /**
+     * Turn the second sheet into a chart sheet. HSSF can not write chart sheets, so the bound sheet and the BOF are
+     * changed in the workbook stream.
+     *
+     * @param breakOffset point the bound sheet of the last sheet past the end, so that the sheets can not be found by
+     *                    seeking and the whole workbook stream is read
+     */
+    private void toChartSheet(File file, boolean breakOffset) throws Exception {
+        POIFSFileSystem poifsFileSystem;
+        try (InputStream inputStream = new FileInputStream(file)) {
+            poifsFileSystem = new POIFSFileSystem(inputStream);
+        }
+        try {
+            DirectoryNode root = poifsFileSystem.getRoot();
+            byte[] bytes;
+            try (InputStream inputStream = root.createDocumentInputStream("Workbook")) {
+                bytes = IOUtils.toByteArray(inputStream);
+            }
+            // the data of the bound sheets of the workbook globals
+            List<Integer> boundSheets = new ArrayList<>();
+            int position = 0;
+            while (LittleEndian.getUShort(bytes, position) != EOFRecord.sid) {
+                if (LittleEndian.getUShort(bytes, position) == BoundSheetRecord.sid) {
+                    boundSheets.add(position + 4);
+                }
+                position += 4 + LittleEndian.getUShort(bytes, position + 2);
+            }
+            int chart = boundSheets.get(1);
+            // sheet type of the options
+            bytes[chart + 5] = 0x02;
+            // type of the BOF, after the sid, the size and the version
+            LittleEndian.putUShort(bytes, LittleEndian.getInt(bytes, chart) + 6, BOFRecord.TYPE_CHART);
+            if (breakOffset) {
+                LittleEndian.putInt(bytes, boundSheets.get(2), bytes.length);
+            }
+            root.createOrUpdateDocument("Workbook", new ByteArrayInputStream(bytes));
+            try (OutputStream outputStream = new FileOutputStream(file)) {
+                poifsFileSystem.writeFilesystem(outputStream);
+            }
+        } finally {
+            poifsFileSystem.close();
+        }
+    }
+
+    private List<MultipleSheetsData> data(int sheetNo) {
+        List<MultipleSheetsData> list = new ArrayList<>();
+        for (int i = 0; i <= sheetNo; i++) {
+            MultipleSheetsData data = new MultipleSheetsData();
+            data.setTitle("sheet" + sheetNo + "-" + i);
+            list.add(data);
+        }
+        return list;
+    }
+
     private void read(File file) {
         MultipleSheetsListener multipleSheetsListener = new MultipleSheetsListener();
         try (ExcelReader excelReader = FesodSheet.read(file, MultipleSheetsData.class, multipleSheetsListener)
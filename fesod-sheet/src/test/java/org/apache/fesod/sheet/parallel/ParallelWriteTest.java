@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.fesod.sheet.parallel;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import org.apache.fesod.sheet.ExcelWriter;
+import org.apache.fesod.sheet.FesodSheet;
+import org.apache.fesod.sheet.exception.ExcelGenerateException;
+import org.apache.fesod.sheet.util.TestFileUtil;
+import org.apache.fesod.sheet.write.concurrent.ConcurrentSheetWriter;
+import org.apache.fesod.sheet.write.concurrent.ConcurrentWriteConfig;
+import org.apache.fesod.sheet.write.handler.CellWriteHandler;
+import org.apache.fesod.sheet.write.handler.context.CellWriteHandlerContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+/**
+ *
+ */
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class ParallelWriteTest {
+
+    private static final int ROW_COUNT = 5000;
+
+    private static File file07;
+    private static File fileCsv;
+    private static File fileOrdered07;
+    private static File fileUnordered07;
+    private static File fileOrderedCapacityOne07;
+    private static ExecutorService executorService;
+
+    @BeforeAll
+    public static void init() {
+        file07 = TestFileUtil.createNewFile("parallelWrite07.xlsx");
+        fileCsv = TestFileUtil.createNewFile("parallelWriteCsv.csv");
+        fileOrdered07 = TestFileUtil.createNewFile("parallelWriteOrdered07.xlsx");
+        fileUnordered07 = TestFileUtil.createNewFile("parallelWriteUnordered07.xlsx");
+        fileOrderedCapacityOne07 = TestFileUtil.createNewFile("parallelWriteOrderedCapacityOne07.xlsx");
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    public static void destroy() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void t01ConvertExecutor07() {
+        convertExecutor(file07);
+    }
+
+    @Test
+    public void t02ConvertExecutorCsv() {
+        convertExecutor(fileCsv);
+    }
+
+    @Test
+    public void t03ConvertExecutorStream07() {
+        FesodSheet.write(file07, ParallelWriteData.class)
+                .convertExecutor(executorService)
+                .convertBatchSize(100)
+                .sheet()
+                .doWrite(data().stream());
+        List<ParallelWriteData> result =
+                FesodSheet.read(file07, ParallelWriteData.class, null).sheet().doReadSync();
+        Assertions.assertEquals(data(), result);
+    }
+
+    @Test
+    public void t04ConvertExecutorCallerRuns07() {
+        // The batches are converted on the write thread itself
+        FesodSheet.write(file07, ParallelWriteData.class)
+                .convertExecutor(Runnable::run)
+                .convertBatchSize(100)
+                .sheet()
+                .doWrite(data());
+        List<ParallelWriteData> result =
+                FesodSheet.read(file07, ParallelWriteData.class, null).sheet().doReadSync();
+        Assertions.assertEquals(data(), result);
+    }
+
+    @Test
+    public void t05ConvertBatchSizeNotPositive() {
+        Assertions.assertThrows(
+                ExcelGenerateException.class,
+                () -> FesodSheet.write(file07, ParallelWriteData.class)
+                        .convertExecutor(executorService)
+                        .convertBatchSize(-1)
+                        .build());
+    }
+
+    private void convertExecutor(File file) {
+        Set<Thread> handlerThreads = ConcurrentHashMap.newKeySet();
+        FesodSheet.write(file, ParallelWriteData.class)
+                .convertExecutor(executorService)
+                .registerWriteHandler(new CellWriteHandler() {
+                    @Override
+                    public void afterCellDispose(CellWriteHandlerContext context) {
+                        handlerThreads.add(Thread.currentThread());
+                    }
+                })
+                .sheet()
+                .doWrite(data());
+        Assertions.assertEquals(1, handlerThreads.size());
+        Assertions.assertTrue(handlerThreads.contains(Thread.currentThread()));
+
+        List<ParallelWriteData> result =
+                FesodSheet.read(file, ParallelWriteData.class, null).sheet().doReadSync();
+        Assertions.assertEquals(data(), result);
+    }
+
+    @Test
+    public void t11ConcurrentWriterOrdered07() throws Exception {
+        List<ParallelWriteData> data = data();
+        try (ExcelWriter excelWriter =
+                FesodSheet.write(fileOrdered07, ParallelWriteData.class).build()) {
+            ConcurrentSheetWriter concurrentSheetWriter = excelWriter.concurrentWriter(
+                    FesodSheet.writerSheet().build(),
+                    ConcurrentWriteConfig.builder().capacity(4).ordered(true).build());
+            // Each producer submits every fourth batch, so the batches arrive out of order
+            produce(data, (sequence, batch) -> concurrentSheetWriter.submit(sequence, batch));
+            concurrentSheetWriter.flush();
+        }
+        List<ParallelWriteData> result =
+                FesodSheet.read(fileOrdered07, ParallelWriteData.class, null).sheet().doReadSync();
+        Assertions.assertEquals(data, result);
+    }
+
+    @Test
+    public void t12ConcurrentWriterUnordered07() throws Exception {
+        List<ParallelWriteData> data = data();
+        try (ExcelWriter excelWriter =
+                FesodSheet.write(fileUnordered07, ParallelWriteData.class).build()) {
+            ConcurrentSheetWriter concurrentSheetWriter = excelWriter.concurrentWriter(
+                    FesodSheet.writerSheet().build(),
+                    ConcurrentWriteConfig.builder().capacity(2).build());
+            produce(data, (sequence, batch) -> concurrentSheetWriter.submit(batch));
+        }
+        List<ParallelWriteData> result =
+                FesodSheet.read(fileUnordered07, ParallelWriteData.class, null).sheet().doReadSync();
+        result.sort(Comparator.comparing(ParallelWriteData::getNumber));
+        Assertions.assertEquals(data, result);
+    }
+
+    @Test
+    public void t13ConcurrentWriterOrderedCapacityOne07() {
+        List<ParallelWriteData> data = data();
+        Assertions.assertTimeoutPreemptively(Duration.ofMinutes(1), () -> {
+            try (ExcelWriter excelWriter =
+                    FesodSheet.write(fileOrderedCapacityOne07, ParallelWriteData.class).build()) {
+                ConcurrentSheetWriter concurrentSheetWriter = excelWriter.concurrentWriter(
+                        FesodSheet.writerSheet().build(),
+                        ConcurrentWriteConfig.builder().capacity(1).ordered(true).build());
+                // Every producer but the one of the next sequence has to wait for the writer
+                produce(data, (sequence, batch) -> concurrentSheetWriter.submit(sequence, batch));
+                concurrentSheetWriter.flush();
+            }
+        });
+        List<ParallelWriteData> result =
+                FesodSheet.read(fileOrderedCapacityOne07, ParallelWriteData.class, null).sheet().doReadSync();
+        Assertions.assertEquals(data, result);
+    }
+
+    private void produce(List<ParallelWriteData> data, BiConsumer<Long, List<ParallelWriteData>> submitter)
+            throws Exception {
+        int producerCount = 4;
+        int batchSize = 100;
+        int batchCount = data.size() / batchSize;
+        List<Future<?>> futureList = new ArrayList<>();
+        for (int producer = 0; producer < producerCount; producer++) {
+            int firstBatch = producerCount - 1 - producer;
+            futureList.add(executorService.submit(() -> {
+                for (int batch = firstBatch; batch < batchCount; batch += producerCount) {
+                    submitter.accept((long) batch, data.subList(batch * batchSize, (batch + 1) * batchSize));
+                }
+            }));
+        }
+        for (Future<?> future : futureList) {
+            future.get();
+        }
+    }
+
+    private List<ParallelWriteData> data() {
+        List<ParallelWriteData> list = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            ParallelWriteData data = new ParallelWriteData();
+            data.setString("字符串" + i);
+            data.setNumber(i);
+            list.add(data);
+        }
+        return list;
+    }
+}
@@ -20,15 +20,25 @@
 package org.apache.fesod.sheet.repetition;
 
 import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import org.apache.fesod.sheet.ExcelReader;
 import org.apache.fesod.sheet.ExcelWriter;
 import org.apache.fesod.sheet.FesodSheet;
+import org.apache.fesod.sheet.exception.ExcelGenerateException;
 import org.apache.fesod.sheet.read.metadata.ReadSheet;
+import org.apache.fesod.sheet.util.IoUtils;
 import org.apache.fesod.sheet.util.TestFileUtil;
 import org.apache.fesod.sheet.write.metadata.WriteSheet;
 import org.apache.fesod.sheet.write.metadata.WriteTable;
+import org.apache.fesod.sheet.write.streaming.SharedStringsSXSSFWorkbook;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
@@ -46,6 +56,7 @@ public class RepetitionDataTest {
     private static File fileTable07;
     private static File fileTable03;
     private static File fileTableCsv;
+    private static File fileSharedStrings07;
 
     @BeforeAll
     public static void init() {
@@ -55,6 +66,7 @@ public class RepetitionDataTest {
         fileTable07 = TestFileUtil.createNewFile("repetitionTable07.xlsx");
         fileTable03 = TestFileUtil.createNewFile("repetitionTable03.xls");
         fileTableCsv = TestFileUtil.createNewFile("repetitionTableCsv.csv");
+        fileSharedStrings07 = TestFileUtil.createNewFile("repetitionSharedStrings07.xlsx");
     }
 
     @Test
@@ -115,6 +127,68 @@ public class RepetitionDataTest {
         }
     }
 
+    @Test
+    public void t21ReadAndWriteSharedStrings07() throws Exception {
+        List<RepetitionData> list = new ArrayList<RepetitionData>();
+        for (int i = 0; i < 10; i++) {
+            RepetitionData data = new RepetitionData();
+            data.setString("字符串" + (i % 3));
+            list.add(data);
+        }
+        FesodSheet.write(fileSharedStrings07, RepetitionData.class)
+                .useSharedStrings(Boolean.TRUE)
+                .sharedStringsMaxUniqueCount(2)
+                .sheet()
+                .doWrite(list);
+
+        try (ZipFile zipFile = new ZipFile(fileSharedStrings07)) {
+            ZipEntry zipEntry = zipFile.getEntry("xl/sharedStrings.xml");
+            Assertions.assertNotNull(zipEntry);
+            String sharedStrings;
+            try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+                sharedStrings = new String(IoUtils.toByteArray(inputStream), StandardCharsets.UTF_8);
+            }
+            Assertions.assertTrue(sharedStrings.contains("uniqueCount=\"2\""));
+            Assertions.assertFalse(sharedStrings.contains("字符串2"));
+        }
+
+        List<RepetitionData> result = FesodSheet.read(fileSharedStrings07, RepetitionData.class, null)
+                .sheet()
+                .doReadSync();
+        Assertions.assertEquals(10, result.size());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals("字符串" + (i % 3), result.get(i).getString());
+        }
+    }
+
+    @Test
+    public void t22ReadSharedStringsBack() throws Exception {
+        try (SharedStringsSXSSFWorkbook workbook = new SharedStringsSXSSFWorkbook(10)) {
+            SXSSFSheet sheet = workbook.createSheet();
+            for (int i = 0; i < 3; i++) {
+                sheet.createRow(i).createCell(0).setCellValue("字符串" + (i % 2));
+            }
+            sheet.flushRows();
+            SharedStringsTable sharedStringsTable = workbook.getXSSFWorkbook().getSharedStringSource();
+            Assertions.assertEquals(2, sharedStringsTable.getUniqueCount());
+            Assertions.assertEquals(3, sharedStringsTable.getCount());
+            Assertions.assertEquals("字符串1", sharedStringsTable.getItemAt(1).getString());
+            Assertions.assertEquals(2, sharedStringsTable.getSharedStringItems().size());
+            Assertions.assertEquals(
+                    "字符串0", sharedStringsTable.getSharedStringItems().get(0).getString());
+        }
+    }
+
+    @Test
+    public void t23SharedStringsMaxUniqueCountNotPositive() {
+        Assertions.assertThrows(
+                ExcelGenerateException.class,
+                () -> FesodSheet.write(fileSharedStrings07, RepetitionData.class)
+                        .useSharedStrings(Boolean.TRUE)
+                        .sharedStringsMaxUniqueCount(0)
+                        .build());
+    }
+
     private List<RepetitionData> data() {
         List<RepetitionData> list = new ArrayList<RepetitionData>();
         RepetitionData data = new RepetitionData();
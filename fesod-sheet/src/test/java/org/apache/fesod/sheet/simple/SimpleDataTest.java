@@ -26,10 +26,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.fesod.sheet.ExcelWriter;
 import org.apache.fesod.sheet.FesodSheet;
 import org.apache.fesod.sheet.read.listener.PageReadListener;
 import org.apache.fesod.sheet.support.ExcelTypeEnum;
 import org.apache.fesod.sheet.util.TestFileUtil;
+import org.apache.fesod.sheet.write.metadata.WriteSheet;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.MethodOrderer;
@@ -45,6 +47,7 @@ import org.junit.jupiter.api.TestMethodOrder;
  * <li>t0x: Basic read/write tests</li>
  * <li>t1x: Synchronous reading tests</li>
  * <li>t2x: Specific feature tests (sheet name reading, pagination, etc.)</li>
+ * <li>t3x: Writing from Iterator/Stream, streaming xls write</li>
  *
  *
  */
@@ -197,6 +200,52 @@ public class SimpleDataTest {
                 .doRead();
     }
 
+    /**
+     * Test writing from an Iterator, the rows are pulled while writing
+     */
+    @Test
+    public void t31WriteIterator07() {
+        FesodSheet.write(file07, SimpleData.class).sheet().doWrite(data().iterator());
+        FesodSheet.read(file07, SimpleData.class, new SimpleDataListener())
+                .sheet()
+                .doRead();
+    }
+
+    /**
+     * Test writing from a Stream
+     */
+    @Test
+    public void t32WriteStreamCsv() {
+        FesodSheet.write(fileCsv, SimpleData.class).sheet().doWrite(data().stream());
+        FesodSheet.read(fileCsv, SimpleData.class, new SimpleDataListener())
+                .sheet()
+                .doRead();
+    }
+
+    /**
+     * Test writing xls in streaming mode, the older rows are written to disk while writing
+     */
+    @Test
+    public void t33WriteStreaming03() {
+        File file = TestFileUtil.createNewFile("simpleStreaming03.xls");
+        try (ExcelWriter excelWriter = FesodSheet.write(file, SimpleData.class)
+                .streamingXlsWrite(Boolean.TRUE)
+                .build()) {
+            for (int i = 0; i < 2; i++) {
+                WriteSheet writeSheet = FesodSheet.writerSheet(i, "sheet" + i).build();
+                excelWriter.write(data(0, 500), writeSheet);
+                excelWriter.write(data(500, 1000), writeSheet);
+            }
+        }
+        for (int i = 0; i < 2; i++) {
+            List<SimpleData> list = FesodSheet.read(file).head(SimpleData.class).sheet(i).doReadSync();
+            Assertions.assertEquals(1000, list.size());
+            for (int j = 0; j < list.size(); j++) {
+                Assertions.assertEquals("姓名" + j, list.get(j).getName());
+            }
+        }
+    }
+
     /**
      * Synchronous reading of Excel files
      * <p>
@@ -220,8 +269,12 @@ public class SimpleDataTest {
      * @return {@link List }<{@link SimpleData }>
      */
     private List<SimpleData> data() {
+        return data(0, 10);
+    }
+
+    private List<SimpleData> data(int start, int end) {
         List<SimpleData> list = new ArrayList<SimpleData>();
-        for (int i = 0; i < 10; i++) {
+        for (int i = start; i < end; i++) {
             SimpleData simpleData = new SimpleData();
             simpleData.setName("姓名" + i);
             list.add(simpleData);
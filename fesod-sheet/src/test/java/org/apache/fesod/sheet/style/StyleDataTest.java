@@ -20,15 +20,20 @@
 package org.apache.fesod.sheet.style;
 
 import java.io.File;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import org.apache.fesod.sheet.FesodSheet;
 import org.apache.fesod.sheet.annotation.write.style.HeadFontStyle;
 import org.apache.fesod.sheet.annotation.write.style.HeadStyle;
 import org.apache.fesod.sheet.metadata.Head;
 import org.apache.fesod.sheet.metadata.data.DataFormatData;
+import org.apache.fesod.sheet.metadata.data.WriteCellData;
 import org.apache.fesod.sheet.metadata.property.FontProperty;
 import org.apache.fesod.sheet.metadata.property.StyleProperty;
+import org.apache.fesod.sheet.util.DateUtils;
+import org.apache.fesod.sheet.util.ListUtils;
 import org.apache.fesod.sheet.util.StyleTestUtils;
 import org.apache.fesod.sheet.util.TestFileUtil;
 import org.apache.fesod.sheet.write.merge.LoopMergeStrategy;
@@ -37,10 +42,13 @@ import org.apache.fesod.sheet.write.metadata.style.WriteCellStyle;
 import org.apache.fesod.sheet.write.metadata.style.WriteFont;
 import org.apache.fesod.sheet.write.style.AbstractVerticalCellStyleStrategy;
 import org.apache.fesod.sheet.write.style.HorizontalCellStyleStrategy;
+import org.apache.fesod.sheet.write.style.column.LongestMatchColumnWidthStyleStrategy;
 import org.apache.fesod.sheet.write.style.column.SimpleColumnWidthStyleStrategy;
 import org.apache.fesod.sheet.write.style.row.SimpleRowHeightStyleStrategy;
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
@@ -67,6 +75,11 @@ public class StyleDataTest {
     private static File fileVerticalCellStyleStrategy07;
     private static File fileVerticalCellStyleStrategy207;
     private static File fileLoopMergeStrategy;
+    private static File fileLongestMatchColumnWidth;
+    private static File fileLongestMatchColumnWidthReused;
+    private static File fileLongestMatchColumnWidthLinesAndNumbers;
+    private static File fileColumnCellStyleDate;
+    private static File fileColumnCellStyleOverride;
 
     @BeforeAll
     public static void init() {
@@ -75,6 +88,12 @@ public class StyleDataTest {
         fileVerticalCellStyleStrategy07 = TestFileUtil.createNewFile("verticalCellStyle.xlsx");
         fileVerticalCellStyleStrategy207 = TestFileUtil.createNewFile("verticalCellStyle2.xlsx");
         fileLoopMergeStrategy = TestFileUtil.createNewFile("loopMergeStrategy.xlsx");
+        fileLongestMatchColumnWidth = TestFileUtil.createNewFile("longestMatchColumnWidth.xlsx");
+        fileLongestMatchColumnWidthReused = TestFileUtil.createNewFile("longestMatchColumnWidthReused.xlsx");
+        fileLongestMatchColumnWidthLinesAndNumbers =
+                TestFileUtil.createNewFile("longestMatchColumnWidthLinesAndNumbers.xlsx");
+        fileColumnCellStyleDate = TestFileUtil.createNewFile("columnCellStyleDate.xlsx");
+        fileColumnCellStyleOverride = TestFileUtil.createNewFile("columnCellStyleOverride.xlsx");
     }
 
     @Test
@@ -199,6 +218,150 @@ public class StyleDataTest {
                 .doWrite(data10());
     }
 
+    @Test
+    public void t06LongestMatchColumnWidthStyleStrategy() throws Exception {
+        List<StyleData> data = data10();
+        // Not sampled
+        data.get(5).setString("ignored ignored ignored");
+        FesodSheet.write(fileLongestMatchColumnWidth, StyleData.class)
+                .sheet()
+                .registerWriteHandler(new LongestMatchColumnWidthStyleStrategy(2, 0))
+                .doWrite(data);
+
+        try (Workbook workbook = WorkbookFactory.create(fileLongestMatchColumnWidth)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            // CJK characters count as three
+            Assertions.assertEquals(10 * 256, sheet.getColumnWidth(0));
+            Assertions.assertEquals(11 * 256, sheet.getColumnWidth(1));
+        }
+    }
+
+    @Test
+    public void t09LongestMatchColumnWidthStyleStrategyReused() throws Exception {
+        LongestMatchColumnWidthStyleStrategy longestMatchColumnWidthStyleStrategy =
+                new LongestMatchColumnWidthStyleStrategy();
+        List<StyleData> data = data10();
+        data.get(5).setString("a much longer string");
+        FesodSheet.write(fileLongestMatchColumnWidthReused, StyleData.class)
+                .registerWriteHandler(longestMatchColumnWidthStyleStrategy)
+                .sheet()
+                .doWrite(data);
+        // The widths of the first workbook must not be used again
+        FesodSheet.write(fileLongestMatchColumnWidthReused, StyleData.class)
+                .registerWriteHandler(longestMatchColumnWidthStyleStrategy)
+                .sheet()
+                .doWrite(data10());
+
+        try (Workbook workbook = WorkbookFactory.create(fileLongestMatchColumnWidthReused)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Assertions.assertEquals(10 * 256, sheet.getColumnWidth(0));
+            Assertions.assertEquals(11 * 256, sheet.getColumnWidth(1));
+        }
+    }
+
+    @Test
+    public void t10LongestMatchColumnWidthStyleStrategyLinesAndNumbers() throws Exception {
+        List<List<String>> head = new ArrayList<>();
+        head.add(ListUtils.newArrayList("a"));
+        head.add(ListUtils.newArrayList("b"));
+        List<List<Object>> data = new ArrayList<>();
+        data.add(ListUtils.newArrayList("ab\nabcdef", new BigDecimal("1E+10")));
+        data.add(ListUtils.newArrayList("abcd", new BigDecimal("-0.0001")));
+        FesodSheet.write(fileLongestMatchColumnWidthLinesAndNumbers)
+                .head(head)
+                .registerWriteHandler(new LongestMatchColumnWidthStyleStrategy())
+                .sheet()
+                .doWrite(data);
+
+        try (Workbook workbook = WorkbookFactory.create(fileLongestMatchColumnWidthLinesAndNumbers)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            // The longest line "abcdef"
+            Assertions.assertEquals(6 * 256, sheet.getColumnWidth(0));
+            // "10000000000", not "1E+10"
+            Assertions.assertEquals(11 * 256, sheet.getColumnWidth(1));
+        }
+    }
+
+    @Test
+    public void t07ColumnCellStyleMixedDate() throws Exception {
+        WriteCellStyle contentWriteCellStyle = new WriteCellStyle();
+        contentWriteCellStyle.setFillPatternType(FillPatternType.SOLID_FOREGROUND);
+        contentWriteCellStyle.setFillForegroundColor(IndexedColors.TEAL.getIndex());
+        List<List<Object>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            data.add(ListUtils.newArrayList(i % 2 == 0 ? new Date() : "string" + i));
+        }
+        FesodSheet.write(fileColumnCellStyleDate)
+                .head(head())
+                .registerWriteHandler(new HorizontalCellStyleStrategy(null, contentWriteCellStyle))
+                .sheet()
+                .doWrite(data);
+
+        try (Workbook workbook = WorkbookFactory.create(fileColumnCellStyleDate)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (int i = 0; i < 10; i++) {
+                Cell cell = sheet.getRow(i + 1).getCell(0);
+                Assertions.assertEquals(IndexedColors.TEAL.getIndex(), cell.getCellStyle().getFillForegroundColor());
+                if (i % 2 == 0) {
+                    Assertions.assertTrue(DateUtil.isCellDateFormatted(cell));
+                    Assertions.assertEquals(DateUtils.defaultDateFormat, cell.getCellStyle().getDataFormatString());
+                } else {
+                    Assertions.assertEquals(0, cell.getCellStyle().getDataFormat());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void t08ColumnCellStylePerCellOverride() throws Exception {
+        WriteCellStyle contentWriteCellStyle = new WriteCellStyle();
+        contentWriteCellStyle.setFillPatternType(FillPatternType.SOLID_FOREGROUND);
+        contentWriteCellStyle.setFillForegroundColor(IndexedColors.TEAL.getIndex());
+        // Shared by the cells of the last rows
+        WriteCellStyle sharedWriteCellStyle = new WriteCellStyle();
+        sharedWriteCellStyle.setHorizontalAlignment(HorizontalAlignment.RIGHT);
+        List<List<Object>> data = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            if (i == 3) {
+                WriteCellData<String> writeCellData = new WriteCellData<>("override");
+                writeCellData.getOrCreateStyle().setHorizontalAlignment(HorizontalAlignment.CENTER);
+                data.add(ListUtils.newArrayList(writeCellData));
+            } else if (i >= 7) {
+                WriteCellData<String> writeCellData = new WriteCellData<>("shared" + i);
+                writeCellData.setWriteCellStyle(sharedWriteCellStyle);
+                data.add(ListUtils.newArrayList(writeCellData));
+            } else {
+                data.add(ListUtils.newArrayList("string" + i));
+            }
+        }
+        FesodSheet.write(fileColumnCellStyleOverride)
+                .head(head())
+                .registerWriteHandler(new HorizontalCellStyleStrategy(null, contentWriteCellStyle))
+                .sheet()
+                .doWrite(data);
+
+        try (Workbook workbook = WorkbookFactory.create(fileColumnCellStyleOverride)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (int i = 0; i < 10; i++) {
+                CellStyle cellStyle = sheet.getRow(i + 1).getCell(0).getCellStyle();
+                Assertions.assertEquals(IndexedColors.TEAL.getIndex(), cellStyle.getFillForegroundColor());
+                if (i == 3) {
+                    Assertions.assertEquals(HorizontalAlignment.CENTER, cellStyle.getAlignment());
+                } else if (i >= 7) {
+                    Assertions.assertEquals(HorizontalAlignment.RIGHT, cellStyle.getAlignment());
+                } else {
+                    Assertions.assertEquals(HorizontalAlignment.GENERAL, cellStyle.getAlignment());
+                }
+            }
+        }
+    }
+
+    private List<List<String>> head() {
+        List<List<String>> head = new ArrayList<>();
+        head.add(ListUtils.newArrayList("column"));
+        return head;
+    }
+
     private void readAndWrite(File file) throws Exception {
         SimpleColumnWidthStyleStrategy simpleColumnWidthStyleStrategy = new SimpleColumnWidthStyleStrategy(50);
         SimpleRowHeightStyleStrategy simpleRowHeightStyleStrategy =
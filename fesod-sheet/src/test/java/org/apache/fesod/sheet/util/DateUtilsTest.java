@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.util;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DateUtilsTest {
+
+    private static final String[][] DATES = {
+        {"2020-01-02 03:04:05", DateUtils.DATE_FORMAT_19},
+        {"2020/12/31 23:59:59", DateUtils.DATE_FORMAT_19_FORWARD_SLASH},
+        {"2020-02-29 00:00", DateUtils.DATE_FORMAT_16},
+        {"2020/02/29 12:00", DateUtils.DATE_FORMAT_16_FORWARD_SLASH},
+        {"20200229 12:00:00", DateUtils.DATE_FORMAT_17},
+        {"20200229120000", DateUtils.DATE_FORMAT_14},
+        {"2020-02-29", DateUtils.DATE_FORMAT_10},
+        {"2020年02月29日", "yyyy年MM月dd日"},
+        {"29.02.2020 10:11", "dd.MM.yyyy HH:mm"},
+        // fall back to the lenient parsers
+        {"2019-02-29 00:00:00", DateUtils.DATE_FORMAT_19},
+        {"2020-13-01 00:00:00", DateUtils.DATE_FORMAT_19},
+        {"2020-01-01 24:00:00", DateUtils.DATE_FORMAT_19},
+        {"2020-1-1 1:2:3", DateUtils.DATE_FORMAT_19},
+        {"1500-01-01 00:00:00", DateUtils.DATE_FORMAT_19},
+        {"2020-01-01 00:00:00.123", DateUtils.DATE_FORMAT_19},
+        {"2020-01-01T00:00:00", DateUtils.DATE_FORMAT_19},
+        {"2020-01-01 12:00:00 PM", "yyyy-MM-dd hh:mm:ss a"},
+        {"Jan 01 2020", "MMM dd yyyy"},
+        {"2020-01-01T", "yyyy-MM-dd'T'"},
+        {"20-01-01", "yy-MM-dd"}
+    };
+
+    @Test
+    void parseDateTest() throws Exception {
+        for (String[] date : DATES) {
+            Object expected;
+            try {
+                expected = new SimpleDateFormat(date[1]).parse(date[0]);
+            } catch (ParseException e) {
+                expected = ParseException.class;
+            }
+            Object actual;
+            try {
+                actual = DateUtils.parseDate(date[0], date[1]);
+            } catch (ParseException e) {
+                actual = ParseException.class;
+            }
+            Assertions.assertEquals(expected, actual, date[0]);
+        }
+        Assertions.assertEquals(
+                new SimpleDateFormat(DateUtils.DATE_FORMAT_19).parse("2020-01-02 03:04:05"),
+                DateUtils.parseDate("2020-01-02 03:04:05"));
+        DateUtils.removeThreadLocalCache();
+    }
+
+    @Test
+    void parseLocalDateTimeTest() {
+        for (String[] date : DATES) {
+            for (Locale locale : new Locale[] {null, Locale.US, Locale.CHINA}) {
+                DateTimeFormatter formatter = locale == null
+                        ? DateTimeFormatter.ofPattern(date[1])
+                        : DateTimeFormatter.ofPattern(date[1], locale);
+                Object expected;
+                try {
+                    expected = LocalDateTime.parse(date[0], formatter);
+                } catch (RuntimeException e) {
+                    expected = e.getClass();
+                }
+                Object actual;
+                try {
+                    actual = DateUtils.parseLocalDateTime(date[0], date[1], locale);
+                } catch (RuntimeException e) {
+                    actual = e.getClass();
+                }
+                Assertions.assertEquals(expected, actual, date[0]);
+
+                try {
+                    expected = LocalDate.parse(date[0], formatter);
+                } catch (RuntimeException e) {
+                    expected = e.getClass();
+                }
+                try {
+                    actual = DateUtils.parseLocalDate(date[0], date[1], locale);
+                } catch (RuntimeException e) {
+                    actual = e.getClass();
+                }
+                Assertions.assertEquals(expected, actual, date[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Random;
+import org.apache.fesod.sheet.metadata.property.ExcelContentProperty;
+import org.apache.fesod.sheet.metadata.property.NumberFormatProperty;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NumberUtilsTest {
+
+    private static final String[] NUMBERS = {
+        "0", "-0", "+0", "0.0", "-0.0", "1", "-1", "+1", "1.", ".5", "-.5", "0.1", "0.2", "0.3", "123.456", "-123.456",
+        "3.14159265358979", "9007199254740992", "9007199254740993", "18014398509481985", "0.0000000000000000000001",
+        "0.00000000000000000000001", "123456789012345678", "1234567890123456789", "99999999999999999999",
+        "-9223372036854775808", "9223372036854775807", "9223372036854775808", "2147483648", "-2147483649", "32768",
+        "65535", "255", "128", "-129", "16777216", "16777217", "1e10", "1E-5", "2.5e3", "1.7976931348623157E308",
+        "4.9E-324", "0.1234567890123456789", "000123", "00.00100"
+    };
+
+    private static final String[] INVALID_NUMBERS = {
+        "", "-", "+", ".", "1..2", "1-2", " 1", "1 ", "abc", "1,000", "0x10"
+    };
+
+    @Test
+    void parseTest() throws Exception {
+        for (String number : NUMBERS) {
+            BigDecimal expected = new BigDecimal(number);
+            Assertions.assertEquals(expected.intValue(), NumberUtils.parseInteger(number, null), number);
+            Assertions.assertEquals(expected.longValue(), NumberUtils.parseLong(number, null), number);
+            Assertions.assertEquals(expected.shortValue(), NumberUtils.parseShort(number, null), number);
+            Assertions.assertEquals(expected.byteValue(), NumberUtils.parseByte(number, null), number);
+            Assertions.assertEquals(expected.doubleValue(), NumberUtils.parseDouble(number, null), number);
+            Assertions.assertEquals(expected.floatValue(), NumberUtils.parseFloat(number, null), number);
+        }
+    }
+
+    @Test
+    void parseRandomTest() throws Exception {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            String number =
+                    BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(24)).toPlainString();
+            BigDecimal expected = new BigDecimal(number);
+            Assertions.assertEquals(expected.doubleValue(), NumberUtils.parseDouble(number, null), number);
+            Assertions.assertEquals(expected.floatValue(), NumberUtils.parseFloat(number, null), number);
+            Assertions.assertEquals(expected.longValue(), NumberUtils.parseLong(number, null), number);
+        }
+    }
+
+    @Test
+    void parseInvalidTest() {
+        for (String number : INVALID_NUMBERS) {
+            Assertions.assertThrows(NumberFormatException.class, () -> NumberUtils.parseDouble(number, null), number);
+            Assertions.assertThrows(NumberFormatException.class, () -> NumberUtils.parseFloat(number, null), number);
+            Assertions.assertThrows(NumberFormatException.class, () -> NumberUtils.parseLong(number, null), number);
+        }
+    }
+
+    @Test
+    void parseWithFormatTest() throws Exception {
+        ExcelContentProperty contentProperty = new ExcelContentProperty();
+        contentProperty.setNumberFormatProperty(new NumberFormatProperty("#,##0.00", RoundingMode.HALF_UP));
+        Assertions.assertEquals(1234.5, NumberUtils.parseDouble("1,234.50", contentProperty));
+        Assertions.assertEquals(1234, NumberUtils.parseInteger("1,234.50", contentProperty));
+        contentProperty.setNumberFormatProperty(new NumberFormatProperty("#.##%", RoundingMode.HALF_UP));
+        Assertions.assertEquals(0.125, NumberUtils.parseDouble("12.5%", contentProperty));
+        NumberUtils.removeThreadLocalCache();
+    }
+
+    @Test
+    void formatWithFormatTest() {
+        ExcelContentProperty contentProperty = new ExcelContentProperty();
+        contentProperty.setNumberFormatProperty(new NumberFormatProperty("#,##0.00", RoundingMode.HALF_UP));
+        Locale defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+            Assertions.assertEquals("1,234.57", NumberUtils.format(1234.565, contentProperty));
+            Assertions.assertEquals("1,234.57", NumberUtils.format(new BigDecimal("1234.565"), contentProperty));
+            Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+            Assertions.assertEquals("1.234,57", NumberUtils.format(new BigDecimal("1234.565"), contentProperty));
+            contentProperty.setNumberFormatProperty(new NumberFormatProperty("#,##0.00", RoundingMode.DOWN));
+            Assertions.assertEquals("1.234,56", NumberUtils.format(new BigDecimal("1234.565"), contentProperty));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, defaultLocale);
+            NumberUtils.removeThreadLocalCache();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fesod.sheet.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LocaleUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SerialDateUtilsTest {
+
+    private static final String[] TIME_ZONES = {
+        "UTC", "GMT+08:00", "Asia/Shanghai", "America/New_York", "Europe/London", "Australia/Lord_Howe"
+    };
+
+    @AfterEach
+    void reset() {
+        LocaleUtil.resetUserTimeZone();
+        LocaleUtil.resetUserLocale();
+        DateUtils.removeThreadLocalCache();
+    }
+
+    @Test
+    void getJavaDateTest() {
+        for (String timeZone : TIME_ZONES) {
+            LocaleUtil.setUserTimeZone(TimeZone.getTimeZone(timeZone));
+            for (double date : dates()) {
+                for (boolean use1904windowing : new boolean[] {false, true}) {
+                    Assertions.assertEquals(
+                            DateUtils.getJavaCalendar(date, use1904windowing, null, true)
+                                    .getTime(),
+                            DateUtils.getJavaDate(date, use1904windowing),
+                            timeZone + " " + date);
+                }
+            }
+            // every half hour and a few milliseconds around the daylight saving transitions of 2021
+            for (LocalDate day : new LocalDate[] {
+                LocalDate.of(2021, 3, 14), LocalDate.of(2021, 3, 28), LocalDate.of(2021, 4, 4), LocalDate.of(2021, 11, 7)
+            }) {
+                double start = DateUtil.getExcelDate(day.minusDays(1));
+                for (int halfHour = 0; halfHour < 48 * 3; halfHour++) {
+                    for (int millisecond : new int[] {-501, -500, -499, 0, 499, 500, 501}) {
+                        double date = start + (halfHour * 1800_000.0 + millisecond) / DateUtils.DAY_MILLISECONDS;
+                        Assertions.assertEquals(
+                                DateUtils.getJavaCalendar(date, false, null, true)
+                                        .getTime(),
+                                DateUtils.getJavaDate(date, false),
+                                timeZone + " " + date);
+                    }
+                }
+            }
+        }
+        Assertions.assertNull(DateUtils.getJavaDate(-1, false));
+        LocaleUtil.setUserTimeZone(TimeZone.getTimeZone("Asia/Shanghai"));
+        Assertions.assertEquals(
+                Date.from(LocalDateTime.of(2023, 3, 15, 12, 0)
+                        .atZone(TimeZone.getTimeZone("Asia/Shanghai").toZoneId())
+                        .toInstant())
+                        .getTime(),
+                SerialDateUtils.toEpochMilli(45000.5, false));
+    }
+
+    @Test
+    void getJavaDateNonGregorianTest() {
+        LocaleUtil.setUserLocale(new Locale("th", "TH"));
+        Assertions.assertEquals(
+                SerialDateUtils.INVALID, SerialDateUtils.toEpochMilli(45000.5, false));
+        Assertions.assertEquals(
+                DateUtils.getJavaCalendar(45000.5, false, null, true).getTime(),
+                DateUtils.getJavaDate(45000.5, false));
+        Assertions.assertEquals(
+                DateUtil.getExcelDate(new Date(0), false), DateUtils.getExcelDate(new Date(0), false));
+    }
+
+    @Test
+    void getLocalDateTimeTest() {
+        for (double date : dates()) {
+            for (boolean use1904windowing : new boolean[] {false, true}) {
+                LocalDateTime expected = DateUtil.getLocalDateTime(date, use1904windowing, true);
+                Assertions.assertEquals(expected, DateUtils.getLocalDateTime(date, use1904windowing), "" + date);
+                Assertions.assertEquals(
+                        expected == null ? null : expected.toLocalDate(),
+                        DateUtils.getLocalDate(date, use1904windowing),
+                        "" + date);
+            }
+        }
+        // exactly 13.5 seconds after midnight, which a double can not tell
+        Assertions.assertEquals(SerialDateUtils.INVALID, SerialDateUtils.toLocalSecondHalfUp(45000.00015625, false));
+        Assertions.assertEquals(
+                LocalDateTime.of(2023, 3, 15, 0, 0, 14), DateUtils.getLocalDateTime(45000.00015625, false));
+    }
+
+    @Test
+    void getExcelDateTest() {
+        Random random = new Random(40);
+        List<LocalDateTime> localDateTimes = new ArrayList<>();
+        localDateTimes.add(LocalDateTime.of(1899, 12, 30, 23, 59, 59));
+        localDateTimes.add(LocalDateTime.of(1899, 12, 31, 0, 0));
+        localDateTimes.add(LocalDateTime.of(1900, 1, 1, 0, 0));
+        localDateTimes.add(LocalDateTime.of(1900, 2, 28, 23, 59, 59, 999_999_999));
+        localDateTimes.add(LocalDateTime.of(1900, 3, 1, 0, 0));
+        localDateTimes.add(LocalDateTime.of(1903, 12, 31, 12, 0));
+        localDateTimes.add(LocalDateTime.of(1904, 1, 1, 0, 0));
+        localDateTimes.add(LocalDateTime.of(9999, 12, 31, 23, 59, 59));
+        localDateTimes.add(LocalDateTime.of(10000, 1, 1, 0, 0));
+        for (int i = 0; i < 10000; i++) {
+            localDateTimes.add(LocalDateTime.of(1850, 1, 1, 0, 0)
+                    .plusSeconds((long) (random.nextDouble() * 200L * 365 * 86400))
+                    .plusNanos(random.nextInt(1_000_000_000)));
+        }
+        for (String timeZone : TIME_ZONES) {
+            LocaleUtil.setUserTimeZone(TimeZone.getTimeZone(timeZone));
+            for (LocalDateTime localDateTime : localDateTimes) {
+                Date date = Date.from(
+                        localDateTime.atZone(TimeZone.getTimeZone(timeZone).toZoneId()).toInstant());
+                for (boolean use1904windowing : new boolean[] {false, true}) {
+                    Assertions.assertEquals(
+                            DateUtil.getExcelDate(date, use1904windowing),
+                            DateUtils.getExcelDate(date, use1904windowing),
+                            timeZone + " " + localDateTime);
+                    Assertions.assertEquals(
+                            DateUtil.getExcelDate(localDateTime, use1904windowing),
+                            DateUtils.getExcelDate(localDateTime, use1904windowing),
+                            localDateTime.toString());
+                    Assertions.assertEquals(
+                            DateUtil.getExcelDate(localDateTime.toLocalDate(), use1904windowing),
+                            DateUtils.getExcelDate(localDateTime.toLocalDate(), use1904windowing),
+                            localDateTime.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void dateFormatIndexCacheTest() {
+        DateFormatIndexCache dateFormatIndexCache = new DateFormatIndexCache();
+        Assertions.assertFalse(dateFormatIndexCache.isDateFormat(null, "yyyy-MM-dd"));
+        Assertions.assertTrue(dateFormatIndexCache.isDateFormat((short) 14, null));
+        Assertions.assertFalse(dateFormatIndexCache.isDateFormat((short) 2, "0.00"));
+        Assertions.assertTrue(dateFormatIndexCache.isDateFormat((short) 200, "yyyy-MM-dd HH:mm"));
+        Assertions.assertFalse(dateFormatIndexCache.isDateFormat((short) 201, "#,##0"));
+        Assertions.assertTrue(dateFormatIndexCache.isDateFormat((short) -2, "yyyy\"年\"m\"月\""));
+        // the result of an index is kept
+        Assertions.assertTrue(dateFormatIndexCache.isDateFormat((short) 200, "0.00"));
+        Assertions.assertFalse(dateFormatIndexCache.put((short) 200, "0.00"));
+        Assertions.assertFalse(dateFormatIndexCache.isDateFormat((short) 200, "yyyy-MM-dd HH:mm"));
+    }
+
+    private static List<Double> dates() {
+        List<Double> dates = new ArrayList<>();
+        for (double date : new double[] {
+            -0.0, 0, 0.5, 1, 59, 59.99999, 60, 60.5, 61, 1462, 25569, 45000, 45000.00015625, 2958465.99999,
+            2958466, 3e6, 1e10
+        }) {
+            dates.add(date);
+        }
+        Random random = new Random(40);
+        for (int i = 0; i < 5000; i++) {
+            // any value
+            dates.add(random.nextDouble() * 2958466);
+            // whole seconds and half seconds, as written by excel
+            int day = random.nextInt(2958466);
+            int second = random.nextInt(86400);
+            dates.add(day + second / 86400.0);
+            dates.add(day + (second + 0.5) / 86400.0);
+            dates.add(day + (second * 1000 + 499) / 86400000.0);
+            dates.add(day + (second * 1000 + 500) / 86400000.0);
+        }
+        return dates;
+    }
+}